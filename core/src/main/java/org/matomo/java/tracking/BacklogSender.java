@@ -0,0 +1,477 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singleton;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Sender} that limits the number and the estimated size of asynchronous requests that are
+ * queued or in flight.
+ *
+ * <p>At most {@link TrackerConfiguration#getThreadPoolSize()} asynchronous calls are passed to the
+ * delegate at the same time, so that the work queue of the delegate stays small. The other calls
+ * wait in a bounded backlog. If the backlog is full, the configured {@link OverflowPolicy} applies.
+ * Synchronous calls are passed to the delegate directly.
+ *
+ * <p>If {@link TrackerConfiguration#isPriorityLanesEnabled()} is set, every {@link RequestPriority}
+ * has its own lane. Lanes are drained in turns according to {@link
+ * TrackerConfiguration#getPriorityLaneWeights()}. If the backlog is full, queued tasks of lower
+ * priority are dropped to make space for a new task before the overflow policy applies, and the
+ * probabilistic overflow policy starts to drop low priority tasks earlier and never drops high
+ * priority tasks. Otherwise, all tasks share a single lane.
+ */
+@Slf4j
+class BacklogSender implements Sender {
+
+  private static final double SHEDDING_THRESHOLD = 0.5;
+
+  private static final double LOW_PRIORITY_SHEDDING_THRESHOLD = 0.25;
+
+  private final Sender delegate;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final AtomicLong droppedRequests;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition spaceAvailable = lock.newCondition();
+
+  private final Lane[] lanes = new Lane[RequestPriority.values().length];
+
+  private final Set<QueuedTask<?>> runningTasks = new HashSet<>();
+
+  private int requests;
+
+  private long bytes;
+
+  private boolean dispatching;
+
+  BacklogSender(
+      @NonNull Sender delegate,
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull AtomicLong droppedRequests) {
+    this.delegate = delegate;
+    this.trackerConfiguration = trackerConfiguration;
+    this.droppedRequests = droppedRequests;
+    for (RequestPriority priority : RequestPriority.values()) {
+      lanes[priority.ordinal()] =
+          new Lane(trackerConfiguration.getPriorityLaneWeights().getOrDefault(priority, 1));
+    }
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    return enqueue(
+        new QueuedTask<>(
+            prioritize(singleton(request)),
+            1,
+            RequestSizeEstimator.estimateSize(request),
+            () -> delegate.sendSingleAsync(request)));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    return enqueue(
+        new QueuedTask<>(
+            prioritize(requests),
+            requests.size(),
+            RequestSizeEstimator.estimateSize(requests),
+            () -> delegate.sendBulkAsync(requests)));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    long size = 0L;
+    for (String query : queries) {
+      size += 2L * query.length();
+    }
+    return enqueue(
+        new QueuedTask<>(
+            prioritize(priority),
+            queries.size(),
+            size,
+            () -> delegate.sendQueriesAsync(queries, authToken, priority)));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    long size = 0L;
+    for (ByteBuffer query : queries) {
+      size += query.remaining();
+    }
+    return enqueue(
+        new QueuedTask<>(
+            prioritize(priority),
+            queries.size(),
+            size,
+            () -> delegate.sendEncodedQueriesAsync(queries, authToken, priority)));
+  }
+
+  /** Returns the highest priority of the given requests. */
+  @NonNull
+  private RequestPriority prioritize(@NonNull Iterable<? extends MatomoRequest> requests) {
+    RequestPriority highestPriority = RequestPriority.LOW;
+    for (MatomoRequest request : requests) {
+      RequestPriority priority = RequestPriority.of(request);
+      if (priority.compareTo(highestPriority) < 0) {
+        highestPriority = priority;
+      }
+    }
+    return prioritize(highestPriority);
+  }
+
+  /** Returns the lane of the given priority or the normal lane if lanes are disabled. */
+  @NonNull
+  private RequestPriority prioritize(@NonNull RequestPriority priority) {
+    return trackerConfiguration.isPriorityLanesEnabled() ? priority : RequestPriority.NORMAL;
+  }
+
+  private <T> CompletableFuture<T> enqueue(@NonNull QueuedTask<T> task) {
+    List<QueuedTask<?>> droppedTasks = new ArrayList<>();
+    boolean accepted;
+    lock.lock();
+    try {
+      accepted = makeSpace(task, droppedTasks);
+      if (accepted) {
+        lanes[task.priority.ordinal()].tasks.add(task);
+        requests += task.requests;
+        bytes += task.bytes;
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (QueuedTask<?> droppedTask : droppedTasks) {
+      drop(droppedTask);
+    }
+    if (!accepted) {
+      drop(task);
+    }
+    dispatch();
+    return task.future;
+  }
+
+  private boolean makeSpace(
+      @NonNull QueuedTask<?> task, @NonNull Collection<QueuedTask<?>> droppedTasks) {
+    if (!hasSpaceFor(task)) {
+      shedLowerPriorities(task, droppedTasks);
+    }
+    switch (trackerConfiguration.getOverflowPolicy()) {
+      case BLOCK:
+        long nanos = trackerConfiguration.getBacklogBlockTimeout().toNanos();
+        while (!hasSpaceFor(task)) {
+          if (nanos <= 0L) {
+            return false;
+          }
+          try {
+            nanos = spaceAvailable.awaitNanos(nanos);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        return true;
+      case DROP_OLDEST:
+        for (int i = lanes.length - 1; i >= task.priority.ordinal(); i--) {
+          dropOldestTasks(lanes[i], task, droppedTasks);
+        }
+        return hasSpaceFor(task);
+      case PROBABILISTIC:
+        if (!hasSpaceFor(task)) {
+          return false;
+        }
+        if (task.priority == RequestPriority.HIGH) {
+          return true;
+        }
+        double threshold =
+            task.priority == RequestPriority.LOW
+                ? LOW_PRIORITY_SHEDDING_THRESHOLD
+                : SHEDDING_THRESHOLD;
+        double utilization = utilization();
+        return utilization <= threshold
+            || ThreadLocalRandom.current().nextDouble()
+                >= (utilization - threshold) / (1.0 - threshold);
+      default:
+        return hasSpaceFor(task);
+    }
+  }
+
+  /**
+   * Drops the oldest queued tasks of lower priority than the given task, lowest priority first, if
+   * this makes enough space for the task. Does nothing otherwise.
+   */
+  private void shedLowerPriorities(
+      @NonNull QueuedTask<?> task, @NonNull Collection<QueuedTask<?>> droppedTasks) {
+    int sheddableRequests = 0;
+    long sheddableBytes = 0L;
+    for (int i = task.priority.ordinal() + 1; i < lanes.length; i++) {
+      for (QueuedTask<?> queuedTask : lanes[i].tasks) {
+        sheddableRequests += queuedTask.requests;
+        sheddableBytes += queuedTask.bytes;
+      }
+    }
+    if (sheddableRequests > 0
+        && hasSpaceFor(requests - sheddableRequests, bytes - sheddableBytes, task)) {
+      for (int i = lanes.length - 1; i > task.priority.ordinal(); i--) {
+        dropOldestTasks(lanes[i], task, droppedTasks);
+      }
+    }
+  }
+
+  private void dropOldestTasks(
+      @NonNull Lane lane,
+      @NonNull QueuedTask<?> task,
+      @NonNull Collection<QueuedTask<?>> droppedTasks) {
+    while (!hasSpaceFor(task) && !lane.tasks.isEmpty()) {
+      QueuedTask<?> oldestTask = lane.tasks.poll();
+      release(oldestTask);
+      droppedTasks.add(oldestTask);
+    }
+  }
+
+  private boolean hasSpaceFor(@NonNull QueuedTask<?> task) {
+    return hasSpaceFor(requests, bytes, task);
+  }
+
+  private boolean hasSpaceFor(int requests, long bytes, @NonNull QueuedTask<?> task) {
+    if (requests == 0) {
+      return true;
+    }
+    int maxRequests = trackerConfiguration.getMaxBacklogRequests();
+    long maxBytes = trackerConfiguration.getMaxBacklogBytes();
+    return (maxRequests <= 0 || requests + task.requests <= maxRequests)
+        && (maxBytes <= 0L || bytes + task.bytes <= maxBytes);
+  }
+
+  private double utilization() {
+    double utilization = 0.0;
+    int maxRequests = trackerConfiguration.getMaxBacklogRequests();
+    if (maxRequests > 0) {
+      utilization = (double) requests / maxRequests;
+    }
+    long maxBytes = trackerConfiguration.getMaxBacklogBytes();
+    if (maxBytes > 0L) {
+      utilization = Math.max(utilization, (double) bytes / maxBytes);
+    }
+    return utilization;
+  }
+
+  private void release(@NonNull QueuedTask<?> task) {
+    requests -= task.requests;
+    bytes -= task.bytes;
+    spaceAvailable.signalAll();
+  }
+
+  private void drop(@NonNull QueuedTask<?> task) {
+    droppedRequests.addAndGet(task.requests);
+    log.warn("Backlog is full. Dropped {} request(s)", task.requests);
+    task.future.completeExceptionally(new MatomoException("Backlog is full. Request was dropped"));
+  }
+
+  /**
+   * Starts queued tasks until the thread pool size is reached or no task is left.
+   *
+   * <p>Only one thread dispatches at a time. If the delegate completes a task synchronously, for
+   * example because the circuit is open, {@link #finish(QueuedTask)} runs inside the loop of the
+   * dispatching thread and returns immediately, so that the loop starts the next task instead of
+   * recursing once per queued task.
+   */
+  private void dispatch() {
+    lock.lock();
+    try {
+      if (dispatching) {
+        return;
+      }
+      dispatching = true;
+    } finally {
+      lock.unlock();
+    }
+    while (true) {
+      QueuedTask<?> task;
+      lock.lock();
+      try {
+        task =
+            runningTasks.size() < trackerConfiguration.getThreadPoolSize() ? pollNextTask() : null;
+        if (task == null) {
+          dispatching = false;
+          return;
+        }
+        runningTasks.add(task);
+      } finally {
+        lock.unlock();
+      }
+      task.start(() -> finish(task));
+    }
+  }
+
+  /**
+   * Takes the next task from the lane with the highest priority that has credits left. All credits
+   * are renewed according to the lane weights as soon as no lane with queued tasks has credits.
+   */
+  @Nullable
+  private QueuedTask<?> pollNextTask() {
+    for (int round = 0; round < 2; round++) {
+      for (Lane lane : lanes) {
+        if (!lane.tasks.isEmpty() && lane.credits > 0) {
+          lane.credits--;
+          return lane.tasks.poll();
+        }
+      }
+      for (Lane lane : lanes) {
+        lane.credits = lane.weight;
+      }
+    }
+    return null;
+  }
+
+  private void finish(@NonNull QueuedTask<?> task) {
+    lock.lock();
+    try {
+      runningTasks.remove(task);
+      release(task);
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    lock.lock();
+    try {
+      for (Lane lane : lanes) {
+        for (QueuedTask<?> task : lane.tasks) {
+          futures.add(task.future);
+        }
+      }
+      for (QueuedTask<?> task : runningTasks) {
+        futures.add(task.future);
+      }
+    } finally {
+      lock.unlock();
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .handle((result, throwable) -> null)
+        .thenCompose(ignored -> delegate.flush());
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    delegate.sendBulk(requests);
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      flush().get(1L, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.warn("Could not send all requests of the backlog", e);
+    } finally {
+      List<QueuedTask<?>> remainingTasks;
+      lock.lock();
+      try {
+        remainingTasks = new ArrayList<>();
+        for (Lane lane : lanes) {
+          remainingTasks.addAll(lane.tasks);
+          lane.tasks.clear();
+        }
+        for (QueuedTask<?> task : remainingTasks) {
+          release(task);
+        }
+      } finally {
+        lock.unlock();
+      }
+      for (QueuedTask<?> task : remainingTasks) {
+        drop(task);
+      }
+      delegate.close();
+    }
+  }
+
+  private static final class Lane {
+
+    private final Deque<QueuedTask<?>> tasks = new ArrayDeque<>();
+
+    private final int weight;
+
+    private int credits;
+
+    private Lane(int weight) {
+      this.weight = weight;
+      credits = weight;
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static final class QueuedTask<T> {
+
+    private final RequestPriority priority;
+
+    private final int requests;
+
+    private final long bytes;
+
+    private final Supplier<CompletableFuture<T>> action;
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private void start(@NonNull Runnable onCompletion) {
+      CompletableFuture<T> result;
+      try {
+        result = action.get();
+      } catch (RuntimeException e) {
+        result = new CompletableFuture<>();
+        result.completeExceptionally(e);
+      }
+      result.whenComplete(
+          (value, throwable) -> {
+            onCompletion.run();
+            if (throwable == null) {
+              future.complete(value);
+            } else {
+              future.completeExceptionally(throwable);
+            }
+          });
+    }
+  }
+}
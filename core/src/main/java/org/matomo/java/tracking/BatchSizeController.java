@@ -0,0 +1,83 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Determines the size of the next batch.
+ *
+ * <p>If adaptive batch sizing is enabled, the size is adjusted after every sent batch using an
+ * additive increase, multiplicative decrease (AIMD) scheme: a full batch that was acknowledged
+ * within {@link TrackerConfiguration#getTargetBatchLatency()} increases the size by {@link
+ * TrackerConfiguration#getMinBatchSize()}, a failed or slow batch halves it. The size always stays
+ * between {@link TrackerConfiguration#getMinBatchSize()} and {@link
+ * TrackerConfiguration#getMaxBatchSize()}. Otherwise the size is always {@link
+ * TrackerConfiguration#getBatchSize()}.
+ */
+@Slf4j
+class BatchSizeController {
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final AtomicInteger batchSize;
+
+  BatchSizeController(@NonNull TrackerConfiguration trackerConfiguration) {
+    this.trackerConfiguration = trackerConfiguration;
+    batchSize = new AtomicInteger(clamp(trackerConfiguration.getBatchSize()));
+  }
+
+  /**
+   * Returns the maximum number of requests of the next batch.
+   *
+   * @return the current batch size
+   */
+  int getBatchSize() {
+    if (trackerConfiguration.isAdaptiveBatchSizeEnabled()) {
+      return batchSize.get();
+    }
+    return trackerConfiguration.getBatchSize();
+  }
+
+  /**
+   * Adjusts the batch size after a batch was acknowledged.
+   *
+   * @param sentRequests the number of requests of the batch
+   * @param latencyNanos the time it took to send the batch
+   */
+  void onSuccess(int sentRequests, long latencyNanos) {
+    if (!trackerConfiguration.isAdaptiveBatchSizeEnabled()) {
+      return;
+    }
+    if (latencyNanos > trackerConfiguration.getTargetBatchLatency().toNanos()) {
+      decrease();
+    } else {
+      // Only full batches prove that larger batches would be sent fast enough
+      int newSize =
+          batchSize.updateAndGet(
+              size ->
+                  sentRequests >= size
+                      ? clamp(size + trackerConfiguration.getMinBatchSize())
+                      : size);
+      log.trace("Batch size is {}", newSize);
+    }
+  }
+
+  /** Halves the batch size after a batch failed. */
+  void onFailure() {
+    if (trackerConfiguration.isAdaptiveBatchSizeEnabled()) {
+      decrease();
+    }
+  }
+
+  private void decrease() {
+    int newSize = batchSize.updateAndGet(size -> clamp(size / 2));
+    log.debug("Decreased batch size to {}", newSize);
+  }
+
+  private int clamp(int size) {
+    return Math.max(
+        trackerConfiguration.getMinBatchSize(),
+        Math.min(trackerConfiguration.getMaxBatchSize(), size));
+  }
+}
@@ -0,0 +1,173 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Sender} that collects asynchronous single requests and sends them as bulk requests.
+ *
+ * <p>A batch is sent as soon as {@link TrackerConfiguration#getBatchSize()} requests are collected
+ * or {@link TrackerConfiguration#getBatchLinger()} has elapsed since the first request of the batch
+ * was collected. The batch size can adapt to the latency of the Matomo server, see {@link
+ * BatchSizeController}. All other methods are passed to the delegate.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class BatchingSender implements Sender {
+
+  @lombok.NonNull private final Sender delegate;
+
+  @lombok.NonNull private final TrackerConfiguration trackerConfiguration;
+
+  @lombok.NonNull private final ScheduledExecutorService scheduler;
+
+  @lombok.NonNull private final BatchSizeController batchSizeController;
+
+  private final List<PendingRequest> pendingRequests = new ArrayList<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+    List<PendingRequest> batch = null;
+    synchronized (pendingRequests) {
+      pendingRequests.add(new PendingRequest(request, future));
+      if (pendingRequests.size() >= batchSizeController.getBatchSize()) {
+        batch = drainPendingRequests();
+      } else if (scheduledFlush == null) {
+        scheduledFlush =
+            scheduler.schedule(
+                this::flush,
+                trackerConfiguration.getBatchLinger().toMillis(),
+                TimeUnit.MILLISECONDS);
+      }
+    }
+    if (batch != null) {
+      sendBatches(batch);
+    }
+    return future;
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    List<PendingRequest> batch;
+    synchronized (pendingRequests) {
+      batch = drainPendingRequests();
+    }
+    if (batch.isEmpty()) {
+      return delegate.flush();
+    }
+    return sendBatches(batch).thenCompose(ignored -> delegate.flush());
+  }
+
+  private List<PendingRequest> drainPendingRequests() {
+    List<PendingRequest> batch = new ArrayList<>(pendingRequests);
+    pendingRequests.clear();
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    return batch;
+  }
+
+  private CompletableFuture<Void> sendBatches(@NonNull List<PendingRequest> pendingRequests) {
+    int batchSize = batchSizeController.getBatchSize();
+    if (pendingRequests.size() <= batchSize) {
+      return sendBatch(pendingRequests);
+    }
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < pendingRequests.size(); i += batchSize) {
+      futures.add(
+          sendBatch(pendingRequests.subList(i, Math.min(i + batchSize, pendingRequests.size()))));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+  }
+
+  private CompletableFuture<Void> sendBatch(@NonNull List<PendingRequest> batch) {
+    List<MatomoRequest> requests = new ArrayList<>(batch.size());
+    for (PendingRequest pendingRequest : batch) {
+      requests.add(pendingRequest.request);
+    }
+    log.debug("Sending batch of {} requests", requests.size());
+    long startedAt = System.nanoTime();
+    CompletableFuture<Void> bulkFuture;
+    try {
+      bulkFuture = delegate.sendBulkAsync(requests);
+    } catch (RuntimeException e) {
+      bulkFuture = new CompletableFuture<>();
+      bulkFuture.completeExceptionally(e);
+    }
+    return bulkFuture.handle(
+        (result, throwable) -> {
+          if (throwable == null) {
+            batchSizeController.onSuccess(batch.size(), System.nanoTime() - startedAt);
+          } else {
+            batchSizeController.onFailure();
+          }
+          for (PendingRequest pendingRequest : batch) {
+            if (throwable == null) {
+              pendingRequest.future.complete(pendingRequest.request);
+            } else {
+              pendingRequest.future.completeExceptionally(throwable);
+            }
+          }
+          return null;
+        });
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    delegate.sendBulk(requests);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    return delegate.sendBulkAsync(requests);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendQueriesAsync(queries, authToken, priority);
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      flush();
+    } finally {
+      ExecutorServiceCloser.close(scheduler);
+      delegate.close();
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static final class PendingRequest {
+
+    private final MatomoRequest request;
+
+    private final CompletableFuture<MatomoRequest> future;
+  }
+}
@@ -1,39 +1,310 @@
 package org.matomo.java.tracking;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.Value;
 
 @Builder
 @Value
 class BulkRequest {
 
+  private static final byte[] PREFIX = "{\"requests\":[".getBytes(StandardCharsets.UTF_8);
+
   @NonNull Collection<String> queries;
 
   @Nullable String authToken;
 
   byte[] toBytes() {
+    return toChunks(0L, 0).get(0);
+  }
+
+  /**
+   * Serializes the queries into one or more JSON bodies. A new body is started as soon as the next
+   * query would exceed one of the limits. A query that exceeds the byte limit on its own gets its
+   * own body.
+   *
+   * @param maxBytes the maximum size of a body in bytes or zero for no limit
+   * @param maxQueries the maximum number of queries of a body or zero for no limit
+   * @return the bodies in the order of the queries
+   */
+  List<byte[]> toChunks(long maxBytes, int maxQueries) {
+    return toChunks(
+        queries, (query, buffer) -> buffer.append(query), authToken, maxBytes, maxQueries);
+  }
+
+  /**
+   * Serializes the requests into one or more JSON bodies like {@link #toChunks(long, int)}, but
+   * writes the queries directly into the body without creating a string for each query.
+   *
+   * @param requests the requests to serialize
+   * @param queryCreator the query creator to write the queries with
+   * @param authToken the auth token to include in each body or null
+   * @param maxBytes the maximum size of a body in bytes or zero for no limit
+   * @param maxQueries the maximum number of queries of a body or zero for no limit
+   * @return the bodies in the order of the requests
+   */
+  static List<byte[]> toChunks(
+      @NonNull Collection<? extends MatomoRequest> requests,
+      @NonNull QueryCreator queryCreator,
+      @Nullable String authToken,
+      long maxBytes,
+      int maxQueries) {
+    return toChunks(requests, writer(queryCreator), authToken, maxBytes, maxQueries);
+  }
+
+  private static <T> List<byte[]> toChunks(
+      Collection<? extends T> elements,
+      BiConsumer<? super T, QueryBuffer> writer,
+      @Nullable String authToken,
+      long maxBytes,
+      int maxQueries) {
+    List<byte[]> chunks = new ArrayList<>(1);
+    new Chunks<>(elements, writer, authToken, maxBytes, maxQueries, QueryBuffer.threadLocal())
+        .forEachRemaining(chunks::add);
+    return chunks;
+  }
+
+  /**
+   * Serializes queries that are stored as UTF-8 bytes like {@link #toChunks(Collection,
+   * QueryCreator, String, long, int)}.
+   *
+   * @param queries the queries to serialize, their positions are not changed
+   * @param authToken the auth token to include in each body or null
+   * @param maxBytes the maximum size of a body in bytes or zero for no limit
+   * @param maxQueries the maximum number of queries of a body or zero for no limit
+   * @return the bodies in the order of the queries
+   */
+  static List<byte[]> toChunks(
+      @NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      long maxBytes,
+      int maxQueries) {
+    return toChunks(queries, (query, chunk) -> chunk.write(query), authToken, maxBytes, maxQueries);
+  }
+
+  /**
+   * Serializes the requests lazily: the next body is only written when it is requested, so that at
+   * most one body is held in memory while the bodies are sent one after another. The requests must
+   * not be modified until all bodies were consumed.
+   *
+   * @param requests the requests to serialize
+   * @param queryCreator the query creator to write the queries with
+   * @param authToken the auth token to include in each body or null
+   * @param maxBytes the maximum size of a body in bytes or zero for no limit
+   * @param maxQueries the maximum number of queries of a body or zero for no limit
+   * @return an iterator over the bodies in the order of the requests
+   */
+  static Iterator<byte[]> iterateChunks(
+      @NonNull Collection<? extends MatomoRequest> requests,
+      @NonNull QueryCreator queryCreator,
+      @Nullable String authToken,
+      long maxBytes,
+      int maxQueries) {
+    return new Chunks<>(
+        requests, writer(queryCreator), authToken, maxBytes, maxQueries, new QueryBuffer());
+  }
+
+  /**
+   * Sends already serialized bodies with at most the given number of sends in flight. The next body
+   * is sent as soon as one of the outstanding sends completed. If a send fails, the remaining
+   * bodies are sent nevertheless and the returned future fails with the first failure.
+   *
+   * <p>The bodies are serialized before, usually by the thread that submitted the requests, so that
+   * later changes of the requests are not sent.
+   *
+   * @param bodies the bodies to send in their order
+   * @param maxConcurrentSends the maximum number of sends in flight, at least one
+   * @param sender sends a single body
+   * @return a future that completes as soon as all bodies were sent
+   */
+  static CompletableFuture<Void> sendChunksAsync(
+      @NonNull List<byte[]> bodies,
+      int maxConcurrentSends,
+      @NonNull Function<byte[], CompletableFuture<?>> sender) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    new ChunkSender(bodies.toArray(new byte[0][]), Math.max(1, maxConcurrentSends), sender, result)
+        .sendNext();
+    return result;
+  }
+
+  private static BiConsumer<MatomoRequest, QueryBuffer> writer(QueryCreator queryCreator) {
+    return (request, chunk) -> queryCreator.appendQuery(request, null, chunk);
+  }
+
+  private static final class Chunks<T> implements Iterator<byte[]> {
+
+    private final Iterator<? extends T> elements;
+
+    private final BiConsumer<? super T, QueryBuffer> writer;
+
+    private final byte[] suffix;
+
+    private final long maxBytes;
+
+    private final int maxQueries;
+
+    private final QueryBuffer chunk;
+
+    private int queriesInChunk;
+
+    private Chunks(
+        Collection<? extends T> elements,
+        BiConsumer<? super T, QueryBuffer> writer,
+        @Nullable String authToken,
+        long maxBytes,
+        int maxQueries,
+        QueryBuffer chunk) {
+      if (elements.isEmpty()) {
+        throw new IllegalArgumentException("Queries must not be empty");
+      }
+      this.elements = elements.iterator();
+      this.writer = writer;
+      suffix = createSuffix(authToken);
+      this.maxBytes = maxBytes;
+      this.maxQueries = maxQueries;
+      this.chunk = chunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return queriesInChunk > 0 || elements.hasNext();
+    }
+
+    @Override
+    public byte[] next() {
+      while (elements.hasNext()) {
+        int end = chunk.length();
+        if (queriesInChunk == 0) {
+          chunk.write(PREFIX);
+        } else {
+          chunk.append(',');
+        }
+        int elementStart = chunk.length();
+        chunk.append('"').append('?');
+        writer.accept(elements.next(), chunk);
+        chunk.append('"');
+        if (queriesInChunk > 0
+            && (maxQueries > 0 && queriesInChunk >= maxQueries
+                || maxBytes > 0L && (long) chunk.length() + suffix.length > maxBytes)) {
+          byte[] body = chunk.toByteArray(end, suffix);
+          chunk.replaceStart(elementStart, PREFIX);
+          queriesInChunk = 1;
+          return body;
+        }
+        queriesInChunk++;
+      }
+      if (queriesInChunk == 0) {
+        throw new NoSuchElementException();
+      }
+      byte[] body = chunk.toByteArray(chunk.length(), suffix);
+      chunk.reset();
+      queriesInChunk = 0;
+      return body;
+    }
+  }
+
+  /**
+   * Sends the bodies with a bounded number of sends in flight. Sends that complete synchronously
+   * are handled in a loop instead of a recursion, so that many bodies do not overflow the stack.
+   */
+  @RequiredArgsConstructor
+  private static final class ChunkSender {
+
+    private final byte[][] bodies;
+
+    private final int maxConcurrentSends;
+
+    private final Function<byte[], CompletableFuture<?>> sender;
+
+    private final CompletableFuture<Void> result;
 
-    if (queries.isEmpty()) {
-      throw new IllegalArgumentException("Queries must not be empty");
+    private int nextBody;
+
+    private int outstandingSends;
+
+    private Throwable failure;
+
+    private void sendNext() {
+      while (true) {
+        byte[] body;
+        synchronized (this) {
+          if (nextBody == bodies.length || outstandingSends >= maxConcurrentSends) {
+            completeIfDone();
+            return;
+          }
+          body = bodies[nextBody];
+          // the body is not needed anymore once it was passed to the sender
+          bodies[nextBody++] = null;
+          outstandingSends++;
+        }
+        CompletableFuture<?> future;
+        try {
+          future = sender.apply(body);
+        } catch (RuntimeException e) {
+          future = new CompletableFuture<>();
+          future.completeExceptionally(e);
+        }
+        if (future.isDone()) {
+          sendCompleted(future);
+        } else {
+          future.whenComplete(
+              (ignored, throwable) -> {
+                sendCompleted(throwable);
+                sendNext();
+              });
+        }
+      }
     }
-    StringBuilder payload = new StringBuilder("{\"requests\":[");
-    Iterator<String> iterator = queries.iterator();
-    while (iterator.hasNext()) {
-      String query = iterator.next();
-      payload.append("\"?").append(query).append('"');
-      if (iterator.hasNext()) {
-        payload.append(',');
+
+    private void sendCompleted(CompletableFuture<?> future) {
+      try {
+        future.join();
+        sendCompleted((Throwable) null);
+      } catch (CompletionException | CancellationException e) {
+        sendCompleted(e);
       }
     }
-    payload.append(']');
+
+    private synchronized void sendCompleted(@Nullable Throwable throwable) {
+      outstandingSends--;
+      if (throwable != null && failure == null) {
+        failure =
+            throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+      }
+    }
+
+    private void completeIfDone() {
+      if (nextBody == bodies.length && outstandingSends == 0) {
+        if (failure == null) {
+          result.complete(null);
+        } else {
+          result.completeExceptionally(failure);
+        }
+      }
+    }
+  }
+
+  private static byte[] createSuffix(@Nullable String authToken) {
+    StringBuilder suffix = new StringBuilder("]");
     if (authToken != null) {
-      payload.append(",\"token_auth\":\"").append(authToken).append('"');
+      suffix.append(",\"token_auth\":\"").append(authToken).append('"');
     }
-    return payload.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    return suffix.append('}').toString().getBytes(StandardCharsets.UTF_8);
   }
 }
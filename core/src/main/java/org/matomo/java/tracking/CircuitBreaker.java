@@ -0,0 +1,201 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the outcome of the last calls to the Matomo server and decides whether further calls are
+ * permitted.
+ *
+ * <p>The circuit breaker opens if the rate of failed or slow calls within the last {@link
+ * TrackerConfiguration#getCircuitBreakerWindowSize()} calls reaches its threshold. After {@link
+ * TrackerConfiguration#getCircuitBreakerOpenDuration()} it becomes half-open and permits {@link
+ * TrackerConfiguration#getCircuitBreakerProbeRequests()} probe calls. If all of them succeed in
+ * time, the circuit breaker closes, otherwise it opens again.
+ */
+@Slf4j
+class CircuitBreaker {
+
+  private static final byte FAILED = 1;
+
+  private static final byte SLOW = 2;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final LongSupplier nanoTime;
+
+  private final byte[] outcomes;
+
+  private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+
+  private int index;
+
+  private int calls;
+
+  private int failedCalls;
+
+  private int slowCalls;
+
+  private long openedAt;
+
+  private int permittedProbes;
+
+  private int successfulProbes;
+
+  CircuitBreaker(@NonNull TrackerConfiguration trackerConfiguration) {
+    this(trackerConfiguration, System::nanoTime);
+  }
+
+  CircuitBreaker(
+      @NonNull TrackerConfiguration trackerConfiguration, @NonNull LongSupplier nanoTime) {
+    this.trackerConfiguration = trackerConfiguration;
+    this.nanoTime = nanoTime;
+    outcomes = new byte[trackerConfiguration.getCircuitBreakerWindowSize()];
+  }
+
+  long now() {
+    return nanoTime.getAsLong();
+  }
+
+  /**
+   * Checks whether a call may be sent. Every permitted call must be followed by exactly one call of
+   * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onIgnored()}.
+   *
+   * @return true if the call is permitted
+   */
+  boolean tryAcquirePermission() {
+    CircuitBreakerState previousState;
+    CircuitBreakerState newState;
+    boolean permitted;
+    synchronized (this) {
+      previousState = state;
+      if (state == CircuitBreakerState.OPEN
+          && now() - openedAt >= trackerConfiguration.getCircuitBreakerOpenDuration().toNanos()) {
+        state = CircuitBreakerState.HALF_OPEN;
+        permittedProbes = 0;
+        successfulProbes = 0;
+      }
+      permitted =
+          state == CircuitBreakerState.CLOSED
+              || state == CircuitBreakerState.HALF_OPEN
+                  && permittedProbes < trackerConfiguration.getCircuitBreakerProbeRequests();
+      if (permitted && state == CircuitBreakerState.HALF_OPEN) {
+        permittedProbes++;
+      }
+      newState = state;
+    }
+    notifyIfChanged(previousState, newState);
+    return permitted;
+  }
+
+  /**
+   * Records a call that reached the Matomo server and succeeded.
+   *
+   * @param startedAt the value of {@link #now()} when the call was started
+   */
+  void onSuccess(long startedAt) {
+    record(false, startedAt);
+  }
+
+  /**
+   * Records a call that failed because the Matomo server was not available.
+   *
+   * @param startedAt the value of {@link #now()} when the call was started
+   */
+  void onFailure(long startedAt) {
+    record(true, startedAt);
+  }
+
+  /** Releases the permission of a call whose outcome says nothing about the Matomo server. */
+  synchronized void onIgnored() {
+    if (state == CircuitBreakerState.HALF_OPEN && permittedProbes > 0) {
+      permittedProbes--;
+    }
+  }
+
+  synchronized CircuitBreakerState getState() {
+    return state;
+  }
+
+  private void record(boolean failed, long startedAt) {
+    boolean slow =
+        now() - startedAt > trackerConfiguration.getCircuitBreakerSlowCallDuration().toNanos();
+    CircuitBreakerState previousState;
+    CircuitBreakerState newState;
+    synchronized (this) {
+      previousState = state;
+      if (state == CircuitBreakerState.HALF_OPEN) {
+        if (failed || slow) {
+          open();
+        } else if (++successfulProbes >= trackerConfiguration.getCircuitBreakerProbeRequests()) {
+          close();
+        }
+      } else if (state == CircuitBreakerState.CLOSED) {
+        addOutcome((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+        if (calls == outcomes.length
+            && (failedCalls >= trackerConfiguration.getCircuitBreakerFailureRateThreshold() * calls
+                || slowCalls
+                    >= trackerConfiguration.getCircuitBreakerSlowCallRateThreshold() * calls)) {
+          open();
+        }
+      }
+      newState = state;
+    }
+    notifyIfChanged(previousState, newState);
+  }
+
+  private void addOutcome(byte outcome) {
+    if (calls == outcomes.length) {
+      removeOutcome(outcomes[index]);
+    } else {
+      calls++;
+    }
+    outcomes[index] = outcome;
+    if ((outcome & FAILED) != 0) {
+      failedCalls++;
+    }
+    if ((outcome & SLOW) != 0) {
+      slowCalls++;
+    }
+    index = (index + 1) % outcomes.length;
+  }
+
+  private void removeOutcome(byte outcome) {
+    if ((outcome & FAILED) != 0) {
+      failedCalls--;
+    }
+    if ((outcome & SLOW) != 0) {
+      slowCalls--;
+    }
+  }
+
+  private void open() {
+    state = CircuitBreakerState.OPEN;
+    openedAt = now();
+  }
+
+  private void close() {
+    state = CircuitBreakerState.CLOSED;
+    index = 0;
+    calls = 0;
+    failedCalls = 0;
+    slowCalls = 0;
+  }
+
+  private void notifyIfChanged(
+      @NonNull CircuitBreakerState previousState, @NonNull CircuitBreakerState newState) {
+    if (previousState == newState) {
+      return;
+    }
+    log.info("Circuit breaker changed from {} to {}", previousState, newState);
+    CircuitBreakerListener listener = trackerConfiguration.getCircuitBreakerListener();
+    if (listener != null) {
+      try {
+        listener.onStateChange(previousState, newState);
+      } catch (RuntimeException e) {
+        log.warn("Circuit breaker listener failed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Gets notified if the state of the circuit breaker changes, for example to raise an alert if the
+ * Matomo server is not available.
+ *
+ * <p>Listeners are called on the thread that caused the state change and should return quickly.
+ *
+ * @see TrackerConfiguration#getCircuitBreakerListener()
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+  /**
+   * Called after the circuit breaker changed its state.
+   *
+   * @param from the previous state
+   * @param to the new state
+   */
+  void onStateChange(@NonNull CircuitBreakerState from, @NonNull CircuitBreakerState to);
+}
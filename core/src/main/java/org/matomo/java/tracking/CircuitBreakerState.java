@@ -0,0 +1,30 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+/**
+ * The states of the circuit breaker that protects the application from an unavailable Matomo
+ * server.
+ *
+ * @see TrackerConfiguration#isCircuitBreakerEnabled()
+ * @see CircuitBreakerListener
+ */
+public enum CircuitBreakerState {
+
+  /** Requests are sent. Failures and slow calls are counted. */
+  CLOSED,
+
+  /** Requests fail immediately without contacting the Matomo server. */
+  OPEN,
+
+  /**
+   * A limited number of probe requests are sent to decide whether the circuit breaker closes again
+   * or opens again.
+   */
+  HALF_OPEN
+}
@@ -0,0 +1,131 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@link Sender} that passes calls to the delegate only if the {@link CircuitBreaker} permits
+ * them.
+ *
+ * <p>While the circuit breaker is open, calls fail immediately with a {@link MatomoException}, so
+ * that application threads do not wait for connect and socket timeouts of an unavailable Matomo
+ * server. Asynchronous requests that are spooled are replayed later. Failures that indicate an
+ * unavailable server are the ones that would be retried, see {@link
+ * Retrier#isRetryable(Throwable)}. Other failures are not counted.
+ */
+@RequiredArgsConstructor
+class CircuitBreakingSender implements Sender {
+
+  @lombok.NonNull private final Sender delegate;
+
+  @lombok.NonNull private final CircuitBreaker circuitBreaker;
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    return callAsync(() -> delegate.sendSingleAsync(request));
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    call(() -> delegate.sendSingle(request));
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    call(() -> delegate.sendBulk(requests));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    return callAsync(() -> delegate.sendBulkAsync(requests));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return callAsync(() -> delegate.sendQueriesAsync(queries, authToken, priority));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return callAsync(() -> delegate.sendEncodedQueriesAsync(queries, authToken, priority));
+  }
+
+  private void call(@NonNull Runnable action) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      throw createOpenException();
+    }
+    long startedAt = circuitBreaker.now();
+    try {
+      action.run();
+    } catch (RuntimeException e) {
+      onFailure(startedAt, e);
+      throw e;
+    }
+    circuitBreaker.onSuccess(startedAt);
+  }
+
+  @NonNull
+  private <T> CompletableFuture<T> callAsync(@NonNull Supplier<CompletableFuture<T>> action) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      future.completeExceptionally(createOpenException());
+      return future;
+    }
+    long startedAt = circuitBreaker.now();
+    CompletableFuture<T> future;
+    try {
+      future = action.get();
+    } catch (RuntimeException e) {
+      onFailure(startedAt, e);
+      throw e;
+    }
+    return future.whenComplete(
+        (result, throwable) -> {
+          if (throwable == null) {
+            circuitBreaker.onSuccess(startedAt);
+          } else {
+            onFailure(startedAt, throwable);
+          }
+        });
+  }
+
+  private void onFailure(long startedAt, @NonNull Throwable throwable) {
+    if (Retrier.isRetryable(throwable)) {
+      circuitBreaker.onFailure(startedAt);
+    } else {
+      circuitBreaker.onIgnored();
+    }
+  }
+
+  @NonNull
+  private static MatomoException createOpenException() {
+    return new MatomoException("Circuit breaker is open. Request was not sent");
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public void close() throws Exception {
+    delegate.close();
+  }
+}
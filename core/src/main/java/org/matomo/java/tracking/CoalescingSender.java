@@ -0,0 +1,200 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Sender} that holds asynchronous single requests of the {@link
+ * TrackerConfiguration#getCoalescedRequestKinds()} for {@link
+ * TrackerConfiguration#getCoalescingWindow()} and only sends the latest request of the same site,
+ * visitor, kind and media.
+ *
+ * <p>The visitor is identified by the custom visitor ID if set, otherwise by the user ID and
+ * otherwise by the visitor ID. Since {@link MatomoRequest#request()} generates a random visitor ID
+ * for each request, requests without one of these IDs set explicitly are never coalesced.
+ *
+ * <p>The futures of superseded requests complete together with the future of the latest request.
+ * Requests without a visitor ID and all other methods are passed to the delegate.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class CoalescingSender implements Sender {
+
+  @lombok.NonNull private final Sender delegate;
+
+  @lombok.NonNull private final TrackerConfiguration trackerConfiguration;
+
+  @lombok.NonNull private final ScheduledExecutorService scheduler;
+
+  @lombok.NonNull private final AtomicLong coalescedRequests;
+
+  private final Map<CoalescingKey, PendingRequest> pendingRequests = new LinkedHashMap<>();
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    RequestKind kind = RequestKind.of(request);
+    String visitor = identifyVisitor(request);
+    if (visitor == null || !trackerConfiguration.getCoalescedRequestKinds().contains(kind)) {
+      return delegate.sendSingleAsync(request);
+    }
+    CoalescingKey key = new CoalescingKey(request.getSiteId(), visitor, kind, request.getMediaId());
+    CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+    synchronized (pendingRequests) {
+      PendingRequest pendingRequest = pendingRequests.get(key);
+      if (pendingRequest == null) {
+        pendingRequest = new PendingRequest();
+        pendingRequests.put(key, pendingRequest);
+        pendingRequest.scheduledSend =
+            scheduler.schedule(
+                () -> sendPendingRequest(key),
+                trackerConfiguration.getCoalescingWindow().toMillis(),
+                TimeUnit.MILLISECONDS);
+      } else {
+        coalescedRequests.incrementAndGet();
+        log.debug("Coalesced {} request of visitor {}", kind, key.getVisitorId());
+      }
+      pendingRequest.latestRequest = request;
+      pendingRequest.requests.add(request);
+      pendingRequest.futures.add(future);
+    }
+    return future;
+  }
+
+  /**
+   * Returns the ID that identifies the visitor of the request. The custom visitor ID and the user
+   * ID are preferred over the visitor ID, because the builder generates a random visitor ID for
+   * each request.
+   */
+  @Nullable
+  private static String identifyVisitor(@NonNull MatomoRequest request) {
+    if (request.getVisitorCustomId() != null) {
+      return "cid:" + request.getVisitorCustomId();
+    }
+    if (request.getUserId() != null) {
+      return "uid:" + request.getUserId();
+    }
+    return request.getVisitorId() == null ? null : "_id:" + request.getVisitorId();
+  }
+
+  private void sendPendingRequest(@NonNull CoalescingKey key) {
+    PendingRequest pendingRequest;
+    synchronized (pendingRequests) {
+      pendingRequest = pendingRequests.remove(key);
+    }
+    if (pendingRequest != null) {
+      send(pendingRequest);
+    }
+  }
+
+  private CompletableFuture<Void> send(@NonNull PendingRequest pendingRequest) {
+    CompletableFuture<MatomoRequest> future;
+    try {
+      future = delegate.sendSingleAsync(pendingRequest.latestRequest);
+    } catch (RuntimeException e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    return future.handle(
+        (result, throwable) -> {
+          for (int i = 0; i < pendingRequest.futures.size(); i++) {
+            if (throwable == null) {
+              pendingRequest.futures.get(i).complete(pendingRequest.requests.get(i));
+            } else {
+              pendingRequest.futures.get(i).completeExceptionally(throwable);
+            }
+          }
+          return null;
+        });
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    List<PendingRequest> drainedRequests;
+    synchronized (pendingRequests) {
+      drainedRequests = new ArrayList<>(pendingRequests.values());
+      pendingRequests.clear();
+    }
+    List<CompletableFuture<Void>> futures = new ArrayList<>(drainedRequests.size() + 1);
+    for (PendingRequest pendingRequest : drainedRequests) {
+      // the scheduled send would find nothing, cancel it so that closing does not wait for it
+      pendingRequest.scheduledSend.cancel(false);
+      futures.add(send(pendingRequest));
+    }
+    futures.add(delegate.flush());
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    delegate.sendBulk(requests);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    return delegate.sendBulkAsync(requests);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendQueriesAsync(queries, authToken, priority);
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      flush();
+    } finally {
+      ExecutorServiceCloser.close(scheduler);
+      delegate.close();
+    }
+  }
+
+  @Value
+  private static class CoalescingKey {
+
+    @Nullable Integer siteId;
+
+    @NonNull String visitorId;
+
+    @NonNull RequestKind kind;
+
+    @Nullable String mediaId;
+  }
+
+  private static final class PendingRequest {
+
+    private final List<MatomoRequest> requests = new ArrayList<>();
+
+    private final List<CompletableFuture<MatomoRequest>> futures = new ArrayList<>();
+
+    private MatomoRequest latestRequest;
+
+    private ScheduledFuture<?> scheduledSend;
+  }
+}
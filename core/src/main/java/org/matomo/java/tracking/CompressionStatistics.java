@@ -0,0 +1,41 @@
+package org.matomo.java.tracking;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative statistics of the bulk request bodies that were compressed by a {@link
+ * GzipCompressor}. One instance is shared by all senders of a tracker.
+ */
+final class CompressionStatistics {
+
+  private final LongAdder uncompressedBytes = new LongAdder();
+
+  private final LongAdder compressedBytes = new LongAdder();
+
+  private final LongAdder cpuTimeNanos = new LongAdder();
+
+  /**
+   * Records a compressed body.
+   *
+   * @param uncompressedLength the length of the body before compression
+   * @param compressedLength the length of the compressed body
+   * @param cpuTimeNanos the CPU time that compressing took or zero if it could not be measured
+   */
+  void record(long uncompressedLength, long compressedLength, long cpuTimeNanos) {
+    uncompressedBytes.add(uncompressedLength);
+    compressedBytes.add(compressedLength);
+    this.cpuTimeNanos.add(cpuTimeNanos);
+  }
+
+  long getUncompressedBytes() {
+    return uncompressedBytes.sum();
+  }
+
+  long getCompressedBytes() {
+    return compressedBytes.sum();
+  }
+
+  long getCpuTimeNanos() {
+    return cpuTimeNanos.sum();
+  }
+}
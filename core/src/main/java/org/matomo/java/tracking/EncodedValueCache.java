@@ -0,0 +1,105 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache from raw parameter values to their percent-encoded bytes, so that values
+ * that are tracked over and over again are encoded only once.
+ *
+ * <p>Only values of the parameters in {@link TrackerConfiguration#getEncodedValueCacheParameters()}
+ * that are not longer than {@link TrackerConfiguration#getEncodedValueCacheMaxValueLength()} are
+ * cached. The cache is split into segments that are locked independently to reduce contention. Each
+ * segment evicts its least recently used value if it is full.
+ */
+final class EncodedValueCache {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment[] segments;
+
+  private final Set<String> parameterNames;
+
+  private final int maxValueLength;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  EncodedValueCache(@NonNull TrackerConfiguration trackerConfiguration) {
+    int size = trackerConfiguration.getEncodedValueCacheSize();
+    segments = new Segment[Integer.highestOneBit(Math.min(MAX_SEGMENTS, size))];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(size / segments.length);
+    }
+    parameterNames = trackerConfiguration.getEncodedValueCacheParameters();
+    maxValueLength = trackerConfiguration.getEncodedValueCacheMaxValueLength();
+  }
+
+  /**
+   * Returns true if the encoded value of the parameter should be cached.
+   *
+   * @param parameterName the name of the tracking parameter
+   * @param value the raw value
+   * @return true if the parameter is configured to be cached and the value is short enough
+   */
+  boolean isCacheable(@NonNull String parameterName, @NonNull String value) {
+    return value.length() <= maxValueLength && parameterNames.contains(parameterName);
+  }
+
+  /**
+   * Appends the percent-encoded value to the query. The value is encoded and cached if it is not
+   * cached yet.
+   *
+   * @param query the query to append the encoded value to
+   * @param value the raw value
+   */
+  void appendEncoded(@NonNull QueryBuffer query, @NonNull String value) {
+    int hash = value.hashCode();
+    Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    byte[] encoded;
+    synchronized (segment) {
+      encoded = segment.get(value);
+    }
+    if (encoded != null) {
+      hits.increment();
+      query.write(encoded);
+      return;
+    }
+    misses.increment();
+    int start = query.length();
+    query.appendEncoded(value);
+    encoded = query.copyFrom(start);
+    synchronized (segment) {
+      segment.put(value, encoded);
+    }
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  long getMisses() {
+    return misses.sum();
+  }
+
+  private static final class Segment extends LinkedHashMap<String, byte[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+
+    private Segment(int capacity) {
+      super(16, 0.75F, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+      return size() > capacity;
+    }
+  }
+}
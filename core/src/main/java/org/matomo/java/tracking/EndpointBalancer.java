@@ -0,0 +1,198 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Distributes requests across the configured Matomo tracking endpoints.
+ *
+ * <p>An endpoint is ejected after {@link TrackerConfiguration#getEndpointEjectionThreshold()}
+ * consecutive failures that indicate an unavailable server, see {@link
+ * Retrier#isRetryable(Throwable)}. Ejected endpoints receive no requests until a health probe
+ * succeeds. Probes are sent every {@link TrackerConfiguration#getEndpointHealthCheckInterval()}. If
+ * all endpoints are ejected, requests are distributed across all of them.
+ */
+@Slf4j
+class EndpointBalancer implements AutoCloseable {
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final List<Endpoint> endpoints;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  EndpointBalancer(
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull ScheduledExecutorService scheduler) {
+    this.trackerConfiguration = trackerConfiguration;
+    this.scheduler = scheduler;
+    endpoints = new ArrayList<>(1 + trackerConfiguration.getAdditionalApiEndpoints().size());
+    endpoints.add(new Endpoint(trackerConfiguration.getApiEndpoint()));
+    for (URI apiEndpoint : trackerConfiguration.getAdditionalApiEndpoints()) {
+      endpoints.add(new Endpoint(apiEndpoint));
+    }
+  }
+
+  /**
+   * Starts to probe ejected endpoints periodically. Does nothing if only one endpoint is
+   * configured.
+   *
+   * @param probe returns true if the given endpoint is available again
+   */
+  void startHealthChecks(@NonNull Predicate<URI> probe) {
+    if (endpoints.size() > 1) {
+      long interval = trackerConfiguration.getEndpointHealthCheckInterval().toMillis();
+      scheduler.scheduleWithFixedDelay(
+          () -> probeEjectedEndpoints(probe), interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Passes an endpoint to the given action and records whether the action succeeded.
+   *
+   * @param action sends a request to the given endpoint
+   */
+  void call(@NonNull Consumer<URI> action) {
+    Endpoint endpoint = select();
+    endpoint.outstandingRequests.incrementAndGet();
+    try {
+      action.accept(endpoint.uri);
+    } catch (RuntimeException e) {
+      onFailure(endpoint, e);
+      throw e;
+    } finally {
+      endpoint.outstandingRequests.decrementAndGet();
+    }
+    endpoint.consecutiveFailures.set(0);
+  }
+
+  /**
+   * Passes an endpoint to the given action and records whether the returned future succeeds.
+   *
+   * @param action sends a request to the given endpoint
+   * @param <T> the result type of the future
+   * @return the future of the action
+   */
+  @NonNull
+  <T> CompletableFuture<T> callAsync(@NonNull Function<URI, CompletableFuture<T>> action) {
+    Endpoint endpoint = select();
+    endpoint.outstandingRequests.incrementAndGet();
+    CompletableFuture<T> future;
+    try {
+      future = action.apply(endpoint.uri);
+    } catch (RuntimeException e) {
+      endpoint.outstandingRequests.decrementAndGet();
+      onFailure(endpoint, e);
+      throw e;
+    }
+    return future.whenComplete(
+        (result, throwable) -> {
+          endpoint.outstandingRequests.decrementAndGet();
+          if (throwable == null) {
+            endpoint.consecutiveFailures.set(0);
+          } else {
+            onFailure(endpoint, throwable);
+          }
+        });
+  }
+
+  @NonNull
+  private Endpoint select() {
+    if (endpoints.size() == 1) {
+      return endpoints.get(0);
+    }
+    int start = Math.floorMod(next.getAndIncrement(), endpoints.size());
+    Endpoint selected = null;
+    for (int i = 0; i < endpoints.size(); i++) {
+      Endpoint endpoint = endpoints.get((start + i) % endpoints.size());
+      if (endpoint.ejected) {
+        continue;
+      }
+      if (trackerConfiguration.getLoadBalancingStrategy() == LoadBalancingStrategy.ROUND_ROBIN) {
+        return endpoint;
+      }
+      if (selected == null
+          || endpoint.outstandingRequests.get() < selected.outstandingRequests.get()) {
+        selected = endpoint;
+      }
+    }
+    return selected == null ? endpoints.get(start) : selected;
+  }
+
+  private void onFailure(@NonNull Endpoint endpoint, @NonNull Throwable throwable) {
+    if (Retrier.isRetryable(throwable)
+        && endpoint.consecutiveFailures.incrementAndGet()
+            >= trackerConfiguration.getEndpointEjectionThreshold()
+        && !endpoint.ejected) {
+      endpoint.ejected = true;
+      log.warn("Ejected unavailable Matomo endpoint {}", endpoint.uri);
+    }
+  }
+
+  void probeEjectedEndpoints(@NonNull Predicate<URI> probe) {
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejected && probeSafely(probe, endpoint.uri)) {
+        endpoint.consecutiveFailures.set(0);
+        endpoint.ejected = false;
+        log.info("Re-admitted Matomo endpoint {}", endpoint.uri);
+      }
+    }
+  }
+
+  private static boolean probeSafely(@NonNull Predicate<URI> probe, @NonNull URI uri) {
+    try {
+      return probe.test(uri);
+    } catch (RuntimeException e) {
+      log.debug("Health probe of Matomo endpoint {} failed", uri, e);
+      return false;
+    }
+  }
+
+  /**
+   * Returns the endpoints that currently receive no requests.
+   *
+   * @return the ejected endpoints in the configured order
+   */
+  @NonNull
+  List<URI> getEjectedEndpoints() {
+    List<URI> ejectedEndpoints = new ArrayList<>();
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejected) {
+        ejectedEndpoints.add(endpoint.uri);
+      }
+    }
+    return ejectedEndpoints;
+  }
+
+  @Override
+  public void close() {
+    ExecutorServiceCloser.close(scheduler);
+  }
+
+  private static final class Endpoint {
+
+    private final URI uri;
+
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile boolean ejected;
+
+    private Endpoint(@NonNull URI uri) {
+      this.uri = uri;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compresses bulk request bodies with gzip if {@link
+ * TrackerConfiguration#isBulkCompressionEnabled()} is set.
+ *
+ * <p>Up to {@link TrackerConfiguration#getThreadPoolSize()} {@link Deflater}s are kept in a pool
+ * and reused, so that the native compression state is not allocated for every body. Deflaters that
+ * do not fit into the pool and all pooled deflaters are ended on {@link #close()}, so that no
+ * native memory is left behind on the threads of the application. The sizes of the compressed
+ * bodies and the CPU time that compressing took are added to the {@link CompressionStatistics} and
+ * logged on debug level. The CPU time is only measured if the JVM supports measuring the CPU time
+ * of a thread.
+ */
+@Slf4j
+final class GzipCompressor implements AutoCloseable {
+
+  private static final byte[] HEADER = {
+    (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+  };
+
+  private static final int TRAILER_LENGTH = 8;
+
+  private static final long CPU_TIME_UNAVAILABLE = -1L;
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final CompressionStatistics statistics;
+
+  private final BlockingQueue<Deflater> deflaters;
+
+  private volatile boolean closed;
+
+  GzipCompressor(@NonNull TrackerConfiguration trackerConfiguration) {
+    this(trackerConfiguration, new CompressionStatistics());
+  }
+
+  GzipCompressor(
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull CompressionStatistics statistics) {
+    this.trackerConfiguration = trackerConfiguration;
+    this.statistics = statistics;
+    deflaters = new ArrayBlockingQueue<>(trackerConfiguration.getThreadPoolSize());
+  }
+
+  /**
+   * Compresses the body if bulk compression is enabled and the body is not smaller than the
+   * configured threshold.
+   *
+   * @param body the JSON body of a bulk request
+   * @return the compressed body or the body itself if it should not be compressed
+   */
+  @NonNull
+  byte[] compressIfEnabled(@NonNull byte[] body) {
+    if (!trackerConfiguration.isBulkCompressionEnabled()
+        || body.length < trackerConfiguration.getBulkCompressionThreshold()) {
+      return body;
+    }
+    long start = cpuTime();
+    byte[] compressed = compress(body);
+    long cpuTimeNanos = start == CPU_TIME_UNAVAILABLE ? 0L : cpuTime() - start;
+    statistics.record(body.length, compressed.length, cpuTimeNanos);
+    if (log.isDebugEnabled()) {
+      String ratio = String.format("%.1f", (double) body.length / compressed.length);
+      if (start == CPU_TIME_UNAVAILABLE) {
+        log.debug(
+            "Compressed bulk request body from {} to {} bytes (ratio {})",
+            body.length,
+            compressed.length,
+            ratio);
+      } else {
+        log.debug(
+            "Compressed bulk request body from {} to {} bytes (ratio {}) in {} µs CPU time",
+            body.length,
+            compressed.length,
+            ratio,
+            cpuTimeNanos / 1000L);
+      }
+    }
+    return compressed;
+  }
+
+  /**
+   * Returns true if the body starts with the gzip magic number. JSON bodies of bulk requests always
+   * start with a curly bracket.
+   */
+  static boolean isCompressed(@NonNull byte[] body) {
+    return body.length >= 2 && body[0] == HEADER[0] && body[1] == HEADER[1];
+  }
+
+  @NonNull
+  byte[] compress(@NonNull byte[] body) {
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+    try {
+      return compress(deflater, body);
+    } finally {
+      deflater.reset();
+      if (!deflaters.offer(deflater)) {
+        deflater.end();
+      }
+      if (closed) {
+        endPooledDeflaters();
+      }
+    }
+  }
+
+  @NonNull
+  private static byte[] compress(@NonNull Deflater deflater, @NonNull byte[] body) {
+    deflater.setInput(body);
+    deflater.finish();
+    byte[] compressed = Arrays.copyOf(HEADER, Math.max(64, body.length / 4));
+    int length = HEADER.length;
+    while (!deflater.finished()) {
+      if (length == compressed.length) {
+        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+      }
+      length += deflater.deflate(compressed, length, compressed.length - length);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(body, 0, body.length);
+    compressed = Arrays.copyOf(compressed, length + TRAILER_LENGTH);
+    writeIntLittleEndian(compressed, length, (int) crc.getValue());
+    writeIntLittleEndian(compressed, length + 4, body.length);
+    return compressed;
+  }
+
+  private static void writeIntLittleEndian(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) value;
+    bytes[offset + 1] = (byte) (value >>> 8);
+    bytes[offset + 2] = (byte) (value >>> 16);
+    bytes[offset + 3] = (byte) (value >>> 24);
+  }
+
+  private static long cpuTime() {
+    return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+            && THREAD_MX_BEAN.isThreadCpuTimeEnabled()
+        ? THREAD_MX_BEAN.getCurrentThreadCpuTime()
+        : CPU_TIME_UNAVAILABLE;
+  }
+
+  /**
+   * Ends all pooled deflaters. Deflaters that are in use are ended as soon as they are returned.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    endPooledDeflaters();
+  }
+
+  private void endPooledDeflaters() {
+    for (Deflater deflater = deflaters.poll(); deflater != null; deflater = deflaters.poll()) {
+      deflater.end();
+    }
+  }
+
+  @NonNull
+  CompressionStatistics getStatistics() {
+    return statistics;
+  }
+
+  /** Returns the number of pooled deflaters. */
+  int countPooledDeflaters() {
+    return deflaters.size();
+  }
+}
@@ -0,0 +1,31 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import lombok.Getter;
+
+/** Thrown if the Matomo server responds with an HTTP error status code. */
+@Getter
+class HttpStatusException extends MatomoException {
+
+  private static final long serialVersionUID = -2851297457463585412L;
+
+  private final int statusCode;
+
+  @Nullable private final Duration retryAfter;
+
+  HttpStatusException(int statusCode, @Nullable Duration retryAfter) {
+    super(String.format("Tracking endpoint responded with code %d", statusCode));
+    this.statusCode = statusCode;
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * Server errors and "429 Too Many Requests" are temporary. All other client errors are permanent.
+   *
+   * @return true if the request can be retried
+   */
+  boolean isRetryable() {
+    return statusCode >= 500 || statusCode == 429;
+  }
+}
@@ -0,0 +1,26 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+/**
+ * Defines how requests are distributed if more than one Matomo tracking endpoint is configured.
+ *
+ * @see TrackerConfiguration#getAdditionalApiEndpoints()
+ * @see TrackerConfiguration#getLoadBalancingStrategy()
+ */
+public enum LoadBalancingStrategy {
+
+  /** Sends requests to the available endpoints in turn. */
+  ROUND_ROBIN,
+
+  /**
+   * Sends requests to the available endpoint with the fewest requests in flight. Slow endpoints
+   * therefore receive fewer requests.
+   */
+  LEAST_OUTSTANDING_REQUESTS
+}
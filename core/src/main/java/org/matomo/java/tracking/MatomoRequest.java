@@ -11,13 +11,9 @@ import java.nio.charset.Charset;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Builder.Default;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
-import lombok.ToString;
 import org.matomo.java.tracking.parameters.AcceptLanguage;
 import org.matomo.java.tracking.parameters.Country;
 import org.matomo.java.tracking.parameters.CustomVariables;
@@ -31,30 +27,486 @@ import org.matomo.java.tracking.parameters.VisitorId;
  * A class that implements the <a href="https://developer.matomo.org/api-reference/tracking-api">
  * Matomo Tracking HTTP API</a>. These requests can be sent using {@link MatomoTracker}.
  *
+ * <p>Only the tracking parameters that are set are stored. Each of them has an ordinal and their
+ * values are packed in the order of their ordinals, see {@link SparseParameters}. Memory and the
+ * time to serialize a request therefore scale with the number of parameters that are set.
+ *
  * @author brettcsorba
  */
-@Builder(builderMethodName = "request")
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-@ToString
 public class MatomoRequest {
 
+  // The ordinals of the tracking parameters in the order they are appended to the query
+
+  @TrackingParameter(name = "rec")
+  static final int REQUIRED = 0;
+
+  @TrackingParameter(name = "idsite", min = 1)
+  static final int SITE_ID = 1;
+
+  @TrackingParameter(name = "action_name")
+  static final int ACTION_NAME = 2;
+
+  @TrackingParameter(name = "url")
+  static final int ACTION_URL = 3;
+
+  @TrackingParameter(name = "apiv")
+  static final int API_VERSION = 4;
+
+  @TrackingParameter(name = "_id")
+  static final int VISITOR_ID = 5;
+
+  @TrackingParameter(name = "_idn")
+  static final int NEW_VISITOR = 6;
+
+  @TrackingParameter(name = "urlref")
+  static final int REFERRER_URL = 7;
+
+  @TrackingParameter(name = "_cvar")
+  static final int VISIT_CUSTOM_VARIABLES = 8;
+
+  @TrackingParameter(name = "_idvc", min = 0)
+  static final int VISITOR_VISIT_COUNT = 9;
+
+  @TrackingParameter(name = "_viewts")
+  static final int VISITOR_PREVIOUS_VISIT_TIMESTAMP = 10;
+
+  @TrackingParameter(name = "_idts")
+  static final int VISITOR_FIRST_VISIT_TIMESTAMP = 11;
+
+  @TrackingParameter(name = "_rcn")
+  static final int CAMPAIGN_NAME = 12;
+
+  @TrackingParameter(name = "_rck")
+  static final int CAMPAIGN_KEYWORD = 13;
+
+  @TrackingParameter(name = "res")
+  static final int DEVICE_RESOLUTION = 14;
+
+  @TrackingParameter(name = "h", min = 0, max = 23)
+  static final int CURRENT_HOUR = 15;
+
+  @TrackingParameter(name = "m", min = 0, max = 59)
+  static final int CURRENT_MINUTE = 16;
+
+  @TrackingParameter(name = "s", min = 0, max = 59)
+  static final int CURRENT_SECOND = 17;
+
+  @TrackingParameter(name = "fla")
+  static final int PLUGIN_FLASH = 18;
+
+  @TrackingParameter(name = "java")
+  static final int PLUGIN_JAVA = 19;
+
+  @TrackingParameter(name = "dir")
+  static final int PLUGIN_DIRECTOR = 20;
+
+  @TrackingParameter(name = "qt")
+  static final int PLUGIN_QUICKTIME = 21;
+
+  @TrackingParameter(name = "realp")
+  static final int PLUGIN_REAL_PLAYER = 22;
+
+  @TrackingParameter(name = "pdf")
+  static final int PLUGIN_PDF = 23;
+
+  @TrackingParameter(name = "wma")
+  static final int PLUGIN_WINDOWS_MEDIA = 24;
+
+  @TrackingParameter(name = "gears")
+  static final int PLUGIN_GEARS = 25;
+
+  @TrackingParameter(name = "ag")
+  static final int PLUGIN_SILVERLIGHT = 26;
+
+  @TrackingParameter(name = "cookie")
+  static final int SUPPORTS_COOKIES = 27;
+
+  @TrackingParameter(name = "ua")
+  static final int HEADER_USER_AGENT = 28;
+
+  @TrackingParameter(name = "uadata")
+  static final int CLIENT_HINTS = 29;
+
+  @TrackingParameter(name = "lang")
+  static final int HEADER_ACCEPT_LANGUAGE = 30;
+
+  @TrackingParameter(name = "uid")
+  static final int USER_ID = 31;
+
+  @TrackingParameter(name = "cid")
+  static final int VISITOR_CUSTOM_ID = 32;
+
+  @TrackingParameter(name = "new_visit")
+  static final int NEW_VISIT = 33;
+
+  @TrackingParameter(name = "cvar")
+  static final int PAGE_CUSTOM_VARIABLES = 34;
+
+  @TrackingParameter(name = "link")
+  static final int OUTLINK_URL = 35;
+
+  @TrackingParameter(name = "download")
+  static final int DOWNLOAD_URL = 36;
+
+  @TrackingParameter(name = "search")
+  static final int SEARCH_QUERY = 37;
+
+  @TrackingParameter(name = "search_cat")
+  static final int SEARCH_CATEGORY = 38;
+
+  @TrackingParameter(name = "search_count", min = 0)
+  static final int SEARCH_RESULTS_COUNT = 39;
+
+  @TrackingParameter(name = "pv_id")
+  static final int PAGE_VIEW_ID = 40;
+
+  @TrackingParameter(name = "idgoal", min = 0)
+  static final int GOAL_ID = 41;
+
+  @TrackingParameter(name = "revenue", min = 0)
+  static final int ECOMMERCE_REVENUE = 42;
+
+  @TrackingParameter(name = "cs")
+  static final int CHARACTER_SET = 43;
+
+  @TrackingParameter(name = "ca")
+  static final int CUSTOM_ACTION = 44;
+
+  @TrackingParameter(name = "pf_net", min = 0)
+  static final int NETWORK_TIME = 45;
+
+  @TrackingParameter(name = "pf_srv", min = 0)
+  static final int SERVER_TIME = 46;
+
+  @TrackingParameter(name = "pf_tfr", min = 0)
+  static final int TRANSFER_TIME = 47;
+
+  @TrackingParameter(name = "pf_dm1", min = 0)
+  static final int DOM_PROCESSING_TIME = 48;
+
+  @TrackingParameter(name = "pf_dm2", min = 0)
+  static final int DOM_COMPLETION_TIME = 49;
+
+  @TrackingParameter(name = "pf_onl", min = 0)
+  static final int ONLOAD_TIME = 50;
+
+  @TrackingParameter(name = "e_c")
+  static final int EVENT_CATEGORY = 51;
+
+  @TrackingParameter(name = "e_a")
+  static final int EVENT_ACTION = 52;
+
+  @TrackingParameter(name = "e_n")
+  static final int EVENT_NAME = 53;
+
+  @TrackingParameter(name = "e_v", min = 0)
+  static final int EVENT_VALUE = 54;
+
+  @TrackingParameter(name = "c_n")
+  static final int CONTENT_NAME = 55;
+
+  @TrackingParameter(name = "c_p")
+  static final int CONTENT_PIECE = 56;
+
+  @TrackingParameter(name = "c_t")
+  static final int CONTENT_TARGET = 57;
+
+  @TrackingParameter(name = "c_i")
+  static final int CONTENT_INTERACTION = 58;
+
+  @TrackingParameter(name = "ec_id")
+  static final int ECOMMERCE_ID = 59;
+
+  @TrackingParameter(name = "ec_items")
+  static final int ECOMMERCE_ITEMS = 60;
+
+  @TrackingParameter(name = "ec_st", min = 0)
+  static final int ECOMMERCE_SUBTOTAL = 61;
+
+  @TrackingParameter(name = "ec_tx", min = 0)
+  static final int ECOMMERCE_TAX = 62;
+
+  @TrackingParameter(name = "ec_sh", min = 0)
+  static final int ECOMMERCE_SHIPPING_COST = 63;
+
+  @TrackingParameter(name = "ec_dt", min = 0)
+  static final int ECOMMERCE_DISCOUNT = 64;
+
+  @TrackingParameter(name = "_ects")
+  static final int ECOMMERCE_LAST_ORDER_TIMESTAMP = 65;
+
+  @TrackingParameter(name = "_pks")
+  static final int ECOMMERCE_PRODUCT_SKU = 66;
+
+  @TrackingParameter(name = "_pkn")
+  static final int ECOMMERCE_PRODUCT_NAME = 67;
+
+  @TrackingParameter(name = "_pkc")
+  static final int ECOMMERCE_PRODUCT_CATEGORY = 68;
+
+  @TrackingParameter(name = "_pkp", min = 0)
+  static final int ECOMMERCE_PRODUCT_PRICE = 69;
+
+  @TrackingParameter(name = "token_auth", regex = "[a-z0-9]{32}")
+  static final int AUTH_TOKEN = 70;
+
+  @TrackingParameter(name = "cip")
+  static final int VISITOR_IP = 71;
+
+  @TrackingParameter(name = "cdt")
+  static final int REQUEST_TIMESTAMP = 72;
+
+  @TrackingParameter(name = "country", maxLength = 2)
+  static final int VISITOR_COUNTRY = 73;
+
+  @TrackingParameter(name = "region", maxLength = 2)
+  static final int VISITOR_REGION = 74;
+
+  @TrackingParameter(name = "city")
+  static final int VISITOR_CITY = 75;
+
+  @TrackingParameter(name = "lat", min = -90, max = 90)
+  static final int VISITOR_LATITUDE = 76;
+
+  @TrackingParameter(name = "long", min = -180, max = 180)
+  static final int VISITOR_LONGITUDE = 77;
+
+  @TrackingParameter(name = "queuedtracking")
+  static final int QUEUED_TRACKING = 78;
+
+  @TrackingParameter(name = "send_image")
+  static final int RESPONSE_AS_IMAGE = 79;
+
+  @TrackingParameter(name = "ping")
+  static final int PING = 80;
+
+  @TrackingParameter(name = "bots")
+  static final int TRACK_BOT_REQUESTS = 81;
+
+  @TrackingParameter(name = "recMode")
+  static final int BOT_RECORDING_MODE = 82;
+
+  @TrackingParameter(name = "http_status")
+  static final int HTTP_STATUS_CODE = 83;
+
+  @TrackingParameter(name = "bw_bytes", min = 0)
+  static final int BANDWIDTH_BYTES = 84;
+
+  @TrackingParameter(name = "source")
+  static final int SOURCE_LABEL = 85;
+
+  @TrackingParameter(name = "rand")
+  static final int RANDOM_VALUE = 86;
+
+  @TrackingParameter(name = "debug")
+  static final int DEBUG = 87;
+
+  @TrackingParameter(name = "ma_id")
+  static final int MEDIA_ID = 88;
+
+  @TrackingParameter(name = "ma_ti")
+  static final int MEDIA_TITLE = 89;
+
+  @TrackingParameter(name = "ma_re")
+  static final int MEDIA_RESOURCE = 90;
+
+  @TrackingParameter(name = "ma_mt")
+  static final int MEDIA_TYPE = 91;
+
+  @TrackingParameter(name = "ma_pn")
+  static final int MEDIA_PLAYER_NAME = 92;
+
+  @TrackingParameter(name = "ma_st", min = 0)
+  static final int MEDIA_TIME_SPENT = 93;
+
+  @TrackingParameter(name = "ma_le", min = 0)
+  static final int MEDIA_LENGTH = 94;
+
+  @TrackingParameter(name = "ma_ps", min = 0, max = 100)
+  static final int MEDIA_PROGRESS_PERCENT = 95;
+
+  @TrackingParameter(name = "ma_ttp", min = 0)
+  static final int MEDIA_TIME_TO_PLAY = 96;
+
+  @TrackingParameter(name = "ma_w", min = 0)
+  static final int MEDIA_WIDTH = 97;
+
+  @TrackingParameter(name = "ma_h", min = 0)
+  static final int MEDIA_HEIGHT = 98;
+
+  @TrackingParameter(name = "ma_fs")
+  static final int MEDIA_FULLSCREEN = 99;
+
+  @TrackingParameter(name = "ma_se")
+  static final int MEDIA_SEGMENTS_VIEWED = 100;
+
+  @TrackingParameter(name = "cra")
+  static final int CRASH_MESSAGE = 101;
+
+  @TrackingParameter(name = "cra_tp")
+  static final int CRASH_TYPE = 102;
+
+  @TrackingParameter(name = "cra_ct")
+  static final int CRASH_CATEGORY = 103;
+
+  @TrackingParameter(name = "cra_st")
+  static final int CRASH_STACK_TRACE = 104;
+
+  @TrackingParameter(name = "cra_ru")
+  static final int CRASH_LOCATION = 105;
+
+  @TrackingParameter(name = "cra_rl", min = 0)
+  static final int CRASH_LINE = 106;
+
+  @TrackingParameter(name = "cra_rc", min = 0)
+  static final int CRASH_COLUMN = 107;
+
+  /** The number of tracking parameters. */
+  static final int PARAMETER_COUNT = 108;
+
+  /** The values of the tracking parameters that are set. */
+  @Getter(AccessLevel.PACKAGE)
+  private final SparseParameters parameters;
+
+  /**
+   * The Matomo session ID sent as a cookie {@code MATOMO_SESSID}.
+   *
+   * <p>If not null a cookie with the name {@code MATOMO_SESSID} will be sent with the value of this
+   * parameter.
+   */
+  @Getter @Setter private String sessionId;
+
+  /**
+   * Custom Dimension values for specific Custom Dimension IDs.
+   *
+   * <p><a href="https://plugins.matomo.org/CustomDimensions">Custom Dimensions plugin</a> must be
+   * installed. See the <a href="https://matomo.org/docs/custom-dimensions/">Custom Dimensions
+   * guide</a>. Requires Matomo at least 2.15.1
+   */
+  @Getter @Setter private Map<Long, Object> dimensions;
+
+  /**
+   * Allows you to specify additional HTTP request parameters that will be sent to Matomo.
+   *
+   * <p>For example, you can use this to set the <em>Accept-Language</em> header, or to set the
+   * <em>Content-Type</em>.
+   */
+  @Getter @Setter private Map<String, Object> additionalParameters;
+
+  /**
+   * You can set additional HTTP headers for the request sent to Matomo.
+   *
+   * <p>For example, you can use this to set the <em>Accept-Language</em> header, or to set the
+   * <em>Content-Type</em>.
+   */
+  @Getter @Setter private Map<String, String> headers;
+
+  /**
+   * Appends additional cookies to the request.
+   *
+   * <p>This allows you to add Matomo specific cookies, like {@code _pk_id} or {@code _pk_sess}
+   * coming from Matomo responses to the request.
+   */
+  @Getter @Setter private Map<String, String> cookies;
+
+  /**
+   * The priority of this request if priority lanes are enabled. Overrides the priority that is
+   * derived from the kind of the request. It is not sent to Matomo.
+   *
+   * @see RequestPriority#of(MatomoRequest)
+   */
+  @Getter(AccessLevel.PACKAGE)
+  @Setter(AccessLevel.PACKAGE)
+  private RequestPriority priority;
+
+  /**
+   * The template this request was created from using {@link MatomoRequestTemplate#request()}. The
+   * pre-encoded constant parameters of the template are sent instead of the values of this request
+   * that are still the same instances as in the template. It is not sent to Matomo.
+   */
+  @Getter(AccessLevel.PACKAGE)
+  @Setter(AccessLevel.PACKAGE)
+  private MatomoRequestTemplate template;
+
+  /** Creates a request with the default values of the builder. */
+  public MatomoRequest() {
+    parameters = new SparseParameters(PARAMETER_COUNT);
+    parameters.set(REQUIRED, true);
+    parameters.set(API_VERSION, "1");
+    parameters.set(VISITOR_ID, VisitorId.random());
+    parameters.set(RESPONSE_AS_IMAGE, false);
+    parameters.set(RANDOM_VALUE, RandomValue.random());
+  }
+
+  private MatomoRequest(MatomoRequestBuilder builder) {
+    parameters = new SparseParameters(builder.parameters);
+    if (!builder.requiredSet) {
+      parameters.set(REQUIRED, true);
+    }
+    if (!builder.apiVersionSet) {
+      parameters.set(API_VERSION, "1");
+    }
+    if (!builder.visitorIdSet) {
+      parameters.set(VISITOR_ID, VisitorId.random());
+    }
+    if (!builder.responseAsImageSet) {
+      parameters.set(RESPONSE_AS_IMAGE, false);
+    }
+    if (!builder.randomValueSet) {
+      parameters.set(RANDOM_VALUE, RandomValue.random());
+    }
+    sessionId = builder.sessionId;
+    dimensions = builder.dimensions;
+    additionalParameters = builder.additionalParameters;
+    headers = builder.headers;
+    cookies = builder.cookies;
+    priority = builder.priority;
+    template = builder.template;
+  }
+
+  /**
+   * Creates a builder for a new request.
+   *
+   * @return a new builder
+   */
+  public static MatomoRequestBuilder request() {
+    return new MatomoRequestBuilder();
+  }
+
+  /**
+   * Creates a builder that is initialized with the values of this request.
+   *
+   * @return a new builder
+   */
+  public MatomoRequestBuilder toBuilder() {
+    return new MatomoRequestBuilder(this);
+  }
+
   /**
    * The ID of the website we're tracking a visit/action for. Only needed, if no default site id is
    * configured.
    */
-  @TrackingParameter(name = "rec")
-  @Default
-  private Boolean required = true;
+  public Boolean getRequired() {
+    return (Boolean) parameters.get(REQUIRED);
+  }
+
+  /** See {@link #getRequired()}. */
+  public void setRequired(Boolean required) {
+    parameters.set(REQUIRED, required);
+  }
 
   /**
    * The ID of the website we're tracking a visit/action for. Only needed, if no default site id is
    * configured.
    */
-  @TrackingParameter(name = "idsite", min = 1)
-  private Integer siteId;
+  public Integer getSiteId() {
+    return (Integer) parameters.get(SITE_ID);
+  }
+
+  /** See {@link #getSiteId()}. */
+  public void setSiteId(Integer siteId) {
+    parameters.set(SITE_ID, siteId);
+  }
 
   /**
    * The title of the action being tracked. For page tracks this is used as page title. If enabled
@@ -62,17 +514,34 @@ public class MatomoRequest {
    * / register new user" would then create a group "game" and add the item "register new user" in
    * it.
    */
-  @TrackingParameter(name = "action_name")
-  private String actionName;
+  public String getActionName() {
+    return (String) parameters.get(ACTION_NAME);
+  }
+
+  /** See {@link #getActionName()}. */
+  public void setActionName(String actionName) {
+    parameters.set(ACTION_NAME, actionName);
+  }
 
   /** The full URL for the current action. */
-  @TrackingParameter(name = "url")
-  private String actionUrl;
+  public String getActionUrl() {
+    return (String) parameters.get(ACTION_URL);
+  }
+
+  /** See {@link #getActionUrl()}. */
+  public void setActionUrl(String actionUrl) {
+    parameters.set(ACTION_URL, actionUrl);
+  }
 
   /** Defines the API version to use (default: 1). */
-  @TrackingParameter(name = "apiv")
-  @Default
-  private String apiVersion = "1";
+  public String getApiVersion() {
+    return (String) parameters.get(API_VERSION);
+  }
+
+  /** See {@link #getApiVersion()}. */
+  public void setApiVersion(String apiVersion) {
+    parameters.set(API_VERSION, apiVersion);
+  }
 
   /**
    * The unique visitor ID. See {@link VisitorId}. Default is {@link VisitorId#random()}
@@ -82,31 +551,54 @@ public class MatomoRequest {
    * VisitorId#fromUUID(UUID)} to create it from a UUID or {@link VisitorId#fromHash(long)} to
    * create it from a long value.
    */
-  @TrackingParameter(name = "_id")
-  @Default
-  private VisitorId visitorId = VisitorId.random();
+  public VisitorId getVisitorId() {
+    return (VisitorId) parameters.get(VISITOR_ID);
+  }
+
+  /** See {@link #getVisitorId()}. */
+  public void setVisitorId(VisitorId visitorId) {
+    parameters.set(VISITOR_ID, visitorId);
+  }
 
   /**
    * Tracks if the visitor is a returning visitor.
    *
    * <p>This is done by storing a visitor ID in a 1st party cookie.
    */
-  @TrackingParameter(name = "_idn")
-  private Boolean newVisitor;
+  public Boolean getNewVisitor() {
+    return (Boolean) parameters.get(NEW_VISITOR);
+  }
+
+  /** See {@link #getNewVisitor()}. */
+  public void setNewVisitor(Boolean newVisitor) {
+    parameters.set(NEW_VISITOR, newVisitor);
+  }
 
   /**
    * The full HTTP Referrer URL. This value is used to determine how someone got to your website
    * (ie, through a website, search engine or campaign)
    */
-  @TrackingParameter(name = "urlref")
-  private String referrerUrl;
+  public String getReferrerUrl() {
+    return (String) parameters.get(REFERRER_URL);
+  }
+
+  /** See {@link #getReferrerUrl()}. */
+  public void setReferrerUrl(String referrerUrl) {
+    parameters.set(REFERRER_URL, referrerUrl);
+  }
 
   /**
    * Custom variables are custom name-value pairs that you can assign to your visitors (or page
    * views).
    */
-  @TrackingParameter(name = "_cvar")
-  private CustomVariables visitCustomVariables;
+  public CustomVariables getVisitCustomVariables() {
+    return (CustomVariables) parameters.get(VISIT_CUSTOM_VARIABLES);
+  }
+
+  /** See {@link #getVisitCustomVariables()}. */
+  public void setVisitCustomVariables(CustomVariables visitCustomVariables) {
+    parameters.set(VISIT_CUSTOM_VARIABLES, visitCustomVariables);
+  }
 
   /**
    * The current count of visits for this visitor. To set this value correctly, it would be required
@@ -114,26 +606,50 @@ public class MatomoRequest {
    * database). Then you would manually increment the counts by one on each new visit or "session",
    * depending on how you choose to define a visit.
    */
-  @TrackingParameter(name = "_idvc", min = 0)
-  private Integer visitorVisitCount;
+  public Integer getVisitorVisitCount() {
+    return (Integer) parameters.get(VISITOR_VISIT_COUNT);
+  }
+
+  /** See {@link #getVisitorVisitCount()}. */
+  public void setVisitorVisitCount(Integer visitorVisitCount) {
+    parameters.set(VISITOR_VISIT_COUNT, visitorVisitCount);
+  }
 
   /**
    * The UNIX timestamp of this visitor's previous visit. This parameter is used to populate the
    * report Visitors > Engagement > Visits by days since last visit.
    */
-  @TrackingParameter(name = "_viewts")
-  private Instant visitorPreviousVisitTimestamp;
+  public Instant getVisitorPreviousVisitTimestamp() {
+    return (Instant) parameters.get(VISITOR_PREVIOUS_VISIT_TIMESTAMP);
+  }
+
+  /** See {@link #getVisitorPreviousVisitTimestamp()}. */
+  public void setVisitorPreviousVisitTimestamp(Instant visitorPreviousVisitTimestamp) {
+    parameters.set(VISITOR_PREVIOUS_VISIT_TIMESTAMP, visitorPreviousVisitTimestamp);
+  }
 
   /**
    * The UNIX timestamp of this visitor's first visit. This could be set to the date where the user
    * first started using your software/app, or when he/she created an account.
    */
-  @TrackingParameter(name = "_idts")
-  private Instant visitorFirstVisitTimestamp;
+  public Instant getVisitorFirstVisitTimestamp() {
+    return (Instant) parameters.get(VISITOR_FIRST_VISIT_TIMESTAMP);
+  }
+
+  /** See {@link #getVisitorFirstVisitTimestamp()}. */
+  public void setVisitorFirstVisitTimestamp(Instant visitorFirstVisitTimestamp) {
+    parameters.set(VISITOR_FIRST_VISIT_TIMESTAMP, visitorFirstVisitTimestamp);
+  }
 
   /** The campaign name. This parameter will only be used for the first pageview of a visit. */
-  @TrackingParameter(name = "_rcn")
-  private String campaignName;
+  public String getCampaignName() {
+    return (String) parameters.get(CAMPAIGN_NAME);
+  }
+
+  /** See {@link #getCampaignName()}. */
+  public void setCampaignName(String campaignName) {
+    parameters.set(CAMPAIGN_NAME, campaignName);
+  }
 
   /**
    * The campaign keyword (see <a href="https://matomo.org/docs/tracking-campaigns/">Tracking
@@ -141,68 +657,164 @@ public class MatomoRequest {
    * campaign loads all keywords for this campaign). This parameter will only be used for the first
    * pageview of a visit.
    */
-  @TrackingParameter(name = "_rck")
-  private String campaignKeyword;
+  public String getCampaignKeyword() {
+    return (String) parameters.get(CAMPAIGN_KEYWORD);
+  }
+
+  /** See {@link #getCampaignKeyword()}. */
+  public void setCampaignKeyword(String campaignKeyword) {
+    parameters.set(CAMPAIGN_KEYWORD, campaignKeyword);
+  }
 
   /** The resolution of the device the visitor is using. */
-  @TrackingParameter(name = "res")
-  private DeviceResolution deviceResolution;
+  public DeviceResolution getDeviceResolution() {
+    return (DeviceResolution) parameters.get(DEVICE_RESOLUTION);
+  }
+
+  /** See {@link #getDeviceResolution()}. */
+  public void setDeviceResolution(DeviceResolution deviceResolution) {
+    parameters.set(DEVICE_RESOLUTION, deviceResolution);
+  }
 
   /** The current hour (local time). */
-  @TrackingParameter(name = "h", min = 0, max = 23)
-  private Integer currentHour;
+  public Integer getCurrentHour() {
+    return (Integer) parameters.get(CURRENT_HOUR);
+  }
+
+  /** See {@link #getCurrentHour()}. */
+  public void setCurrentHour(Integer currentHour) {
+    parameters.set(CURRENT_HOUR, currentHour);
+  }
 
   /** The current minute (local time). */
-  @TrackingParameter(name = "m", min = 0, max = 59)
-  private Integer currentMinute;
+  public Integer getCurrentMinute() {
+    return (Integer) parameters.get(CURRENT_MINUTE);
+  }
+
+  /** See {@link #getCurrentMinute()}. */
+  public void setCurrentMinute(Integer currentMinute) {
+    parameters.set(CURRENT_MINUTE, currentMinute);
+  }
 
   /** The current second (local time). */
-  @TrackingParameter(name = "s", min = 0, max = 59)
-  private Integer currentSecond;
+  public Integer getCurrentSecond() {
+    return (Integer) parameters.get(CURRENT_SECOND);
+  }
+
+  /** See {@link #getCurrentSecond()}. */
+  public void setCurrentSecond(Integer currentSecond) {
+    parameters.set(CURRENT_SECOND, currentSecond);
+  }
 
   /** Does the visitor use the Adobe Flash Plugin. */
-  @TrackingParameter(name = "fla")
-  private Boolean pluginFlash;
+  public Boolean getPluginFlash() {
+    return (Boolean) parameters.get(PLUGIN_FLASH);
+  }
+
+  /** See {@link #getPluginFlash()}. */
+  public void setPluginFlash(Boolean pluginFlash) {
+    parameters.set(PLUGIN_FLASH, pluginFlash);
+  }
 
   /** Does the visitor use the Java plugin. */
-  @TrackingParameter(name = "java")
-  private Boolean pluginJava;
+  public Boolean getPluginJava() {
+    return (Boolean) parameters.get(PLUGIN_JAVA);
+  }
+
+  /** See {@link #getPluginJava()}. */
+  public void setPluginJava(Boolean pluginJava) {
+    parameters.set(PLUGIN_JAVA, pluginJava);
+  }
 
   /** Does the visitor use Director plugin. */
-  @TrackingParameter(name = "dir")
-  private Boolean pluginDirector;
+  public Boolean getPluginDirector() {
+    return (Boolean) parameters.get(PLUGIN_DIRECTOR);
+  }
+
+  /** See {@link #getPluginDirector()}. */
+  public void setPluginDirector(Boolean pluginDirector) {
+    parameters.set(PLUGIN_DIRECTOR, pluginDirector);
+  }
 
   /** Does the visitor use Quicktime plugin. */
-  @TrackingParameter(name = "qt")
-  private Boolean pluginQuicktime;
+  public Boolean getPluginQuicktime() {
+    return (Boolean) parameters.get(PLUGIN_QUICKTIME);
+  }
+
+  /** See {@link #getPluginQuicktime()}. */
+  public void setPluginQuicktime(Boolean pluginQuicktime) {
+    parameters.set(PLUGIN_QUICKTIME, pluginQuicktime);
+  }
 
   /** Does the visitor use Realplayer plugin. */
-  @TrackingParameter(name = "realp")
-  private Boolean pluginRealPlayer;
+  public Boolean getPluginRealPlayer() {
+    return (Boolean) parameters.get(PLUGIN_REAL_PLAYER);
+  }
+
+  /** See {@link #getPluginRealPlayer()}. */
+  public void setPluginRealPlayer(Boolean pluginRealPlayer) {
+    parameters.set(PLUGIN_REAL_PLAYER, pluginRealPlayer);
+  }
 
   /** Does the visitor use a PDF plugin. */
-  @TrackingParameter(name = "pdf")
-  private Boolean pluginPDF;
+  public Boolean getPluginPDF() {
+    return (Boolean) parameters.get(PLUGIN_PDF);
+  }
+
+  /** See {@link #getPluginPDF()}. */
+  public void setPluginPDF(Boolean pluginPDF) {
+    parameters.set(PLUGIN_PDF, pluginPDF);
+  }
 
   /** Does the visitor use a Windows Media plugin. */
-  @TrackingParameter(name = "wma")
-  private Boolean pluginWindowsMedia;
+  public Boolean getPluginWindowsMedia() {
+    return (Boolean) parameters.get(PLUGIN_WINDOWS_MEDIA);
+  }
+
+  /** See {@link #getPluginWindowsMedia()}. */
+  public void setPluginWindowsMedia(Boolean pluginWindowsMedia) {
+    parameters.set(PLUGIN_WINDOWS_MEDIA, pluginWindowsMedia);
+  }
 
   /** Does the visitor use a Gears plugin. */
-  @TrackingParameter(name = "gears")
-  private Boolean pluginGears;
+  public Boolean getPluginGears() {
+    return (Boolean) parameters.get(PLUGIN_GEARS);
+  }
+
+  /** See {@link #getPluginGears()}. */
+  public void setPluginGears(Boolean pluginGears) {
+    parameters.set(PLUGIN_GEARS, pluginGears);
+  }
 
   /** Does the visitor use a Silverlight plugin. */
-  @TrackingParameter(name = "ag")
-  private Boolean pluginSilverlight;
+  public Boolean getPluginSilverlight() {
+    return (Boolean) parameters.get(PLUGIN_SILVERLIGHT);
+  }
+
+  /** See {@link #getPluginSilverlight()}. */
+  public void setPluginSilverlight(Boolean pluginSilverlight) {
+    parameters.set(PLUGIN_SILVERLIGHT, pluginSilverlight);
+  }
 
   /** Does the visitor's client is known to support cookies. */
-  @TrackingParameter(name = "cookie")
-  private Boolean supportsCookies;
+  public Boolean getSupportsCookies() {
+    return (Boolean) parameters.get(SUPPORTS_COOKIES);
+  }
+
+  /** See {@link #getSupportsCookies()}. */
+  public void setSupportsCookies(Boolean supportsCookies) {
+    parameters.set(SUPPORTS_COOKIES, supportsCookies);
+  }
 
   /** An override value for the User-Agent HTTP header field. */
-  @TrackingParameter(name = "ua")
-  private String headerUserAgent;
+  public String getHeaderUserAgent() {
+    return (String) parameters.get(HEADER_USER_AGENT);
+  }
+
+  /** See {@link #getHeaderUserAgent()}. */
+  public void setHeaderUserAgent(String headerUserAgent) {
+    parameters.set(HEADER_USER_AGENT, headerUserAgent);
+  }
 
   /**
    * JSON-encoded <a
@@ -211,15 +823,27 @@ public class MatomoRequest {
    *
    * <p>Example: {@code {"brands":[{"brand":"Chromium","version":"110"}],"mobile":false}}
    */
-  @TrackingParameter(name = "uadata")
-  private String clientHints;
+  public String getClientHints() {
+    return (String) parameters.get(CLIENT_HINTS);
+  }
+
+  /** See {@link #getClientHints()}. */
+  public void setClientHints(String clientHints) {
+    parameters.set(CLIENT_HINTS, clientHints);
+  }
 
   /**
    * An override value for the Accept-Language HTTP header field. This value is used to detect the
    * visitor's country if GeoIP is not enabled.
    */
-  @TrackingParameter(name = "lang")
-  private AcceptLanguage headerAcceptLanguage;
+  public AcceptLanguage getHeaderAcceptLanguage() {
+    return (AcceptLanguage) parameters.get(HEADER_ACCEPT_LANGUAGE);
+  }
+
+  /** See {@link #getHeaderAcceptLanguage()}. */
+  public void setHeaderAcceptLanguage(AcceptLanguage headerAcceptLanguage) {
+    parameters.set(HEADER_ACCEPT_LANGUAGE, headerAcceptLanguage);
+  }
 
   /**
    * Defines the User ID for this request. User ID is any non-empty unique string identifying the
@@ -228,56 +852,110 @@ public class MatomoRequest {
    * visit is found in the last 30 minutes with your specified User ID, then the new action will be
    * recorded to this existing visit.
    */
-  @TrackingParameter(name = "uid")
-  private String userId;
+  public String getUserId() {
+    return (String) parameters.get(USER_ID);
+  }
+
+  /** See {@link #getUserId()}. */
+  public void setUserId(String userId) {
+    parameters.set(USER_ID, userId);
+  }
 
   /** defines the visitor ID for this request. */
-  @TrackingParameter(name = "cid")
-  private VisitorId visitorCustomId;
+  public VisitorId getVisitorCustomId() {
+    return (VisitorId) parameters.get(VISITOR_CUSTOM_ID);
+  }
+
+  /** See {@link #getVisitorCustomId()}. */
+  public void setVisitorCustomId(VisitorId visitorCustomId) {
+    parameters.set(VISITOR_CUSTOM_ID, visitorCustomId);
+  }
 
   /** will force a new visit to be created for this action. */
-  @TrackingParameter(name = "new_visit")
-  private Boolean newVisit;
+  public Boolean getNewVisit() {
+    return (Boolean) parameters.get(NEW_VISIT);
+  }
+
+  /** See {@link #getNewVisit()}. */
+  public void setNewVisit(Boolean newVisit) {
+    parameters.set(NEW_VISIT, newVisit);
+  }
 
   /**
    * Custom variables are custom name-value pairs that you can assign to your visitors (or page
    * views).
    */
-  @TrackingParameter(name = "cvar")
-  private CustomVariables pageCustomVariables;
+  public CustomVariables getPageCustomVariables() {
+    return (CustomVariables) parameters.get(PAGE_CUSTOM_VARIABLES);
+  }
+
+  /** See {@link #getPageCustomVariables()}. */
+  public void setPageCustomVariables(CustomVariables pageCustomVariables) {
+    parameters.set(PAGE_CUSTOM_VARIABLES, pageCustomVariables);
+  }
 
   /**
    * An external URL the user has opened. Used for tracking outlink clicks. We recommend to also set
    * the url parameter to this same value.
    */
-  @TrackingParameter(name = "link")
-  private String outlinkUrl;
+  public String getOutlinkUrl() {
+    return (String) parameters.get(OUTLINK_URL);
+  }
+
+  /** See {@link #getOutlinkUrl()}. */
+  public void setOutlinkUrl(String outlinkUrl) {
+    parameters.set(OUTLINK_URL, outlinkUrl);
+  }
 
   /**
    * URL of a file the user has downloaded. Used for tracking downloads. We recommend to also set
    * the url parameter to this same value.
    */
-  @TrackingParameter(name = "download")
-  private String downloadUrl;
+  public String getDownloadUrl() {
+    return (String) parameters.get(DOWNLOAD_URL);
+  }
+
+  /** See {@link #getDownloadUrl()}. */
+  public void setDownloadUrl(String downloadUrl) {
+    parameters.set(DOWNLOAD_URL, downloadUrl);
+  }
 
   /**
    * The Site Search keyword. When specified, the request will not be tracked as a normal pageview
    * but will instead be tracked as a Site Search request
    */
-  @TrackingParameter(name = "search")
-  private String searchQuery;
+  public String getSearchQuery() {
+    return (String) parameters.get(SEARCH_QUERY);
+  }
+
+  /** See {@link #getSearchQuery()}. */
+  public void setSearchQuery(String searchQuery) {
+    parameters.set(SEARCH_QUERY, searchQuery);
+  }
 
   /** When search is specified, you can optionally specify a search category with this parameter. */
-  @TrackingParameter(name = "search_cat")
-  private String searchCategory;
+  public String getSearchCategory() {
+    return (String) parameters.get(SEARCH_CATEGORY);
+  }
+
+  /** See {@link #getSearchCategory()}. */
+  public void setSearchCategory(String searchCategory) {
+    parameters.set(SEARCH_CATEGORY, searchCategory);
+  }
 
   /**
    * When search is specified, we also recommend setting the search_count to the number of search
    * results displayed on the results page. When keywords are tracked with &search_count=0 they will
    * appear in the "No Result Search Keyword" report.
    */
-  @TrackingParameter(name = "search_count", min = 0)
-  private Long searchResultsCount;
+  public Long getSearchResultsCount() {
+    return (Long) parameters.get(SEARCH_RESULTS_COUNT);
+  }
+
+  /** See {@link #getSearchResultsCount()}. */
+  public void setSearchResultsCount(Long searchResultsCount) {
+    parameters.set(SEARCH_RESULTS_COUNT, searchResultsCount);
+  }
 
   /**
    * Accepts a six character unique ID that identifies which actions were performed on a specific
@@ -285,26 +963,50 @@ public class MatomoRequest {
    * page view should use the same pageview ID. Once another page was viewed a new unique ID should
    * be generated. Use [0-9a-Z] as possible characters for the unique ID.
    */
-  @TrackingParameter(name = "pv_id")
-  private UniqueId pageViewId;
+  public UniqueId getPageViewId() {
+    return (UniqueId) parameters.get(PAGE_VIEW_ID);
+  }
+
+  /** See {@link #getPageViewId()}. */
+  public void setPageViewId(UniqueId pageViewId) {
+    parameters.set(PAGE_VIEW_ID, pageViewId);
+  }
 
   /**
    * If specified, the tracking request will trigger a conversion for the goal of the website being
    * tracked with this ID. The value 0 tracks an ecommerce interaction.
    */
-  @TrackingParameter(name = "idgoal", min = 0)
-  private Integer goalId;
+  public Integer getGoalId() {
+    return (Integer) parameters.get(GOAL_ID);
+  }
+
+  /** See {@link #getGoalId()}. */
+  public void setGoalId(Integer goalId) {
+    parameters.set(GOAL_ID, goalId);
+  }
 
   /** The grand total for the ecommerce order (required when tracking an ecommerce order). */
-  @TrackingParameter(name = "revenue", min = 0)
-  private Double ecommerceRevenue;
+  public Double getEcommerceRevenue() {
+    return (Double) parameters.get(ECOMMERCE_REVENUE);
+  }
+
+  /** See {@link #getEcommerceRevenue()}. */
+  public void setEcommerceRevenue(Double ecommerceRevenue) {
+    parameters.set(ECOMMERCE_REVENUE, ecommerceRevenue);
+  }
 
   /**
    * The charset of the page being tracked. Specify the charset if the data you send to Matomo is
    * encoded in a different character set than the default utf-8
    */
-  @TrackingParameter(name = "cs")
-  private Charset characterSet;
+  public Charset getCharacterSet() {
+    return (Charset) parameters.get(CHARACTER_SET);
+  }
+
+  /** See {@link #getCharacterSet()}. */
+  public void setCharacterSet(Charset characterSet) {
+    parameters.set(CHARACTER_SET, characterSet);
+  }
 
   /**
    * can be optionally sent along any tracking request that isn't a page view. For example, it can
@@ -312,120 +1014,264 @@ public class MatomoRequest {
    * disable the event plugin, then the event tracking requests will be ignored vs if the parameter
    * is not set, a page view would be tracked even though it isn't a page view.
    */
-  @TrackingParameter(name = "ca")
-  private Boolean customAction;
+  public Boolean getCustomAction() {
+    return (Boolean) parameters.get(CUSTOM_ACTION);
+  }
+
+  /** See {@link #getCustomAction()}. */
+  public void setCustomAction(Boolean customAction) {
+    parameters.set(CUSTOM_ACTION, customAction);
+  }
 
   /** How long it took to connect to server. */
-  @TrackingParameter(name = "pf_net", min = 0)
-  private Long networkTime;
+  public Long getNetworkTime() {
+    return (Long) parameters.get(NETWORK_TIME);
+  }
+
+  /** See {@link #getNetworkTime()}. */
+  public void setNetworkTime(Long networkTime) {
+    parameters.set(NETWORK_TIME, networkTime);
+  }
 
   /** How long it took the server to generate page. */
-  @TrackingParameter(name = "pf_srv", min = 0)
-  private Long serverTime;
+  public Long getServerTime() {
+    return (Long) parameters.get(SERVER_TIME);
+  }
+
+  /** See {@link #getServerTime()}. */
+  public void setServerTime(Long serverTime) {
+    parameters.set(SERVER_TIME, serverTime);
+  }
 
   /** How long it takes the browser to download the response from the server. */
-  @TrackingParameter(name = "pf_tfr", min = 0)
-  private Long transferTime;
+  public Long getTransferTime() {
+    return (Long) parameters.get(TRANSFER_TIME);
+  }
+
+  /** See {@link #getTransferTime()}. */
+  public void setTransferTime(Long transferTime) {
+    parameters.set(TRANSFER_TIME, transferTime);
+  }
 
   /**
    * How long the browser spends loading the webpage after the response was fully received until the
    * user can start interacting with it.
    */
-  @TrackingParameter(name = "pf_dm1", min = 0)
-  private Long domProcessingTime;
+  public Long getDomProcessingTime() {
+    return (Long) parameters.get(DOM_PROCESSING_TIME);
+  }
+
+  /** See {@link #getDomProcessingTime()}. */
+  public void setDomProcessingTime(Long domProcessingTime) {
+    parameters.set(DOM_PROCESSING_TIME, domProcessingTime);
+  }
 
   /**
    * How long it takes for the browser to load media and execute any Javascript code listening for
    * the DOMContentLoaded event.
    */
-  @TrackingParameter(name = "pf_dm2", min = 0)
-  private Long domCompletionTime;
+  public Long getDomCompletionTime() {
+    return (Long) parameters.get(DOM_COMPLETION_TIME);
+  }
+
+  /** See {@link #getDomCompletionTime()}. */
+  public void setDomCompletionTime(Long domCompletionTime) {
+    parameters.set(DOM_COMPLETION_TIME, domCompletionTime);
+  }
 
   /** How long it takes the browser to execute Javascript code waiting for the window.load event. */
-  @TrackingParameter(name = "pf_onl", min = 0)
-  private Long onloadTime;
+  public Long getOnloadTime() {
+    return (Long) parameters.get(ONLOAD_TIME);
+  }
+
+  /** See {@link #getOnloadTime()}. */
+  public void setOnloadTime(Long onloadTime) {
+    parameters.set(ONLOAD_TIME, onloadTime);
+  }
 
   /** eg. Videos, Music, Games... */
-  @TrackingParameter(name = "e_c")
-  private String eventCategory;
+  public String getEventCategory() {
+    return (String) parameters.get(EVENT_CATEGORY);
+  }
+
+  /** See {@link #getEventCategory()}. */
+  public void setEventCategory(String eventCategory) {
+    parameters.set(EVENT_CATEGORY, eventCategory);
+  }
 
   /** An event action like Play, Pause, Duration, Add Playlist, Downloaded, Clicked... */
-  @TrackingParameter(name = "e_a")
-  private String eventAction;
+  public String getEventAction() {
+    return (String) parameters.get(EVENT_ACTION);
+  }
+
+  /** See {@link #getEventAction()}. */
+  public void setEventAction(String eventAction) {
+    parameters.set(EVENT_ACTION, eventAction);
+  }
 
   /** The event name for example a Movie name, or Song name, or File name... */
-  @TrackingParameter(name = "e_n")
-  private String eventName;
+  public String getEventName() {
+    return (String) parameters.get(EVENT_NAME);
+  }
+
+  /** See {@link #getEventName()}. */
+  public void setEventName(String eventName) {
+    parameters.set(EVENT_NAME, eventName);
+  }
 
   /** Some numeric value that represents the event value. */
-  @TrackingParameter(name = "e_v", min = 0)
-  private Double eventValue;
+  public Double getEventValue() {
+    return (Double) parameters.get(EVENT_VALUE);
+  }
+
+  /** See {@link #getEventValue()}. */
+  public void setEventValue(Double eventValue) {
+    parameters.set(EVENT_VALUE, eventValue);
+  }
 
   /** The name of the content. For instance 'Ad Foo Bar' */
-  @TrackingParameter(name = "c_n")
-  private String contentName;
+  public String getContentName() {
+    return (String) parameters.get(CONTENT_NAME);
+  }
+
+  /** See {@link #getContentName()}. */
+  public void setContentName(String contentName) {
+    parameters.set(CONTENT_NAME, contentName);
+  }
 
   /** The actual content piece. For instance the path to an image, video, audio, any text */
-  @TrackingParameter(name = "c_p")
-  private String contentPiece;
+  public String getContentPiece() {
+    return (String) parameters.get(CONTENT_PIECE);
+  }
+
+  /** See {@link #getContentPiece()}. */
+  public void setContentPiece(String contentPiece) {
+    parameters.set(CONTENT_PIECE, contentPiece);
+  }
 
   /** The target of the content. For instance the URL of a landing page */
-  @TrackingParameter(name = "c_t")
-  private String contentTarget;
+  public String getContentTarget() {
+    return (String) parameters.get(CONTENT_TARGET);
+  }
+
+  /** See {@link #getContentTarget()}. */
+  public void setContentTarget(String contentTarget) {
+    parameters.set(CONTENT_TARGET, contentTarget);
+  }
 
   /** The name of the interaction with the content. For instance a 'click' */
-  @TrackingParameter(name = "c_i")
-  private String contentInteraction;
+  public String getContentInteraction() {
+    return (String) parameters.get(CONTENT_INTERACTION);
+  }
+
+  /** See {@link #getContentInteraction()}. */
+  public void setContentInteraction(String contentInteraction) {
+    parameters.set(CONTENT_INTERACTION, contentInteraction);
+  }
 
   /**
    * The unique string identifier for the ecommerce order (required when tracking an ecommerce
    * order).
    */
-  @TrackingParameter(name = "ec_id")
-  private String ecommerceId;
+  public String getEcommerceId() {
+    return (String) parameters.get(ECOMMERCE_ID);
+  }
+
+  /** See {@link #getEcommerceId()}. */
+  public void setEcommerceId(String ecommerceId) {
+    parameters.set(ECOMMERCE_ID, ecommerceId);
+  }
 
   /** Items in the Ecommerce order. */
-  @TrackingParameter(name = "ec_items")
-  private EcommerceItems ecommerceItems;
+  public EcommerceItems getEcommerceItems() {
+    return (EcommerceItems) parameters.get(ECOMMERCE_ITEMS);
+  }
+
+  /** See {@link #getEcommerceItems()}. */
+  public void setEcommerceItems(EcommerceItems ecommerceItems) {
+    parameters.set(ECOMMERCE_ITEMS, ecommerceItems);
+  }
 
   /** The subtotal of the order; excludes shipping. */
-  @TrackingParameter(name = "ec_st", min = 0)
-  private Double ecommerceSubtotal;
+  public Double getEcommerceSubtotal() {
+    return (Double) parameters.get(ECOMMERCE_SUBTOTAL);
+  }
+
+  /** See {@link #getEcommerceSubtotal()}. */
+  public void setEcommerceSubtotal(Double ecommerceSubtotal) {
+    parameters.set(ECOMMERCE_SUBTOTAL, ecommerceSubtotal);
+  }
 
   /** Tax amount of the order. */
-  @TrackingParameter(name = "ec_tx", min = 0)
-  private Double ecommerceTax;
+  public Double getEcommerceTax() {
+    return (Double) parameters.get(ECOMMERCE_TAX);
+  }
+
+  /** See {@link #getEcommerceTax()}. */
+  public void setEcommerceTax(Double ecommerceTax) {
+    parameters.set(ECOMMERCE_TAX, ecommerceTax);
+  }
 
   /** Shipping cost of the order. */
-  @TrackingParameter(name = "ec_sh", min = 0)
-  private Double ecommerceShippingCost;
+  public Double getEcommerceShippingCost() {
+    return (Double) parameters.get(ECOMMERCE_SHIPPING_COST);
+  }
+
+  /** See {@link #getEcommerceShippingCost()}. */
+  public void setEcommerceShippingCost(Double ecommerceShippingCost) {
+    parameters.set(ECOMMERCE_SHIPPING_COST, ecommerceShippingCost);
+  }
 
   /** Discount offered. */
-  @TrackingParameter(name = "ec_dt", min = 0)
-  private Double ecommerceDiscount;
+  public Double getEcommerceDiscount() {
+    return (Double) parameters.get(ECOMMERCE_DISCOUNT);
+  }
+
+  /** See {@link #getEcommerceDiscount()}. */
+  public void setEcommerceDiscount(Double ecommerceDiscount) {
+    parameters.set(ECOMMERCE_DISCOUNT, ecommerceDiscount);
+  }
 
   /**
    * The UNIX timestamp of this customer's last ecommerce order. This value is used to process the
    * "Days since last order" report.
    */
-  @TrackingParameter(name = "_ects")
-  private Instant ecommerceLastOrderTimestamp;
+  public Instant getEcommerceLastOrderTimestamp() {
+    return (Instant) parameters.get(ECOMMERCE_LAST_ORDER_TIMESTAMP);
+  }
+
+  /** See {@link #getEcommerceLastOrderTimestamp()}. */
+  public void setEcommerceLastOrderTimestamp(Instant ecommerceLastOrderTimestamp) {
+    parameters.set(ECOMMERCE_LAST_ORDER_TIMESTAMP, ecommerceLastOrderTimestamp);
+  }
 
   /**
    * The SKU of the product being viewed. Used for ecommerce product page tracking.
    *
    * <p>Requires {@code idgoal=0} and {@code _pks} to be set.
    */
-  @TrackingParameter(name = "_pks")
-  private String ecommerceProductSku;
+  public String getEcommerceProductSku() {
+    return (String) parameters.get(ECOMMERCE_PRODUCT_SKU);
+  }
+
+  /** See {@link #getEcommerceProductSku()}. */
+  public void setEcommerceProductSku(String ecommerceProductSku) {
+    parameters.set(ECOMMERCE_PRODUCT_SKU, ecommerceProductSku);
+  }
 
   /**
    * The name of the product being viewed. Used for ecommerce product page tracking.
    *
    * <p>Requires {@code idgoal=0} and {@code _pks} to be set.
    */
-  @TrackingParameter(name = "_pkn")
-  private String ecommerceProductName;
+  public String getEcommerceProductName() {
+    return (String) parameters.get(ECOMMERCE_PRODUCT_NAME);
+  }
+
+  /** See {@link #getEcommerceProductName()}. */
+  public void setEcommerceProductName(String ecommerceProductName) {
+    parameters.set(ECOMMERCE_PRODUCT_NAME, ecommerceProductName);
+  }
 
   /**
    * The category of the product being viewed. Used for ecommerce product page tracking.
@@ -434,66 +1280,132 @@ public class MatomoRequest {
    *
    * <p>Requires {@code idgoal=0} and {@code _pks} to be set.
    */
-  @TrackingParameter(name = "_pkc")
-  private String ecommerceProductCategory;
+  public String getEcommerceProductCategory() {
+    return (String) parameters.get(ECOMMERCE_PRODUCT_CATEGORY);
+  }
+
+  /** See {@link #getEcommerceProductCategory()}. */
+  public void setEcommerceProductCategory(String ecommerceProductCategory) {
+    parameters.set(ECOMMERCE_PRODUCT_CATEGORY, ecommerceProductCategory);
+  }
 
   /**
    * The price of the product being viewed. Used for ecommerce product page tracking.
    *
    * <p>Requires {@code idgoal=0} and {@code _pks} to be set.
    */
-  @TrackingParameter(name = "_pkp", min = 0)
-  private Double ecommerceProductPrice;
+  public Double getEcommerceProductPrice() {
+    return (Double) parameters.get(ECOMMERCE_PRODUCT_PRICE);
+  }
+
+  /** See {@link #getEcommerceProductPrice()}. */
+  public void setEcommerceProductPrice(Double ecommerceProductPrice) {
+    parameters.set(ECOMMERCE_PRODUCT_PRICE, ecommerceProductPrice);
+  }
 
   /**
    * 32 character authorization key used to authenticate the API request. We recommend to create a
    * user specifically for accessing the Tracking API, and give the user only write permission on
    * the website(s).
    */
-  @TrackingParameter(name = "token_auth", regex = "[a-z0-9]{32}")
-  private String authToken;
+  public String getAuthToken() {
+    return (String) parameters.get(AUTH_TOKEN);
+  }
+
+  /** See {@link #getAuthToken()}. */
+  public void setAuthToken(String authToken) {
+    parameters.set(AUTH_TOKEN, authToken);
+  }
 
   /** Override value for the visitor IP (both IPv4 and IPv6 notations supported). */
-  @TrackingParameter(name = "cip")
-  private String visitorIp;
+  public String getVisitorIp() {
+    return (String) parameters.get(VISITOR_IP);
+  }
+
+  /** See {@link #getVisitorIp()}. */
+  public void setVisitorIp(String visitorIp) {
+    parameters.set(VISITOR_IP, visitorIp);
+  }
 
   /**
    * Override for the datetime of the request (normally the current time is used). This can be used
    * to record visits and page views in the past.
    */
-  @TrackingParameter(name = "cdt")
-  private Instant requestTimestamp;
+  public Instant getRequestTimestamp() {
+    return (Instant) parameters.get(REQUEST_TIMESTAMP);
+  }
+
+  /** See {@link #getRequestTimestamp()}. */
+  public void setRequestTimestamp(Instant requestTimestamp) {
+    parameters.set(REQUEST_TIMESTAMP, requestTimestamp);
+  }
 
   /** An override value for the country. Must be a two-letter ISO 3166 Alpha-2 country code. */
-  @TrackingParameter(name = "country", maxLength = 2)
-  private Country visitorCountry;
+  public Country getVisitorCountry() {
+    return (Country) parameters.get(VISITOR_COUNTRY);
+  }
+
+  /** See {@link #getVisitorCountry()}. */
+  public void setVisitorCountry(Country visitorCountry) {
+    parameters.set(VISITOR_COUNTRY, visitorCountry);
+  }
 
   /**
    * An override value for the region. Should be set to a ISO 3166-2 region code, which are used by
    * MaxMind's and DB-IP's GeoIP2 databases. See here for a list of them for every country.
    */
-  @TrackingParameter(name = "region", maxLength = 2)
-  private String visitorRegion;
+  public String getVisitorRegion() {
+    return (String) parameters.get(VISITOR_REGION);
+  }
+
+  /** See {@link #getVisitorRegion()}. */
+  public void setVisitorRegion(String visitorRegion) {
+    parameters.set(VISITOR_REGION, visitorRegion);
+  }
 
   /** An override value for the city. The name of the city the visitor is located in, eg, Tokyo. */
-  @TrackingParameter(name = "city")
-  private String visitorCity;
+  public String getVisitorCity() {
+    return (String) parameters.get(VISITOR_CITY);
+  }
+
+  /** See {@link #getVisitorCity()}. */
+  public void setVisitorCity(String visitorCity) {
+    parameters.set(VISITOR_CITY, visitorCity);
+  }
 
   /** An override value for the visitor's latitude, eg 22.456. */
-  @TrackingParameter(name = "lat", min = -90, max = 90)
-  private Double visitorLatitude;
+  public Double getVisitorLatitude() {
+    return (Double) parameters.get(VISITOR_LATITUDE);
+  }
+
+  /** See {@link #getVisitorLatitude()}. */
+  public void setVisitorLatitude(Double visitorLatitude) {
+    parameters.set(VISITOR_LATITUDE, visitorLatitude);
+  }
 
   /** An override value for the visitor's longitude, eg 22.456. */
-  @TrackingParameter(name = "long", min = -180, max = 180)
-  private Double visitorLongitude;
+  public Double getVisitorLongitude() {
+    return (Double) parameters.get(VISITOR_LONGITUDE);
+  }
+
+  /** See {@link #getVisitorLongitude()}. */
+  public void setVisitorLongitude(Double visitorLongitude) {
+    parameters.set(VISITOR_LONGITUDE, visitorLongitude);
+  }
 
   /**
    * When set to false, the queued tracking handler won't be used and instead the tracking request
    * will be executed directly. This can be useful when you need to debug a tracking problem or want
    * to test that the tracking works in general.
    */
-  @TrackingParameter(name = "queuedtracking")
-  private Boolean queuedTracking;
+  public Boolean getQueuedTracking() {
+    return (Boolean) parameters.get(QUEUED_TRACKING);
+  }
+
+  /** See {@link #getQueuedTracking()}. */
+  public void setQueuedTracking(Boolean queuedTracking) {
+    parameters.set(QUEUED_TRACKING, queuedTracking);
+  }
 
   /**
    * If set to 0 (send_image=0) Matomo will respond with an HTTP 204 response code instead of a GIF
@@ -502,9 +1414,14 @@ public class MatomoRequest {
    *
    * <p>Default is {@code false}
    */
-  @TrackingParameter(name = "send_image")
-  @Default
-  private Boolean responseAsImage = false;
+  public Boolean getResponseAsImage() {
+    return (Boolean) parameters.get(RESPONSE_AS_IMAGE);
+  }
+
+  /** See {@link #getResponseAsImage()}. */
+  public void setResponseAsImage(Boolean responseAsImage) {
+    parameters.set(RESPONSE_AS_IMAGE, responseAsImage);
+  }
 
   /**
    * If set to true, the request will be a Heartbeat request which will not track any new activity
@@ -514,142 +1431,261 @@ public class MatomoRequest {
    * leaves your site or app with &ping=1, you fix the issue where the time spent of the last page
    * visited is reported as 0 seconds.
    */
-  @TrackingParameter(name = "ping")
-  private Boolean ping;
+  public Boolean getPing() {
+    return (Boolean) parameters.get(PING);
+  }
+
+  /** See {@link #getPing()}. */
+  public void setPing(Boolean ping) {
+    parameters.set(PING, ping);
+  }
 
   /**
    * By default, Matomo does not track bots. If you use the Tracking HTTP API directly, you may be
    * interested in tracking bot requests.
    */
-  @TrackingParameter(name = "bots")
-  private Boolean trackBotRequests;
+  public Boolean getTrackBotRequests() {
+    return (Boolean) parameters.get(TRACK_BOT_REQUESTS);
+  }
+
+  /** See {@link #getTrackBotRequests()}. */
+  public void setTrackBotRequests(Boolean trackBotRequests) {
+    parameters.set(TRACK_BOT_REQUESTS, trackBotRequests);
+  }
 
   /**
    * When {@code bots=1} is set, this specifies the recording mode for bot requests.
    *
    * <p>Set to {@code 1} to record bot requests without triggering any goals, events or actions.
    */
-  @TrackingParameter(name = "recMode")
-  private Integer botRecordingMode;
+  public Integer getBotRecordingMode() {
+    return (Integer) parameters.get(BOT_RECORDING_MODE);
+  }
+
+  /** See {@link #getBotRecordingMode()}. */
+  public void setBotRecordingMode(Integer botRecordingMode) {
+    parameters.set(BOT_RECORDING_MODE, botRecordingMode);
+  }
 
   /**
    * The HTTP status code of the tracked request. Used with bot tracking.
    *
    * <p>When tracking a bot visit, this can be set to the HTTP status code of the bot's request.
    */
-  @TrackingParameter(name = "http_status")
-  private Integer httpStatusCode;
+  public Integer getHttpStatusCode() {
+    return (Integer) parameters.get(HTTP_STATUS_CODE);
+  }
+
+  /** See {@link #getHttpStatusCode()}. */
+  public void setHttpStatusCode(Integer httpStatusCode) {
+    parameters.set(HTTP_STATUS_CODE, httpStatusCode);
+  }
 
   /** The bandwidth used for the tracked request in bytes. Used with bot tracking. */
-  @TrackingParameter(name = "bw_bytes", min = 0)
-  private Long bandwidthBytes;
+  public Long getBandwidthBytes() {
+    return (Long) parameters.get(BANDWIDTH_BYTES);
+  }
+
+  /** See {@link #getBandwidthBytes()}. */
+  public void setBandwidthBytes(Long bandwidthBytes) {
+    parameters.set(BANDWIDTH_BYTES, bandwidthBytes);
+  }
 
   /**
    * Defines the source of the tracking request (e.g., {@code "backend"} or {@code "mobile-app"}).
    *
    * <p>Used to classify where the tracking hit originated.
    */
-  @TrackingParameter(name = "source")
-  private String sourceLabel;
+  public String getSourceLabel() {
+    return (String) parameters.get(SOURCE_LABEL);
+  }
+
+  /** See {@link #getSourceLabel()}. */
+  public void setSourceLabel(String sourceLabel) {
+    parameters.set(SOURCE_LABEL, sourceLabel);
+  }
 
   /**
    * Meant to hold a random value that is generated before each request. Using it helps avoid the
    * tracking request being cached by the browser or a proxy.
    */
-  @TrackingParameter(name = "rand")
-  @Default
-  private RandomValue randomValue = RandomValue.random();
+  public RandomValue getRandomValue() {
+    return (RandomValue) parameters.get(RANDOM_VALUE);
+  }
+
+  /** See {@link #getRandomValue()}. */
+  public void setRandomValue(RandomValue randomValue) {
+    parameters.set(RANDOM_VALUE, randomValue);
+  }
 
   /**
    * Meant to hold a random value that is generated before each request. Using it helps avoid the
    * tracking request being cached by the browser or a proxy.
    */
-  @TrackingParameter(name = "debug")
-  private Boolean debug;
+  public Boolean getDebug() {
+    return (Boolean) parameters.get(DEBUG);
+  }
+
+  /** See {@link #getDebug()}. */
+  public void setDebug(Boolean debug) {
+    parameters.set(DEBUG, debug);
+  }
 
   /**
    * A unique ID used to identify the media. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_id")
-  private String mediaId;
+  public String getMediaId() {
+    return (String) parameters.get(MEDIA_ID);
+  }
+
+  /** See {@link #getMediaId()}. */
+  public void setMediaId(String mediaId) {
+    parameters.set(MEDIA_ID, mediaId);
+  }
 
   /**
    * The title of the media resource. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_ti")
-  private String mediaTitle;
+  public String getMediaTitle() {
+    return (String) parameters.get(MEDIA_TITLE);
+  }
+
+  /** See {@link #getMediaTitle()}. */
+  public void setMediaTitle(String mediaTitle) {
+    parameters.set(MEDIA_TITLE, mediaTitle);
+  }
 
   /**
    * The URL of the media resource. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_re")
-  private String mediaResource;
+  public String getMediaResource() {
+    return (String) parameters.get(MEDIA_RESOURCE);
+  }
+
+  /** See {@link #getMediaResource()}. */
+  public void setMediaResource(String mediaResource) {
+    parameters.set(MEDIA_RESOURCE, mediaResource);
+  }
 
   /**
    * The type of media, e.g. {@code "video"} or {@code "audio"}. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_mt")
-  private String mediaType;
+  public String getMediaType() {
+    return (String) parameters.get(MEDIA_TYPE);
+  }
+
+  /** See {@link #getMediaType()}. */
+  public void setMediaType(String mediaType) {
+    parameters.set(MEDIA_TYPE, mediaType);
+  }
 
   /**
    * The name of the media player used to play the media, e.g. {@code "html5"}. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_pn")
-  private String mediaPlayerName;
+  public String getMediaPlayerName() {
+    return (String) parameters.get(MEDIA_PLAYER_NAME);
+  }
+
+  /** See {@link #getMediaPlayerName()}. */
+  public void setMediaPlayerName(String mediaPlayerName) {
+    parameters.set(MEDIA_PLAYER_NAME, mediaPlayerName);
+  }
 
   /**
    * The number of seconds the visitor has spent playing/watching the media resource so far. Part of
    * the <a href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_st", min = 0)
-  private Integer mediaTimeSpent;
+  public Integer getMediaTimeSpent() {
+    return (Integer) parameters.get(MEDIA_TIME_SPENT);
+  }
+
+  /** See {@link #getMediaTimeSpent()}. */
+  public void setMediaTimeSpent(Integer mediaTimeSpent) {
+    parameters.set(MEDIA_TIME_SPENT, mediaTimeSpent);
+  }
 
   /**
    * The total duration / length of the media resource in seconds. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_le", min = 0)
-  private Integer mediaLength;
+  public Integer getMediaLength() {
+    return (Integer) parameters.get(MEDIA_LENGTH);
+  }
+
+  /** See {@link #getMediaLength()}. */
+  public void setMediaLength(Integer mediaLength) {
+    parameters.set(MEDIA_LENGTH, mediaLength);
+  }
 
   /**
    * The current progress of the media in percent (0–100). Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_ps", min = 0, max = 100)
-  private Integer mediaProgressPercent;
+  public Integer getMediaProgressPercent() {
+    return (Integer) parameters.get(MEDIA_PROGRESS_PERCENT);
+  }
+
+  /** See {@link #getMediaProgressPercent()}. */
+  public void setMediaProgressPercent(Integer mediaProgressPercent) {
+    parameters.set(MEDIA_PROGRESS_PERCENT, mediaProgressPercent);
+  }
 
   /**
    * How many seconds it took before the media started playing. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_ttp", min = 0)
-  private Integer mediaTimeToPlay;
+  public Integer getMediaTimeToPlay() {
+    return (Integer) parameters.get(MEDIA_TIME_TO_PLAY);
+  }
+
+  /** See {@link #getMediaTimeToPlay()}. */
+  public void setMediaTimeToPlay(Integer mediaTimeToPlay) {
+    parameters.set(MEDIA_TIME_TO_PLAY, mediaTimeToPlay);
+  }
 
   /**
    * The width of the media player in pixels. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_w", min = 0)
-  private Integer mediaWidth;
+  public Integer getMediaWidth() {
+    return (Integer) parameters.get(MEDIA_WIDTH);
+  }
+
+  /** See {@link #getMediaWidth()}. */
+  public void setMediaWidth(Integer mediaWidth) {
+    parameters.set(MEDIA_WIDTH, mediaWidth);
+  }
 
   /**
    * The height of the media player in pixels. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_h", min = 0)
-  private Integer mediaHeight;
+  public Integer getMediaHeight() {
+    return (Integer) parameters.get(MEDIA_HEIGHT);
+  }
+
+  /** See {@link #getMediaHeight()}. */
+  public void setMediaHeight(Integer mediaHeight) {
+    parameters.set(MEDIA_HEIGHT, mediaHeight);
+  }
 
   /**
    * Whether the media is currently displayed in fullscreen. Part of the <a
    * href="https://plugins.matomo.org/MediaAnalytics">Media Analytics</a> plugin.
    */
-  @TrackingParameter(name = "ma_fs")
-  private Boolean mediaFullscreen;
+  public Boolean getMediaFullscreen() {
+    return (Boolean) parameters.get(MEDIA_FULLSCREEN);
+  }
+
+  /** See {@link #getMediaFullscreen()}. */
+  public void setMediaFullscreen(Boolean mediaFullscreen) {
+    parameters.set(MEDIA_FULLSCREEN, mediaFullscreen);
+  }
 
   /**
    * A JSON-encoded array of which positions in the media were viewed by the visitor. Part of the <a
@@ -657,8 +1693,14 @@ public class MatomoRequest {
    *
    * <p>Example: {@code [[0,15],[30,44]]} means the visitor watched segments 0–15s and 30–44s.
    */
-  @TrackingParameter(name = "ma_se")
-  private String mediaSegmentsViewed;
+  public String getMediaSegmentsViewed() {
+    return (String) parameters.get(MEDIA_SEGMENTS_VIEWED);
+  }
+
+  /** See {@link #getMediaSegmentsViewed()}. */
+  public void setMediaSegmentsViewed(String mediaSegmentsViewed) {
+    parameters.set(MEDIA_SEGMENTS_VIEWED, mediaSegmentsViewed);
+  }
 
   /**
    * Contains an error message describing the error that occurred during the last tracking request.
@@ -667,8 +1709,14 @@ public class MatomoRequest {
    *
    * <p>Required for crash analytics
    */
-  @TrackingParameter(name = "cra")
-  private String crashMessage;
+  public String getCrashMessage() {
+    return (String) parameters.get(CRASH_MESSAGE);
+  }
+
+  /** See {@link #getCrashMessage()}. */
+  public void setCrashMessage(String crashMessage) {
+    parameters.set(CRASH_MESSAGE, crashMessage);
+  }
 
   /**
    * The type of exception that occurred during the last tracking request.
@@ -680,8 +1728,14 @@ public class MatomoRequest {
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_tp")
-  private String crashType;
+  public String getCrashType() {
+    return (String) parameters.get(CRASH_TYPE);
+  }
+
+  /** See {@link #getCrashType()}. */
+  public void setCrashType(String crashType) {
+    parameters.set(CRASH_TYPE, crashType);
+  }
 
   /**
    * Category of a crash to group crashes by.
@@ -690,8 +1744,14 @@ public class MatomoRequest {
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_ct")
-  private String crashCategory;
+  public String getCrashCategory() {
+    return (String) parameters.get(CRASH_CATEGORY);
+  }
+
+  /** See {@link #getCrashCategory()}. */
+  public void setCrashCategory(String crashCategory) {
+    parameters.set(CRASH_CATEGORY, crashCategory);
+  }
 
   /**
    * A stack trace of the exception that occurred during the last tracking request.
@@ -700,8 +1760,14 @@ public class MatomoRequest {
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_st")
-  private String crashStackTrace;
+  public String getCrashStackTrace() {
+    return (String) parameters.get(CRASH_STACK_TRACE);
+  }
+
+  /** See {@link #getCrashStackTrace()}. */
+  public void setCrashStackTrace(String crashStackTrace) {
+    parameters.set(CRASH_STACK_TRACE, crashStackTrace);
+  }
 
   /**
    * The originating source of the crash.
@@ -712,8 +1778,14 @@ public class MatomoRequest {
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_ru")
-  private String crashLocation;
+  public String getCrashLocation() {
+    return (String) parameters.get(CRASH_LOCATION);
+  }
+
+  /** See {@link #getCrashLocation()}. */
+  public void setCrashLocation(String crashLocation) {
+    parameters.set(CRASH_LOCATION, crashLocation);
+  }
 
   /**
    * The line number of the crash source, where the crash occurred.
@@ -722,55 +1794,1028 @@ public class MatomoRequest {
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_rl", min = 0)
-  private Integer crashLine;
+  public Integer getCrashLine() {
+    return (Integer) parameters.get(CRASH_LINE);
+  }
+
+  /** See {@link #getCrashLine()}. */
+  public void setCrashLine(Integer crashLine) {
+    parameters.set(CRASH_LINE, crashLine);
+  }
 
   /**
    * The column within the line where the crash occurred.
    *
    * <p>Optional for crash analytics
    */
-  @TrackingParameter(name = "cra_rc", min = 0)
-  private Integer crashColumn;
-
-  /**
-   * The Matomo session ID sent as a cookie {@code MATOMO_SESSID}.
-   *
-   * <p>If not null a cookie with the name {@code MATOMO_SESSID} will be sent with the value of this
-   * parameter.
-   */
-  private String sessionId;
-
-  /**
-   * Custom Dimension values for specific Custom Dimension IDs.
-   *
-   * <p><a href="https://plugins.matomo.org/CustomDimensions">Custom Dimensions plugin</a> must be
-   * installed. See the <a href="https://matomo.org/docs/custom-dimensions/">Custom Dimensions
-   * guide</a>. Requires Matomo at least 2.15.1
-   */
-  private Map<Long, Object> dimensions;
-
-  /**
-   * Allows you to specify additional HTTP request parameters that will be sent to Matomo.
-   *
-   * <p>For example, you can use this to set the <em>Accept-Language</em> header, or to set the
-   * <em>Content-Type</em>.
-   */
-  private Map<String, Object> additionalParameters;
-
-  /**
-   * You can set additional HTTP headers for the request sent to Matomo.
-   *
-   * <p>For example, you can use this to set the <em>Accept-Language</em> header, or to set the
-   * <em>Content-Type</em>.
-   */
-  private Map<String, String> headers;
-
-  /**
-   * Appends additional cookies to the request.
-   *
-   * <p>This allows you to add Matomo specific cookies, like {@code _pk_id} or {@code _pk_sess}
-   * coming from Matomo responses to the request.
-   */
-  private Map<String, String> cookies;
+  public Integer getCrashColumn() {
+    return (Integer) parameters.get(CRASH_COLUMN);
+  }
+
+  /** See {@link #getCrashColumn()}. */
+  public void setCrashColumn(Integer crashColumn) {
+    parameters.set(CRASH_COLUMN, crashColumn);
+  }
+
+  /** Removes all values including the defaults, but keeps the template. */
+  void clear() {
+    parameters.clear();
+    sessionId = null;
+    dimensions = null;
+    additionalParameters = null;
+    headers = null;
+    cookies = null;
+    priority = null;
+  }
+
+  @Override
+  public String toString() {
+    return "MatomoRequest("
+        + "required="
+        + getRequired()
+        + ", siteId="
+        + getSiteId()
+        + ", actionName="
+        + getActionName()
+        + ", actionUrl="
+        + getActionUrl()
+        + ", apiVersion="
+        + getApiVersion()
+        + ", visitorId="
+        + getVisitorId()
+        + ", newVisitor="
+        + getNewVisitor()
+        + ", referrerUrl="
+        + getReferrerUrl()
+        + ", visitCustomVariables="
+        + getVisitCustomVariables()
+        + ", visitorVisitCount="
+        + getVisitorVisitCount()
+        + ", visitorPreviousVisitTimestamp="
+        + getVisitorPreviousVisitTimestamp()
+        + ", visitorFirstVisitTimestamp="
+        + getVisitorFirstVisitTimestamp()
+        + ", campaignName="
+        + getCampaignName()
+        + ", campaignKeyword="
+        + getCampaignKeyword()
+        + ", deviceResolution="
+        + getDeviceResolution()
+        + ", currentHour="
+        + getCurrentHour()
+        + ", currentMinute="
+        + getCurrentMinute()
+        + ", currentSecond="
+        + getCurrentSecond()
+        + ", pluginFlash="
+        + getPluginFlash()
+        + ", pluginJava="
+        + getPluginJava()
+        + ", pluginDirector="
+        + getPluginDirector()
+        + ", pluginQuicktime="
+        + getPluginQuicktime()
+        + ", pluginRealPlayer="
+        + getPluginRealPlayer()
+        + ", pluginPDF="
+        + getPluginPDF()
+        + ", pluginWindowsMedia="
+        + getPluginWindowsMedia()
+        + ", pluginGears="
+        + getPluginGears()
+        + ", pluginSilverlight="
+        + getPluginSilverlight()
+        + ", supportsCookies="
+        + getSupportsCookies()
+        + ", headerUserAgent="
+        + getHeaderUserAgent()
+        + ", clientHints="
+        + getClientHints()
+        + ", headerAcceptLanguage="
+        + getHeaderAcceptLanguage()
+        + ", userId="
+        + getUserId()
+        + ", visitorCustomId="
+        + getVisitorCustomId()
+        + ", newVisit="
+        + getNewVisit()
+        + ", pageCustomVariables="
+        + getPageCustomVariables()
+        + ", outlinkUrl="
+        + getOutlinkUrl()
+        + ", downloadUrl="
+        + getDownloadUrl()
+        + ", searchQuery="
+        + getSearchQuery()
+        + ", searchCategory="
+        + getSearchCategory()
+        + ", searchResultsCount="
+        + getSearchResultsCount()
+        + ", pageViewId="
+        + getPageViewId()
+        + ", goalId="
+        + getGoalId()
+        + ", ecommerceRevenue="
+        + getEcommerceRevenue()
+        + ", characterSet="
+        + getCharacterSet()
+        + ", customAction="
+        + getCustomAction()
+        + ", networkTime="
+        + getNetworkTime()
+        + ", serverTime="
+        + getServerTime()
+        + ", transferTime="
+        + getTransferTime()
+        + ", domProcessingTime="
+        + getDomProcessingTime()
+        + ", domCompletionTime="
+        + getDomCompletionTime()
+        + ", onloadTime="
+        + getOnloadTime()
+        + ", eventCategory="
+        + getEventCategory()
+        + ", eventAction="
+        + getEventAction()
+        + ", eventName="
+        + getEventName()
+        + ", eventValue="
+        + getEventValue()
+        + ", contentName="
+        + getContentName()
+        + ", contentPiece="
+        + getContentPiece()
+        + ", contentTarget="
+        + getContentTarget()
+        + ", contentInteraction="
+        + getContentInteraction()
+        + ", ecommerceId="
+        + getEcommerceId()
+        + ", ecommerceItems="
+        + getEcommerceItems()
+        + ", ecommerceSubtotal="
+        + getEcommerceSubtotal()
+        + ", ecommerceTax="
+        + getEcommerceTax()
+        + ", ecommerceShippingCost="
+        + getEcommerceShippingCost()
+        + ", ecommerceDiscount="
+        + getEcommerceDiscount()
+        + ", ecommerceLastOrderTimestamp="
+        + getEcommerceLastOrderTimestamp()
+        + ", ecommerceProductSku="
+        + getEcommerceProductSku()
+        + ", ecommerceProductName="
+        + getEcommerceProductName()
+        + ", ecommerceProductCategory="
+        + getEcommerceProductCategory()
+        + ", ecommerceProductPrice="
+        + getEcommerceProductPrice()
+        + ", authToken="
+        + getAuthToken()
+        + ", visitorIp="
+        + getVisitorIp()
+        + ", requestTimestamp="
+        + getRequestTimestamp()
+        + ", visitorCountry="
+        + getVisitorCountry()
+        + ", visitorRegion="
+        + getVisitorRegion()
+        + ", visitorCity="
+        + getVisitorCity()
+        + ", visitorLatitude="
+        + getVisitorLatitude()
+        + ", visitorLongitude="
+        + getVisitorLongitude()
+        + ", queuedTracking="
+        + getQueuedTracking()
+        + ", responseAsImage="
+        + getResponseAsImage()
+        + ", ping="
+        + getPing()
+        + ", trackBotRequests="
+        + getTrackBotRequests()
+        + ", botRecordingMode="
+        + getBotRecordingMode()
+        + ", httpStatusCode="
+        + getHttpStatusCode()
+        + ", bandwidthBytes="
+        + getBandwidthBytes()
+        + ", sourceLabel="
+        + getSourceLabel()
+        + ", randomValue="
+        + getRandomValue()
+        + ", debug="
+        + getDebug()
+        + ", mediaId="
+        + getMediaId()
+        + ", mediaTitle="
+        + getMediaTitle()
+        + ", mediaResource="
+        + getMediaResource()
+        + ", mediaType="
+        + getMediaType()
+        + ", mediaPlayerName="
+        + getMediaPlayerName()
+        + ", mediaTimeSpent="
+        + getMediaTimeSpent()
+        + ", mediaLength="
+        + getMediaLength()
+        + ", mediaProgressPercent="
+        + getMediaProgressPercent()
+        + ", mediaTimeToPlay="
+        + getMediaTimeToPlay()
+        + ", mediaWidth="
+        + getMediaWidth()
+        + ", mediaHeight="
+        + getMediaHeight()
+        + ", mediaFullscreen="
+        + getMediaFullscreen()
+        + ", mediaSegmentsViewed="
+        + getMediaSegmentsViewed()
+        + ", crashMessage="
+        + getCrashMessage()
+        + ", crashType="
+        + getCrashType()
+        + ", crashCategory="
+        + getCrashCategory()
+        + ", crashStackTrace="
+        + getCrashStackTrace()
+        + ", crashLocation="
+        + getCrashLocation()
+        + ", crashLine="
+        + getCrashLine()
+        + ", crashColumn="
+        + getCrashColumn()
+        + ", sessionId="
+        + sessionId
+        + ", dimensions="
+        + dimensions
+        + ", additionalParameters="
+        + additionalParameters
+        + ", headers="
+        + headers
+        + ", cookies="
+        + cookies
+        + ", priority="
+        + priority
+        + ")";
+  }
+
+  /**
+   * Builds a {@link MatomoRequest}. The priority and the template can only be set by the tracker
+   * itself.
+   */
+  public static class MatomoRequestBuilder {
+
+    private final SparseParameters parameters;
+
+    private boolean requiredSet;
+
+    private boolean apiVersionSet;
+
+    private boolean visitorIdSet;
+
+    private boolean responseAsImageSet;
+
+    private boolean randomValueSet;
+
+    private String sessionId;
+
+    private Map<Long, Object> dimensions;
+
+    private Map<String, Object> additionalParameters;
+
+    private Map<String, String> headers;
+
+    private Map<String, String> cookies;
+
+    private RequestPriority priority;
+
+    private MatomoRequestTemplate template;
+
+    MatomoRequestBuilder() {
+      parameters = new SparseParameters(PARAMETER_COUNT);
+    }
+
+    private MatomoRequestBuilder(MatomoRequest request) {
+      parameters = new SparseParameters(request.parameters);
+      requiredSet = true;
+      apiVersionSet = true;
+      visitorIdSet = true;
+      responseAsImageSet = true;
+      randomValueSet = true;
+      sessionId = request.sessionId;
+      dimensions = request.dimensions;
+      additionalParameters = request.additionalParameters;
+      headers = request.headers;
+      cookies = request.cookies;
+      priority = request.priority;
+      template = request.template;
+    }
+
+    /** See {@link MatomoRequest#getRequired()}. */
+    public MatomoRequestBuilder required(Boolean required) {
+      parameters.set(REQUIRED, required);
+      requiredSet = true;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSiteId()}. */
+    public MatomoRequestBuilder siteId(Integer siteId) {
+      parameters.set(SITE_ID, siteId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getActionName()}. */
+    public MatomoRequestBuilder actionName(String actionName) {
+      parameters.set(ACTION_NAME, actionName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getActionUrl()}. */
+    public MatomoRequestBuilder actionUrl(String actionUrl) {
+      parameters.set(ACTION_URL, actionUrl);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getApiVersion()}. */
+    public MatomoRequestBuilder apiVersion(String apiVersion) {
+      parameters.set(API_VERSION, apiVersion);
+      apiVersionSet = true;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorId()}. */
+    public MatomoRequestBuilder visitorId(VisitorId visitorId) {
+      parameters.set(VISITOR_ID, visitorId);
+      visitorIdSet = true;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getNewVisitor()}. */
+    public MatomoRequestBuilder newVisitor(Boolean newVisitor) {
+      parameters.set(NEW_VISITOR, newVisitor);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getReferrerUrl()}. */
+    public MatomoRequestBuilder referrerUrl(String referrerUrl) {
+      parameters.set(REFERRER_URL, referrerUrl);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitCustomVariables()}. */
+    public MatomoRequestBuilder visitCustomVariables(CustomVariables visitCustomVariables) {
+      parameters.set(VISIT_CUSTOM_VARIABLES, visitCustomVariables);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorVisitCount()}. */
+    public MatomoRequestBuilder visitorVisitCount(Integer visitorVisitCount) {
+      parameters.set(VISITOR_VISIT_COUNT, visitorVisitCount);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorPreviousVisitTimestamp()}. */
+    public MatomoRequestBuilder visitorPreviousVisitTimestamp(
+        Instant visitorPreviousVisitTimestamp) {
+      parameters.set(VISITOR_PREVIOUS_VISIT_TIMESTAMP, visitorPreviousVisitTimestamp);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorFirstVisitTimestamp()}. */
+    public MatomoRequestBuilder visitorFirstVisitTimestamp(Instant visitorFirstVisitTimestamp) {
+      parameters.set(VISITOR_FIRST_VISIT_TIMESTAMP, visitorFirstVisitTimestamp);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCampaignName()}. */
+    public MatomoRequestBuilder campaignName(String campaignName) {
+      parameters.set(CAMPAIGN_NAME, campaignName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCampaignKeyword()}. */
+    public MatomoRequestBuilder campaignKeyword(String campaignKeyword) {
+      parameters.set(CAMPAIGN_KEYWORD, campaignKeyword);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDeviceResolution()}. */
+    public MatomoRequestBuilder deviceResolution(DeviceResolution deviceResolution) {
+      parameters.set(DEVICE_RESOLUTION, deviceResolution);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCurrentHour()}. */
+    public MatomoRequestBuilder currentHour(Integer currentHour) {
+      parameters.set(CURRENT_HOUR, currentHour);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCurrentMinute()}. */
+    public MatomoRequestBuilder currentMinute(Integer currentMinute) {
+      parameters.set(CURRENT_MINUTE, currentMinute);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCurrentSecond()}. */
+    public MatomoRequestBuilder currentSecond(Integer currentSecond) {
+      parameters.set(CURRENT_SECOND, currentSecond);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginFlash()}. */
+    public MatomoRequestBuilder pluginFlash(Boolean pluginFlash) {
+      parameters.set(PLUGIN_FLASH, pluginFlash);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginJava()}. */
+    public MatomoRequestBuilder pluginJava(Boolean pluginJava) {
+      parameters.set(PLUGIN_JAVA, pluginJava);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginDirector()}. */
+    public MatomoRequestBuilder pluginDirector(Boolean pluginDirector) {
+      parameters.set(PLUGIN_DIRECTOR, pluginDirector);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginQuicktime()}. */
+    public MatomoRequestBuilder pluginQuicktime(Boolean pluginQuicktime) {
+      parameters.set(PLUGIN_QUICKTIME, pluginQuicktime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginRealPlayer()}. */
+    public MatomoRequestBuilder pluginRealPlayer(Boolean pluginRealPlayer) {
+      parameters.set(PLUGIN_REAL_PLAYER, pluginRealPlayer);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginPDF()}. */
+    public MatomoRequestBuilder pluginPDF(Boolean pluginPDF) {
+      parameters.set(PLUGIN_PDF, pluginPDF);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginWindowsMedia()}. */
+    public MatomoRequestBuilder pluginWindowsMedia(Boolean pluginWindowsMedia) {
+      parameters.set(PLUGIN_WINDOWS_MEDIA, pluginWindowsMedia);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginGears()}. */
+    public MatomoRequestBuilder pluginGears(Boolean pluginGears) {
+      parameters.set(PLUGIN_GEARS, pluginGears);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPluginSilverlight()}. */
+    public MatomoRequestBuilder pluginSilverlight(Boolean pluginSilverlight) {
+      parameters.set(PLUGIN_SILVERLIGHT, pluginSilverlight);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSupportsCookies()}. */
+    public MatomoRequestBuilder supportsCookies(Boolean supportsCookies) {
+      parameters.set(SUPPORTS_COOKIES, supportsCookies);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getHeaderUserAgent()}. */
+    public MatomoRequestBuilder headerUserAgent(String headerUserAgent) {
+      parameters.set(HEADER_USER_AGENT, headerUserAgent);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getClientHints()}. */
+    public MatomoRequestBuilder clientHints(String clientHints) {
+      parameters.set(CLIENT_HINTS, clientHints);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getHeaderAcceptLanguage()}. */
+    public MatomoRequestBuilder headerAcceptLanguage(AcceptLanguage headerAcceptLanguage) {
+      parameters.set(HEADER_ACCEPT_LANGUAGE, headerAcceptLanguage);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getUserId()}. */
+    public MatomoRequestBuilder userId(String userId) {
+      parameters.set(USER_ID, userId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorCustomId()}. */
+    public MatomoRequestBuilder visitorCustomId(VisitorId visitorCustomId) {
+      parameters.set(VISITOR_CUSTOM_ID, visitorCustomId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getNewVisit()}. */
+    public MatomoRequestBuilder newVisit(Boolean newVisit) {
+      parameters.set(NEW_VISIT, newVisit);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPageCustomVariables()}. */
+    public MatomoRequestBuilder pageCustomVariables(CustomVariables pageCustomVariables) {
+      parameters.set(PAGE_CUSTOM_VARIABLES, pageCustomVariables);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getOutlinkUrl()}. */
+    public MatomoRequestBuilder outlinkUrl(String outlinkUrl) {
+      parameters.set(OUTLINK_URL, outlinkUrl);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDownloadUrl()}. */
+    public MatomoRequestBuilder downloadUrl(String downloadUrl) {
+      parameters.set(DOWNLOAD_URL, downloadUrl);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSearchQuery()}. */
+    public MatomoRequestBuilder searchQuery(String searchQuery) {
+      parameters.set(SEARCH_QUERY, searchQuery);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSearchCategory()}. */
+    public MatomoRequestBuilder searchCategory(String searchCategory) {
+      parameters.set(SEARCH_CATEGORY, searchCategory);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSearchResultsCount()}. */
+    public MatomoRequestBuilder searchResultsCount(Long searchResultsCount) {
+      parameters.set(SEARCH_RESULTS_COUNT, searchResultsCount);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPageViewId()}. */
+    public MatomoRequestBuilder pageViewId(UniqueId pageViewId) {
+      parameters.set(PAGE_VIEW_ID, pageViewId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getGoalId()}. */
+    public MatomoRequestBuilder goalId(Integer goalId) {
+      parameters.set(GOAL_ID, goalId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceRevenue()}. */
+    public MatomoRequestBuilder ecommerceRevenue(Double ecommerceRevenue) {
+      parameters.set(ECOMMERCE_REVENUE, ecommerceRevenue);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCharacterSet()}. */
+    public MatomoRequestBuilder characterSet(Charset characterSet) {
+      parameters.set(CHARACTER_SET, characterSet);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCustomAction()}. */
+    public MatomoRequestBuilder customAction(Boolean customAction) {
+      parameters.set(CUSTOM_ACTION, customAction);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getNetworkTime()}. */
+    public MatomoRequestBuilder networkTime(Long networkTime) {
+      parameters.set(NETWORK_TIME, networkTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getServerTime()}. */
+    public MatomoRequestBuilder serverTime(Long serverTime) {
+      parameters.set(SERVER_TIME, serverTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getTransferTime()}. */
+    public MatomoRequestBuilder transferTime(Long transferTime) {
+      parameters.set(TRANSFER_TIME, transferTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDomProcessingTime()}. */
+    public MatomoRequestBuilder domProcessingTime(Long domProcessingTime) {
+      parameters.set(DOM_PROCESSING_TIME, domProcessingTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDomCompletionTime()}. */
+    public MatomoRequestBuilder domCompletionTime(Long domCompletionTime) {
+      parameters.set(DOM_COMPLETION_TIME, domCompletionTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getOnloadTime()}. */
+    public MatomoRequestBuilder onloadTime(Long onloadTime) {
+      parameters.set(ONLOAD_TIME, onloadTime);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEventCategory()}. */
+    public MatomoRequestBuilder eventCategory(String eventCategory) {
+      parameters.set(EVENT_CATEGORY, eventCategory);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEventAction()}. */
+    public MatomoRequestBuilder eventAction(String eventAction) {
+      parameters.set(EVENT_ACTION, eventAction);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEventName()}. */
+    public MatomoRequestBuilder eventName(String eventName) {
+      parameters.set(EVENT_NAME, eventName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEventValue()}. */
+    public MatomoRequestBuilder eventValue(Double eventValue) {
+      parameters.set(EVENT_VALUE, eventValue);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getContentName()}. */
+    public MatomoRequestBuilder contentName(String contentName) {
+      parameters.set(CONTENT_NAME, contentName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getContentPiece()}. */
+    public MatomoRequestBuilder contentPiece(String contentPiece) {
+      parameters.set(CONTENT_PIECE, contentPiece);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getContentTarget()}. */
+    public MatomoRequestBuilder contentTarget(String contentTarget) {
+      parameters.set(CONTENT_TARGET, contentTarget);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getContentInteraction()}. */
+    public MatomoRequestBuilder contentInteraction(String contentInteraction) {
+      parameters.set(CONTENT_INTERACTION, contentInteraction);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceId()}. */
+    public MatomoRequestBuilder ecommerceId(String ecommerceId) {
+      parameters.set(ECOMMERCE_ID, ecommerceId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceItems()}. */
+    public MatomoRequestBuilder ecommerceItems(EcommerceItems ecommerceItems) {
+      parameters.set(ECOMMERCE_ITEMS, ecommerceItems);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceSubtotal()}. */
+    public MatomoRequestBuilder ecommerceSubtotal(Double ecommerceSubtotal) {
+      parameters.set(ECOMMERCE_SUBTOTAL, ecommerceSubtotal);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceTax()}. */
+    public MatomoRequestBuilder ecommerceTax(Double ecommerceTax) {
+      parameters.set(ECOMMERCE_TAX, ecommerceTax);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceShippingCost()}. */
+    public MatomoRequestBuilder ecommerceShippingCost(Double ecommerceShippingCost) {
+      parameters.set(ECOMMERCE_SHIPPING_COST, ecommerceShippingCost);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceDiscount()}. */
+    public MatomoRequestBuilder ecommerceDiscount(Double ecommerceDiscount) {
+      parameters.set(ECOMMERCE_DISCOUNT, ecommerceDiscount);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceLastOrderTimestamp()}. */
+    public MatomoRequestBuilder ecommerceLastOrderTimestamp(Instant ecommerceLastOrderTimestamp) {
+      parameters.set(ECOMMERCE_LAST_ORDER_TIMESTAMP, ecommerceLastOrderTimestamp);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceProductSku()}. */
+    public MatomoRequestBuilder ecommerceProductSku(String ecommerceProductSku) {
+      parameters.set(ECOMMERCE_PRODUCT_SKU, ecommerceProductSku);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceProductName()}. */
+    public MatomoRequestBuilder ecommerceProductName(String ecommerceProductName) {
+      parameters.set(ECOMMERCE_PRODUCT_NAME, ecommerceProductName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceProductCategory()}. */
+    public MatomoRequestBuilder ecommerceProductCategory(String ecommerceProductCategory) {
+      parameters.set(ECOMMERCE_PRODUCT_CATEGORY, ecommerceProductCategory);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getEcommerceProductPrice()}. */
+    public MatomoRequestBuilder ecommerceProductPrice(Double ecommerceProductPrice) {
+      parameters.set(ECOMMERCE_PRODUCT_PRICE, ecommerceProductPrice);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getAuthToken()}. */
+    public MatomoRequestBuilder authToken(String authToken) {
+      parameters.set(AUTH_TOKEN, authToken);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorIp()}. */
+    public MatomoRequestBuilder visitorIp(String visitorIp) {
+      parameters.set(VISITOR_IP, visitorIp);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getRequestTimestamp()}. */
+    public MatomoRequestBuilder requestTimestamp(Instant requestTimestamp) {
+      parameters.set(REQUEST_TIMESTAMP, requestTimestamp);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorCountry()}. */
+    public MatomoRequestBuilder visitorCountry(Country visitorCountry) {
+      parameters.set(VISITOR_COUNTRY, visitorCountry);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorRegion()}. */
+    public MatomoRequestBuilder visitorRegion(String visitorRegion) {
+      parameters.set(VISITOR_REGION, visitorRegion);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorCity()}. */
+    public MatomoRequestBuilder visitorCity(String visitorCity) {
+      parameters.set(VISITOR_CITY, visitorCity);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorLatitude()}. */
+    public MatomoRequestBuilder visitorLatitude(Double visitorLatitude) {
+      parameters.set(VISITOR_LATITUDE, visitorLatitude);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getVisitorLongitude()}. */
+    public MatomoRequestBuilder visitorLongitude(Double visitorLongitude) {
+      parameters.set(VISITOR_LONGITUDE, visitorLongitude);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getQueuedTracking()}. */
+    public MatomoRequestBuilder queuedTracking(Boolean queuedTracking) {
+      parameters.set(QUEUED_TRACKING, queuedTracking);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getResponseAsImage()}. */
+    public MatomoRequestBuilder responseAsImage(Boolean responseAsImage) {
+      parameters.set(RESPONSE_AS_IMAGE, responseAsImage);
+      responseAsImageSet = true;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getPing()}. */
+    public MatomoRequestBuilder ping(Boolean ping) {
+      parameters.set(PING, ping);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getTrackBotRequests()}. */
+    public MatomoRequestBuilder trackBotRequests(Boolean trackBotRequests) {
+      parameters.set(TRACK_BOT_REQUESTS, trackBotRequests);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getBotRecordingMode()}. */
+    public MatomoRequestBuilder botRecordingMode(Integer botRecordingMode) {
+      parameters.set(BOT_RECORDING_MODE, botRecordingMode);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getHttpStatusCode()}. */
+    public MatomoRequestBuilder httpStatusCode(Integer httpStatusCode) {
+      parameters.set(HTTP_STATUS_CODE, httpStatusCode);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getBandwidthBytes()}. */
+    public MatomoRequestBuilder bandwidthBytes(Long bandwidthBytes) {
+      parameters.set(BANDWIDTH_BYTES, bandwidthBytes);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSourceLabel()}. */
+    public MatomoRequestBuilder sourceLabel(String sourceLabel) {
+      parameters.set(SOURCE_LABEL, sourceLabel);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getRandomValue()}. */
+    public MatomoRequestBuilder randomValue(RandomValue randomValue) {
+      parameters.set(RANDOM_VALUE, randomValue);
+      randomValueSet = true;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDebug()}. */
+    public MatomoRequestBuilder debug(Boolean debug) {
+      parameters.set(DEBUG, debug);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaId()}. */
+    public MatomoRequestBuilder mediaId(String mediaId) {
+      parameters.set(MEDIA_ID, mediaId);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaTitle()}. */
+    public MatomoRequestBuilder mediaTitle(String mediaTitle) {
+      parameters.set(MEDIA_TITLE, mediaTitle);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaResource()}. */
+    public MatomoRequestBuilder mediaResource(String mediaResource) {
+      parameters.set(MEDIA_RESOURCE, mediaResource);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaType()}. */
+    public MatomoRequestBuilder mediaType(String mediaType) {
+      parameters.set(MEDIA_TYPE, mediaType);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaPlayerName()}. */
+    public MatomoRequestBuilder mediaPlayerName(String mediaPlayerName) {
+      parameters.set(MEDIA_PLAYER_NAME, mediaPlayerName);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaTimeSpent()}. */
+    public MatomoRequestBuilder mediaTimeSpent(Integer mediaTimeSpent) {
+      parameters.set(MEDIA_TIME_SPENT, mediaTimeSpent);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaLength()}. */
+    public MatomoRequestBuilder mediaLength(Integer mediaLength) {
+      parameters.set(MEDIA_LENGTH, mediaLength);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaProgressPercent()}. */
+    public MatomoRequestBuilder mediaProgressPercent(Integer mediaProgressPercent) {
+      parameters.set(MEDIA_PROGRESS_PERCENT, mediaProgressPercent);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaTimeToPlay()}. */
+    public MatomoRequestBuilder mediaTimeToPlay(Integer mediaTimeToPlay) {
+      parameters.set(MEDIA_TIME_TO_PLAY, mediaTimeToPlay);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaWidth()}. */
+    public MatomoRequestBuilder mediaWidth(Integer mediaWidth) {
+      parameters.set(MEDIA_WIDTH, mediaWidth);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaHeight()}. */
+    public MatomoRequestBuilder mediaHeight(Integer mediaHeight) {
+      parameters.set(MEDIA_HEIGHT, mediaHeight);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaFullscreen()}. */
+    public MatomoRequestBuilder mediaFullscreen(Boolean mediaFullscreen) {
+      parameters.set(MEDIA_FULLSCREEN, mediaFullscreen);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getMediaSegmentsViewed()}. */
+    public MatomoRequestBuilder mediaSegmentsViewed(String mediaSegmentsViewed) {
+      parameters.set(MEDIA_SEGMENTS_VIEWED, mediaSegmentsViewed);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashMessage()}. */
+    public MatomoRequestBuilder crashMessage(String crashMessage) {
+      parameters.set(CRASH_MESSAGE, crashMessage);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashType()}. */
+    public MatomoRequestBuilder crashType(String crashType) {
+      parameters.set(CRASH_TYPE, crashType);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashCategory()}. */
+    public MatomoRequestBuilder crashCategory(String crashCategory) {
+      parameters.set(CRASH_CATEGORY, crashCategory);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashStackTrace()}. */
+    public MatomoRequestBuilder crashStackTrace(String crashStackTrace) {
+      parameters.set(CRASH_STACK_TRACE, crashStackTrace);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashLocation()}. */
+    public MatomoRequestBuilder crashLocation(String crashLocation) {
+      parameters.set(CRASH_LOCATION, crashLocation);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashLine()}. */
+    public MatomoRequestBuilder crashLine(Integer crashLine) {
+      parameters.set(CRASH_LINE, crashLine);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCrashColumn()}. */
+    public MatomoRequestBuilder crashColumn(Integer crashColumn) {
+      parameters.set(CRASH_COLUMN, crashColumn);
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getSessionId()}. */
+    public MatomoRequestBuilder sessionId(String sessionId) {
+      this.sessionId = sessionId;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getDimensions()}. */
+    public MatomoRequestBuilder dimensions(Map<Long, Object> dimensions) {
+      this.dimensions = dimensions;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getAdditionalParameters()}. */
+    public MatomoRequestBuilder additionalParameters(Map<String, Object> additionalParameters) {
+      this.additionalParameters = additionalParameters;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getHeaders()}. */
+    public MatomoRequestBuilder headers(Map<String, String> headers) {
+      this.headers = headers;
+      return this;
+    }
+
+    /** See {@link MatomoRequest#getCookies()}. */
+    public MatomoRequestBuilder cookies(Map<String, String> cookies) {
+      this.cookies = cookies;
+      return this;
+    }
+
+    MatomoRequestBuilder priority(RequestPriority priority) {
+      this.priority = priority;
+      return this;
+    }
+
+    MatomoRequestBuilder template(MatomoRequestTemplate template) {
+      this.template = template;
+      return this;
+    }
+
+    /**
+     * Creates a request with the values of this builder. Parameters with default values that were
+     * not set get their defaults.
+     *
+     * @return a new request
+     */
+    public MatomoRequest build() {
+      return new MatomoRequest(this);
+    }
+  }
 }
@@ -0,0 +1,118 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+/**
+ * The constant part of requests that are tracked over and over again, for example the site ID, the
+ * event category and custom dimensions of an event.
+ *
+ * <p>The constant parameters are validated and encoded once when the template is created. Requests
+ * created with {@link #request()} are serialized by appending only the parameters that were changed
+ * after the request was created to the pre-encoded parameters of the template:
+ *
+ * <pre>{@code
+ * MatomoRequestTemplate template =
+ *     MatomoRequestTemplate.of(MatomoRequests.event("Shop", "View", null, null).siteId(42));
+ * tracker.sendRequestAsync(template.request().eventName(productName).build());
+ * }</pre>
+ *
+ * <p>Parameters of the template can be overridden by setting another value, but they can not be
+ * removed by setting them to null. The encoded parameters of the template are always sent, so an
+ * overridden parameter occurs twice in the query. The value of the request comes last, which is the
+ * one Matomo uses. Mutable values of the template, like the map of custom dimensions, must not be
+ * modified. Set a new map instead. The visitor ID and the random value are generated for each
+ * request unless they were set explicitly on the builder of the template.
+ */
+public final class MatomoRequestTemplate {
+
+  @Getter(AccessLevel.PACKAGE)
+  private final MatomoRequest constants;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final byte[] encodedParameters;
+
+  private final boolean randomVisitorId;
+
+  private final boolean randomValue;
+
+  private MatomoRequestTemplate(
+      MatomoRequest constants,
+      byte[] encodedParameters,
+      boolean randomVisitorId,
+      boolean randomValue) {
+    this.constants = constants;
+    this.encodedParameters = encodedParameters;
+    this.randomVisitorId = randomVisitorId;
+    this.randomValue = randomValue;
+  }
+
+  /**
+   * Creates the template of a frozen request, whose constants are the frozen request itself. All
+   * tracking parameters of a frozen request are part of the encoded parameters.
+   *
+   * @see QueryCreator#freeze(MatomoRequest)
+   */
+  MatomoRequestTemplate(MatomoRequest frozenRequest, byte[] encodedParameters) {
+    this(frozenRequest, encodedParameters, false, false);
+  }
+
+  /**
+   * Creates a template from the current parameters of the builder. The builder is not modified and
+   * can be used to create templates or requests afterwards.
+   *
+   * @param builder a builder with the constant parameters, e.g. one of the factory methods of
+   *     {@link MatomoRequests}
+   * @return the template
+   * @throws MatomoException if a constant parameter is invalid
+   */
+  @NonNull
+  public static MatomoRequestTemplate of(@NonNull MatomoRequest.MatomoRequestBuilder builder) {
+    MatomoRequest constants = builder.build();
+    MatomoRequest other = builder.build();
+    // Defaults are evaluated again on each build, explicitly set values are the same instances
+    boolean randomVisitorId = constants.getVisitorId() != other.getVisitorId();
+    boolean randomValue = constants.getRandomValue() != other.getRandomValue();
+    if (randomVisitorId) {
+      constants.setVisitorId(null);
+    }
+    if (randomValue) {
+      constants.setRandomValue(null);
+    }
+    constants.setTemplate(null);
+    return new MatomoRequestTemplate(
+        constants, QueryCreator.encodeParameters(constants), randomVisitorId, randomValue);
+  }
+
+  /**
+   * Creates a builder for a new request with the constant parameters of this template.
+   *
+   * @return a builder to set the variable parameters of the request
+   */
+  @NonNull
+  public MatomoRequest.MatomoRequestBuilder request() {
+    MatomoRequest.MatomoRequestBuilder builder = constants.toBuilder().template(this);
+    if (randomVisitorId) {
+      builder.visitorId(VisitorId.random());
+    }
+    if (randomValue) {
+      builder.randomValue(RandomValue.random());
+    }
+    return builder;
+  }
+
+  /** Returns true if this is the template of a frozen request. */
+  boolean isFrozen() {
+    return constants.getTemplate() == this;
+  }
+}
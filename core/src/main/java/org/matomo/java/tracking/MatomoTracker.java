@@ -7,9 +7,20 @@
 
 package org.matomo.java.tracking;
 
+import static java.util.Collections.singletonList;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.Setter;
@@ -39,16 +50,78 @@ public class MatomoTracker implements AutoCloseable {
   @Setter(AccessLevel.PROTECTED)
   private SenderFactory senderFactory = new ServiceLoaderSenderFactory();
 
-  private Sender sender;
+  private volatile Sender sender;
+
+  private final AtomicLong droppedRequests = new AtomicLong();
+
+  private final AtomicLong coalescedRequests = new AtomicLong();
+
+  private final AtomicLong rateLimitedRequests = new AtomicLong();
+
+  private final Sampler sampler;
+
+  @Nullable private final EncodedValueCache encodedValueCache;
+
+  private final QueryCreator queryCreator;
+
+  @Nullable private final RequestPool requestPool;
+
+  private final AtomicLong pendingRequests = new AtomicLong();
+
+  private final AtomicLong failedRequests = new AtomicLong();
+
+  private final Thread shutdownHook;
+
+  private volatile boolean closed;
 
   /**
    * Creates a new Matomo Tracker instance.
    *
+   * <p>If {@link TrackerConfiguration#isShutdownHookEnabled()} is set, a JVM shutdown hook is
+   * registered that closes this tracker using {@link #close(Duration)}.
+   *
    * @param trackerConfiguration Configurations parameters (you can use a builder)
    */
   public MatomoTracker(@NonNull TrackerConfiguration trackerConfiguration) {
     trackerConfiguration.validate();
     this.trackerConfiguration = trackerConfiguration;
+    sampler = new Sampler(trackerConfiguration);
+    encodedValueCache =
+        trackerConfiguration.getEncodedValueCacheSize() > 0
+            ? new EncodedValueCache(trackerConfiguration)
+            : null;
+    queryCreator = new QueryCreator(trackerConfiguration, encodedValueCache);
+    requestPool =
+        trackerConfiguration.getRequestPoolSize() > 0
+            ? new RequestPool(trackerConfiguration.getRequestPoolSize())
+            : null;
+    if (trackerConfiguration.isShutdownHookEnabled()) {
+      shutdownHook = new Thread(this::closeOnShutdown, "MatomoJavaTracker-shutdown");
+      Runtime.getRuntime().addShutdownHook(shutdownHook);
+    } else {
+      shutdownHook = null;
+    }
+  }
+
+  /**
+   * Returns an empty request to fill in and send with this tracker.
+   *
+   * <p>If {@link TrackerConfiguration#getRequestPoolSize()} is greater than zero, the request is
+   * taken from a pool of reusable requests. A pooled request is reset and returned to the pool as
+   * soon as the tracker is done with it, so it must not be used after it was passed to one of the
+   * send methods. Synchronous methods release it when they return. Asynchronous methods release it
+   * when the returned future completes and the future of a single request contains null instead of
+   * the request. Pooled requests have no visitor ID and no random value unless you set them.
+   *
+   * <p>Only the request object is reused. The senders still allocate the encoded query, the futures
+   * and the HTTP request of every event, so tracking with pooled requests is not allocation-free.
+   *
+   * <p>If the pool is disabled, a new request is created with {@link MatomoRequest#request()}.
+   *
+   * @return a request whose parameters are not set except for the defaults of the builder
+   */
+  public MatomoRequest obtainRequest() {
+    return requestPool == null ? MatomoRequest.request().build() : requestPool.obtain();
   }
 
   /**
@@ -62,21 +135,91 @@ public class MatomoTracker implements AutoCloseable {
    * @param request request to send. must not be null
    */
   public void sendRequest(@NonNull MatomoRequest request) {
-    if (trackerConfiguration.isEnabled()) {
-      log.debug("Sending request via GET: {}", request);
-      applyGoalIdAndCheckSiteId(request);
-      initializeSender();
-      sender.sendSingle(request);
-    } else {
-      log.warn("Not sending request, because tracker is disabled");
+    List<MatomoRequest> requests = singletonList(request);
+    try {
+      if (trackerConfiguration.isEnabled()) {
+        if (!sampler.isSampled(request)) {
+          log.debug("Not sending request, because it is not part of the sample");
+          return;
+        }
+        log.debug("Sending request via GET: {}", request);
+        applyGoalIdAndCheckSiteId(request);
+        RequestValidator.validate(trackerConfiguration, requests);
+        initializeSender();
+        sender.sendSingle(request);
+      } else {
+        log.warn("Not sending request, because tracker is disabled");
+      }
+    } finally {
+      release(requests);
     }
   }
 
   private void initializeSender() {
+    if (closed) {
+      throw new MatomoException("Tracker is closed");
+    }
     if (sender == null) {
+      synchronized (this) {
+        if (sender == null) {
+          sender = createSender();
+        }
+      }
+    }
+  }
+
+  private Sender createSender() {
+    Sender sender = senderFactory.createSender(trackerConfiguration, queryCreator);
+    if (trackerConfiguration.isCircuitBreakerEnabled()) {
+      sender = new CircuitBreakingSender(sender, new CircuitBreaker(trackerConfiguration));
+    }
+    if (trackerConfiguration.isBacklogLimited() || trackerConfiguration.isPriorityLanesEnabled()) {
+      sender = new BacklogSender(sender, trackerConfiguration, droppedRequests);
+    }
+    if (trackerConfiguration.getOffHeapQueueCapacity() > 0) {
+      sender =
+          new OffHeapQueueSender(
+              sender,
+              trackerConfiguration,
+              queryCreator,
+              droppedRequests,
+              Executors.newSingleThreadExecutor(new DaemonThreadFactory()));
+    }
+    if (trackerConfiguration.getSpoolDirectory() != null) {
+      sender =
+          new SpoolingSender(
+              sender,
+              trackerConfiguration,
+              queryCreator,
+              new Spool(
+                  trackerConfiguration.getSpoolDirectory(), trackerConfiguration, droppedRequests),
+              Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+    }
+    if (trackerConfiguration.isBatchingEnabled()) {
+      sender =
+          new BatchingSender(
+              sender,
+              trackerConfiguration,
+              Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+              new BatchSizeController(trackerConfiguration));
+    }
+    if (trackerConfiguration.isRateLimited()) {
+      sender =
+          new RateLimitingSender(
+              sender,
+              trackerConfiguration,
+              Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+              rateLimitedRequests);
+    }
+    if (trackerConfiguration.isCoalescingEnabled()) {
       sender =
-          senderFactory.createSender(trackerConfiguration, new QueryCreator(trackerConfiguration));
+          new CoalescingSender(
+              sender,
+              trackerConfiguration,
+              Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+              coalescedRequests);
     }
+    return sender;
   }
 
   /**
@@ -87,18 +230,53 @@ public class MatomoTracker implements AutoCloseable {
    * requests synchronously, use {@link #sendRequest(MatomoRequest)} or {@link
    * #sendBulkRequest(Iterable)} instead.
    *
+   * <p>If batching is enabled using {@link TrackerConfiguration#isBatchingEnabled()}, the request
+   * is collected and sent together with other requests in a single HTTP POST call. The returned
+   * future completes as soon as this bulk request is acknowledged.
+   *
+   * <p>If the request is not part of the sample, see {@link
+   * TrackerConfiguration#getSamplingRates()}, the returned future is already completed.
+   *
+   * <p>If {@link TrackerConfiguration#isRequestFreezingEnabled()} is set, the request is encoded
+   * immediately. Later changes of the request are not sent and the returned future contains the
+   * frozen copy of the request instead of the request itself.
+   *
+   * <p>If the request was obtained with {@link #obtainRequest()} and is not frozen, it is returned
+   * to the pool as soon as it was sent and the returned future contains null.
+   *
    * @param request request to send
    * @return completable future to let you know when the request is done. Contains the request.
    */
   public CompletableFuture<MatomoRequest> sendRequestAsync(@NonNull MatomoRequest request) {
-    if (trackerConfiguration.isEnabled()) {
-      applyGoalIdAndCheckSiteId(request);
-      log.debug("Sending async request via GET: {}", request);
-      initializeSender();
-      return sender.sendSingleAsync(request);
+    List<MatomoRequest> requests = singletonList(request);
+    boolean releasedOnCompletion = false;
+    try {
+      if (trackerConfiguration.isEnabled()) {
+        if (!sampler.isSampled(request)) {
+          log.debug("Not sending async request, because it is not part of the sample");
+          return CompletableFuture.completedFuture(isPooled(requests) ? null : request);
+        }
+        applyGoalIdAndCheckSiteId(request);
+        RequestValidator.validate(trackerConfiguration, requests);
+        log.debug("Sending async request via GET: {}", request);
+        initializeSender();
+        if (trackerConfiguration.isRequestFreezingEnabled()) {
+          return track(sender.sendSingleAsync(freeze(requests).get(0)), 1);
+        }
+        CompletableFuture<MatomoRequest> future = track(sender.sendSingleAsync(request), 1);
+        if (isPooled(requests)) {
+          releasedOnCompletion = true;
+          return releaseOnCompletion(future, requests).thenApply(sentRequest -> null);
+        }
+        return future;
+      }
+      log.warn("Not sending request, because tracker is disabled");
+      return CompletableFuture.completedFuture(null);
+    } finally {
+      if (!releasedOnCompletion) {
+        release(requests);
+      }
     }
-    log.warn("Not sending request, because tracker is disabled");
-    return CompletableFuture.completedFuture(null);
   }
 
   private void applyGoalIdAndCheckSiteId(@NonNull MatomoRequest request) {
@@ -141,15 +319,22 @@ public class MatomoTracker implements AutoCloseable {
    * @param requests the requests to send
    */
   public void sendBulkRequest(@NonNull Iterable<? extends MatomoRequest> requests) {
-    if (trackerConfiguration.isEnabled()) {
-      for (MatomoRequest request : requests) {
-        applyGoalIdAndCheckSiteId(request);
+    try {
+      if (trackerConfiguration.isEnabled()) {
+        List<MatomoRequest> sampledRequests = sample(requests);
+        if (sampledRequests.isEmpty() && requests.iterator().hasNext()) {
+          log.debug("Not sending requests, because none is part of the sample");
+          return;
+        }
+        RequestValidator.validate(trackerConfiguration, sampledRequests);
+        log.debug("Sending requests via POST: {}", sampledRequests);
+        initializeSender();
+        sender.sendBulk(sampledRequests);
+      } else {
+        log.warn("Not sending request, because tracker is disabled");
       }
-      log.debug("Sending requests via POST: {}", requests);
-      initializeSender();
-      sender.sendBulk(requests);
-    } else {
-      log.warn("Not sending request, because tracker is disabled");
+    } finally {
+      release(requests);
     }
   }
 
@@ -168,27 +353,326 @@ public class MatomoTracker implements AutoCloseable {
    * Send multiple requests in a single HTTP call. More efficient than sending several individual
    * requests.
    *
+   * <p>If {@link TrackerConfiguration#isRequestFreezingEnabled()} is set, the requests are encoded
+   * immediately. Later changes of the requests are not sent.
+   *
    * @param requests the requests to send
    * @return completable future to let you know when the request is done
    */
   public CompletableFuture<Void> sendBulkRequestAsync(
       @NonNull Collection<? extends MatomoRequest> requests) {
-    if (trackerConfiguration.isEnabled()) {
+    boolean releasedOnCompletion = false;
+    try {
+      if (trackerConfiguration.isEnabled()) {
+        List<MatomoRequest> sampledRequests = sample(requests);
+        if (sampledRequests.isEmpty() && !requests.isEmpty()) {
+          log.debug("Not sending async requests, because none is part of the sample");
+          return CompletableFuture.completedFuture(null);
+        }
+        RequestValidator.validate(trackerConfiguration, sampledRequests);
+        log.debug("Sending async requests via POST: {}", sampledRequests);
+        initializeSender();
+        if (trackerConfiguration.isRequestFreezingEnabled()) {
+          sampledRequests = freeze(sampledRequests);
+        }
+        CompletableFuture<Void> future =
+            track(sender.sendBulkAsync(sampledRequests), sampledRequests.size());
+        if (!trackerConfiguration.isRequestFreezingEnabled() && isPooled(requests)) {
+          releasedOnCompletion = true;
+          return releaseOnCompletion(future, requests);
+        }
+        return future;
+      }
+      log.warn("Tracker is disabled");
+      return CompletableFuture.completedFuture(null);
+    } finally {
+      if (!releasedOnCompletion) {
+        release(requests);
+      }
+    }
+  }
+
+  /** Counts the given requests as pending until the future completes. */
+  private <T> CompletableFuture<T> track(@NonNull CompletableFuture<T> future, int requests) {
+    pendingRequests.addAndGet(requests);
+    future.whenComplete(
+        (result, throwable) -> {
+          if (throwable != null) {
+            failedRequests.addAndGet(requests);
+          }
+          if (pendingRequests.addAndGet(-requests) == 0L) {
+            synchronized (pendingRequests) {
+              pendingRequests.notifyAll();
+            }
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Replaces the validated requests by their frozen copies, so that they are not referenced anymore
+   * while they are queued.
+   */
+  private List<MatomoRequest> freeze(@NonNull List<MatomoRequest> requests) {
+    List<MatomoRequest> frozenRequests = new ArrayList<>(requests.size());
+    for (MatomoRequest request : requests) {
+      frozenRequests.add(queryCreator.freeze(request));
+    }
+    return frozenRequests;
+  }
+
+  /**
+   * Returns the pooled requests to the pool as soon as the future completes, because the senders
+   * may still read them until then.
+   */
+  private <T> CompletableFuture<T> releaseOnCompletion(
+      @NonNull CompletableFuture<T> future, @NonNull Collection<? extends MatomoRequest> requests) {
+    return future.whenComplete((result, throwable) -> release(requests));
+  }
+
+  /** Returns true if one of the requests was obtained from the request pool. */
+  private boolean isPooled(@NonNull Iterable<? extends MatomoRequest> requests) {
+    if (requestPool != null) {
       for (MatomoRequest request : requests) {
+        if (requestPool.isPooled(request)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns the requests that were obtained from the request pool to the pool. */
+  private void release(@NonNull Iterable<? extends MatomoRequest> requests) {
+    if (requestPool != null) {
+      for (MatomoRequest request : requests) {
+        requestPool.release(request);
+      }
+    }
+  }
+
+  private List<MatomoRequest> sample(@NonNull Iterable<? extends MatomoRequest> requests) {
+    List<MatomoRequest> sampledRequests = new ArrayList<>();
+    for (MatomoRequest request : requests) {
+      if (sampler.isSampled(request)) {
         applyGoalIdAndCheckSiteId(request);
+        sampledRequests.add(request);
       }
-      log.debug("Sending async requests via POST: {}", requests);
-      initializeSender();
-      return sender.sendBulkAsync(requests);
     }
-    log.warn("Tracker is disabled");
-    return CompletableFuture.completedFuture(null);
+    return sampledRequests;
   }
 
+  /**
+   * Sends all requests that were collected for a batch immediately.
+   *
+   * <p>Has no effect if batching is not enabled using {@link
+   * TrackerConfiguration#isBatchingEnabled()}.
+   *
+   * @return completable future to let you know when all collected requests are sent
+   */
+  public CompletableFuture<Void> flush() {
+    if (sender == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return sender.flush();
+  }
+
+  /**
+   * Returns the number of asynchronous requests that were dropped, because the backlog was full.
+   *
+   * @return the number of dropped requests since the tracker was created
+   * @see TrackerConfiguration#getOverflowPolicy()
+   */
+  public long getDroppedRequests() {
+    return droppedRequests.get();
+  }
+
+  /**
+   * Returns the number of asynchronous requests that were superseded by a newer request of the same
+   * visitor and kind and therefore not sent.
+   *
+   * @return the number of coalesced requests since the tracker was created
+   * @see TrackerConfiguration#isCoalescingEnabled()
+   */
+  public long getCoalescedRequests() {
+    return coalescedRequests.get();
+  }
+
+  /**
+   * Returns the number of requests that were dropped or handed over to the {@link
+   * RateLimitExceededHandler}, because the rate limit was exceeded.
+   *
+   * @return the number of rate limited requests since the tracker was created
+   * @see TrackerConfiguration#getRateLimitPolicy()
+   */
+  public long getRateLimitedRequests() {
+    return rateLimitedRequests.get();
+  }
+
+  /**
+   * Returns the number of requests that were not sent, because they were not part of the sample.
+   *
+   * @return the number of sampled out requests of all kinds since the tracker was created
+   * @see TrackerConfiguration#getSamplingRates()
+   */
+  public long getSampledOutRequests() {
+    return sampler.getSampledOutRequests();
+  }
+
+  /**
+   * Returns the number of requests of the given kind that were not sent, because they were not part
+   * of the sample. Divide the number of sent requests by the sampling rate to estimate the total.
+   *
+   * @param kind the kind of the requests
+   * @return the number of sampled out requests of the given kind since the tracker was created
+   * @see TrackerConfiguration#getSamplingRates()
+   */
+  public long getSampledOutRequests(@NonNull RequestKind kind) {
+    return sampler.getSampledOutRequests(kind);
+  }
+
+  /**
+   * Returns the number of parameter values that were taken from the encoded value cache instead of
+   * being encoded again. Divide it by the sum of hits and misses to get the hit rate.
+   *
+   * @return the number of cache hits since the tracker was created or 0 if the cache is disabled
+   * @see TrackerConfiguration#getEncodedValueCacheSize()
+   */
+  public long getEncodedValueCacheHits() {
+    return encodedValueCache == null ? 0L : encodedValueCache.getHits();
+  }
+
+  /**
+   * Returns the number of cacheable parameter values that were not in the encoded value cache and
+   * had to be encoded.
+   *
+   * @return the number of cache misses since the tracker was created or 0 if the cache is disabled
+   * @see TrackerConfiguration#getEncodedValueCacheSize()
+   */
+  public long getEncodedValueCacheMisses() {
+    return encodedValueCache == null ? 0L : encodedValueCache.getMisses();
+  }
+
+  /**
+   * Returns the number of bytes of the bulk request bodies before they were compressed. Divide it
+   * by {@link #getCompressedBulkBytes()} to get the compression ratio.
+   *
+   * @return the uncompressed size of all compressed bodies since the tracker was created
+   * @see TrackerConfiguration#isBulkCompressionEnabled()
+   */
+  public long getUncompressedBulkBytes() {
+    return queryCreator.getCompressionStatistics().getUncompressedBytes();
+  }
+
+  /**
+   * Returns the number of bytes of the compressed bulk request bodies.
+   *
+   * @return the compressed size of all compressed bodies since the tracker was created
+   * @see TrackerConfiguration#isBulkCompressionEnabled()
+   */
+  public long getCompressedBulkBytes() {
+    return queryCreator.getCompressionStatistics().getCompressedBytes();
+  }
+
+  /**
+   * Returns the CPU time that compressing bulk request bodies took. The CPU time is only measured
+   * if the JVM supports measuring the CPU time of the current thread.
+   *
+   * @return the CPU time in nanoseconds since the tracker was created
+   * @see TrackerConfiguration#isBulkCompressionEnabled()
+   */
+  public long getCompressionCpuTimeNanos() {
+    return queryCreator.getCompressionStatistics().getCpuTimeNanos();
+  }
+
+  /**
+   * Closes this tracker and waits until all collected and asynchronous requests are sent.
+   *
+   * <p>Further requests are rejected with a {@link MatomoException}. Use {@link #close(Duration)}
+   * to limit the time to wait.
+   *
+   * @throws Exception if the sender could not be closed
+   */
   @Override
   public void close() throws Exception {
+    closed = true;
+    removeShutdownHook();
     if (sender != null) {
       sender.close();
     }
   }
+
+  /**
+   * Closes this tracker gracefully within the given time.
+   *
+   * <p>Further requests are rejected with a {@link MatomoException}. Collected and queued
+   * asynchronous requests are sent immediately and in-flight requests are awaited until the timeout
+   * elapses. Requests that failed during this time or were not sent in time are lost. Requests that
+   * were not sent in time may still be sent in the background until the JVM exits.
+   *
+   * @param timeout the maximum time to wait for pending requests
+   * @return the number of asynchronous requests that were lost
+   */
+  public long close(@NonNull Duration timeout) {
+    closed = true;
+    removeShutdownHook();
+    Sender currentSender = sender;
+    if (currentSender == null) {
+      return 0L;
+    }
+    long failedBeforeClose = failedRequests.get();
+    long deadline = System.nanoTime() + timeout.toNanos();
+    try {
+      try {
+        currentSender.flush().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+      } catch (ExecutionException e) {
+        log.warn("Could not send all pending requests", e);
+      }
+      awaitPendingRequests(deadline);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException e) {
+      log.debug("Timed out flushing pending requests", e);
+    }
+    long lostRequests = pendingRequests.get() + failedRequests.get() - failedBeforeClose;
+    if (lostRequests == 0L) {
+      closeSender(currentSender);
+    } else {
+      log.warn("Lost {} request(s) that could not be sent within {}", lostRequests, timeout);
+      new DaemonThreadFactory().newThread(() -> closeSender(currentSender)).start();
+    }
+    return lostRequests;
+  }
+
+  private void awaitPendingRequests(long deadline) throws InterruptedException {
+    synchronized (pendingRequests) {
+      long remaining = deadline - System.nanoTime();
+      while (pendingRequests.get() > 0L && remaining > 0L) {
+        TimeUnit.NANOSECONDS.timedWait(pendingRequests, remaining);
+        remaining = deadline - System.nanoTime();
+      }
+    }
+  }
+
+  private static void closeSender(@NonNull Sender sender) {
+    try {
+      sender.close();
+    } catch (Exception e) {
+      log.warn("Could not close sender", e);
+    }
+  }
+
+  private void closeOnShutdown() {
+    close(trackerConfiguration.getShutdownTimeout());
+  }
+
+  private void removeShutdownHook() {
+    if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        log.debug("Could not remove shutdown hook, because the JVM is shutting down", e);
+      }
+    }
+  }
 }
@@ -0,0 +1,224 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * A bounded FIFO queue of serialized queries that is stored in a direct {@link ByteBuffer} of a
+ * fixed capacity, so that queued queries neither occupy the Java heap nor have to be traced by the
+ * garbage collector.
+ *
+ * <p>The buffer is used as a ring. Each record consists of its length, its priority, the length of
+ * the auth token, the auth token and the query. A record is always stored contiguously: if it does
+ * not fit at the end of the buffer, the rest of the buffer is skipped and the record is written to
+ * the start. Records are read as views of the buffer by {@link #take(int)} and their space is
+ * released by {@link #release(Batch)} after they were sent. Several batches may be taken at a time
+ * and released in any order, but the space of a batch is only reused after all batches taken before
+ * it were released.
+ *
+ * <p>Instances are not thread-safe.
+ */
+final class OffHeapQueue {
+
+  private static final int HEADER_LENGTH = Integer.BYTES + 1 + Short.BYTES;
+
+  private static final int MAX_AUTH_TOKEN_LENGTH = 0xFFFF;
+
+  private static final int WRAP_MARKER = -1;
+
+  private final ByteBuffer buffer;
+
+  private final Deque<Batch> takenBatches = new ArrayDeque<>();
+
+  private int head;
+
+  private int readPosition;
+
+  private int unreadSize;
+
+  private int tail;
+
+  private int usedBytes;
+
+  @Getter private int size;
+
+  OffHeapQueue(int capacity) {
+    buffer = ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Appends the query that was written to the query buffer.
+   *
+   * @param query the buffer that contains the query
+   * @param start the position of the query in the buffer
+   * @param authToken the auth token to send the query with or null
+   * @param priority the priority of the query
+   * @return false if there is not enough space left for the query
+   * @throws IllegalArgumentException if the auth token is longer than 65535 characters
+   */
+  boolean offer(
+      @NonNull QueryBuffer query,
+      int start,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    int authTokenLength = authToken == null ? 0 : authToken.length();
+    if (authTokenLength > MAX_AUTH_TOKEN_LENGTH) {
+      throw new IllegalArgumentException(
+          "Auth token must not be longer than " + MAX_AUTH_TOKEN_LENGTH + " characters");
+    }
+    int length = HEADER_LENGTH + authTokenLength + query.length() - start;
+    int skipped = tail + length > buffer.capacity() ? buffer.capacity() - tail : 0;
+    if (usedBytes + skipped + length > buffer.capacity()) {
+      return false;
+    }
+    if (skipped > 0) {
+      if (skipped >= Integer.BYTES) {
+        buffer.putInt(tail, WRAP_MARKER);
+      }
+      usedBytes += skipped;
+      tail = 0;
+    }
+    buffer.position(tail);
+    buffer.putInt(length).put((byte) priority.ordinal()).putShort((short) authTokenLength);
+    for (int i = 0; i < authTokenLength; i++) {
+      buffer.put((byte) authToken.charAt(i));
+    }
+    query.copyTo(start, buffer);
+    tail = (tail + length) % buffer.capacity();
+    usedBytes += length;
+    size++;
+    unreadSize++;
+    return true;
+  }
+
+  /**
+   * Takes the oldest queries that were not taken yet and share the auth token and the priority of
+   * the oldest of them. Their space remains occupied until the batch is released.
+   *
+   * @param maxQueries the maximum number of queries to take
+   * @return the queries or null if all queries were taken
+   */
+  @Nullable
+  Batch take(int maxQueries) {
+    if (unreadSize == 0) {
+      return null;
+    }
+    int first = skipToRecord(readPosition);
+    String authToken = readAuthToken(first);
+    byte priority = buffer.get(first + Integer.BYTES);
+    int position = readPosition;
+    List<ByteBuffer> queries = new ArrayList<>(Math.min(unreadSize, maxQueries));
+    int bytes = 0;
+    while (queries.size() < unreadSize && queries.size() < maxQueries) {
+      int start = skipToRecord(position);
+      if (buffer.get(start + Integer.BYTES) != priority || !hasAuthToken(start, authToken)) {
+        break;
+      }
+      int length = buffer.getInt(start);
+      int queryStart = start + HEADER_LENGTH + (authToken == null ? 0 : authToken.length());
+      ByteBuffer query = buffer.duplicate();
+      query.limit(start + length).position(queryStart);
+      queries.add(query.slice());
+      bytes += (start == position ? 0 : buffer.capacity() - position) + length;
+      position = (start + length) % buffer.capacity();
+    }
+    readPosition = position;
+    unreadSize -= queries.size();
+    Batch batch = new Batch(authToken, RequestPriority.values()[priority], queries, bytes);
+    takenBatches.add(batch);
+    return batch;
+  }
+
+  /**
+   * Releases the space of the queries of a batch that was returned by {@link #take(int)} as soon as
+   * all batches taken before it were released, too. The views of the queries must not be used
+   * afterwards.
+   *
+   * @param batch the taken batch
+   */
+  void release(@NonNull Batch batch) {
+    batch.released = true;
+    while (!takenBatches.isEmpty() && takenBatches.peek().released) {
+      Batch released = takenBatches.poll();
+      head = (head + released.bytes) % buffer.capacity();
+      usedBytes -= released.bytes;
+      size -= released.queries.size();
+    }
+    if (size == 0) {
+      head = 0;
+      readPosition = 0;
+      tail = 0;
+      usedBytes = 0;
+    }
+  }
+
+  private int skipToRecord(int position) {
+    if (buffer.capacity() - position < HEADER_LENGTH || buffer.getInt(position) == WRAP_MARKER) {
+      return 0;
+    }
+    return position;
+  }
+
+  @Nullable
+  private String readAuthToken(int position) {
+    int length = authTokenLength(position);
+    if (length == 0) {
+      return null;
+    }
+    byte[] authToken = new byte[length];
+    for (int i = 0; i < length; i++) {
+      authToken[i] = buffer.get(position + HEADER_LENGTH + i);
+    }
+    return new String(authToken, StandardCharsets.US_ASCII);
+  }
+
+  private boolean hasAuthToken(int position, @Nullable String authToken) {
+    int length = authTokenLength(position);
+    if (authToken == null || length != authToken.length()) {
+      return authToken == null && length == 0;
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer.get(position + HEADER_LENGTH + i) != authToken.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int authTokenLength(int position) {
+    return Short.toUnsignedInt(buffer.getShort(position + Integer.BYTES + 1));
+  }
+
+  /** Queries that share an auth token and a priority and can be sent in one bulk request. */
+  @Getter
+  static final class Batch {
+
+    @Nullable private final String authToken;
+
+    @NonNull private final RequestPriority priority;
+
+    @NonNull private final List<ByteBuffer> queries;
+
+    private final int bytes;
+
+    private boolean released;
+
+    private Batch(
+        @Nullable String authToken,
+        @NonNull RequestPriority priority,
+        @NonNull List<ByteBuffer> queries,
+        int bytes) {
+      this.authToken = authToken;
+      this.priority = priority;
+      this.queries = queries;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.matomo.java.tracking.OffHeapQueue.Batch;
+
+/**
+ * A {@link Sender} that serializes asynchronous requests into an {@link OffHeapQueue} of {@link
+ * TrackerConfiguration#getOffHeapQueueCapacity()} bytes, so that queued requests do not occupy the
+ * Java heap while the Matomo server is slow.
+ *
+ * <p>A single thread drains the queue. It sends up to {@link TrackerConfiguration#getBatchSize()}
+ * queries with the same auth token and priority at once using {@link
+ * Sender#sendEncodedQueriesAsync(Collection, String, RequestPriority)}, which copies the queries
+ * from direct memory into the HTTP body, and releases their space as soon as the bulk request
+ * completed. Up to {@link TrackerConfiguration#getThreadPoolSize()} bulk requests are outstanding
+ * at a time. The completion of a bulk request drains the next batch. If the queue is full, new
+ * requests are dropped.
+ *
+ * <p>Only the query and the auth token of a request are queued. Requests with HTTP headers,
+ * cookies, a session ID or a user agent are passed to the delegate directly. The futures of queued
+ * requests complete with null, because the requests are not retained. Synchronous calls are passed
+ * to the delegate directly.
+ */
+@Slf4j
+class OffHeapQueueSender implements Sender {
+
+  private final Sender delegate;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final QueryCreator queryCreator;
+
+  private final AtomicLong droppedRequests;
+
+  private final ExecutorService drainer;
+
+  private final OffHeapQueue queue;
+
+  private final Deque<CompletableFuture<MatomoRequest>> futures = new ArrayDeque<>();
+
+  private final List<CompletableFuture<Void>> outstandingSends = new ArrayList<>();
+
+  private boolean drainScheduled;
+
+  OffHeapQueueSender(
+      @NonNull Sender delegate,
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull QueryCreator queryCreator,
+      @NonNull AtomicLong droppedRequests,
+      @NonNull ExecutorService drainer) {
+    this.delegate = delegate;
+    this.trackerConfiguration = trackerConfiguration;
+    this.queryCreator = queryCreator;
+    this.droppedRequests = droppedRequests;
+    this.drainer = drainer;
+    queue = new OffHeapQueue(trackerConfiguration.getOffHeapQueueCapacity());
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    TransportAttributes attributes = TransportAttributes.of(request, trackerConfiguration);
+    if (!attributes.isQueryOnly()) {
+      return delegate.sendSingleAsync(request);
+    }
+    return enqueue(request, attributes.getAuthToken());
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    List<CompletableFuture<?>> results = new ArrayList<>(requests.size() + 1);
+    List<MatomoRequest> unqueueableRequests = new ArrayList<>();
+    for (MatomoRequest request : requests) {
+      TransportAttributes attributes = TransportAttributes.of(request, trackerConfiguration);
+      if (attributes.isQueryOnly()) {
+        results.add(enqueue(request, attributes.getAuthToken()));
+      } else {
+        unqueueableRequests.add(request);
+      }
+    }
+    if (!unqueueableRequests.isEmpty()) {
+      results.add(delegate.sendBulkAsync(unqueueableRequests));
+    }
+    return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+  }
+
+  private CompletableFuture<MatomoRequest> enqueue(
+      @NonNull MatomoRequest request, @Nullable String authToken) {
+    QueryBuffer query = QueryBuffer.threadLocal();
+    queryCreator.appendQuery(request, null, query);
+    CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+    synchronized (queue) {
+      if (!queue.offer(query, 0, authToken, RequestPriority.of(request))) {
+        droppedRequests.incrementAndGet();
+        future.completeExceptionally(
+            new MatomoException("Off-heap queue is full. Request was dropped"));
+        return future;
+      }
+      futures.add(future);
+      if (!scheduleDrain()) {
+        return future;
+      }
+    }
+    drainer.execute(this::drain);
+    return future;
+  }
+
+  /**
+   * Marks a drain as scheduled if none is scheduled and fewer than {@link
+   * TrackerConfiguration#getThreadPoolSize()} bulk requests are outstanding. Must be called while
+   * holding the lock of the queue.
+   *
+   * @return true if the caller must execute the drain
+   */
+  private boolean scheduleDrain() {
+    if (drainScheduled
+        || outstandingSends.size() >= trackerConfiguration.getThreadPoolSize()
+        || futures.isEmpty()) {
+      return false;
+    }
+    drainScheduled = true;
+    return true;
+  }
+
+  /**
+   * Sends batches of queued queries until the queue is empty or {@link
+   * TrackerConfiguration#getThreadPoolSize()} bulk requests are outstanding. Does not wait for the
+   * bulk requests to complete.
+   */
+  private void drain() {
+    while (true) {
+      Batch batch;
+      List<CompletableFuture<MatomoRequest>> batchFutures;
+      CompletableFuture<Void> sent = new CompletableFuture<>();
+      synchronized (queue) {
+        batch =
+            outstandingSends.size() < trackerConfiguration.getThreadPoolSize()
+                ? queue.take(trackerConfiguration.getBatchSize())
+                : null;
+        if (batch == null) {
+          drainScheduled = false;
+          return;
+        }
+        batchFutures = new ArrayList<>(batch.getQueries().size());
+        for (int i = 0; i < batch.getQueries().size(); i++) {
+          batchFutures.add(futures.poll());
+        }
+        outstandingSends.add(sent);
+      }
+      send(batch)
+          .whenComplete((result, throwable) -> complete(batch, batchFutures, sent, throwable));
+    }
+  }
+
+  private CompletableFuture<Void> send(@NonNull Batch batch) {
+    log.debug("Sending {} queued queries", batch.getQueries().size());
+    try {
+      return delegate.sendEncodedQueriesAsync(
+          batch.getQueries(), batch.getAuthToken(), batch.getPriority());
+    } catch (RuntimeException e) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  private void complete(
+      @NonNull Batch batch,
+      @NonNull List<CompletableFuture<MatomoRequest>> batchFutures,
+      @NonNull CompletableFuture<Void> sent,
+      @Nullable Throwable failure) {
+    boolean drain;
+    synchronized (queue) {
+      queue.release(batch);
+      outstandingSends.remove(sent);
+      drain = scheduleDrain();
+    }
+    Throwable cause =
+        failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause()
+            : failure;
+    for (CompletableFuture<MatomoRequest> future : batchFutures) {
+      if (cause == null) {
+        future.complete(null);
+      } else {
+        future.completeExceptionally(cause);
+      }
+    }
+    sent.complete(null);
+    if (drain) {
+      drainer.execute(this::drain);
+    }
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    List<CompletableFuture<?>> pending;
+    synchronized (queue) {
+      pending = new ArrayList<>(futures);
+      pending.addAll(outstandingSends);
+    }
+    return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+        .handle((result, throwable) -> null)
+        .thenCompose(ignored -> delegate.flush());
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    delegate.sendBulk(requests);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendQueriesAsync(queries, authToken, priority);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendEncodedQueriesAsync(queries, authToken, priority);
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      flush().get(1L, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.warn("Could not send all queued requests", e);
+    } finally {
+      ExecutorServiceCloser.close(drainer);
+      delegate.close();
+    }
+  }
+}
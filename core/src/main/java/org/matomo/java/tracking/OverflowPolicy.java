@@ -0,0 +1,38 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+/**
+ * Defines what happens to asynchronous requests if the backlog of the tracker is full.
+ *
+ * @see TrackerConfiguration#getOverflowPolicy()
+ */
+public enum OverflowPolicy {
+
+  /**
+   * Blocks the calling thread until there is enough space in the backlog or the configured {@link
+   * TrackerConfiguration#getBacklogBlockTimeout()} has elapsed. If the timeout elapses, the new
+   * request is dropped.
+   */
+  BLOCK,
+
+  /** Drops the new request. */
+  DROP_NEWEST,
+
+  /**
+   * Drops the oldest requests in the backlog that were not sent yet to make space for the new one.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Drops new requests with a probability that grows with the utilization of the backlog. No
+   * requests are dropped as long as the backlog is less than half full, all requests are dropped if
+   * it is full.
+   */
+  PROBABILISTIC
+}
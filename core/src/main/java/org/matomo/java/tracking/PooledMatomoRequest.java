@@ -0,0 +1,39 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request that was taken from a {@link RequestPool}. The tracker returns it to its pool as soon
+ * as the senders are done with it. A request that was already released is not released again, so
+ * that passing the same request twice does not put it into the pool twice.
+ */
+final class PooledMatomoRequest extends MatomoRequest {
+
+  private final RequestPool pool;
+
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  PooledMatomoRequest(@NonNull RequestPool pool) {
+    this.pool = pool;
+    QueryCreator.reset(this);
+  }
+
+  boolean isOwnedBy(@NonNull RequestPool pool) {
+    return this.pool == pool;
+  }
+
+  /** Marks the request as handed out by its pool. */
+  void markObtained() {
+    released.set(false);
+  }
+
+  /**
+   * Marks the request as released.
+   *
+   * @return false if the request was already released since it was obtained
+   */
+  boolean markReleased() {
+    return released.compareAndSet(false, true);
+  }
+}
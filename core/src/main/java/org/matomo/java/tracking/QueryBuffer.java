@@ -0,0 +1,300 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer that queries and bulk bodies are written to without creating intermediate
+ * strings or byte arrays.
+ *
+ * <p>Characters are written as UTF-8. {@link #appendEncoded(CharSequence)} percent-encodes values
+ * exactly like {@link java.net.URLEncoder} with UTF-8, but writes the escaped bytes directly and
+ * copies runs of characters that need no encoding in a tight loop.
+ *
+ * <p>Instances are not thread-safe. {@link #threadLocal()} provides a buffer that is confined to
+ * the current thread and reused by subsequent calls on that thread.
+ */
+final class QueryBuffer {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** Buffers that grew larger than this are not retained for reuse. */
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  private static final boolean[] UNRESERVED = new boolean[128];
+
+  private static final ThreadLocal<QueryBuffer> THREAD_LOCAL =
+      ThreadLocal.withInitial(QueryBuffer::new);
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      UNRESERVED[c] = true;
+      UNRESERVED[Character.toUpperCase(c)] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      UNRESERVED[c] = true;
+    }
+    UNRESERVED['-'] = true;
+    UNRESERVED['_'] = true;
+    UNRESERVED['.'] = true;
+    UNRESERVED['*'] = true;
+  }
+
+  private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+  private int length;
+
+  private int queryStart;
+
+  @Nullable private EncodedValueCache encodedValueCache;
+
+  /**
+   * Returns the empty buffer of the current thread. The buffer must not be used after the next call
+   * of this method on the same thread.
+   */
+  @NonNull
+  static QueryBuffer threadLocal() {
+    QueryBuffer buffer = THREAD_LOCAL.get();
+    buffer.reset();
+    return buffer;
+  }
+
+  /** Clears the buffer and releases its memory if it grew too large. */
+  void reset() {
+    length = 0;
+    queryStart = 0;
+    encodedValueCache = null;
+    if (bytes.length > MAX_RETAINED_CAPACITY) {
+      bytes = new byte[INITIAL_CAPACITY];
+    }
+  }
+
+  int length() {
+    return length;
+  }
+
+  /** Returns the cache that values of the current query are encoded with or null. */
+  @Nullable
+  EncodedValueCache getEncodedValueCache() {
+    return encodedValueCache;
+  }
+
+  void setEncodedValueCache(@Nullable EncodedValueCache encodedValueCache) {
+    this.encodedValueCache = encodedValueCache;
+  }
+
+  /** Marks the current position as the start of a query, see {@link #isQueryEmpty()}. */
+  void beginQuery() {
+    queryStart = length;
+  }
+
+  /** Returns true if nothing was written since the last call of {@link #beginQuery()}. */
+  boolean isQueryEmpty() {
+    return length == queryStart;
+  }
+
+  @NonNull
+  QueryBuffer append(char c) {
+    if (c < 0x80) {
+      ensureCapacity(1);
+      bytes[length++] = (byte) c;
+    } else {
+      append(String.valueOf(c));
+    }
+    return this;
+  }
+
+  /** Appends the characters unencoded as UTF-8. */
+  @NonNull
+  QueryBuffer append(@NonNull CharSequence value) {
+    int valueLength = value.length();
+    ensureCapacity(valueLength);
+    int i = 0;
+    for (; i < valueLength; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        break;
+      }
+      bytes[length++] = (byte) c;
+    }
+    if (i < valueLength) {
+      write(value.subSequence(i, valueLength).toString().getBytes(StandardCharsets.UTF_8));
+    }
+    return this;
+  }
+
+  @NonNull
+  QueryBuffer append(int value) {
+    return append((long) value);
+  }
+
+  @NonNull
+  QueryBuffer append(long value) {
+    if (value == Long.MIN_VALUE) {
+      return append(Long.toString(value));
+    }
+    ensureCapacity(20);
+    long remaining = value;
+    if (remaining < 0L) {
+      bytes[length++] = '-';
+      remaining = -remaining;
+    }
+    int digits = 1;
+    for (long bound = 10L; digits < 19 && remaining >= bound; bound *= 10L) {
+      digits++;
+    }
+    for (int i = length + digits - 1; i >= length; i--) {
+      bytes[i] = (byte) ('0' + remaining % 10L);
+      remaining /= 10L;
+    }
+    length += digits;
+    return this;
+  }
+
+  @NonNull
+  QueryBuffer append(float value) {
+    return append(Float.toString(value));
+  }
+
+  @NonNull
+  QueryBuffer append(double value) {
+    return append(Double.toString(value));
+  }
+
+  /**
+   * Appends the value percent-encoded as {@code application/x-www-form-urlencoded} using UTF-8.
+   *
+   * @param value the value to encode
+   * @return this buffer
+   */
+  @NonNull
+  QueryBuffer appendEncoded(@NonNull CharSequence value) {
+    int valueLength = value.length();
+    ensureCapacity(valueLength);
+    int i = 0;
+    for (; i < valueLength; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80 || !UNRESERVED[c]) {
+        break;
+      }
+      bytes[length++] = (byte) c;
+    }
+    for (; i < valueLength; i++) {
+      char c = value.charAt(i);
+      ensureCapacity(12);
+      if (c < 0x80) {
+        if (UNRESERVED[c]) {
+          bytes[length++] = (byte) c;
+        } else if (c == ' ') {
+          bytes[length++] = '+';
+        } else {
+          escape(c);
+        }
+      } else if (c < 0x800) {
+        escape(0xC0 | c >> 6);
+        escape(0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < valueLength
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        escape(0xF0 | codePoint >> 18);
+        escape(0x80 | codePoint >> 12 & 0x3F);
+        escape(0x80 | codePoint >> 6 & 0x3F);
+        escape(0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        escape('?');
+      } else {
+        escape(0xE0 | c >> 12);
+        escape(0x80 | c >> 6 & 0x3F);
+        escape(0x80 | c & 0x3F);
+      }
+    }
+    return this;
+  }
+
+  private void escape(int b) {
+    bytes[length++] = '%';
+    bytes[length++] = HEX[b >> 4 & 0xF];
+    bytes[length++] = HEX[b & 0xF];
+  }
+
+  void write(@NonNull byte[] source) {
+    ensureCapacity(source.length);
+    System.arraycopy(source, 0, bytes, length, source.length);
+    length += source.length;
+  }
+
+  /** Copies the remaining bytes of the source without changing its position. */
+  void write(@NonNull ByteBuffer source) {
+    int remaining = source.remaining();
+    ensureCapacity(remaining);
+    source.duplicate().get(bytes, length, remaining);
+    length += remaining;
+  }
+
+  /**
+   * Replaces the first bytes of the buffer.
+   *
+   * @param end the end of the range to replace, exclusive
+   * @param replacement the bytes to insert instead
+   */
+  void replaceStart(int end, @NonNull byte[] replacement) {
+    int remaining = length - end;
+    ensureCapacity(replacement.length - end);
+    System.arraycopy(bytes, end, bytes, replacement.length, remaining);
+    System.arraycopy(replacement, 0, bytes, 0, replacement.length);
+    length = replacement.length + remaining;
+  }
+
+  /**
+   * Copies the first bytes of the buffer followed by the suffix into a new array.
+   *
+   * @param end the number of bytes to copy from the buffer
+   * @param suffix the bytes to append to the copy
+   * @return the new array
+   */
+  @NonNull
+  byte[] toByteArray(int end, @NonNull byte[] suffix) {
+    byte[] copy = Arrays.copyOf(bytes, end + suffix.length);
+    System.arraycopy(suffix, 0, copy, end, suffix.length);
+    return copy;
+  }
+
+  /**
+   * Copies the bytes from the given position to the end of the buffer into a new array.
+   *
+   * @param start the position to copy from
+   * @return the new array
+   */
+  @NonNull
+  byte[] copyFrom(int start) {
+    return Arrays.copyOfRange(bytes, start, length);
+  }
+
+  /**
+   * Copies the bytes from the given position to the end of the buffer to the target at its current
+   * position.
+   *
+   * @param start the position to copy from
+   * @param target the buffer to copy to
+   */
+  void copyTo(int start, @NonNull ByteBuffer target) {
+    target.put(bytes, start, length - start);
+  }
+
+  private void ensureCapacity(int additional) {
+    if (length + additional > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+}
@@ -9,74 +9,77 @@ package org.matomo.java.tracking;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.io.UnsupportedEncodingException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Member;
-import java.net.URLEncoder;
-import java.nio.charset.Charset;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RequiredArgsConstructor
 class QueryCreator {
 
-  private static final TrackingParameterMethod[] TRACKING_PARAMETER_METHODS =
-      initializeTrackingParameterMethods();
+  private static final String GENERATED_SERIALIZER =
+      "org.matomo.java.tracking.MatomoRequestSerializer";
+
+  private static final TrackingParameterSerializer SERIALIZER = initializeSerializer();
 
   private final TrackerConfiguration trackerConfiguration;
 
-  private static TrackingParameterMethod[] initializeTrackingParameterMethods() {
-    Field[] declaredFields = MatomoRequest.class.getDeclaredFields();
-    List<TrackingParameterMethod> methods = new ArrayList<>(declaredFields.length);
-    for (Field field : declaredFields) {
-      if (field.isAnnotationPresent(TrackingParameter.class)) {
-        addMethods(methods, field, field.getAnnotation(TrackingParameter.class));
-      }
-    }
-    return methods.toArray(new TrackingParameterMethod[0]);
+  @Nullable private final EncodedValueCache encodedValueCache;
+
+  /** The statistics of the compressed bodies of the senders that use this query creator. */
+  @Getter @NonNull private final CompressionStatistics compressionStatistics;
+
+  QueryCreator(TrackerConfiguration trackerConfiguration) {
+    this(trackerConfiguration, null);
+  }
+
+  QueryCreator(
+      TrackerConfiguration trackerConfiguration, @Nullable EncodedValueCache encodedValueCache) {
+    this(trackerConfiguration, encodedValueCache, new CompressionStatistics());
   }
 
-  private static void addMethods(
-      Collection<TrackingParameterMethod> methods,
-      Member member,
-      TrackingParameter trackingParameter) {
+  private static TrackingParameterSerializer initializeSerializer() {
     try {
-      for (PropertyDescriptor pd :
-          Introspector.getBeanInfo(MatomoRequest.class).getPropertyDescriptors()) {
-        if (member.getName().equals(pd.getName())) {
-          String regex = trackingParameter.regex();
-          methods.add(
-              TrackingParameterMethod.builder()
-                  .parameterName(trackingParameter.name())
-                  .min(trackingParameter.min())
-                  .max(trackingParameter.max())
-                  .maxLength(trackingParameter.maxLength())
-                  .method(pd.getReadMethod())
-                  .pattern(
-                      regex == null || regex.isEmpty() || regex.trim().isEmpty()
-                          ? null
-                          : Pattern.compile(trackingParameter.regex()))
-                  .build());
-        }
-      }
-    } catch (IntrospectionException e) {
-      throw new MatomoException("Could not initialize read methods", e);
+      return (TrackingParameterSerializer)
+          Class.forName(GENERATED_SERIALIZER).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      log.debug("Generated serializer not available, falling back to reflection", e);
+      return new ReflectiveTrackingParameterSerializer();
     }
   }
 
   String createQuery(@NonNull MatomoRequest request, @Nullable String authToken) {
-    StringBuilder query = new StringBuilder(100);
+    QueryBuffer query = QueryBuffer.threadLocal();
+    appendQuery(request, authToken, query);
+    return query.toString();
+  }
+
+  /**
+   * Writes the query of the request to the buffer without creating intermediate strings for the
+   * encoded values. The parameter values are not validated, because {@link MatomoTracker} validates
+   * requests before it passes them to the senders.
+   *
+   * @param request the request to serialize
+   * @param authToken the auth token to include or null
+   * @param query the buffer to write to, the query starts at its current position
+   */
+  void appendQuery(
+      @NonNull MatomoRequest request, @Nullable String authToken, @NonNull QueryBuffer query) {
+    query.beginQuery();
+    query.setEncodedValueCache(encodedValueCache);
     if (request.getSiteId() == null) {
+      Integer defaultSiteId = trackerConfiguration.getDefaultSiteId();
       appendAmpersand(query);
-      query.append("idsite=").append(trackerConfiguration.getDefaultSiteId());
+      query.append("idsite=");
+      if (defaultSiteId == null) {
+        query.append("null");
+      } else {
+        query.append(defaultSiteId.intValue());
+      }
     }
     if (authToken != null) {
       if (authToken.length() != 32) {
@@ -85,74 +88,210 @@ class QueryCreator {
       appendAmpersand(query);
       query.append("token_auth=").append(authToken);
     }
-    for (TrackingParameterMethod method : TRACKING_PARAMETER_METHODS) {
-      appendParameter(method, request, query);
+    MatomoRequestTemplate template = request.getTemplate();
+    MatomoRequest constants = null;
+    if (template != null) {
+      constants = template.getConstants();
+      byte[] encodedParameters = template.getEncodedParameters();
+      if (encodedParameters.length > 0) {
+        appendAmpersand(query);
+        query.write(encodedParameters);
+      }
+    }
+    if (constants != request) {
+      appendParameters(request, constants, query);
+    }
+  }
+
+  /**
+   * Encodes the tracking parameters of the request and returns an immutable copy that consists of
+   * the encoded parameters and the few values that senders read to route the request, like the site
+   * ID, the visitor ID, the auth token, the kind of the request and the transport attributes. The
+   * other getters of the copy return null.
+   *
+   * <p>The request must have been validated before, see {@link RequestValidator}. Changes of the
+   * original request do not affect the copy and the original request can be garbage collected while
+   * the copy is queued.
+   *
+   * @param request the request to freeze
+   * @return the frozen copy whose template holds the encoded parameters
+   */
+  @NonNull
+  MatomoRequest freeze(@NonNull MatomoRequest request) {
+    QueryBuffer query = QueryBuffer.threadLocal();
+    query.beginQuery();
+    query.setEncodedValueCache(encodedValueCache);
+    MatomoRequestTemplate template = request.getTemplate();
+    MatomoRequest constants = null;
+    if (template != null) {
+      constants = template.getConstants();
+      query.write(template.getEncodedParameters());
+    }
+    if (constants != request) {
+      appendParameters(request, constants, query);
     }
-    if (request.getAdditionalParameters() != null) {
+    MatomoRequest frozen =
+        MatomoRequest.request()
+            .required(null)
+            .apiVersion(null)
+            .responseAsImage(null)
+            .randomValue(null)
+            .siteId(request.getSiteId())
+            .visitorId(request.getVisitorId())
+            .authToken(request.getAuthToken())
+            .priority(request.getPriority())
+            .headerUserAgent(request.getHeaderUserAgent())
+            .sessionId(request.getSessionId())
+            .headers(copy(request.getHeaders()))
+            .cookies(copy(request.getCookies()))
+            // read by RequestKind
+            .ping(request.getPing())
+            .mediaId(request.getMediaId())
+            .goalId(request.getGoalId())
+            .ecommerceId(request.getEcommerceId())
+            .ecommerceRevenue(request.getEcommerceRevenue())
+            .crashMessage(request.getCrashMessage())
+            .eventCategory(request.getEventCategory())
+            .eventAction(request.getEventAction())
+            .searchQuery(request.getSearchQuery())
+            .contentName(request.getContentName())
+            .contentInteraction(request.getContentInteraction())
+            .build();
+    frozen.setTemplate(new MatomoRequestTemplate(frozen, query.copyFrom(0)));
+    return frozen;
+  }
+
+  @Nullable
+  private static <K, V> Map<K, V> copy(@Nullable Map<K, V> map) {
+    return map == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(map));
+  }
+
+  /**
+   * Resets a request to the values of a request built with {@link MatomoRequest#request()}, except
+   * that the visitor ID and the random value are null, so that no objects are allocated.
+   *
+   * @param request the request to reset
+   */
+  static void reset(@NonNull MatomoRequest request) {
+    request.clear();
+    request.setTemplate(null);
+    request.setRequired(true);
+    request.setApiVersion("1");
+    request.setResponseAsImage(false);
+  }
+
+  /**
+   * Validates and encodes the parameters of the constant request of a template.
+   *
+   * @param constants the constant request of a {@link MatomoRequestTemplate}
+   * @return the encoded parameters without a leading ampersand
+   */
+  @NonNull
+  static byte[] encodeParameters(@NonNull MatomoRequest constants) {
+    validateParameters(constants, null);
+    QueryBuffer query = new QueryBuffer();
+    query.beginQuery();
+    appendParameters(constants, null, query);
+    return query.copyFrom(0);
+  }
+
+  /**
+   * Validates the values of the tracking parameters of the request. Values of the request that are
+   * the same instances as the values of the constants of its template are skipped, because they
+   * were validated when the template was created.
+   *
+   * @param request the request to validate
+   * @throws MatomoException if a parameter value is invalid
+   */
+  static void validateParameters(@NonNull MatomoRequest request) {
+    MatomoRequestTemplate template = request.getTemplate();
+    MatomoRequest constants = template == null ? null : template.getConstants();
+    if (constants != request) {
+      validateParameters(request, constants);
+    }
+  }
+
+  private static void validateParameters(
+      @NonNull MatomoRequest request, @Nullable MatomoRequest constants) {
+    try {
+      SERIALIZER.validate(request, constants);
+    } catch (RuntimeException e) {
+      throw new MatomoException("Invalid tracking parameter", e);
+    }
+  }
+
+  private static void appendParameters(
+      @NonNull MatomoRequest request,
+      @Nullable MatomoRequest constants,
+      @NonNull QueryBuffer query) {
+    try {
+      SERIALIZER.appendParameters(request, constants, query);
+    } catch (RuntimeException e) {
+      throw new MatomoException("Could not append parameter", e);
+    }
+    if (request.getAdditionalParameters() != null
+        && (constants == null
+            || request.getAdditionalParameters() != constants.getAdditionalParameters())) {
       for (Entry<String, Object> entry : request.getAdditionalParameters().entrySet()) {
         Object value = entry.getValue();
         if (value != null) {
           String valueString = value.toString();
-          if (!valueString.isEmpty() && !valueString.trim().isEmpty()) {
+          if (!isBlank(valueString)) {
             appendAmpersand(query);
-            query.append(encode(entry.getKey())).append('=').append(encode(valueString));
+            appendEncodedValue(
+                query.appendEncoded(entry.getKey()).append('='), entry.getKey(), valueString);
           }
         }
       }
     }
-    if (request.getDimensions() != null) {
+    if (request.getDimensions() != null
+        && (constants == null || request.getDimensions() != constants.getDimensions())) {
       for (Entry<Long, Object> entry : request.getDimensions().entrySet()) {
         if (entry.getKey() != null && entry.getValue() != null) {
           appendAmpersand(query);
-          query
-              .append("dimension")
-              .append(entry.getKey())
-              .append('=')
-              .append(encode(entry.getValue().toString()));
+          appendEncodedValue(
+              query.append("dimension").append(entry.getKey()).append('='),
+              "dimension",
+              entry.getValue().toString());
         }
       }
     }
-    return query.toString();
   }
 
-  private static void appendAmpersand(StringBuilder query) {
-    if (query.length() != 0) {
+  static void appendAmpersand(@NonNull QueryBuffer query) {
+    if (!query.isQueryEmpty()) {
       query.append('&');
     }
   }
 
-  private static void appendParameter(
-      TrackingParameterMethod method, MatomoRequest request, StringBuilder query) {
-    try {
-      Object parameterValue = method.getMethod().invoke(request);
-      if (parameterValue != null) {
-        method.validateParameterValue(parameterValue);
-        appendAmpersand(query);
-        query.append(method.getParameterName()).append('=');
-        if (parameterValue instanceof Boolean) {
-          query.append((boolean) parameterValue ? '1' : '0');
-        } else if (parameterValue instanceof Charset) {
-          query.append(((Charset) parameterValue).name());
-        } else if (parameterValue instanceof Instant) {
-          query.append(((Instant) parameterValue).getEpochSecond());
-        } else {
-          String parameterValueString = parameterValue.toString();
-          if (!parameterValueString.trim().isEmpty()) {
-            query.append(encode(parameterValueString));
-          }
-        }
-      }
-    } catch (Exception e) {
-      throw new MatomoException("Could not append parameter", e);
+  /**
+   * Appends the URL encoded value unless it is blank. The encoded value is taken from the {@link
+   * EncodedValueCache} of the query if the parameter is cached.
+   */
+  static void appendEncoded(
+      @NonNull QueryBuffer query, @NonNull String parameterName, @NonNull String parameterValue) {
+    if (!isBlank(parameterValue)) {
+      appendEncodedValue(query, parameterName, parameterValue);
     }
   }
 
-  @NonNull
-  private static String encode(@NonNull String parameterValue) {
-    try {
-      return URLEncoder.encode(parameterValue, "UTF-8");
-    } catch (UnsupportedEncodingException e) {
-      throw new MatomoException("Could not encode parameter", e);
+  private static void appendEncodedValue(
+      @NonNull QueryBuffer query, @NonNull String parameterName, @NonNull String parameterValue) {
+    EncodedValueCache cache = query.getEncodedValueCache();
+    if (cache != null && cache.isCacheable(parameterName, parameterValue)) {
+      cache.appendEncoded(query, parameterValue);
+    } else {
+      query.appendEncoded(parameterValue);
+    }
+  }
+
+  /** Same as {@code value.trim().isEmpty()}, but without creating a trimmed copy. */
+  private static boolean isBlank(@NonNull String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > ' ') {
+        return false;
+      }
     }
+    return true;
   }
 }
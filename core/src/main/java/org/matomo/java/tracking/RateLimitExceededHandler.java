@@ -0,0 +1,31 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Takes over requests that exceed the rate limit of the tracker if the rate limit policy is {@link
+ * RateLimitPolicy#CALLBACK}, for example to write them to a log or another queue.
+ *
+ * <p>Handlers are called on the thread that sent the request and should return quickly. Requests
+ * obtained with {@link MatomoTracker#obtainRequest()} are reset and reused afterwards, so a handler
+ * must copy the values it needs instead of keeping the request.
+ *
+ * @see TrackerConfiguration#getRateLimitExceededHandler()
+ */
+@FunctionalInterface
+public interface RateLimitExceededHandler {
+
+  /**
+   * Called instead of sending a request that exceeds the rate limit.
+   *
+   * @param request the request that was not sent
+   */
+  void onRateLimitExceeded(@NonNull MatomoRequest request);
+}
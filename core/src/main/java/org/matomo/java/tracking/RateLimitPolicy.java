@@ -0,0 +1,33 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+/**
+ * Defines what happens to a request if the rate limit of the tracker is exceeded.
+ *
+ * @see TrackerConfiguration#getRateLimitPolicy()
+ */
+public enum RateLimitPolicy {
+
+  /**
+   * Delays the request until it fits into the rate limit. Asynchronous requests are scheduled
+   * without blocking the calling thread, synchronous requests wait on the calling thread. Requests
+   * that would have to wait longer than {@link TrackerConfiguration#getRateLimitMaxDelay()} are
+   * dropped.
+   */
+  DELAY,
+
+  /** Drops the request. */
+  DROP,
+
+  /**
+   * Passes the request to the {@link TrackerConfiguration#getRateLimitExceededHandler()} instead of
+   * sending it.
+   */
+  CALLBACK
+}
@@ -0,0 +1,290 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Sender} that limits the rate of requests globally and per site ID using {@link
+ * TokenBucket}s.
+ *
+ * <p>Requests that exceed the limit are handled according to the {@link
+ * TrackerConfiguration#getRateLimitPolicy()}. Queries that are sent directly, for example replayed
+ * spooled requests, are not limited. Delayed requests are still sent when the sender is closed.
+ */
+@Slf4j
+class RateLimitingSender implements Sender {
+
+  private final Sender delegate;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final AtomicLong rateLimitedRequests;
+
+  private final TokenBucket globalBucket;
+
+  private final ConcurrentMap<Integer, TokenBucket> siteBuckets = new ConcurrentHashMap<>();
+
+  RateLimitingSender(
+      @NonNull Sender delegate,
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull ScheduledExecutorService scheduler,
+      @NonNull AtomicLong rateLimitedRequests) {
+    this.delegate = delegate;
+    this.trackerConfiguration = trackerConfiguration;
+    this.scheduler = scheduler;
+    this.rateLimitedRequests = rateLimitedRequests;
+    globalBucket =
+        trackerConfiguration.getMaxRequestsPerSecond() > 0.0
+            ? new TokenBucket(
+                trackerConfiguration.getMaxRequestsPerSecond(),
+                trackerConfiguration.getRateLimitBurst(),
+                System.nanoTime())
+            : null;
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    long wait = reserve(request);
+    if (wait < 0L) {
+      if (rejectAndHandOver(request)) {
+        return CompletableFuture.completedFuture(request);
+      }
+      CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+      future.completeExceptionally(dropped());
+      return future;
+    }
+    return sendAfter(wait, () -> delegate.sendSingleAsync(request));
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    long wait = reserve(request);
+    if (wait < 0L) {
+      if (rejectAndHandOver(request)) {
+        return;
+      }
+      throw dropped();
+    }
+    sleep(wait);
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    BulkReservation reservation = reserve(requests);
+    if (!reservation.permittedRequests.isEmpty()) {
+      sleep(reservation.wait);
+      delegate.sendBulk(reservation.permittedRequests);
+    }
+    if (reservation.dropped) {
+      throw dropped();
+    }
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    BulkReservation reservation = reserve(requests);
+    CompletableFuture<Void> future =
+        reservation.permittedRequests.isEmpty()
+            ? CompletableFuture.completedFuture(null)
+            : sendAfter(
+                reservation.wait, () -> delegate.sendBulkAsync(reservation.permittedRequests));
+    if (reservation.dropped) {
+      return future.thenCompose(
+          ignored -> {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(dropped());
+            return failed;
+          });
+    }
+    return future;
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendQueriesAsync(queries, authToken, priority);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    return delegate.flush();
+  }
+
+  /**
+   * Reserves permits for all requests. Permitted requests and requests that were handed over to the
+   * handler are not dropped.
+   *
+   * @return the permitted requests with the maximum time they have to wait and whether at least one
+   *     request was dropped
+   */
+  private BulkReservation reserve(@NonNull Iterable<? extends MatomoRequest> requests) {
+    BulkReservation reservation = new BulkReservation();
+    for (MatomoRequest request : requests) {
+      long wait = reserve(request);
+      if (wait >= 0L) {
+        reservation.permittedRequests.add(request);
+        reservation.wait = Math.max(reservation.wait, wait);
+      } else if (!rejectAndHandOver(request)) {
+        reservation.dropped = true;
+      }
+    }
+    return reservation;
+  }
+
+  /**
+   * Reserves a permit of the site bucket and of the global bucket. If the global bucket has no
+   * permit left, the permit of the site bucket is given back, so that requests that are dropped
+   * globally do not use up the quota of their site.
+   *
+   * @return the time to wait before the request may be sent or -1 if it exceeds a limit
+   */
+  private long reserve(@NonNull MatomoRequest request) {
+    long now = System.nanoTime();
+    long maxWait =
+        trackerConfiguration.getRateLimitPolicy() == RateLimitPolicy.DELAY
+            ? trackerConfiguration.getRateLimitMaxDelay().toNanos()
+            : 0L;
+    long wait = 0L;
+    TokenBucket siteBucket = findSiteBucket(request, now);
+    if (siteBucket != null) {
+      wait = siteBucket.reserve(now, maxWait);
+      if (wait < 0L) {
+        return -1L;
+      }
+    }
+    if (globalBucket != null) {
+      long globalWait = globalBucket.reserve(now, maxWait);
+      if (globalWait < 0L) {
+        if (siteBucket != null) {
+          siteBucket.cancel();
+        }
+        return -1L;
+      }
+      wait = Math.max(wait, globalWait);
+    }
+    return wait;
+  }
+
+  @Nullable
+  private TokenBucket findSiteBucket(@NonNull MatomoRequest request, long now) {
+    if (trackerConfiguration.getMaxRequestsPerSecondPerSite() <= 0.0) {
+      return null;
+    }
+    Integer siteId =
+        request.getSiteId() == null ? trackerConfiguration.getDefaultSiteId() : request.getSiteId();
+    if (siteId == null) {
+      return null;
+    }
+    TokenBucket siteBucket = siteBuckets.get(siteId);
+    if (siteBucket == null) {
+      siteBucket =
+          siteBuckets.computeIfAbsent(
+              siteId,
+              key ->
+                  new TokenBucket(
+                      trackerConfiguration.getMaxRequestsPerSecondPerSite(),
+                      trackerConfiguration.getRateLimitBurst(),
+                      now));
+    }
+    return siteBucket;
+  }
+
+  /**
+   * Counts a request that exceeded the rate limit and passes it to the handler if configured.
+   *
+   * @return true if the request was handed over, false if it was dropped
+   */
+  private boolean rejectAndHandOver(@NonNull MatomoRequest request) {
+    rateLimitedRequests.incrementAndGet();
+    RateLimitExceededHandler handler = trackerConfiguration.getRateLimitExceededHandler();
+    if (trackerConfiguration.getRateLimitPolicy() == RateLimitPolicy.CALLBACK && handler != null) {
+      handler.onRateLimitExceeded(request);
+      return true;
+    }
+    log.debug("Dropped request, because the rate limit was exceeded");
+    return false;
+  }
+
+  private static MatomoException dropped() {
+    return new MatomoException("Rate limit exceeded. Request was dropped");
+  }
+
+  private <T> CompletableFuture<T> sendAfter(
+      long wait, @NonNull Supplier<CompletableFuture<T>> send) {
+    if (wait == 0L) {
+      return send.get();
+    }
+    CompletableFuture<T> future = new CompletableFuture<>();
+    scheduler.schedule(
+        () -> {
+          try {
+            send.get()
+                .whenComplete(
+                    (result, throwable) -> {
+                      if (throwable == null) {
+                        future.complete(result);
+                      } else {
+                        future.completeExceptionally(throwable);
+                      }
+                    });
+          } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+          }
+        },
+        wait,
+        TimeUnit.NANOSECONDS);
+    return future;
+  }
+
+  private static void sleep(long wait) {
+    if (wait > 0L) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MatomoException("Interrupted while waiting for the rate limit", e);
+      }
+    }
+  }
+
+  /** The result of reserving permits for the requests of a bulk request. */
+  private static final class BulkReservation {
+
+    private final List<MatomoRequest> permittedRequests = new ArrayList<>();
+
+    /** The time in nanoseconds to wait before the permitted requests may be sent. */
+    private long wait;
+
+    private boolean dropped;
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      ExecutorServiceCloser.close(scheduler);
+    } finally {
+      delegate.close();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Serializes the tracking parameters by reading the {@link TrackingParameter} annotations of the
+ * ordinal constants of {@link MatomoRequest} using reflection. Only used if the serializer
+ * generated at build time is not available.
+ */
+class ReflectiveTrackingParameterSerializer implements TrackingParameterSerializer {
+
+  private static final TrackingParameterMethod[] TRACKING_PARAMETER_METHODS =
+      initializeTrackingParameterMethods();
+
+  private static TrackingParameterMethod[] initializeTrackingParameterMethods() {
+    TrackingParameterMethod[] methods = new TrackingParameterMethod[MatomoRequest.PARAMETER_COUNT];
+    for (Field field : MatomoRequest.class.getDeclaredFields()) {
+      TrackingParameter trackingParameter = field.getAnnotation(TrackingParameter.class);
+      if (trackingParameter != null && Modifier.isStatic(field.getModifiers())) {
+        String regex = trackingParameter.regex();
+        try {
+          methods[field.getInt(null)] =
+              TrackingParameterMethod.builder()
+                  .parameterName(trackingParameter.name())
+                  .min(trackingParameter.min())
+                  .max(trackingParameter.max())
+                  .maxLength(trackingParameter.maxLength())
+                  .pattern(
+                      regex == null || regex.isEmpty() || regex.trim().isEmpty()
+                          ? null
+                          : Pattern.compile(trackingParameter.regex()))
+                  .build();
+        } catch (IllegalAccessException e) {
+          throw new MatomoException("Could not initialize tracking parameters", e);
+        }
+      }
+    }
+    return methods;
+  }
+
+  @Override
+  public void appendParameters(
+      @NonNull MatomoRequest request,
+      @Nullable MatomoRequest constants,
+      @NonNull QueryBuffer query) {
+    SparseParameters parameters = request.getParameters();
+    int index = 0;
+    for (int ordinal = parameters.nextOrdinal(0);
+        ordinal >= 0;
+        ordinal = parameters.nextOrdinal(ordinal + 1)) {
+      Object parameterValue = parameters.valueAt(index++);
+      if (constants == null || parameterValue != constants.getParameters().get(ordinal)) {
+        appendParameter(TRACKING_PARAMETER_METHODS[ordinal], parameterValue, query);
+      }
+    }
+  }
+
+  private static void appendParameter(
+      TrackingParameterMethod method, Object parameterValue, QueryBuffer query) {
+    QueryCreator.appendAmpersand(query);
+    query.append(method.getParameterName()).append('=');
+    if (parameterValue instanceof Boolean) {
+      query.append((boolean) parameterValue ? '1' : '0');
+    } else if (parameterValue instanceof Charset) {
+      query.append(((Charset) parameterValue).name());
+    } else if (parameterValue instanceof Instant) {
+      query.append(((Instant) parameterValue).getEpochSecond());
+    } else {
+      QueryCreator.appendEncoded(query, method.getParameterName(), parameterValue.toString());
+    }
+  }
+
+  @Override
+  public void validate(@NonNull MatomoRequest request, @Nullable MatomoRequest constants) {
+    SparseParameters parameters = request.getParameters();
+    int index = 0;
+    for (int ordinal = parameters.nextOrdinal(0);
+        ordinal >= 0;
+        ordinal = parameters.nextOrdinal(ordinal + 1)) {
+      Object parameterValue = parameters.valueAt(index++);
+      if (constants == null || parameterValue != constants.getParameters().get(ordinal)) {
+        TRACKING_PARAMETER_METHODS[ordinal].validateParameterValue(parameterValue);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The kinds of tracking requests, as created by the factory methods of {@link MatomoRequests}.
+ *
+ * <p>The kind of a request is derived from its parameters, see {@link #of(MatomoRequest)}. It is
+ * used to configure how the tracker treats different kinds of requests.
+ *
+ * @see TrackerConfiguration#getCoalescedRequestKinds()
+ */
+public enum RequestKind {
+
+  /** A heartbeat request that updates the time spent on the last page, see ping. */
+  PING,
+
+  /** A media analytics request that reports the progress of a video or audio. */
+  MEDIA,
+
+  /** An ecommerce order with an order ID. */
+  ECOMMERCE_ORDER,
+
+  /** An update of the ecommerce cart without an order ID. */
+  ECOMMERCE_CART_UPDATE,
+
+  /** A conversion of a goal. */
+  GOAL,
+
+  /** A crash report. */
+  CRASH,
+
+  /** An event with an event category and action. */
+  EVENT,
+
+  /** A site search. */
+  SITE_SEARCH,
+
+  /** A content impression or interaction. */
+  CONTENT,
+
+  /** A page view or any other request. */
+  PAGE_VIEW;
+
+  /**
+   * Determines the kind of the given request. If a request matches several kinds, the first kind in
+   * the order of declaration applies, for example a ping that contains media parameters is a {@link
+   * #PING}.
+   *
+   * @param request the request to classify
+   * @return the kind of the request
+   */
+  @NonNull
+  public static RequestKind of(@NonNull MatomoRequest request) {
+    if (Boolean.TRUE.equals(request.getPing())) {
+      return PING;
+    }
+    if (request.getMediaId() != null) {
+      return MEDIA;
+    }
+    if (isEcommerce(request)) {
+      return request.getEcommerceId() == null ? ECOMMERCE_CART_UPDATE : ECOMMERCE_ORDER;
+    }
+    if (request.getGoalId() != null) {
+      return GOAL;
+    }
+    if (request.getCrashMessage() != null) {
+      return CRASH;
+    }
+    if (request.getEventCategory() != null || request.getEventAction() != null) {
+      return EVENT;
+    }
+    if (request.getSearchQuery() != null) {
+      return SITE_SEARCH;
+    }
+    if (request.getContentName() != null || request.getContentInteraction() != null) {
+      return CONTENT;
+    }
+    return PAGE_VIEW;
+  }
+
+  private static boolean isEcommerce(@NonNull MatomoRequest request) {
+    if (request.getGoalId() != null) {
+      return request.getGoalId() == 0;
+    }
+    return request.getEcommerceId() != null
+        || request.getEcommerceRevenue() != null
+        || request.getEcommerceItems() != null;
+  }
+}
@@ -0,0 +1,61 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of reusable requests, so that tracking the same kind of events over and over again
+ * does not allocate a new request for each event.
+ *
+ * <p>Requests are reset when they are released. Released requests are dropped if the pool already
+ * holds {@link TrackerConfiguration#getRequestPoolSize()} requests. The pool is thread-safe.
+ */
+final class RequestPool {
+
+  private final BlockingQueue<PooledMatomoRequest> requests;
+
+  RequestPool(int size) {
+    requests = new ArrayBlockingQueue<>(size);
+  }
+
+  /**
+   * Returns a reset request of the pool or a new one if the pool is empty.
+   *
+   * @return a request whose parameters are not set except for the defaults of the builder
+   */
+  @NonNull
+  MatomoRequest obtain() {
+    PooledMatomoRequest request = requests.poll();
+    if (request == null) {
+      return new PooledMatomoRequest(this);
+    }
+    request.markObtained();
+    return request;
+  }
+
+  /**
+   * Resets the request and returns it to the pool if it was obtained from this pool. Releasing a
+   * request that was already released is ignored.
+   *
+   * @param request the request that is not used anymore
+   * @return true if the request belongs to this pool
+   */
+  boolean release(@NonNull MatomoRequest request) {
+    if (!isPooled(request)) {
+      return false;
+    }
+    PooledMatomoRequest pooledRequest = (PooledMatomoRequest) request;
+    if (pooledRequest.markReleased()) {
+      QueryCreator.reset(pooledRequest);
+      requests.offer(pooledRequest);
+    }
+    return true;
+  }
+
+  /** Returns true if the request was obtained from this pool. */
+  boolean isPooled(@NonNull MatomoRequest request) {
+    return request instanceof PooledMatomoRequest
+        && ((PooledMatomoRequest) request).isOwnedBy(this);
+  }
+}
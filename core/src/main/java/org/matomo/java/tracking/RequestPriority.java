@@ -0,0 +1,55 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The priority of an asynchronous request if priority lanes are enabled. Requests of every priority
+ * wait in their own lane. Lanes are drained according to their weight and low priority lanes are
+ * shed first if the backlog is full.
+ *
+ * @see TrackerConfiguration#isPriorityLanesEnabled()
+ */
+public enum RequestPriority {
+
+  /** Requests that must not be lost, like ecommerce orders, goal conversions and crashes. */
+  HIGH,
+
+  /** Most requests like page views, events and site searches. */
+  NORMAL,
+
+  /** Frequent requests of little value each, like pings, media progress and content impressions. */
+  LOW;
+
+  /**
+   * Determines the priority of the given request. If the priority of the request is set, it is
+   * used. Otherwise, the priority is derived from the {@link RequestKind} of the request.
+   *
+   * @param request the request to prioritize
+   * @return the priority of the request
+   */
+  @NonNull
+  public static RequestPriority of(@NonNull MatomoRequest request) {
+    if (request.getPriority() != null) {
+      return request.getPriority();
+    }
+    switch (RequestKind.of(request)) {
+      case ECOMMERCE_ORDER:
+      case GOAL:
+      case CRASH:
+        return HIGH;
+      case PING:
+      case MEDIA:
+      case CONTENT:
+        return LOW;
+      default:
+        return NORMAL;
+    }
+  }
+}
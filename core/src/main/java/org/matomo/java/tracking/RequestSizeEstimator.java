@@ -0,0 +1,82 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Estimates the memory a queued request occupies without serializing it.
+ *
+ * <p>The estimation covers a fixed overhead for the object graph and the lengths of the values that
+ * tend to be large, like URLs, user agents, stack traces and the maps of a request. The size of a
+ * frozen request is estimated from the length of its encoded parameters.
+ */
+final class RequestSizeEstimator {
+
+  private static final long REQUEST_OVERHEAD = 512L;
+
+  private RequestSizeEstimator() {
+    // utility
+  }
+
+  static long estimateSize(@NonNull MatomoRequest request) {
+    MatomoRequestTemplate template = request.getTemplate();
+    if (template != null && template.isFrozen()) {
+      return REQUEST_OVERHEAD
+          + template.getEncodedParameters().length
+          + length(request.getHeaderUserAgent())
+          + length(request.getHeaders())
+          + length(request.getCookies());
+    }
+    return REQUEST_OVERHEAD
+        + length(request.getActionName())
+        + length(request.getActionUrl())
+        + length(request.getReferrerUrl())
+        + length(request.getHeaderUserAgent())
+        + length(request.getClientHints())
+        + length(request.getEventCategory())
+        + length(request.getEventAction())
+        + length(request.getEventName())
+        + length(request.getContentName())
+        + length(request.getContentPiece())
+        + length(request.getContentTarget())
+        + length(request.getOutlinkUrl())
+        + length(request.getDownloadUrl())
+        + length(request.getSearchQuery())
+        + length(request.getCrashMessage())
+        + length(request.getCrashStackTrace())
+        + length(request.getDimensions())
+        + length(request.getAdditionalParameters())
+        + length(request.getHeaders())
+        + length(request.getCookies());
+  }
+
+  static long estimateSize(@NonNull Iterable<? extends MatomoRequest> requests) {
+    long size = 0L;
+    for (MatomoRequest request : requests) {
+      size += estimateSize(request);
+    }
+    return size;
+  }
+
+  private static long length(@Nullable String value) {
+    return value == null ? 0L : 2L * value.length();
+  }
+
+  private static long length(@Nullable Map<?, ?> map) {
+    if (map == null) {
+      return 0L;
+    }
+    long length = 0L;
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      length += 32L;
+      if (entry.getKey() != null) {
+        length += length(entry.getKey().toString());
+      }
+      if (entry.getValue() != null) {
+        length += length(entry.getValue().toString());
+      }
+    }
+    return length;
+  }
+}
@@ -7,19 +7,76 @@
 
 package org.matomo.java.tracking;
 
+import static java.util.Collections.singleton;
+
 import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.NonNull;
 
+/**
+ * Validates requests before {@link MatomoTracker} passes them to the senders. The senders do not
+ * validate requests again, so that each request is validated at most once and {@link
+ * ValidationMode#SAMPLED} draws only once per request.
+ */
 final class RequestValidator {
 
+  private static final Duration MAX_AGE_WITHOUT_AUTH_TOKEN = Duration.ofHours(4L);
+
   private RequestValidator() {
     // utility
   }
 
+  /**
+   * Validates the request if the {@link TrackerConfiguration#getValidationMode()} selects it.
+   *
+   * @param trackerConfiguration the configuration that defines the validation mode
+   * @param request the request to validate
+   * @param authToken the auth token the request is sent with or null
+   */
+  static void validate(
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull MatomoRequest request,
+      @Nullable CharSequence authToken) {
+    if (isSelected(trackerConfiguration)) {
+      validate(request, authToken);
+    }
+  }
+
+  /**
+   * Validates the requests that the {@link TrackerConfiguration#getValidationMode()} selects with
+   * the auth token each of them is sent with. The current time is determined only once for all
+   * requests.
+   *
+   * @param trackerConfiguration the configuration that defines the validation mode
+   * @param requests the requests to validate
+   */
+  static void validate(
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull Iterable<? extends MatomoRequest> requests) {
+    if (trackerConfiguration.getValidationMode() == ValidationMode.OFF) {
+      return;
+    }
+    Instant oldestTimestampWithoutAuthToken = oldestTimestampWithoutAuthToken();
+    for (MatomoRequest request : requests) {
+      if (isSelected(trackerConfiguration)) {
+        validate(
+            request,
+            AuthToken.determineAuthToken(singleton(request), trackerConfiguration),
+            oldestTimestampWithoutAuthToken);
+      }
+    }
+  }
+
   static void validate(@NonNull MatomoRequest request, @Nullable CharSequence authToken) {
+    validate(request, authToken, oldestTimestampWithoutAuthToken());
+  }
 
+  private static void validate(
+      @NonNull MatomoRequest request,
+      @Nullable CharSequence authToken,
+      @NonNull Instant oldestTimestampWithoutAuthToken) {
     if (request.getSearchResultsCount() != null && request.getSearchQuery() == null) {
       throw new MatomoException("Search query must be set if search results count is set");
     }
@@ -35,7 +92,7 @@ final class RequestValidator {
                 + " are set");
       }
       if (request.getRequestTimestamp() != null
-          && request.getRequestTimestamp().isBefore(Instant.now().minus(4, ChronoUnit.HOURS))) {
+          && request.getRequestTimestamp().isBefore(oldestTimestampWithoutAuthToken)) {
         throw new MatomoException(
             "Auth token must be present if request timestamp is more than four hours ago");
       }
@@ -44,5 +101,26 @@ final class RequestValidator {
         throw new IllegalArgumentException("Auth token must be exactly 32 characters long");
       }
     }
+    QueryCreator.validateParameters(request);
+  }
+
+  /**
+   * Returns true if a request should be validated according to the {@link
+   * TrackerConfiguration#getValidationMode()}. Sampled validation decides randomly for each call.
+   */
+  private static boolean isSelected(@NonNull TrackerConfiguration trackerConfiguration) {
+    switch (trackerConfiguration.getValidationMode()) {
+      case OFF:
+        return false;
+      case SAMPLED:
+        return ThreadLocalRandom.current().nextDouble()
+            < trackerConfiguration.getValidationSampleRate();
+      default:
+        return true;
+    }
+  }
+
+  private static Instant oldestTimestampWithoutAuthToken() {
+    return Instant.now().minus(MAX_AGE_WITHOUT_AUTH_TOKEN);
   }
 }
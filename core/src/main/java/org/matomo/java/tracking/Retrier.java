@@ -0,0 +1,203 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retries failed sends with a capped exponential backoff and jitter.
+ *
+ * <p>Only temporary failures are retried: I/O errors such as connection failures and timeouts,
+ * server errors and "429 Too Many Requests". A delay requested by the server using the Retry-After
+ * header is respected up to {@link TrackerConfiguration#getRetryMaxBackoff()}. Asynchronous retries
+ * are scheduled using the given scheduler, so no thread waits for the next attempt.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class Retrier implements AutoCloseable {
+
+  private static final int MAX_SHIFT = 30;
+
+  @lombok.NonNull private final TrackerConfiguration trackerConfiguration;
+
+  @lombok.NonNull private final ScheduledExecutorService scheduler;
+
+  /**
+   * Runs the given action and retries it on the calling thread if it fails temporarily.
+   *
+   * @param action the action to run
+   */
+  void retry(@NonNull Runnable action) {
+    for (int retries = 0; ; retries++) {
+      try {
+        action.run();
+        return;
+      } catch (RuntimeException e) {
+        if (retries >= trackerConfiguration.getMaxRetries() || !isRetryable(e)) {
+          throw e;
+        }
+        long delay = computeDelay(retries, e);
+        log.debug("Retrying failed request in {} ms", delay, e);
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts the given action and schedules a new attempt if the returned future fails temporarily.
+   * Exceptions thrown by the first attempt are passed to the caller.
+   *
+   * @param action the action that starts an attempt
+   * @param <T> the result type
+   * @return a future that completes with the result of the first successful attempt or the failure
+   *     of the last one
+   */
+  @NonNull
+  <T> CompletableFuture<T> retryAsync(@NonNull Supplier<CompletableFuture<T>> action) {
+    CompletableFuture<T> firstAttempt = action.get();
+    if (trackerConfiguration.getMaxRetries() <= 0) {
+      return firstAttempt;
+    }
+    CompletableFuture<T> result = new CompletableFuture<>();
+    handleAttempt(firstAttempt, action, 0, result);
+    return result;
+  }
+
+  private <T> void handleAttempt(
+      @NonNull CompletableFuture<T> attempt,
+      @NonNull Supplier<CompletableFuture<T>> action,
+      int retries,
+      @NonNull CompletableFuture<T> result) {
+    attempt.whenComplete(
+        (value, throwable) -> {
+          if (throwable == null) {
+            result.complete(value);
+          } else if (retries >= trackerConfiguration.getMaxRetries() || !isRetryable(throwable)) {
+            result.completeExceptionally(throwable);
+          } else {
+            long delay = computeDelay(retries, throwable);
+            log.debug("Retrying failed request in {} ms", delay, throwable);
+            try {
+              scheduler.schedule(
+                  () -> handleAttempt(startAttempt(action), action, retries + 1, result),
+                  delay,
+                  TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+              result.completeExceptionally(throwable);
+            }
+          }
+        });
+  }
+
+  @NonNull
+  private static <T> CompletableFuture<T> startAttempt(
+      @NonNull Supplier<CompletableFuture<T>> action) {
+    try {
+      return action.get();
+    } catch (RuntimeException e) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  /**
+   * Checks whether the failure is temporary.
+   *
+   * @param throwable the failure, possibly wrapped by a future
+   * @return true if the request should be retried
+   */
+  static boolean isRetryable(@NonNull Throwable throwable) {
+    Throwable cause = unwrap(throwable);
+    if (cause instanceof HttpStatusException) {
+      return ((HttpStatusException) cause).isRetryable();
+    }
+    return cause instanceof IOException
+        || cause instanceof MatomoException && cause.getCause() instanceof IOException;
+  }
+
+  private static Throwable unwrap(@NonNull Throwable throwable) {
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  /**
+   * Computes the delay before the next attempt. Uses the delay requested by the server if present,
+   * otherwise the exponential backoff minus a random jitter of up to the half of it.
+   *
+   * @param retries the number of retries so far
+   * @param throwable the failure of the last attempt
+   * @return the delay in milliseconds
+   */
+  long computeDelay(int retries, @NonNull Throwable throwable) {
+    long maxBackoff = trackerConfiguration.getRetryMaxBackoff().toMillis();
+    Throwable cause = unwrap(throwable);
+    if (cause instanceof HttpStatusException
+        && ((HttpStatusException) cause).getRetryAfter() != null) {
+      return Math.min(((HttpStatusException) cause).getRetryAfter().toMillis(), maxBackoff);
+    }
+    long initialBackoff = trackerConfiguration.getRetryInitialBackoff().toMillis();
+    long backoff = Math.min(maxBackoff, initialBackoff << Math.min(retries, MAX_SHIFT));
+    if (backoff < initialBackoff) {
+      backoff = maxBackoff;
+    }
+    return backoff - ThreadLocalRandom.current().nextLong(backoff / 2L + 1L);
+  }
+
+  /**
+   * Parses the value of a Retry-After header that contains either a number of seconds or an HTTP
+   * date.
+   *
+   * @param retryAfter the header value
+   * @return the delay or null if the value is missing or invalid
+   */
+  @Nullable
+  static Duration parseRetryAfter(@Nullable String retryAfter) {
+    if (retryAfter == null || retryAfter.trim().isEmpty()) {
+      return null;
+    }
+    String value = retryAfter.trim();
+    try {
+      return Duration.ofSeconds(Math.max(0L, Long.parseLong(value)));
+    } catch (NumberFormatException e) {
+      try {
+        Duration delay =
+            Duration.between(
+                ZonedDateTime.now(),
+                ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+        return delay.isNegative() ? Duration.ZERO : delay;
+      } catch (DateTimeParseException dateTimeParseException) {
+        log.debug("Ignoring invalid Retry-After header {}", value);
+        return null;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    ExecutorServiceCloser.close(scheduler);
+  }
+}
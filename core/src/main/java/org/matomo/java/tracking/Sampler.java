@@ -0,0 +1,78 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Decides whether a request is part of the sample according to {@link
+ * TrackerConfiguration#getSamplingRates()} and {@link
+ * TrackerConfiguration#getEventCategorySamplingRates()}.
+ *
+ * <p>The decision is derived from a hash of the visitor ID, so all requests of a visitor with the
+ * same sampling rate are either sent or dropped. Requests without a visitor ID are always sent.
+ */
+@RequiredArgsConstructor
+class Sampler {
+
+  private static final double UNIT = 0x1.0p-53;
+
+  @lombok.NonNull private final TrackerConfiguration trackerConfiguration;
+
+  private final AtomicLongArray sampledOutRequests =
+      new AtomicLongArray(RequestKind.values().length);
+
+  /**
+   * Returns true if the request should be sent. Counts the request as sampled out otherwise.
+   *
+   * @param request the request to decide on
+   * @return true if the request is part of the sample
+   */
+  boolean isSampled(@NonNull MatomoRequest request) {
+    if (trackerConfiguration.getSamplingRates().isEmpty()
+        && trackerConfiguration.getEventCategorySamplingRates().isEmpty()) {
+      return true;
+    }
+    if (request.getVisitorId() == null) {
+      return true;
+    }
+    RequestKind kind = RequestKind.of(request);
+    double samplingRate = samplingRate(request, kind);
+    if (samplingRate >= 1.0
+        || (mix(request.getVisitorId().toLong()) >>> 11) * UNIT < samplingRate) {
+      return true;
+    }
+    sampledOutRequests.incrementAndGet(kind.ordinal());
+    return false;
+  }
+
+  private double samplingRate(@NonNull MatomoRequest request, @NonNull RequestKind kind) {
+    if (kind == RequestKind.EVENT && request.getEventCategory() != null) {
+      Double samplingRate =
+          trackerConfiguration.getEventCategorySamplingRates().get(request.getEventCategory());
+      if (samplingRate != null) {
+        return samplingRate;
+      }
+    }
+    return trackerConfiguration.getSamplingRates().getOrDefault(kind, 1.0);
+  }
+
+  /** The finalizer of SplitMix64, which spreads similar visitor IDs evenly. */
+  private static long mix(long value) {
+    long z = (value ^ value >>> 30) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+    return z ^ z >>> 31;
+  }
+
+  long getSampledOutRequests(@NonNull RequestKind kind) {
+    return sampledOutRequests.get(kind.ordinal());
+  }
+
+  long getSampledOutRequests() {
+    long sum = 0L;
+    for (int i = 0; i < sampledOutRequests.length(); i++) {
+      sum += sampledOutRequests.get(i);
+    }
+    return sum;
+  }
+}
@@ -1,7 +1,12 @@
 package org.matomo.java.tracking;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 interface Sender extends AutoCloseable {
@@ -14,4 +19,54 @@ interface Sender extends AutoCloseable {
 
   @NonNull
   CompletableFuture<Void> sendBulkAsync(@NonNull Collection<? extends MatomoRequest> requests);
+
+  /**
+   * Sends already serialized queries in a single HTTP POST call.
+   *
+   * @param queries the queries as created by {@link QueryCreator}, without an auth token
+   * @param authToken the auth token to send with the queries, if any
+   * @param priority the priority of the queries, used by senders that queue requests
+   * @return completable future that completes as soon as the queries are sent
+   */
+  @NonNull
+  CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority);
+
+  /**
+   * Sends queries that are stored as UTF-8 bytes, like the queries of an {@link OffHeapQueue}, in a
+   * single HTTP POST call. The positions of the buffers are not changed. The buffers must not be
+   * modified until the returned future completes.
+   *
+   * <p>The default implementation decodes the queries to strings and passes them to {@link
+   * #sendQueriesAsync(Collection, String, RequestPriority)}. Senders that build the HTTP body
+   * themselves copy the bytes directly into the body instead.
+   *
+   * @param queries the queries as created by {@link QueryCreator}, without an auth token
+   * @param authToken the auth token to send with the queries, if any
+   * @param priority the priority of the queries, used by senders that queue requests
+   * @return completable future that completes as soon as the queries are sent
+   */
+  @NonNull
+  default CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    List<String> decodedQueries = new ArrayList<>(queries.size());
+    for (ByteBuffer query : queries) {
+      decodedQueries.add(StandardCharsets.UTF_8.decode(query.duplicate()).toString());
+    }
+    return sendQueriesAsync(decodedQueries, authToken, priority);
+  }
+
+  /**
+   * Sends all requests that are held back by this sender, for example to be sent in a batch.
+   *
+   * @return completable future that completes as soon as all held back requests are sent
+   */
+  @NonNull
+  default CompletableFuture<Void> flush() {
+    return CompletableFuture.completedFuture(null);
+  }
 }
@@ -24,7 +24,6 @@ class ServiceLoaderSenderFactory implements SenderFactory {
     if (senderProvider == null) {
       throw new MatomoException("No SenderProvider found");
     }
-    return senderProvider.provideSender(
-        trackerConfiguration, new QueryCreator(trackerConfiguration));
+    return senderProvider.provideSender(trackerConfiguration, queryCreator);
   }
 }
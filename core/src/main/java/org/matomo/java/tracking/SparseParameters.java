@@ -0,0 +1,145 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Arrays;
+
+/**
+ * The storage of the tracking parameters of a {@link MatomoRequest} that only holds the values that
+ * are set.
+ *
+ * <p>Each tracking parameter has an ordinal that is declared as a constant of {@link
+ * MatomoRequest}. A bitmap marks the ordinals of the parameters that are not null and their values
+ * are packed into an array in the order of their ordinals. A page view that sets ten of the more
+ * than hundred parameters therefore needs an array of about ten references and two bitmap words,
+ * and iterating its values with {@link #nextOrdinal(int)} only visits the ten values.
+ *
+ * <p>Instances are not thread-safe, just like the setters of {@link MatomoRequest}.
+ */
+final class SparseParameters {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final long[] presence;
+
+  private Object[] values;
+
+  private int size;
+
+  /**
+   * Creates empty parameters.
+   *
+   * @param ordinals the number of ordinals
+   */
+  SparseParameters(int ordinals) {
+    presence = new long[(ordinals + 63) >>> 6];
+    values = new Object[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Creates a copy of the parameters. The values themselves are not copied.
+   *
+   * @param parameters the parameters to copy
+   */
+  SparseParameters(@NonNull SparseParameters parameters) {
+    presence = parameters.presence.clone();
+    values = Arrays.copyOf(parameters.values, Math.max(parameters.size, INITIAL_CAPACITY));
+    size = parameters.size;
+  }
+
+  /**
+   * Returns the value of the parameter with the ordinal.
+   *
+   * @param ordinal the ordinal of the parameter
+   * @return the value or null if the parameter is not set
+   */
+  @Nullable
+  Object get(int ordinal) {
+    return isSet(ordinal) ? values[index(ordinal)] : null;
+  }
+
+  /**
+   * Sets the value of the parameter with the ordinal. Setting null removes the value.
+   *
+   * @param ordinal the ordinal of the parameter
+   * @param value the value or null
+   */
+  void set(int ordinal, @Nullable Object value) {
+    int index = index(ordinal);
+    if (isSet(ordinal)) {
+      if (value == null) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        values[--size] = null;
+        presence[ordinal >>> 6] &= ~(1L << ordinal);
+      } else {
+        values[index] = value;
+      }
+    } else if (value != null) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      System.arraycopy(values, index, values, index + 1, size - index);
+      values[index] = value;
+      size++;
+      presence[ordinal >>> 6] |= 1L << ordinal;
+    }
+  }
+
+  /**
+   * Returns the value at the index of the packed values, which is the number of set parameters with
+   * a lower ordinal.
+   *
+   * @param index the index of the value
+   * @return the value
+   */
+  @NonNull
+  Object valueAt(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the ordinal of the next parameter that is set.
+   *
+   * @param ordinal the ordinal to start the search from, inclusive
+   * @return the ordinal of the next set parameter or -1 if there is none
+   */
+  int nextOrdinal(int ordinal) {
+    int word = ordinal >>> 6;
+    if (word >= presence.length) {
+      return -1;
+    }
+    long bits = presence[word] & -1L << ordinal;
+    while (bits == 0L) {
+      if (++word == presence.length) {
+        return -1;
+      }
+      bits = presence[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /** Returns the number of parameters that are set. */
+  int size() {
+    return size;
+  }
+
+  /** Removes all values. */
+  void clear() {
+    Arrays.fill(presence, 0L);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  private boolean isSet(int ordinal) {
+    return (presence[ordinal >>> 6] & 1L << ordinal) != 0L;
+  }
+
+  private int index(int ordinal) {
+    int word = ordinal >>> 6;
+    int index = Long.bitCount(presence[word] & (1L << ordinal) - 1L);
+    for (int i = 0; i < word; i++) {
+      index += Long.bitCount(presence[i]);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,479 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A write-ahead log for serialized queries that is stored in memory-mapped segment files on disk.
+ *
+ * <p>Each record consists of its length, a state, the priority, the auth token and the query.
+ * Records are appended to the active segment. If a segment is full, a new one is created. As soon
+ * as all records of a full segment are acknowledged, the segment file is deleted.
+ *
+ * <p>Appending a record only reserves its space while the lock of the spool is held. The record is
+ * copied into the segment afterwards, and its state is written last, so that incompletely written
+ * records are ignored, also after a restart. An appended record is in flight until it is either
+ * acknowledged or released to be replayed. Records that were in flight when the application stopped
+ * are replayed after a restart.
+ *
+ * <p>If {@link TrackerConfiguration#getMaxSpoolBytes()} is set, the {@link
+ * TrackerConfiguration#getOverflowPolicy()} applies as soon as a new segment would exceed it.
+ *
+ * <p>Memory-mapped files are written to the page cache of the operating system, so they survive a
+ * restart of the JVM, but not necessarily a crash of the operating system.
+ */
+@Slf4j
+class Spool implements AutoCloseable {
+
+  private static final String SEGMENT_PREFIX = "matomo-";
+
+  private static final String SEGMENT_SUFFIX = ".spool";
+
+  private static final byte WRITING = 0;
+
+  private static final byte PENDING = 1;
+
+  private static final byte ACKNOWLEDGED = 2;
+
+  private static final byte IN_FLIGHT = 3;
+
+  private static final int HEADER_LENGTH = 4 + 1 + 1 + 2;
+
+  private static final double SHEDDING_THRESHOLD = 0.5;
+
+  private final Path directory;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final AtomicLong droppedRequests;
+
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+  private Segment activeSegment;
+
+  private long nextSequence;
+
+  private long bytes;
+
+  Spool(
+      @NonNull Path directory,
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull AtomicLong droppedRequests) {
+    this.directory = directory;
+    this.trackerConfiguration = trackerConfiguration;
+    this.droppedRequests = droppedRequests;
+    try {
+      Files.createDirectories(directory);
+      try (DirectoryStream<Path> paths =
+          Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+        for (Path path : paths) {
+          Segment segment = Segment.open(path, parseSequence(path));
+          segments.put(segment.sequence, segment);
+          bytes += segment.buffer.capacity();
+        }
+      }
+    } catch (IOException e) {
+      throw new MatomoException("Could not open spool directory " + directory, e);
+    }
+    nextSequence = segments.isEmpty() ? 0L : segments.lastKey() + 1L;
+    for (Segment segment : new ArrayList<>(segments.values())) {
+      segment.sealed = true;
+      deleteIfAcknowledged(segment);
+    }
+    log.debug("Opened spool in {} with {} pending records", directory, countPendingRecords());
+  }
+
+  private static long parseSequence(@NonNull Path path) {
+    String fileName = path.getFileName().toString();
+    return Long.parseLong(
+        fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /**
+   * Appends the query that was written to the query buffer. The appended record is in flight.
+   *
+   * @param query the buffer that contains the serialized query without auth token
+   * @param start the position of the query in the buffer
+   * @param authToken the auth token to send the query with, if any
+   * @param priority the priority of the query
+   * @return the appended record or null if the spool is full and the record was dropped
+   * @throws MatomoException if a new segment could not be created
+   */
+  @Nullable
+  SpoolRecord append(
+      @NonNull QueryBuffer query,
+      int start,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    byte[] authTokenBytes =
+        authToken == null ? new byte[0] : authToken.getBytes(StandardCharsets.UTF_8);
+    int recordLength = HEADER_LENGTH + authTokenBytes.length + query.length() - start;
+    Segment segment;
+    int position;
+    synchronized (this) {
+      if (!reserve(recordLength + 4)) {
+        droppedRequests.incrementAndGet();
+        log.warn("Spool is full. Dropped 1 request(s)");
+        return null;
+      }
+      segment = activeSegment;
+      position = segment.writePosition;
+      segment.buffer.putInt(position, recordLength);
+      segment.writePosition += recordLength;
+      segment.pendingRecords++;
+    }
+    ByteBuffer content = segment.buffer.duplicate();
+    content.position(position + 5);
+    content.put((byte) priority.ordinal()).putShort((short) authTokenBytes.length);
+    content.put(authTokenBytes);
+    int queryStart = content.position();
+    query.copyTo(start, content);
+    content.put(position + 4, IN_FLIGHT);
+    return new SpoolRecord(
+        segment, position, segment.view(queryStart, position + recordLength), authToken, priority);
+  }
+
+  /**
+   * Makes sure that the active segment has the given number of bytes left, applying the overflow
+   * policy if a new segment would exceed the maximum size of the spool.
+   *
+   * @return false if the record must be dropped
+   */
+  private boolean reserve(int size) {
+    long maxBytes = trackerConfiguration.getMaxSpoolBytes();
+    if (maxBytes > 0L
+        && trackerConfiguration.getOverflowPolicy() == OverflowPolicy.PROBABILISTIC
+        && shouldShed((double) (bytes - remaining()) / maxBytes)) {
+      return false;
+    }
+    if (activeSegment != null && activeSegment.remaining() >= size) {
+      return true;
+    }
+    int segmentSize = Math.max(trackerConfiguration.getSpoolSegmentSize(), size);
+    if (maxBytes > 0L && !makeSpace(segmentSize)) {
+      return false;
+    }
+    if (activeSegment != null && activeSegment.remaining() >= size) {
+      return true;
+    }
+    rollSegment(segmentSize);
+    return true;
+  }
+
+  private static boolean shouldShed(double utilization) {
+    return utilization > SHEDDING_THRESHOLD
+        && ThreadLocalRandom.current().nextDouble()
+            < (utilization - SHEDDING_THRESHOLD) / (1.0 - SHEDDING_THRESHOLD);
+  }
+
+  private boolean makeSpace(int segmentSize) {
+    switch (trackerConfiguration.getOverflowPolicy()) {
+      case BLOCK:
+        long deadline = System.nanoTime() + trackerConfiguration.getBacklogBlockTimeout().toNanos();
+        while (!hasSpaceFor(segmentSize)) {
+          long millis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+          if (millis <= 0L) {
+            return false;
+          }
+          try {
+            wait(millis);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        return true;
+      case DROP_OLDEST:
+        while (!hasSpaceFor(segmentSize) && dropOldestSegment()) {
+          log.debug("Dropped oldest spool segment to make space for a new one");
+        }
+        return hasSpaceFor(segmentSize);
+      default:
+        return hasSpaceFor(segmentSize);
+    }
+  }
+
+  private boolean hasSpaceFor(int segmentSize) {
+    long reclaimableBytes =
+        activeSegment != null && activeSegment.pendingRecords == 0
+            ? activeSegment.buffer.capacity()
+            : 0L;
+    return segments.isEmpty()
+        || bytes - reclaimableBytes + segmentSize <= trackerConfiguration.getMaxSpoolBytes();
+  }
+
+  private int remaining() {
+    return activeSegment == null ? 0 : activeSegment.remaining();
+  }
+
+  /** Deletes the oldest segment and counts its pending records as dropped. */
+  private boolean dropOldestSegment() {
+    Map.Entry<Long, Segment> oldest = segments.firstEntry();
+    if (oldest == null) {
+      return false;
+    }
+    Segment segment = oldest.getValue();
+    if (segment == activeSegment) {
+      activeSegment = null;
+    }
+    int droppedRecords = segment.countRecords(PENDING);
+    if (droppedRecords > 0) {
+      droppedRequests.addAndGet(droppedRecords);
+      log.warn("Spool is full. Dropped {} request(s)", droppedRecords);
+    }
+    delete(segment);
+    return true;
+  }
+
+  private void rollSegment(int size) {
+    if (activeSegment != null) {
+      activeSegment.sealed = true;
+      activeSegment.buffer.force();
+      deleteIfAcknowledged(activeSegment);
+    }
+    long sequence = nextSequence++;
+    Path path =
+        directory.resolve(SEGMENT_PREFIX + String.format("%019d", sequence) + SEGMENT_SUFFIX);
+    try {
+      activeSegment = Segment.create(path, sequence, size);
+    } catch (IOException e) {
+      activeSegment = null;
+      throw new MatomoException("Could not create spool segment " + path, e);
+    }
+    segments.put(sequence, activeSegment);
+    bytes += size;
+  }
+
+  /**
+   * Marks records as acknowledged. Deletes the segment of a record if it is full and all of its
+   * records are acknowledged.
+   *
+   * @param records the records to acknowledge
+   */
+  synchronized void acknowledge(@NonNull Collection<SpoolRecord> records) {
+    for (SpoolRecord record : records) {
+      Segment segment = record.segment;
+      if (segment.deleted || segment.buffer.get(record.position + 4) == ACKNOWLEDGED) {
+        continue;
+      }
+      segment.buffer.put(record.position + 4, ACKNOWLEDGED);
+      segment.pendingRecords--;
+      deleteIfAcknowledged(segment);
+    }
+  }
+
+  /**
+   * Marks records that are in flight as pending, so that they are replayed. Records of segments
+   * that were dropped in the meantime are counted as dropped.
+   *
+   * @param records the records that could not be sent
+   */
+  synchronized void release(@NonNull Collection<SpoolRecord> records) {
+    for (SpoolRecord record : records) {
+      Segment segment = record.segment;
+      if (segment.deleted) {
+        droppedRequests.incrementAndGet();
+      } else if (segment.buffer.get(record.position + 4) == IN_FLIGHT) {
+        segment.buffer.put(record.position + 4, PENDING);
+      }
+    }
+  }
+
+  /**
+   * Takes pending records, oldest first, and marks them as in flight.
+   *
+   * @param maxRecords the maximum number of records to take
+   * @return the records
+   */
+  synchronized List<SpoolRecord> takePendingRecords(int maxRecords) {
+    List<SpoolRecord> records = new ArrayList<>();
+    for (Segment segment : segments.values()) {
+      int position = segment.firstPendingPosition;
+      boolean onlyAcknowledgedBefore = true;
+      while (position < segment.writePosition && records.size() < maxRecords) {
+        int recordLength = segment.buffer.getInt(position);
+        byte state = segment.buffer.get(position + 4);
+        if (state == PENDING) {
+          segment.buffer.put(position + 4, IN_FLIGHT);
+          records.add(segment.read(position, recordLength));
+        }
+        if (state != ACKNOWLEDGED) {
+          onlyAcknowledgedBefore = false;
+        } else if (onlyAcknowledgedBefore) {
+          segment.firstPendingPosition = position + recordLength;
+        }
+        position += recordLength;
+      }
+      if (records.size() >= maxRecords) {
+        break;
+      }
+    }
+    return records;
+  }
+
+  /** Returns the number of records that are not acknowledged yet. */
+  synchronized long countPendingRecords() {
+    long pendingRecords = 0L;
+    for (Segment segment : segments.values()) {
+      pendingRecords += segment.pendingRecords;
+    }
+    return pendingRecords;
+  }
+
+  private void deleteIfAcknowledged(@NonNull Segment segment) {
+    if (segment.sealed && segment.pendingRecords == 0) {
+      delete(segment);
+    }
+  }
+
+  private void delete(@NonNull Segment segment) {
+    segments.remove(segment.sequence);
+    segment.deleted = true;
+    bytes -= segment.buffer.capacity();
+    notifyAll();
+    try {
+      Files.deleteIfExists(segment.path);
+    } catch (IOException e) {
+      log.warn("Could not delete spool segment {}", segment.path, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    for (Segment segment : new ArrayList<>(segments.values())) {
+      segment.buffer.force();
+      segment.sealed = true;
+      deleteIfAcknowledged(segment);
+    }
+    activeSegment = null;
+  }
+
+  @RequiredArgsConstructor
+  private static final class Segment {
+
+    private final Path path;
+
+    private final long sequence;
+
+    private final MappedByteBuffer buffer;
+
+    private int writePosition;
+
+    private int firstPendingPosition;
+
+    private int pendingRecords;
+
+    private boolean sealed;
+
+    private boolean deleted;
+
+    private static Segment create(@NonNull Path path, long sequence, int size) throws IOException {
+      try (FileChannel channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE_NEW,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        return new Segment(path, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0L, size));
+      }
+    }
+
+    private static Segment open(@NonNull Path path, long sequence) throws IOException {
+      Segment segment;
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        segment =
+            new Segment(
+                path, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0L, channel.size()));
+      }
+      int position = 0;
+      while (position + HEADER_LENGTH <= segment.buffer.capacity()) {
+        int recordLength = segment.buffer.getInt(position);
+        if (recordLength < HEADER_LENGTH || position + recordLength > segment.buffer.capacity()) {
+          break;
+        }
+        byte state = segment.buffer.get(position + 4);
+        if (state == IN_FLIGHT) {
+          segment.buffer.put(position + 4, PENDING);
+          segment.pendingRecords++;
+        } else if (state == PENDING) {
+          segment.pendingRecords++;
+        }
+        position += recordLength;
+      }
+      segment.writePosition = position;
+      return segment;
+    }
+
+    private int remaining() {
+      return buffer.capacity() - writePosition;
+    }
+
+    private int countRecords(byte state) {
+      int records = 0;
+      for (int position = 0; position < writePosition; position += buffer.getInt(position)) {
+        if (buffer.get(position + 4) == state) {
+          records++;
+        }
+      }
+      return records;
+    }
+
+    /** Returns a read-only view of the bytes between the given positions. */
+    private ByteBuffer view(int start, int end) {
+      ByteBuffer view = buffer.duplicate();
+      view.limit(end).position(start);
+      return view.slice().asReadOnlyBuffer();
+    }
+
+    private SpoolRecord read(int position, int recordLength) {
+      int authTokenLength = buffer.getShort(position + 6);
+      byte[] authTokenBytes = new byte[authTokenLength];
+      ByteBuffer content = buffer.duplicate();
+      content.position(position + HEADER_LENGTH);
+      content.get(authTokenBytes);
+      return new SpoolRecord(
+          this,
+          position,
+          view(content.position(), position + recordLength),
+          authTokenLength == 0 ? null : new String(authTokenBytes, StandardCharsets.UTF_8),
+          RequestPriority.values()[buffer.get(position + 5)]);
+    }
+  }
+
+  /** A query stored in the spool. */
+  @RequiredArgsConstructor
+  static final class SpoolRecord {
+
+    private final Segment segment;
+
+    private final int position;
+
+    /** The UTF-8 bytes of the query as a read-only view of the spool file. */
+    @Getter private final ByteBuffer query;
+
+    @Getter @Nullable private final String authToken;
+
+    @Getter private final RequestPriority priority;
+  }
+}
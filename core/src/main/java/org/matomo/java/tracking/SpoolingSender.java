@@ -0,0 +1,276 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singletonList;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.matomo.java.tracking.Spool.SpoolRecord;
+
+/**
+ * A {@link Sender} that writes asynchronous requests to a {@link Spool} before they are passed to
+ * the delegate.
+ *
+ * <p>Each request is encoded once into the spool. Requests that consist of their query and auth
+ * token only are passed to the delegate as the encoded bytes of the spool. Requests with HTTP
+ * headers, a user agent, a session ID or cookies are passed to the delegate as requests.
+ *
+ * <p>Spooled requests are acknowledged as soon as the delegate sent them successfully. Requests
+ * that could not be sent remain in the spool and are replayed as bulk requests every {@link
+ * TrackerConfiguration#getSpoolReplayInterval()}. If the spool is full, the {@link
+ * TrackerConfiguration#getOverflowPolicy()} applies. Synchronous calls and already serialized
+ * queries are passed to the delegate directly.
+ */
+@Slf4j
+class SpoolingSender implements Sender {
+
+  private final Sender delegate;
+
+  private final TrackerConfiguration trackerConfiguration;
+
+  private final QueryCreator queryCreator;
+
+  private final Spool spool;
+
+  private final ScheduledExecutorService scheduler;
+
+  private volatile boolean closed;
+
+  SpoolingSender(
+      @NonNull Sender delegate,
+      @NonNull TrackerConfiguration trackerConfiguration,
+      @NonNull QueryCreator queryCreator,
+      @NonNull Spool spool,
+      @NonNull ScheduledExecutorService scheduler) {
+    this.delegate = delegate;
+    this.trackerConfiguration = trackerConfiguration;
+    this.queryCreator = queryCreator;
+    this.spool = spool;
+    this.scheduler = scheduler;
+    long replayInterval = trackerConfiguration.getSpoolReplayInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::replay, 0L, replayInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+    TransportAttributes attributes = TransportAttributes.of(request, trackerConfiguration);
+    SpoolRecord record;
+    try {
+      record = append(request, attributes.getAuthToken());
+    } catch (MatomoException e) {
+      log.warn("Could not spool request. Sending it without spooling", e);
+      return delegate.sendSingleAsync(request);
+    }
+    if (record == null) {
+      return failed(new MatomoException("Spool is full. Request was dropped"));
+    }
+    if (attributes.isQueryOnly()) {
+      return sendSpooled(
+          singletonList(record),
+          () ->
+              delegate
+                  .sendEncodedQueriesAsync(
+                      singletonList(record.getQuery()),
+                      attributes.getAuthToken(),
+                      record.getPriority())
+                  .thenApply(ignored -> request));
+    }
+    return sendSpooled(singletonList(record), () -> delegate.sendSingleAsync(request));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    Map<TransportAttributes, List<MatomoRequest>> groups =
+        TransportAttributes.partition(requests, trackerConfiguration);
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    List<MatomoRequest> unspooledRequests = new ArrayList<>();
+    int droppedRequests = 0;
+    for (Map.Entry<TransportAttributes, List<MatomoRequest>> group : groups.entrySet()) {
+      String authToken = group.getKey().getAuthToken();
+      Map<RequestPriority, List<SpoolRecord>> recordsByPriority =
+          new EnumMap<>(RequestPriority.class);
+      List<MatomoRequest> spooledRequests = new ArrayList<>();
+      List<SpoolRecord> records = new ArrayList<>();
+      for (MatomoRequest request : group.getValue()) {
+        SpoolRecord record;
+        try {
+          record = append(request, authToken);
+        } catch (MatomoException e) {
+          log.warn("Could not spool request. Sending it without spooling", e);
+          unspooledRequests.add(request);
+          continue;
+        }
+        if (record == null) {
+          droppedRequests++;
+          continue;
+        }
+        recordsByPriority
+            .computeIfAbsent(record.getPriority(), priority -> new ArrayList<>())
+            .add(record);
+        spooledRequests.add(request);
+        records.add(record);
+      }
+      if (group.getKey().isQueryOnly()) {
+        for (Map.Entry<RequestPriority, List<SpoolRecord>> lane : recordsByPriority.entrySet()) {
+          futures.add(sendEncoded(lane.getValue(), authToken, lane.getKey()));
+        }
+      } else if (!spooledRequests.isEmpty()) {
+        futures.add(sendSpooled(records, () -> delegate.sendBulkAsync(spooledRequests)));
+      }
+    }
+    if (!unspooledRequests.isEmpty()) {
+      futures.add(delegate.sendBulkAsync(unspooledRequests));
+    }
+    CompletableFuture<Void> result =
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    if (droppedRequests == 0) {
+      return result;
+    }
+    MatomoException exception =
+        new MatomoException("Spool is full. " + droppedRequests + " request(s) were dropped");
+    return result.thenCompose(ignored -> failed(exception));
+  }
+
+  /**
+   * Passes already serialized queries to the delegate without spooling them, since they are neither
+   * created by nor replayed through this sender.
+   */
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return delegate.sendQueriesAsync(queries, authToken, priority);
+  }
+
+  @Nullable
+  private SpoolRecord append(@NonNull MatomoRequest request, @Nullable String authToken) {
+    QueryBuffer query = QueryBuffer.threadLocal();
+    queryCreator.appendQuery(request, null, query);
+    return spool.append(query, 0, authToken, RequestPriority.of(request));
+  }
+
+  private CompletableFuture<Void> sendEncoded(
+      @NonNull List<SpoolRecord> records,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    List<ByteBuffer> queries = new ArrayList<>(records.size());
+    for (SpoolRecord record : records) {
+      queries.add(record.getQuery());
+    }
+    return sendSpooled(
+        records, () -> delegate.sendEncodedQueriesAsync(queries, authToken, priority));
+  }
+
+  /**
+   * Sends spooled records and acknowledges them if the send succeeds. Otherwise, they are released
+   * to be replayed later.
+   */
+  private <T> CompletableFuture<T> sendSpooled(
+      @NonNull List<SpoolRecord> records, @NonNull Supplier<CompletableFuture<T>> send) {
+    CompletableFuture<T> future;
+    try {
+      future = send.get();
+    } catch (RuntimeException e) {
+      future = failed(e);
+    }
+    return future.whenComplete(
+        (result, throwable) -> {
+          if (throwable == null) {
+            spool.acknowledge(records);
+          } else {
+            spool.release(records);
+          }
+        });
+  }
+
+  private static <T> CompletableFuture<T> failed(@NonNull Throwable throwable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+
+  private void replay() {
+    try {
+      while (!closed && replayNextRecords()) {
+        log.debug("Replayed spooled requests");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      log.warn("Could not replay spooled requests", e);
+    }
+  }
+
+  private boolean replayNextRecords() throws InterruptedException {
+    List<SpoolRecord> records = spool.takePendingRecords(trackerConfiguration.getBatchSize());
+    if (records.isEmpty()) {
+      return false;
+    }
+    Map<RequestPriority, Map<String, List<SpoolRecord>>> recordsByPriority =
+        new EnumMap<>(RequestPriority.class);
+    for (SpoolRecord record : records) {
+      recordsByPriority
+          .computeIfAbsent(record.getPriority(), priority -> new LinkedHashMap<>())
+          .computeIfAbsent(record.getAuthToken(), authToken -> new ArrayList<>())
+          .add(record);
+    }
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (Map.Entry<RequestPriority, Map<String, List<SpoolRecord>>> lane :
+        recordsByPriority.entrySet()) {
+      for (Map.Entry<String, List<SpoolRecord>> entry : lane.getValue().entrySet()) {
+        futures.add(sendEncoded(entry.getValue(), entry.getKey(), lane.getKey()));
+      }
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+      return true;
+    } catch (ExecutionException e) {
+      log.warn("Could not replay spooled requests. Retrying later", e.getCause());
+      return false;
+    }
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public void sendSingle(@NonNull MatomoRequest request) {
+    delegate.sendSingle(request);
+  }
+
+  @Override
+  public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+    delegate.sendBulk(requests);
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    try {
+      ExecutorServiceCloser.close(scheduler);
+      delegate.close();
+    } finally {
+      spool.close();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.matomo.java.tracking;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket that permits a number of requests per second with bursts of a given
+ * size.
+ *
+ * <p>Instead of counting tokens, the bucket stores the theoretical time at which it would be
+ * completely refilled, as in the generic cell rate algorithm. A reservation is a single
+ * compare-and-set on that time.
+ */
+class TokenBucket {
+
+  private final long emissionInterval;
+
+  private final long tolerance;
+
+  private final AtomicLong theoreticalArrivalTime;
+
+  TokenBucket(double permitsPerSecond, int burst, long now) {
+    emissionInterval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1L) / permitsPerSecond));
+    tolerance = emissionInterval * (burst - 1);
+    theoreticalArrivalTime = new AtomicLong(now);
+  }
+
+  /**
+   * Reserves a permit if it is available within the given time.
+   *
+   * @param now the current time in nanoseconds, see {@link System#nanoTime()}
+   * @param maxWait the maximum time in nanoseconds to wait for a permit
+   * @return the time in nanoseconds to wait before the permit may be used or -1 if no permit is
+   *     available within the maximum wait time
+   */
+  long reserve(long now, long maxWait) {
+    while (true) {
+      long current = theoreticalArrivalTime.get();
+      long wait = Math.max(0L, current - tolerance - now);
+      if (wait > maxWait) {
+        return -1L;
+      }
+      long next = (current - now > 0L ? current : now) + emissionInterval;
+      if (theoreticalArrivalTime.compareAndSet(current, next)) {
+        return wait;
+      }
+    }
+  }
+
+  /**
+   * Gives back a permit that was reserved but not used, for example because another bucket had no
+   * permit left.
+   */
+  void cancel() {
+    theoreticalArrivalTime.addAndGet(-emissionInterval);
+  }
+}
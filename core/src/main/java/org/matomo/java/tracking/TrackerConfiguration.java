@@ -7,9 +7,22 @@
 
 package org.matomo.java.tracking;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 import lombok.Builder;
 import lombok.Value;
@@ -26,6 +39,37 @@ public class TrackerConfiguration {
    */
   URI apiEndpoint;
 
+  /**
+   * Further Matomo Tracking HTTP API endpoints, for example of several tracking nodes of the same
+   * Matomo installation. If set, requests are distributed across {@link #apiEndpoint} and these
+   * endpoints according to the {@link #loadBalancingStrategy}. Defaults to an empty list.
+   *
+   * @see #endpointEjectionThreshold
+   * @see #endpointHealthCheckInterval
+   */
+  @Builder.Default List<URI> additionalApiEndpoints = emptyList();
+
+  /**
+   * Defines how requests are distributed if {@link #additionalApiEndpoints} are configured.
+   * Defaults to {@link LoadBalancingStrategy#ROUND_ROBIN}.
+   */
+  @Builder.Default LoadBalancingStrategy loadBalancingStrategy = LoadBalancingStrategy.ROUND_ROBIN;
+
+  /**
+   * The number of consecutive failed requests after which an endpoint is ejected if {@link
+   * #additionalApiEndpoints} are configured. Connection failures, timeouts and the HTTP status
+   * codes 5xx and 429 count as failures. Ejected endpoints receive no requests until a health probe
+   * succeeds. Default: 3
+   */
+  @Builder.Default int endpointEjectionThreshold = 3;
+
+  /**
+   * The interval between two health probes of an ejected endpoint. A probe is a GET request without
+   * parameters to the endpoint that must be answered with a status code below 400. Default: 10
+   * seconds
+   */
+  @Builder.Default Duration endpointHealthCheckInterval = Duration.ofSeconds(10L);
+
   /** The default ID of the website that will be used if not specified explicitly. */
   Integer defaultSiteId;
 
@@ -118,11 +162,515 @@ public class TrackerConfiguration {
    */
   @Builder.Default int threadPoolSize = 2;
 
+  /**
+   * Collects requests sent via {@link MatomoTracker#sendRequestAsync(MatomoRequest)} and sends them
+   * as bulk requests. A batch is sent as soon as {@code batchSize} requests are collected, {@code
+   * batchLinger} has elapsed since the first request of the batch was collected or {@link
+   * MatomoTracker#flush()} is called. Defaults to false.
+   *
+   * <p>The returned futures complete as soon as the bulk request that carried the request is
+   * acknowledged by the Matomo server.
+   *
+   * @see #batchSize
+   * @see #batchLinger
+   */
+  boolean batchingEnabled;
+
+  /**
+   * The maximum number of requests to send in a single batch if batching is enabled. Default: 100
+   */
+  @Builder.Default int batchSize = 100;
+
+  /**
+   * The maximum time to wait for further requests before a batch is sent if batching is enabled.
+   *
+   * <p>Default: 1 second
+   */
+  @Builder.Default Duration batchLinger = Duration.ofSeconds(1L);
+
+  /**
+   * Adjusts the batch size to the observed latency and error rate of the Matomo server if batching
+   * is enabled. Starting with {@link #batchSize}, the size grows by {@link #minBatchSize} after
+   * every full batch that was acknowledged within {@link #targetBatchLatency} and is halved after
+   * every failed or slower batch. Defaults to false.
+   *
+   * @see #minBatchSize
+   * @see #maxBatchSize
+   */
+  boolean adaptiveBatchSizeEnabled;
+
+  /** The minimum batch size if adaptive batch sizing is enabled. Default: 10 */
+  @Builder.Default int minBatchSize = 10;
+
+  /** The maximum batch size if adaptive batch sizing is enabled. Default: 1000 */
+  @Builder.Default int maxBatchSize = 1000;
+
+  /**
+   * The maximum time to send a batch before the batch size is decreased if adaptive batch sizing is
+   * enabled.
+   *
+   * <p>Default: 1 second
+   */
+  @Builder.Default Duration targetBatchLatency = Duration.ofSeconds(1L);
+
+  /**
+   * The maximum size in bytes of the JSON body of a single bulk request. Larger bulk requests are
+   * split into several POST requests. Synchronous calls send them one after another. Asynchronous
+   * calls serialize them immediately and send up to {@link #threadPoolSize} of them concurrently.
+   * Use this to stay below limits like PHP's {@code post_max_size} or MySQL's {@code
+   * max_allowed_packet}. A single query that exceeds the limit on its own is sent alone. Zero means
+   * no limit. Defaults to 0.
+   *
+   * @see #maxBulkQueries
+   */
+  long maxBulkBytes;
+
+  /**
+   * The maximum number of queries in the JSON body of a single bulk request. Larger bulk requests
+   * are split like with {@link #maxBulkBytes}. Zero means no limit. Defaults to 0.
+   */
+  int maxBulkQueries;
+
+  /**
+   * Compresses the JSON bodies of bulk requests with gzip and sends them with a {@code
+   * Content-Encoding: gzip} header. Bulk queries are very repetitive, so this usually reduces the
+   * transferred bytes considerably. The Matomo server or a proxy in front of it must decompress the
+   * body. Defaults to false.
+   *
+   * <p>The limits {@link #maxBulkBytes} and {@link #maxBulkQueries} apply to the uncompressed
+   * bodies.
+   *
+   * @see #bulkCompressionThreshold
+   */
+  boolean bulkCompressionEnabled;
+
+  /**
+   * The minimum size in bytes of a bulk request body to be compressed if bulk compression is
+   * enabled. Smaller bodies are sent uncompressed, because compressing them costs more than it
+   * saves. Default: 1024
+   */
+  @Builder.Default long bulkCompressionThreshold = 1024L;
+
+  /**
+   * The maximum number of asynchronous requests that are queued or in flight. If the backlog is
+   * full, the {@link #overflowPolicy} applies. Zero means no limit. Defaults to 0.
+   *
+   * <p>If a backlog limit is configured, at most {@link #threadPoolSize} asynchronous calls are
+   * sent to the Matomo server at the same time. The others wait in the backlog.
+   *
+   * @see #maxBacklogBytes
+   */
+  int maxBacklogRequests;
+
+  /**
+   * The maximum estimated size in bytes of all asynchronous requests that are queued or in flight.
+   * If the backlog is full, the {@link #overflowPolicy} applies. Zero means no limit. Defaults to
+   * 0.
+   *
+   * @see #maxBacklogRequests
+   */
+  long maxBacklogBytes;
+
+  /**
+   * Defines what happens if the backlog is full. Defaults to {@link OverflowPolicy#DROP_NEWEST}.
+   *
+   * <p>Dropped requests can be counted using {@link MatomoTracker#getDroppedRequests()}.
+   */
+  @Builder.Default OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+  /**
+   * The maximum time to wait for space in the backlog if the overflow policy is {@link
+   * OverflowPolicy#BLOCK}.
+   *
+   * <p>Default: 1 second
+   */
+  @Builder.Default Duration backlogBlockTimeout = Duration.ofSeconds(1L);
+
+  /**
+   * Queues asynchronous requests in separate lanes per {@link RequestPriority}, so that for example
+   * ecommerce orders and goal conversions do not wait behind thousands of pings. The priority of a
+   * request is derived from its kind unless set explicitly, see {@link
+   * RequestPriority#of(MatomoRequest)}. Defaults to false.
+   *
+   * <p>Lanes are drained in turns according to the {@link #priorityLaneWeights}. If the backlog is
+   * full, requests of lower priority are dropped first. At most {@link #threadPoolSize}
+   * asynchronous calls are sent to the Matomo server at the same time, the others wait in the
+   * lanes.
+   */
+  boolean priorityLanesEnabled;
+
+  /**
+   * The number of tasks taken from every priority lane per turn if priority lanes are enabled.
+   * Priorities without a weight have a weight of 1. Defaults to 8 for {@link RequestPriority#HIGH},
+   * 4 for {@link RequestPriority#NORMAL} and 1 for {@link RequestPriority#LOW}.
+   */
+  @Builder.Default Map<RequestPriority, Integer> priorityLaneWeights = defaultPriorityLaneWeights();
+
+  /**
+   * The maximum number of times a failed request is retried. Connection failures, timeouts and the
+   * HTTP status codes 5xx and 429 are retried, all other client errors are not. Defaults to 0,
+   * which disables retries.
+   *
+   * <p>Asynchronous retries are scheduled without blocking the threads of the thread pool.
+   * Synchronous retries wait on the calling thread.
+   *
+   * @see #retryInitialBackoff
+   * @see #retryMaxBackoff
+   */
+  int maxRetries;
+
+  /**
+   * The backoff before the first retry. The backoff doubles with every further retry. A random
+   * jitter of up to half of the backoff is subtracted, so that clients do not retry at the same
+   * time.
+   *
+   * <p>Default: 500 milliseconds
+   */
+  @Builder.Default Duration retryInitialBackoff = Duration.ofMillis(500L);
+
+  /**
+   * The maximum backoff between two retries. This also caps the delay requested by the Matomo
+   * server using the Retry-After header.
+   *
+   * <p>Default: 30 seconds
+   */
+  @Builder.Default Duration retryMaxBackoff = Duration.ofSeconds(30L);
+
+  /**
+   * Protects the application from an unavailable Matomo server using a circuit breaker. If the rate
+   * of failed or slow calls within the last {@link #circuitBreakerWindowSize} calls reaches its
+   * threshold, the circuit breaker opens and all calls fail immediately with a {@link
+   * MatomoException} for {@link #circuitBreakerOpenDuration}. Afterwards {@link
+   * #circuitBreakerProbeRequests} probe calls are sent to decide whether it closes again. Defaults
+   * to false.
+   *
+   * <p>Connection failures, timeouts and the HTTP status codes 5xx and 429 count as failures. A
+   * call includes its retries.
+   *
+   * @see #circuitBreakerListener
+   */
+  boolean circuitBreakerEnabled;
+
+  /**
+   * The number of most recent calls the failure and slow call rates are computed of. Default: 20
+   */
+  @Builder.Default int circuitBreakerWindowSize = 20;
+
+  /** The rate of failed calls that opens the circuit breaker. Default: 0.5 */
+  @Builder.Default double circuitBreakerFailureRateThreshold = 0.5;
+
+  /**
+   * Calls that take longer than this duration are slow.
+   *
+   * <p>Default: 3 seconds
+   */
+  @Builder.Default Duration circuitBreakerSlowCallDuration = Duration.ofSeconds(3L);
+
+  /** The rate of slow calls that opens the circuit breaker. Default: 0.8 */
+  @Builder.Default double circuitBreakerSlowCallRateThreshold = 0.8;
+
+  /**
+   * The time the circuit breaker stays open before probe calls are sent.
+   *
+   * <p>Default: 30 seconds
+   */
+  @Builder.Default Duration circuitBreakerOpenDuration = Duration.ofSeconds(30L);
+
+  /**
+   * The number of probe calls that must succeed in time to close the circuit breaker again. A
+   * single failed or slow probe call opens it again. Default: 1
+   */
+  @Builder.Default int circuitBreakerProbeRequests = 1;
+
+  /** Gets notified if the state of the circuit breaker changes, for example to raise an alert. */
+  @Nullable CircuitBreakerListener circuitBreakerListener;
+
+  /**
+   * A directory to spool asynchronous requests to before they are sent. If set, every asynchronous
+   * request is written to a memory-mapped file in this directory and removed as soon as the Matomo
+   * server acknowledged it. Requests that could not be sent are replayed as bulk requests every
+   * {@link #spoolReplayInterval}, also after a restart of the application. Defaults to null, which
+   * disables spooling.
+   *
+   * <p>Spooled requests are delivered at least once. Replayed requests are sent without the headers
+   * and cookies of the original request. Only one tracker may use the same directory at a time.
+   *
+   * @see #spoolSegmentSize
+   */
+  @Nullable Path spoolDirectory;
+
+  /**
+   * The size in bytes of a single spool file. A file is deleted as soon as it is full and all of
+   * its requests are acknowledged. Default: 8 MiB
+   */
+  @Builder.Default int spoolSegmentSize = 8 * 1024 * 1024;
+
+  /**
+   * The interval to replay spooled requests that could not be sent.
+   *
+   * <p>Default: 30 seconds
+   */
+  @Builder.Default Duration spoolReplayInterval = Duration.ofSeconds(30L);
+
+  /**
+   * The maximum size in bytes of all spool files. If a new spool file would exceed it, the {@link
+   * #overflowPolicy} applies: requests are dropped, the oldest spool file is dropped, the calling
+   * thread waits up to {@link #backlogBlockTimeout} for a file to be deleted, or requests are
+   * dropped with a probability that grows with the size of the spool. Zero means no limit. Defaults
+   * to 0.
+   */
+  long maxSpoolBytes;
+
+  /**
+   * Registers a JVM shutdown hook that closes the tracker using {@link
+   * MatomoTracker#close(Duration)}, so that collected and queued requests are sent before the JVM
+   * exits. The threads of the tracker are daemon threads and do not keep the JVM alive otherwise.
+   * Defaults to false.
+   *
+   * @see #shutdownTimeout
+   */
+  boolean shutdownHookEnabled;
+
+  /**
+   * The maximum time the shutdown hook waits for pending requests if it is enabled.
+   *
+   * <p>Default: 10 seconds
+   */
+  @Builder.Default Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+  /**
+   * Coalesces high-frequency asynchronous requests of the same visitor. If enabled, requests sent
+   * via {@link MatomoTracker#sendRequestAsync(MatomoRequest)} of one of the {@link
+   * #coalescedRequestKinds} are held for {@link #coalescingWindow}. Only the latest request of the
+   * same site, visitor, kind and media is sent, earlier ones are superseded. Defaults to false.
+   *
+   * <p>The visitor is identified by the custom visitor ID, the user ID or the visitor ID, in this
+   * order. {@link MatomoRequest#request()} generates a random visitor ID for each request, so
+   * requests are only coalesced if one of these IDs is set explicitly.
+   *
+   * <p>The futures of superseded requests complete as soon as the latest request was sent. The
+   * number of superseded requests can be retrieved using {@link
+   * MatomoTracker#getCoalescedRequests()}.
+   */
+  boolean coalescingEnabled;
+
+  /**
+   * The time to hold a request for newer requests of the same kind if coalescing is enabled.
+   *
+   * <p>Default: 5 seconds
+   */
+  @Builder.Default Duration coalescingWindow = Duration.ofSeconds(5L);
+
+  /**
+   * The kinds of requests to coalesce if coalescing is enabled. Defaults to {@link
+   * RequestKind#PING}, {@link RequestKind#MEDIA} and {@link RequestKind#ECOMMERCE_CART_UPDATE},
+   * since only their latest state matters.
+   */
+  @Builder.Default
+  Set<RequestKind> coalescedRequestKinds =
+      EnumSet.of(RequestKind.PING, RequestKind.MEDIA, RequestKind.ECOMMERCE_CART_UPDATE);
+
+  /**
+   * The fractions of requests to send per {@link RequestKind}, between 0 (none) and 1 (all). Kinds
+   * without a rate are sent completely. Defaults to an empty map, which disables sampling.
+   *
+   * <p>The decision is made using a hash of the visitor ID before the request is processed any
+   * further, so all requests of the same visitor and kind are either sent or dropped. Requests
+   * without a visitor ID are always sent. The number of dropped requests can be retrieved using
+   * {@link MatomoTracker#getSampledOutRequests(RequestKind)} to scale reports back up.
+   *
+   * @see #eventCategorySamplingRates
+   */
+  @Builder.Default Map<RequestKind, Double> samplingRates = emptyMap();
+
+  /**
+   * The fractions of events to send per event category, between 0 (none) and 1 (all). Overrides the
+   * sampling rate of {@link RequestKind#EVENT} in {@link #samplingRates} for the given categories.
+   * Defaults to an empty map.
+   */
+  @Builder.Default Map<String, Double> eventCategorySamplingRates = emptyMap();
+
+  /**
+   * The maximum number of requests per second this tracker sends to the Matomo server. Requests
+   * that exceed the limit are handled according to the {@link #rateLimitPolicy}. Zero means no
+   * limit. Defaults to 0.
+   *
+   * <p>The limit is enforced using a lock-free token bucket that allows bursts of {@link
+   * #rateLimitBurst} requests. Requests within a bulk request count individually.
+   *
+   * @see #maxRequestsPerSecondPerSite
+   */
+  double maxRequestsPerSecond;
+
+  /**
+   * The maximum number of requests per second this tracker sends for a single site ID. Requests
+   * without a site ID count for the {@link #defaultSiteId}. Zero means no limit. Defaults to 0.
+   */
+  double maxRequestsPerSecondPerSite;
+
+  /** The number of requests that may be sent at once before the rate limit applies. Default: 10 */
+  @Builder.Default int rateLimitBurst = 10;
+
+  /**
+   * Defines what happens if the rate limit is exceeded. Defaults to {@link RateLimitPolicy#DELAY}.
+   *
+   * <p>Requests that were not sent can be counted using {@link
+   * MatomoTracker#getRateLimitedRequests()}.
+   */
+  @Builder.Default RateLimitPolicy rateLimitPolicy = RateLimitPolicy.DELAY;
+
+  /**
+   * The maximum time to delay a request if the rate limit policy is {@link RateLimitPolicy#DELAY}.
+   * Requests that would have to wait longer are dropped.
+   *
+   * <p>Default: 1 second
+   */
+  @Builder.Default Duration rateLimitMaxDelay = Duration.ofSeconds(1L);
+
+  /**
+   * Takes over requests that exceed the rate limit if the rate limit policy is {@link
+   * RateLimitPolicy#CALLBACK}.
+   */
+  @Nullable RateLimitExceededHandler rateLimitExceededHandler;
+
+  /**
+   * Defines which requests are validated when they are passed to the tracker. Defaults to {@link
+   * ValidationMode#STRICT}.
+   *
+   * @see #validationSampleRate
+   */
+  @Builder.Default ValidationMode validationMode = ValidationMode.STRICT;
+
+  /**
+   * The fraction of requests to validate between 0 (none) and 1 (all) if the validation mode is
+   * {@link ValidationMode#SAMPLED}. Default: 0.01
+   */
+  @Builder.Default double validationSampleRate = 0.01;
+
+  /**
+   * The maximum number of percent-encoded parameter values to cache. Values that are tracked over
+   * and over again, like action names or event categories, are then encoded only once. The least
+   * recently used values are evicted if the cache is full. Zero disables the cache. Defaults to 0.
+   *
+   * <p>Use {@link MatomoTracker#getEncodedValueCacheHits()} and {@link
+   * MatomoTracker#getEncodedValueCacheMisses()} to determine the hit rate.
+   *
+   * @see #encodedValueCacheParameters
+   * @see #encodedValueCacheMaxValueLength
+   */
+  int encodedValueCacheSize;
+
+  /**
+   * The names of the parameters whose values are cached if the encoded value cache is enabled. Use
+   * {@code dimension} for the values of all custom dimensions. Names of additional parameters are
+   * supported as well.
+   *
+   * <p>Default: action_name, url, urlref, e_c, e_a, e_n, c_n, c_p, c_t and dimension
+   */
+  @Builder.Default
+  Set<String> encodedValueCacheParameters =
+      unmodifiableSet(
+          new HashSet<>(
+              asList(
+                  "action_name",
+                  "url",
+                  "urlref",
+                  "e_c",
+                  "e_a",
+                  "e_n",
+                  "c_n",
+                  "c_p",
+                  "c_t",
+                  "dimension")));
+
+  /**
+   * The maximum length of a value to be cached if the encoded value cache is enabled. Longer values
+   * are rarely repeated and are encoded every time. Default: 256
+   */
+  @Builder.Default int encodedValueCacheMaxValueLength = 256;
+
+  /**
+   * Encodes asynchronous requests as soon as they are passed to the tracker. Only the encoded
+   * parameters and the values that are needed to route a request are kept while it is queued, so
+   * queued requests occupy less memory and later changes of a request by the caller are not sent.
+   * The futures of single requests contain the frozen copies of the requests, whose getters return
+   * null for most parameters. Defaults to false.
+   */
+  boolean requestFreezingEnabled;
+
+  /**
+   * The capacity in bytes of an off-heap queue for asynchronous requests. If greater than zero,
+   * asynchronous requests are encoded into a ring buffer in direct memory and sent in bulk requests
+   * of up to {@link #batchSize} queries, with up to {@link #threadPoolSize} bulk requests
+   * outstanding, so that queued requests neither occupy the Java heap nor have to be traced by the
+   * garbage collector. Requests that do not fit into the queue are dropped and counted by {@link
+   * MatomoTracker#getDroppedRequests()}. Requests with HTTP headers, cookies, a session ID or a
+   * user agent are not queued. The futures of queued single requests complete with null. Zero
+   * disables the queue. Defaults to 0.
+   */
+  int offHeapQueueCapacity;
+
+  /**
+   * The maximum number of reusable requests to keep for {@link MatomoTracker#obtainRequest()}.
+   * Requests obtained from the pool are reset and returned to the pool as soon as the tracker is
+   * done with them, so tracking the same kind of events over and over again does not allocate a new
+   * request for each event. Asynchronous requests are returned when their futures complete, unless
+   * {@link #requestFreezingEnabled} is set, which returns them right after the frozen copy was
+   * made. Only the request object is reused, the senders still allocate the encoded query and the
+   * futures of each event. Zero disables the pool. Defaults to 0.
+   */
+  int requestPoolSize;
+
+  private static Map<RequestPriority, Integer> defaultPriorityLaneWeights() {
+    Map<RequestPriority, Integer> priorityLaneWeights = new EnumMap<>(RequestPriority.class);
+    priorityLaneWeights.put(RequestPriority.HIGH, 8);
+    priorityLaneWeights.put(RequestPriority.NORMAL, 4);
+    priorityLaneWeights.put(RequestPriority.LOW, 1);
+    return unmodifiableMap(priorityLaneWeights);
+  }
+
+  /**
+   * Returns true if the number or the size of asynchronous requests is limited.
+   *
+   * @return true if {@link #maxBacklogRequests} or {@link #maxBacklogBytes} is set
+   */
+  public boolean isBacklogLimited() {
+    return maxBacklogRequests > 0 || maxBacklogBytes > 0L;
+  }
+
+  /**
+   * Returns true if the rate of requests is limited.
+   *
+   * @return true if {@link #maxRequestsPerSecond} or {@link #maxRequestsPerSecondPerSite} is set
+   */
+  public boolean isRateLimited() {
+    return maxRequestsPerSecond > 0.0 || maxRequestsPerSecondPerSite > 0.0;
+  }
+
   /** Validates the auth token. The auth token must be exactly 32 characters long. */
   public void validate() {
     if (apiEndpoint == null) {
       throw new IllegalArgumentException("API endpoint must not be null");
     }
+    if (additionalApiEndpoints == null) {
+      throw new IllegalArgumentException("Additional API endpoints must not be null");
+    }
+    for (URI additionalApiEndpoint : additionalApiEndpoints) {
+      if (additionalApiEndpoint == null) {
+        throw new IllegalArgumentException("Additional API endpoints must not contain null");
+      }
+    }
+    if (loadBalancingStrategy == null) {
+      throw new IllegalArgumentException("Load balancing strategy must not be null");
+    }
+    if (endpointEjectionThreshold < 1) {
+      throw new IllegalArgumentException("Endpoint ejection threshold must be greater than 0");
+    }
+    if (endpointHealthCheckInterval == null
+        || endpointHealthCheckInterval.isZero()
+        || endpointHealthCheckInterval.isNegative()) {
+      throw new IllegalArgumentException("Endpoint health check interval must be positive");
+    }
     if (defaultAuthToken != null) {
       if (defaultAuthToken.length() != 32) {
         throw new IllegalArgumentException("Auth token must be exactly 32 characters long");
@@ -162,5 +710,166 @@ public class TrackerConfiguration {
     if (threadPoolSize < 1) {
       throw new IllegalArgumentException("Thread pool size must be greater than 0");
     }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be greater than 0");
+    }
+    if (batchLinger == null || batchLinger.isNegative()) {
+      throw new IllegalArgumentException("Batch linger must not be null or negative");
+    }
+    if (minBatchSize < 1) {
+      throw new IllegalArgumentException("Min batch size must be greater than 0");
+    }
+    if (maxBatchSize < minBatchSize) {
+      throw new IllegalArgumentException("Max batch size must not be less than min batch size");
+    }
+    if (targetBatchLatency == null || targetBatchLatency.isNegative()) {
+      throw new IllegalArgumentException("Target batch latency must not be null or negative");
+    }
+    if (maxBulkBytes < 0L) {
+      throw new IllegalArgumentException("Max bulk bytes must not be negative");
+    }
+    if (maxBulkQueries < 0) {
+      throw new IllegalArgumentException("Max bulk queries must not be negative");
+    }
+    if (bulkCompressionThreshold < 0L) {
+      throw new IllegalArgumentException("Bulk compression threshold must not be negative");
+    }
+    if (maxBacklogRequests < 0) {
+      throw new IllegalArgumentException("Max backlog requests must not be negative");
+    }
+    if (maxBacklogBytes < 0L) {
+      throw new IllegalArgumentException("Max backlog bytes must not be negative");
+    }
+    if (overflowPolicy == null) {
+      throw new IllegalArgumentException("Overflow policy must not be null");
+    }
+    if (backlogBlockTimeout == null || backlogBlockTimeout.isNegative()) {
+      throw new IllegalArgumentException("Backlog block timeout must not be null or negative");
+    }
+    if (priorityLaneWeights == null) {
+      throw new IllegalArgumentException("Priority lane weights must not be null");
+    }
+    for (Map.Entry<RequestPriority, Integer> priorityLaneWeight : priorityLaneWeights.entrySet()) {
+      if (priorityLaneWeight.getKey() == null
+          || priorityLaneWeight.getValue() == null
+          || priorityLaneWeight.getValue() < 1) {
+        throw new IllegalArgumentException("Priority lane weights must be greater than 0");
+      }
+    }
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("Max retries must not be negative");
+    }
+    if (retryInitialBackoff == null || retryInitialBackoff.isNegative()) {
+      throw new IllegalArgumentException("Retry initial backoff must not be null or negative");
+    }
+    if (retryMaxBackoff == null || retryMaxBackoff.compareTo(retryInitialBackoff) < 0) {
+      throw new IllegalArgumentException(
+          "Retry max backoff must not be null or less than retry initial backoff");
+    }
+    if (circuitBreakerWindowSize < 1) {
+      throw new IllegalArgumentException("Circuit breaker window size must be greater than 0");
+    }
+    if (circuitBreakerFailureRateThreshold <= 0.0 || circuitBreakerFailureRateThreshold > 1.0) {
+      throw new IllegalArgumentException(
+          "Circuit breaker failure rate threshold must be greater than 0 and at most 1");
+    }
+    if (circuitBreakerSlowCallRateThreshold <= 0.0 || circuitBreakerSlowCallRateThreshold > 1.0) {
+      throw new IllegalArgumentException(
+          "Circuit breaker slow call rate threshold must be greater than 0 and at most 1");
+    }
+    if (circuitBreakerSlowCallDuration == null || circuitBreakerSlowCallDuration.isNegative()) {
+      throw new IllegalArgumentException(
+          "Circuit breaker slow call duration must not be null or negative");
+    }
+    if (circuitBreakerOpenDuration == null || circuitBreakerOpenDuration.isNegative()) {
+      throw new IllegalArgumentException(
+          "Circuit breaker open duration must not be null or negative");
+    }
+    if (circuitBreakerProbeRequests < 1) {
+      throw new IllegalArgumentException("Circuit breaker probe requests must be greater than 0");
+    }
+    if (spoolSegmentSize <= 0) {
+      throw new IllegalArgumentException("Spool segment size must be greater than 0");
+    }
+    if (spoolReplayInterval == null
+        || spoolReplayInterval.isNegative()
+        || spoolReplayInterval.isZero()) {
+      throw new IllegalArgumentException("Spool replay interval must be positive");
+    }
+    if (maxSpoolBytes < 0L) {
+      throw new IllegalArgumentException("Max spool bytes must not be negative");
+    }
+    if (shutdownTimeout == null || shutdownTimeout.isNegative()) {
+      throw new IllegalArgumentException("Shutdown timeout must not be null or negative");
+    }
+    if (coalescingWindow == null || coalescingWindow.isNegative() || coalescingWindow.isZero()) {
+      throw new IllegalArgumentException("Coalescing window must be positive");
+    }
+    if (coalescedRequestKinds == null) {
+      throw new IllegalArgumentException("Coalesced request kinds must not be null");
+    }
+    if (samplingRates == null) {
+      throw new IllegalArgumentException("Sampling rates must not be null");
+    }
+    validateSamplingRates(samplingRates);
+    if (eventCategorySamplingRates == null) {
+      throw new IllegalArgumentException("Event category sampling rates must not be null");
+    }
+    validateSamplingRates(eventCategorySamplingRates);
+    if (maxRequestsPerSecond < 0.0) {
+      throw new IllegalArgumentException("Max requests per second must not be negative");
+    }
+    if (maxRequestsPerSecondPerSite < 0.0) {
+      throw new IllegalArgumentException("Max requests per second per site must not be negative");
+    }
+    if (rateLimitBurst < 1) {
+      throw new IllegalArgumentException("Rate limit burst must be greater than 0");
+    }
+    if (rateLimitPolicy == null) {
+      throw new IllegalArgumentException("Rate limit policy must not be null");
+    }
+    if (rateLimitMaxDelay == null || rateLimitMaxDelay.isNegative()) {
+      throw new IllegalArgumentException("Rate limit max delay must not be null or negative");
+    }
+    if (rateLimitPolicy == RateLimitPolicy.CALLBACK && rateLimitExceededHandler == null) {
+      throw new IllegalArgumentException(
+          "Rate limit exceeded handler must be set if rate limit policy is CALLBACK");
+    }
+    if (validationMode == null) {
+      throw new IllegalArgumentException("Validation mode must not be null");
+    }
+    if (validationSampleRate < 0.0 || validationSampleRate > 1.0) {
+      throw new IllegalArgumentException("Validation sample rate must be between 0 and 1");
+    }
+    if (encodedValueCacheSize < 0) {
+      throw new IllegalArgumentException("Encoded value cache size must not be negative");
+    }
+    if (encodedValueCacheParameters == null) {
+      throw new IllegalArgumentException("Encoded value cache parameters must not be null");
+    }
+    if (encodedValueCacheMaxValueLength < 1) {
+      throw new IllegalArgumentException(
+          "Encoded value cache max value length must be greater than 0");
+    }
+    if (offHeapQueueCapacity < 0) {
+      throw new IllegalArgumentException("Off-heap queue capacity must not be negative");
+    }
+    if (requestPoolSize < 0) {
+      throw new IllegalArgumentException("Request pool size must not be negative");
+    }
+  }
+
+  private static void validateSamplingRates(Map<?, Double> samplingRates) {
+    for (Map.Entry<?, Double> samplingRate : samplingRates.entrySet()) {
+      if (samplingRate.getKey() == null) {
+        throw new IllegalArgumentException("Sampling rates must not contain null keys");
+      }
+      if (samplingRate.getValue() == null
+          || samplingRate.getValue() < 0.0
+          || samplingRate.getValue() > 1.0) {
+        throw new IllegalArgumentException(
+            "Sampling rate of " + samplingRate.getKey() + " must be between 0 and 1");
+      }
+    }
   }
 }
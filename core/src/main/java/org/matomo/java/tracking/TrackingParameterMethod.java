@@ -7,7 +7,6 @@
 
 package org.matomo.java.tracking;
 
-import java.lang.reflect.Method;
 import java.util.regex.Pattern;
 import lombok.Builder;
 import lombok.NonNull;
@@ -19,8 +18,6 @@ class TrackingParameterMethod {
 
   String parameterName;
 
-  Method method;
-
   Pattern pattern;
 
   double min;
@@ -30,32 +27,47 @@ class TrackingParameterMethod {
   int maxLength;
 
   void validateParameterValue(@NonNull Object parameterValue) {
-    if (pattern != null
-        && parameterValue instanceof CharSequence
-        && !pattern.matcher((CharSequence) parameterValue).matches()) {
+    if (pattern != null && parameterValue instanceof CharSequence) {
+      validatePattern(parameterName, pattern, (CharSequence) parameterValue);
+    }
+    if (maxLength != 0 && maxLength != Integer.MAX_VALUE) {
+      validateMaxLength(parameterName, parameterValue.toString(), maxLength);
+    }
+    if (parameterValue instanceof Number) {
+      validateRange(parameterName, ((Number) parameterValue).doubleValue(), min, max);
+    }
+  }
+
+  static void validatePattern(
+      @NonNull String parameterName, @NonNull Pattern pattern, @NonNull CharSequence value) {
+    if (!pattern.matcher(value).matches()) {
       throw new MatomoException(
           String.format("Invalid value for %s. Must match regex %s", parameterName, pattern));
     }
-    if (maxLength != 0 && parameterValue.toString().length() > maxLength) {
+  }
+
+  static void validateMaxLength(
+      @NonNull String parameterName, @NonNull String value, int maxLength) {
+    if (value.length() > maxLength) {
       throw new MatomoException(
           String.format(
               "Invalid value for %s. Must be less or equal than %d characters",
               parameterName, maxLength));
     }
-    if (parameterValue instanceof Number) {
-      Number number = (Number) parameterValue;
-      if (number.doubleValue() < min) {
-        throw new MatomoException(
-            String.format(
-                "Invalid value for %s. Must be greater or equal than %s",
-                parameterName, min % 1 == 0 ? Long.toString((long) min) : min));
-      }
-      if (number.doubleValue() > max) {
-        throw new MatomoException(
-            String.format(
-                "Invalid value for %s. Must be less or equal than %s",
-                parameterName, max % 1 == 0 ? Long.toString((long) max) : max));
-      }
+  }
+
+  static void validateRange(@NonNull String parameterName, double value, double min, double max) {
+    if (value < min) {
+      throw new MatomoException(
+          String.format(
+              "Invalid value for %s. Must be greater or equal than %s",
+              parameterName, min % 1 == 0 ? Long.toString((long) min) : min));
+    }
+    if (value > max) {
+      throw new MatomoException(
+          String.format(
+              "Invalid value for %s. Must be less or equal than %s",
+              parameterName, max % 1 == 0 ? Long.toString((long) max) : max));
     }
   }
 }
@@ -0,0 +1,42 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Appends the {@link TrackingParameter}s of a {@link MatomoRequest} to a query.
+ *
+ * <p>The build generates an implementation named {@code MatomoRequestSerializer} from the
+ * annotations of {@link MatomoRequest}. {@link ReflectiveTrackingParameterSerializer} is used if
+ * the generated serializer is not available.
+ */
+interface TrackingParameterSerializer {
+
+  /**
+   * Appends all tracking parameters of the request that are set. Only the set parameters are
+   * visited, see {@link SparseParameters}.
+   *
+   * <p>If constants are given, values of the request that are the same instances as the values of
+   * the constants are skipped, because they are already part of the query.
+   *
+   * @param request the request to serialize
+   * @param constants the constant request of a {@link MatomoRequestTemplate} or null
+   * @param query the query to append the parameters to
+   */
+  void appendParameters(
+      @NonNull MatomoRequest request,
+      @Nullable MatomoRequest constants,
+      @NonNull QueryBuffer query);
+
+  /**
+   * Validates all tracking parameters of the request that are not null.
+   *
+   * <p>If constants are given, values of the request that are the same instances as the values of
+   * the constants are skipped, because they were validated when the template was created.
+   *
+   * @param request the request to validate
+   * @param constants the constant request of a {@link MatomoRequestTemplate} or null
+   * @throws MatomoException if a parameter value is invalid
+   */
+  void validate(@NonNull MatomoRequest request, @Nullable MatomoRequest constants);
+}
@@ -0,0 +1,94 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singleton;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * The attributes of a request that are not part of its query but of the HTTP request that
+ * transports it: the auth token of a bulk request, the HTTP headers, the user agent, the session ID
+ * and the cookies.
+ *
+ * <p>Only requests with equal transport attributes can be sent in the same bulk request without
+ * being attributed to the wrong visitor or token.
+ */
+@Value
+class TransportAttributes {
+
+  @Nullable String authToken;
+
+  @Nullable Map<String, String> headers;
+
+  @Nullable String headerUserAgent;
+
+  @Nullable String sessionId;
+
+  @Nullable Map<String, String> cookies;
+
+  /**
+   * Determines the transport attributes of a single request. Empty values are normalized to null,
+   * so that requests without a value share a group with requests with an empty value.
+   *
+   * @param request the request to inspect
+   * @param trackerConfiguration provides the default auth token
+   * @return the transport attributes of the request
+   */
+  @NonNull
+  static TransportAttributes of(
+      @NonNull MatomoRequest request, @NonNull TrackerConfiguration trackerConfiguration) {
+    return new TransportAttributes(
+        AuthToken.determineAuthToken(singleton(request), trackerConfiguration),
+        emptyToNull(request.getHeaders()),
+        isBlank(request.getHeaderUserAgent()) ? null : request.getHeaderUserAgent(),
+        request.getSessionId() == null || request.getSessionId().isEmpty()
+            ? null
+            : request.getSessionId(),
+        emptyToNull(request.getCookies()));
+  }
+
+  /**
+   * Partitions requests into groups of requests with equal transport attributes. The groups and the
+   * requests within a group keep the order of the given requests.
+   *
+   * @param requests the requests to partition
+   * @param trackerConfiguration provides the default auth token
+   * @return the requests by their transport attributes
+   */
+  @NonNull
+  static Map<TransportAttributes, List<MatomoRequest>> partition(
+      @NonNull Iterable<? extends MatomoRequest> requests,
+      @NonNull TrackerConfiguration trackerConfiguration) {
+    Map<TransportAttributes, List<MatomoRequest>> groups = new LinkedHashMap<>();
+    for (MatomoRequest request : requests) {
+      groups
+          .computeIfAbsent(of(request, trackerConfiguration), attributes -> new ArrayList<>())
+          .add(request);
+    }
+    return groups;
+  }
+
+  /**
+   * Whether the request can be sent with its query and auth token alone, because it has no headers,
+   * user agent, session ID or cookies.
+   *
+   * @return true if only the query and the auth token must be transported
+   */
+  boolean isQueryOnly() {
+    return headers == null && headerUserAgent == null && sessionId == null && cookies == null;
+  }
+
+  @Nullable
+  private static Map<String, String> emptyToNull(@Nullable Map<String, String> map) {
+    return map == null || map.isEmpty() ? null : map;
+  }
+
+  private static boolean isBlank(@Nullable String str) {
+    return str == null || str.trim().isEmpty();
+  }
+}
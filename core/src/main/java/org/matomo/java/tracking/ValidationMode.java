@@ -0,0 +1,34 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking;
+
+/**
+ * Defines which requests are validated when they are passed to the tracker. Validation checks the
+ * tracking parameters against their patterns, lengths and ranges as well as the rules of the Matomo
+ * API, for example that an auth token is required to set the visitor IP.
+ *
+ * @see TrackerConfiguration#getValidationMode()
+ */
+public enum ValidationMode {
+
+  /** Validates every request. */
+  STRICT,
+
+  /**
+   * Validates a random fraction of the requests as configured by {@link
+   * TrackerConfiguration#getValidationSampleRate()}. Whether a request is validated is decided once
+   * per request. Use this to detect programming errors in production with less overhead.
+   */
+  SAMPLED,
+
+  /**
+   * Validates no requests. Use this only for trusted producers that are known to create valid
+   * requests. Invalid requests are sent to Matomo as they are.
+   */
+  OFF
+}
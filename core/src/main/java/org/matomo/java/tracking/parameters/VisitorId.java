@@ -124,6 +124,20 @@ public class VisitorId {
     return fromHash(str.hashCode());
   }
 
+  /**
+   * Returns the visitor id as a number. This is the inverse of {@link #fromHash(long)} and does not
+   * allocate, so it is suitable for fast decisions like sampling.
+   *
+   * @return The 8 bytes of the visitor id as a long value
+   */
+  public long toLong() {
+    long value = 0L;
+    for (byte b : representation) {
+      value = value << Byte.SIZE | b & 0xFF;
+    }
+    return value;
+  }
+
   @Override
   @edu.umd.cs.findbugs.annotations.NonNull
   public String toString() {
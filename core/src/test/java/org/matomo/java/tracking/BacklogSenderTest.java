@@ -0,0 +1,345 @@
+package org.matomo.java.tracking;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BacklogSenderTest {
+
+  private final PendingSender pendingSender = new PendingSender();
+
+  private final AtomicLong droppedRequests = new AtomicLong();
+
+  private BacklogSender backlogSender;
+
+  private void givenBacklogSender(
+      int maxBacklogRequests, long maxBacklogBytes, OverflowPolicy overflowPolicy) {
+    backlogSender =
+        new BacklogSender(
+            pendingSender,
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+                .defaultSiteId(1)
+                .threadPoolSize(1)
+                .maxBacklogRequests(maxBacklogRequests)
+                .maxBacklogBytes(maxBacklogBytes)
+                .overflowPolicy(overflowPolicy)
+                .backlogBlockTimeout(Duration.ofMillis(10L))
+                .build(),
+            droppedRequests);
+  }
+
+  private void givenBacklogSenderWithPriorityLanes(
+      int maxBacklogRequests, Map<RequestPriority, Integer> priorityLaneWeights) {
+    backlogSender =
+        new BacklogSender(
+            pendingSender,
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+                .defaultSiteId(1)
+                .threadPoolSize(1)
+                .maxBacklogRequests(maxBacklogRequests)
+                .priorityLanesEnabled(true)
+                .priorityLaneWeights(priorityLaneWeights)
+                .build(),
+            droppedRequests);
+  }
+
+  @Test
+  void passesAtMostThreadPoolSizeCallsToDelegate() {
+    givenBacklogSender(10, 0L, OverflowPolicy.DROP_NEWEST);
+
+    CompletableFuture<MatomoRequest> first = whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> second = whenSendsPageView("Second");
+
+    assertThat(pendingSender.futures).hasSize(1);
+    pendingSender.completeNext();
+    assertThat(first).isCompleted();
+    assertThat(second).isNotDone();
+    assertThat(pendingSender.futures).hasSize(2);
+    pendingSender.completeNext();
+    assertThat(second).isCompleted();
+    assertThat(droppedRequests).hasValue(0L);
+  }
+
+  @Test
+  void dropsNewestRequestIfBacklogIsFull() {
+    givenBacklogSender(2, 0L, OverflowPolicy.DROP_NEWEST);
+
+    whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> second = whenSendsPageView("Second");
+    CompletableFuture<MatomoRequest> third = whenSendsPageView("Third");
+
+    assertThat(second).isNotDone();
+    assertThat(third)
+        .isCompletedExceptionally()
+        .failsWithin(Duration.ZERO)
+        .withThrowableThat()
+        .havingCause()
+        .isInstanceOf(MatomoException.class)
+        .withMessage("Backlog is full. Request was dropped");
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void dropsOldestQueuedRequestIfBacklogIsFull() {
+    givenBacklogSender(2, 0L, OverflowPolicy.DROP_OLDEST);
+
+    CompletableFuture<MatomoRequest> first = whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> second = whenSendsPageView("Second");
+    CompletableFuture<MatomoRequest> third = whenSendsPageView("Third");
+
+    assertThat(first).isNotDone();
+    assertThat(second).isCompletedExceptionally();
+    assertThat(third).isNotDone();
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void blocksUntilTimeoutIfBacklogIsFull() {
+    givenBacklogSender(1, 0L, OverflowPolicy.BLOCK);
+
+    whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> second = whenSendsPageView("Second");
+
+    assertThat(second).isCompletedExceptionally();
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void shedsAllRequestsIfBacklogIsFull() {
+    givenBacklogSender(1, 0L, OverflowPolicy.PROBABILISTIC);
+
+    whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> second = whenSendsPageView("Second");
+
+    assertThat(second).isCompletedExceptionally();
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void shedsNoRequestsIfBacklogIsLessThanHalfFull() {
+    givenBacklogSender(100, 0L, OverflowPolicy.PROBABILISTIC);
+
+    for (int i = 0; i < 50; i++) {
+      whenSendsPageView("Page " + i);
+    }
+
+    assertThat(droppedRequests).hasValue(0L);
+  }
+
+  @Test
+  void limitsEstimatedBytes() {
+    givenBacklogSender(0, 1500L, OverflowPolicy.DROP_NEWEST);
+
+    whenSendsPageView("First");
+    whenSendsPageView("Second");
+    CompletableFuture<MatomoRequest> third = whenSendsPageView("Third");
+
+    assertThat(third).isCompletedExceptionally();
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void countsAllRequestsOfDroppedBulk() {
+    givenBacklogSender(2, 0L, OverflowPolicy.DROP_NEWEST);
+
+    whenSendsPageView("First");
+    CompletableFuture<Void> bulk =
+        backlogSender.sendBulkAsync(
+            asList(
+                MatomoRequests.pageView("Second").build(),
+                MatomoRequests.pageView("Third").build()));
+
+    assertThat(bulk).isCompletedExceptionally();
+    assertThat(droppedRequests).hasValue(2L);
+  }
+
+  @Test
+  void flushWaitsForQueuedAndRunningRequests() {
+    givenBacklogSender(10, 0L, OverflowPolicy.DROP_NEWEST);
+    whenSendsPageView("First");
+    whenSendsPageView("Second");
+
+    CompletableFuture<Void> flushed = backlogSender.flush();
+
+    assertThat(flushed).isNotDone();
+    pendingSender.completeNext();
+    pendingSender.completeNext();
+    assertThat(flushed).isCompleted();
+  }
+
+  @Test
+  void drainsLargeBacklogIfDelegateFailsSynchronously() {
+    givenBacklogSender(0, 0L, OverflowPolicy.DROP_NEWEST);
+    whenSendsPageView("First");
+    pendingSender.failing = true;
+    List<CompletableFuture<MatomoRequest>> futures = new ArrayList<>();
+    for (int i = 0; i < 50000; i++) {
+      futures.add(whenSendsPageView("Queued"));
+    }
+
+    pendingSender.completeNext();
+
+    assertThat(futures).allMatch(CompletableFuture::isCompletedExceptionally);
+    assertThat(droppedRequests).hasValue(0L);
+  }
+
+  @Test
+  void drainsLanesAccordingToTheirWeights() {
+    Map<RequestPriority, Integer> priorityLaneWeights = new EnumMap<>(RequestPriority.class);
+    priorityLaneWeights.put(RequestPriority.HIGH, 2);
+    priorityLaneWeights.put(RequestPriority.LOW, 1);
+    givenBacklogSenderWithPriorityLanes(0, priorityLaneWeights);
+    MatomoRequest ping = MatomoRequests.ping().build();
+    List<MatomoRequest> goals = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      goals.add(MatomoRequests.goal(1, null).build());
+    }
+
+    backlogSender.sendSingleAsync(goals.get(0));
+    backlogSender.sendSingleAsync(ping);
+    for (MatomoRequest goal : goals.subList(1, goals.size())) {
+      backlogSender.sendSingleAsync(goal);
+    }
+    for (int i = 0; i < 4; i++) {
+      pendingSender.completeNext();
+    }
+
+    assertThat(pendingSender.requests)
+        .containsExactly(goals.get(0), goals.get(1), ping, goals.get(2), goals.get(3));
+  }
+
+  @Test
+  void queuesQueriesInLaneOfTheirPriority() {
+    givenBacklogSenderWithPriorityLanes(0, Collections.emptyMap());
+
+    whenSendsPageView("First");
+    backlogSender.sendQueriesAsync(singletonList("ping"), null, RequestPriority.LOW);
+    backlogSender.sendEncodedQueriesAsync(
+        singletonList(ByteBuffer.wrap("order".getBytes(StandardCharsets.UTF_8))),
+        null,
+        RequestPriority.HIGH);
+    pendingSender.completeNext();
+    pendingSender.completeNext();
+
+    assertThat(pendingSender.queries).containsExactly("order", "ping");
+  }
+
+  @Test
+  void shedsLowPriorityRequestsFirst() {
+    givenBacklogSenderWithPriorityLanes(2, Collections.emptyMap());
+
+    whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> ping =
+        backlogSender.sendSingleAsync(MatomoRequests.ping().build());
+    CompletableFuture<MatomoRequest> order =
+        backlogSender.sendSingleAsync(
+            MatomoRequests.ecommerceOrder("order-1", 9.99, null, null, null, null).build());
+
+    assertThat(ping).isCompletedExceptionally();
+    assertThat(order).isNotDone();
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void keepsQueuedRequestsOfHigherPriority() {
+    givenBacklogSenderWithPriorityLanes(2, Collections.emptyMap());
+
+    whenSendsPageView("First");
+    CompletableFuture<MatomoRequest> goal =
+        backlogSender.sendSingleAsync(MatomoRequests.goal(1, null).build());
+    CompletableFuture<MatomoRequest> ping =
+        backlogSender.sendSingleAsync(MatomoRequests.ping().priority(RequestPriority.LOW).build());
+
+    assertThat(goal).isNotDone();
+    assertThat(ping).isCompletedExceptionally();
+  }
+
+  private CompletableFuture<MatomoRequest> whenSendsPageView(String name) {
+    return backlogSender.sendSingleAsync(MatomoRequests.pageView(name).build());
+  }
+
+  private static class PendingSender implements Sender {
+
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+
+    private final List<MatomoRequest> requests = new ArrayList<>();
+
+    private final List<String> queries = new ArrayList<>();
+
+    private int completed;
+
+    private boolean failing;
+
+    @SuppressWarnings("unchecked")
+    private void completeNext() {
+      ((CompletableFuture<Object>) futures.get(completed++)).complete(null);
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+      CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+      if (failing) {
+        future.completeExceptionally(new MatomoException("Circuit is open"));
+        return future;
+      }
+      futures.add(future);
+      requests.add(request);
+      return future;
+    }
+
+    @Override
+    public void sendSingle(@NonNull MatomoRequest request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendBulk(@NonNull Iterable<? extends MatomoRequest> requests) {
+      throw new UnsupportedOperationException();
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Void> sendBulkAsync(
+        @NonNull Collection<? extends MatomoRequest> requests) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      futures.add(future);
+      return future;
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Void> sendQueriesAsync(
+        @NonNull Collection<String> queries,
+        @Nullable String authToken,
+        @NonNull RequestPriority priority) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      futures.add(future);
+      this.queries.addAll(queries);
+      return future;
+    }
+
+    @Override
+    public void close() {
+      // do nothing
+    }
+  }
+}
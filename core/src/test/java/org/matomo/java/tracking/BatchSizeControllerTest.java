@@ -0,0 +1,73 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BatchSizeControllerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10L);
+
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(2L);
+
+  private BatchSizeController batchSizeController;
+
+  private void givenBatchSizeController(boolean adaptive) {
+    batchSizeController =
+        new BatchSizeController(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+                .batchSize(40)
+                .adaptiveBatchSizeEnabled(adaptive)
+                .minBatchSize(10)
+                .maxBatchSize(60)
+                .targetBatchLatency(Duration.ofSeconds(1L))
+                .build());
+  }
+
+  @Test
+  void keepsConfiguredBatchSizeIfNotAdaptive() {
+    givenBatchSizeController(false);
+
+    batchSizeController.onSuccess(40, FAST);
+    batchSizeController.onFailure();
+
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(40);
+  }
+
+  @Test
+  void increasesBatchSizeAdditivelyAfterFastFullBatches() {
+    givenBatchSizeController(true);
+
+    batchSizeController.onSuccess(40, FAST);
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(50);
+    batchSizeController.onSuccess(50, FAST);
+    batchSizeController.onSuccess(60, FAST);
+
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(60);
+  }
+
+  @Test
+  void keepsBatchSizeAfterPartialBatch() {
+    givenBatchSizeController(true);
+
+    batchSizeController.onSuccess(5, FAST);
+
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(40);
+  }
+
+  @Test
+  void halvesBatchSizeAfterSlowOrFailedBatches() {
+    givenBatchSizeController(true);
+
+    batchSizeController.onSuccess(40, SLOW);
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(20);
+    batchSizeController.onFailure();
+    batchSizeController.onFailure();
+
+    assertThat(batchSizeController.getBatchSize()).isEqualTo(10);
+  }
+}
@@ -0,0 +1,137 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchingSenderTest {
+
+  private TestSender testSender;
+
+  private BatchingSender batchingSender;
+
+  @AfterEach
+  void closeSender() throws Exception {
+    batchingSender.close();
+  }
+
+  private void givenBatchingSender(int batchSize, Duration batchLinger) {
+    givenBatchingSender(
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .batchingEnabled(true)
+            .batchSize(batchSize)
+            .batchLinger(batchLinger)
+            .build());
+  }
+
+  private void givenBatchingSender(TrackerConfiguration trackerConfiguration) {
+    testSender = new TestSender(trackerConfiguration, new QueryCreator(trackerConfiguration));
+    batchingSender =
+        new BatchingSender(
+            testSender,
+            trackerConfiguration,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+            new BatchSizeController(trackerConfiguration));
+  }
+
+  @Test
+  void sendsBatchIfBatchSizeIsReached() {
+    givenBatchingSender(2, Duration.ofMinutes(1L));
+
+    CompletableFuture<MatomoRequest> first =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("First").build());
+    assertThat(first).isNotDone();
+    CompletableFuture<MatomoRequest> second =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("Second").build());
+
+    assertThat(first).isCompleted();
+    assertThat(second).isCompleted();
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(2);
+  }
+
+  @Test
+  void growsBatchSizeIfBatchesAreSentFast() {
+    givenBatchingSender(
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .batchingEnabled(true)
+            .batchSize(2)
+            .batchLinger(Duration.ofMinutes(1L))
+            .adaptiveBatchSizeEnabled(true)
+            .minBatchSize(2)
+            .targetBatchLatency(Duration.ofMinutes(1L))
+            .build());
+
+    for (int i = 0; i < 6; i++) {
+      batchingSender.sendSingleAsync(MatomoRequests.pageView("Page " + i).build());
+    }
+
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(2, 4);
+  }
+
+  @Test
+  void sendsBatchAfterLinger() throws Exception {
+    givenBatchingSender(100, Duration.ofMillis(10L));
+
+    CompletableFuture<MatomoRequest> future =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("Linger").build());
+
+    assertThat(future.get(5L, TimeUnit.SECONDS).getActionName()).isEqualTo("Linger");
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(1);
+  }
+
+  @Test
+  void sendsBatchOnFlush() {
+    givenBatchingSender(100, Duration.ofMinutes(1L));
+    CompletableFuture<MatomoRequest> first =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("First").build());
+    CompletableFuture<MatomoRequest> second =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("Second").build());
+
+    CompletableFuture<Void> flushed = batchingSender.flush();
+
+    assertThat(flushed).isCompleted();
+    assertThat(first).isCompleted();
+    assertThat(second).isCompleted();
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(2);
+  }
+
+  @Test
+  void flushDoesNothingIfNoRequestsArePending() {
+    givenBatchingSender(100, Duration.ofMinutes(1L));
+
+    assertThat(batchingSender.flush()).isCompleted();
+    assertThat(testSender.getBulkRequestSizes()).isEmpty();
+  }
+
+  @Test
+  void sendsPendingRequestsOnClose() throws Exception {
+    givenBatchingSender(100, Duration.ofMinutes(1L));
+    CompletableFuture<MatomoRequest> future =
+        batchingSender.sendSingleAsync(MatomoRequests.pageView("Close").build());
+
+    batchingSender.close();
+
+    assertThat(future).isCompleted();
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(1);
+  }
+
+  @Test
+  void collectsRequestsWithoutValidatingThem() {
+    givenBatchingSender(100, Duration.ofMinutes(1L));
+
+    batchingSender.sendSingleAsync(MatomoRequest.request().searchResultsCount(1L).build());
+
+    assertThat(batchingSender.flush()).isCompleted();
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(1);
+  }
+}
@@ -5,8 +5,19 @@ import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.VisitorId;
 
 class BulkRequestTest {
 
@@ -52,4 +63,174 @@ class BulkRequestTest {
         .isInstanceOf(IllegalArgumentException.class)
         .hasMessage("Queries must not be empty");
   }
+
+  @Test
+  void splitsQueriesByCount() {
+    BulkRequest bulkRequest =
+        BulkRequest.builder().queries(Arrays.asList("a=1", "b=2", "c=3")).build();
+
+    List<byte[]> chunks = bulkRequest.toChunks(0L, 2);
+
+    assertThat(chunks)
+        .extracting(String::new)
+        .containsExactly("{\"requests\":[\"?a=1\",\"?b=2\"]}", "{\"requests\":[\"?c=3\"]}");
+  }
+
+  @Test
+  void splitsQueriesBySize() {
+    BulkRequest bulkRequest =
+        BulkRequest.builder()
+            .queries(Arrays.asList("a=1", "b=2", "c=3", "d=4"))
+            .authToken("token")
+            .build();
+
+    List<byte[]> chunks = bulkRequest.toChunks(50L, 0);
+
+    assertThat(chunks)
+        .extracting(String::new)
+        .containsExactly(
+            "{\"requests\":[\"?a=1\",\"?b=2\"],\"token_auth\":\"token\"}",
+            "{\"requests\":[\"?c=3\",\"?d=4\"],\"token_auth\":\"token\"}");
+  }
+
+  @Test
+  void sendsOversizedQueryAlone() {
+    BulkRequest bulkRequest =
+        BulkRequest.builder().queries(Arrays.asList("a=1", "action_name=Überlänge", "c=3")).build();
+
+    List<byte[]> chunks = bulkRequest.toChunks(24L, 0);
+
+    assertThat(chunks)
+        .extracting(chunk -> new String(chunk, StandardCharsets.UTF_8))
+        .containsExactly(
+            "{\"requests\":[\"?a=1\"]}",
+            "{\"requests\":[\"?action_name=Überlänge\"]}",
+            "{\"requests\":[\"?c=3\"]}");
+  }
+
+  @Test
+  void writesRequestsDirectlyIntoChunks() {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost")).build();
+    MatomoRequest first =
+        MatomoRequest.request()
+            .siteId(1)
+            .actionName("First Page")
+            .visitorId(VisitorId.fromHash(1L))
+            .randomValue(RandomValue.fromString("first"))
+            .build();
+    MatomoRequest second =
+        MatomoRequest.request()
+            .siteId(1)
+            .actionName("Second Page")
+            .visitorId(VisitorId.fromHash(2L))
+            .randomValue(RandomValue.fromString("second"))
+            .build();
+
+    List<byte[]> chunks =
+        BulkRequest.toChunks(
+            Arrays.asList(first, second), new QueryCreator(trackerConfiguration), "token", 0L, 1);
+
+    assertThat(chunks)
+        .extracting(String::new)
+        .containsExactly(
+            "{\"requests\":[\"?rec=1&idsite=1&action_name=First+Page&apiv=1&_id=0000000000000001"
+                + "&send_image=0&rand=first\"],\"token_auth\":\"token\"}",
+            "{\"requests\":[\"?rec=1&idsite=1&action_name=Second+Page&apiv=1&_id=0000000000000002"
+                + "&send_image=0&rand=second\"],\"token_auth\":\"token\"}");
+  }
+
+  @Test
+  void writesChunksOnlyWhenRequested() {
+    QueryCreator queryCreator =
+        new QueryCreator(
+            TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost")).build());
+    List<MatomoRequest> requests =
+        Arrays.asList(
+            MatomoRequest.request().siteId(1).randomValue(RandomValue.fromString("1")).build(),
+            MatomoRequest.request().siteId(1).randomValue(RandomValue.fromString("2")).build(),
+            MatomoRequest.request().siteId(1).randomValue(RandomValue.fromString("3")).build());
+
+    Iterator<byte[]> chunks = BulkRequest.iterateChunks(requests, queryCreator, null, 0L, 1);
+    assertThat(new String(chunks.next())).contains("rand=1");
+    requests.get(2).setRandomValue(RandomValue.fromString("changed"));
+
+    assertThat(new String(chunks.next())).contains("rand=2");
+    assertThat(new String(chunks.next())).contains("rand=changed");
+    assertThat(chunks.hasNext()).isFalse();
+    assertThatThrownBy(chunks::next).isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  void limitsNumberOfConcurrentSends() {
+    List<byte[]> chunks =
+        BulkRequest.builder()
+            .queries(Arrays.asList("idsite=1", "idsite=2", "idsite=3"))
+            .build()
+            .toChunks(0L, 1);
+    List<CompletableFuture<Void>> sends = new ArrayList<>();
+
+    CompletableFuture<Void> result =
+        BulkRequest.sendChunksAsync(
+            chunks,
+            2,
+            body -> {
+              CompletableFuture<Void> send = new CompletableFuture<>();
+              sends.add(send);
+              return send;
+            });
+
+    assertThat(sends).hasSize(2);
+    sends.get(1).complete(null);
+    assertThat(sends).hasSize(3);
+    sends.get(0).complete(null);
+    assertThat(result).isNotDone();
+    sends.get(2).complete(null);
+    assertThat(result).isCompleted();
+  }
+
+  @Test
+  void sendsRemainingChunksIfSendFails() {
+    List<byte[]> chunks =
+        BulkRequest.builder()
+            .queries(Arrays.asList("idsite=1", "idsite=2"))
+            .build()
+            .toChunks(0L, 1);
+    List<String> bodies = new ArrayList<>();
+
+    CompletableFuture<Void> result =
+        BulkRequest.sendChunksAsync(
+            chunks,
+            1,
+            body -> {
+              bodies.add(new String(body, StandardCharsets.UTF_8));
+              CompletableFuture<Void> send = new CompletableFuture<>();
+              if (bodies.size() == 1) {
+                send.completeExceptionally(new MatomoException("Could not send request"));
+              } else {
+                send.complete(null);
+              }
+              return send;
+            });
+
+    assertThat(bodies).hasSize(2);
+    assertThat(result)
+        .failsWithin(0L, TimeUnit.SECONDS)
+        .withThrowableOfType(ExecutionException.class)
+        .withMessageContaining("Could not send request");
+  }
+
+  @Test
+  void sendsManySynchronouslyCompletedChunksWithoutRecursion() {
+    List<String> queries = new ArrayList<>();
+    for (int i = 0; i < 50000; i++) {
+      queries.add("idsite=" + i);
+    }
+    List<byte[]> chunks = BulkRequest.builder().queries(queries).build().toChunks(0L, 1);
+
+    CompletableFuture<Void> result =
+        BulkRequest.sendChunksAsync(chunks, 2, body -> CompletableFuture.completedFuture(null));
+
+    assertThat(result).isCompleted();
+  }
 }
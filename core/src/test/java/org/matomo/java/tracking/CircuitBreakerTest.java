@@ -0,0 +1,120 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final List<String> stateChanges = new ArrayList<>();
+
+  private long nanoTime;
+
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(
+          TrackerConfiguration.builder()
+              .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+              .circuitBreakerEnabled(true)
+              .circuitBreakerWindowSize(4)
+              .circuitBreakerFailureRateThreshold(0.5)
+              .circuitBreakerSlowCallDuration(Duration.ofSeconds(1L))
+              .circuitBreakerSlowCallRateThreshold(1.0)
+              .circuitBreakerOpenDuration(Duration.ofSeconds(10L))
+              .circuitBreakerProbeRequests(2)
+              .circuitBreakerListener((from, to) -> stateChanges.add(from + "->" + to))
+              .build(),
+          () -> nanoTime);
+
+  @Test
+  void staysClosedIfFailureRateIsBelowThreshold() {
+    givenCalls(true, false, false, false);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+    assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+  }
+
+  @Test
+  void waitsUntilWindowIsFull() {
+    givenCalls(true, true, true);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+  }
+
+  @Test
+  void opensIfFailureRateReachesThreshold() {
+    givenCalls(false, true, false, true);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+    assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    assertThat(stateChanges).containsExactly("CLOSED->OPEN");
+  }
+
+  @Test
+  void opensIfAllCallsAreSlow() {
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.tryAcquirePermission();
+      long startedAt = circuitBreaker.now();
+      nanoTime += TimeUnit.SECONDS.toNanos(2L);
+      circuitBreaker.onSuccess(startedAt);
+    }
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+  }
+
+  @Test
+  void permitsProbesAfterOpenDurationAndClosesIfTheySucceed() {
+    givenCalls(true, true, true, true);
+    nanoTime += TimeUnit.SECONDS.toNanos(10L);
+
+    assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.HALF_OPEN);
+    circuitBreaker.onSuccess(nanoTime);
+    circuitBreaker.onSuccess(nanoTime);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+    assertThat(stateChanges)
+        .containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+  }
+
+  @Test
+  void opensAgainIfProbeFails() {
+    givenCalls(true, true, true, true);
+    nanoTime += TimeUnit.SECONDS.toNanos(10L);
+
+    assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    circuitBreaker.onFailure(nanoTime);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+    assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+  }
+
+  @Test
+  void releasesProbeOfIgnoredCall() {
+    givenCalls(true, true, true, true);
+    nanoTime += TimeUnit.SECONDS.toNanos(10L);
+    circuitBreaker.tryAcquirePermission();
+    circuitBreaker.tryAcquirePermission();
+
+    circuitBreaker.onIgnored();
+
+    assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+  }
+
+  private void givenCalls(boolean... failures) {
+    for (boolean failed : failures) {
+      assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+      if (failed) {
+        circuitBreaker.onFailure(circuitBreaker.now());
+      } else {
+        circuitBreaker.onSuccess(circuitBreaker.now());
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakingSenderTest {
+
+  private final TrackerConfiguration trackerConfiguration =
+      TrackerConfiguration.builder()
+          .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+          .defaultSiteId(1)
+          .circuitBreakerEnabled(true)
+          .circuitBreakerWindowSize(2)
+          .circuitBreakerOpenDuration(Duration.ofMinutes(1L))
+          .build();
+
+  private final UnavailableSender unavailableSender = new UnavailableSender(trackerConfiguration);
+
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker(trackerConfiguration);
+
+  private final CircuitBreakingSender circuitBreakingSender =
+      new CircuitBreakingSender(unavailableSender, circuitBreaker);
+
+  @Test
+  void failsFastIfServerIsUnavailable() {
+    for (int i = 0; i < 2; i++) {
+      assertThat(circuitBreakingSender.sendSingleAsync(MatomoRequests.pageView("Page").build()))
+          .isCompletedExceptionally();
+    }
+
+    CompletableFuture<Void> future =
+        circuitBreakingSender.sendBulkAsync(singleton(MatomoRequests.pageView("Page").build()));
+
+    assertThat(future)
+        .failsWithin(Duration.ZERO)
+        .withThrowableThat()
+        .havingCause()
+        .isInstanceOf(MatomoException.class)
+        .withMessage("Circuit breaker is open. Request was not sent");
+    assertThatThrownBy(
+            () -> circuitBreakingSender.sendSingle(MatomoRequests.pageView("Page").build()))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Circuit breaker is open. Request was not sent");
+    assertThat(unavailableSender.calls).isEqualTo(2);
+  }
+
+  @Test
+  void doesNotCountClientErrors() {
+    unavailableSender.statusCode = 400;
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(
+              () -> circuitBreakingSender.sendSingle(MatomoRequests.pageView("Page").build()))
+          .isInstanceOf(HttpStatusException.class);
+    }
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+  }
+
+  @Test
+  void passesSuccessfulCalls() {
+    unavailableSender.statusCode = 0;
+
+    circuitBreakingSender.sendSingle(MatomoRequests.pageView("Page").build());
+
+    assertThat(unavailableSender.getRequests()).hasSize(1);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+  }
+
+  private static class UnavailableSender extends TestSender {
+
+    private int calls;
+
+    private int statusCode = -1;
+
+    private UnavailableSender(TrackerConfiguration trackerConfiguration) {
+      super(trackerConfiguration, new QueryCreator(trackerConfiguration));
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
+      CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+      try {
+        sendSingle(request);
+        future.complete(request);
+      } catch (MatomoException e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+
+    @Override
+    public void sendSingle(@NonNull MatomoRequest request) {
+      calls++;
+      if (statusCode < 0) {
+        throw new MatomoException("Could not send request", new IOException("Connection refused"));
+      }
+      if (statusCode > 0) {
+        throw new HttpStatusException(statusCode, null);
+      }
+      super.sendSingle(request);
+    }
+  }
+}
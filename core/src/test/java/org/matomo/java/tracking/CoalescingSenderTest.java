@@ -0,0 +1,114 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class CoalescingSenderTest {
+
+  private static final VisitorId VISITOR_ID = VisitorId.fromHex("bbccddeeff112233");
+
+  private final AtomicLong coalescedRequests = new AtomicLong();
+
+  private TestSender testSender;
+
+  private CoalescingSender coalescingSender;
+
+  @AfterEach
+  void closeSender() throws Exception {
+    coalescingSender.close();
+  }
+
+  private void givenCoalescingSender(Duration coalescingWindow) {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .coalescingEnabled(true)
+            .coalescingWindow(coalescingWindow)
+            .build();
+    testSender = new TestSender(trackerConfiguration, new QueryCreator(trackerConfiguration));
+    coalescingSender =
+        new CoalescingSender(
+            testSender,
+            trackerConfiguration,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+            coalescedRequests);
+  }
+
+  @Test
+  void sendsOnlyLatestRequestOfSameVisitorAndKind() {
+    givenCoalescingSender(Duration.ofMinutes(1L));
+    MatomoRequest first = MatomoRequests.ecommerceCartUpdate(1.0).visitorId(VISITOR_ID).build();
+    MatomoRequest second = MatomoRequests.ecommerceCartUpdate(2.0).visitorId(VISITOR_ID).build();
+
+    CompletableFuture<MatomoRequest> firstFuture = coalescingSender.sendSingleAsync(first);
+    CompletableFuture<MatomoRequest> secondFuture = coalescingSender.sendSingleAsync(second);
+    assertThat(firstFuture).isNotDone();
+    coalescingSender.flush();
+
+    assertThat(testSender.getRequests()).containsExactly(second);
+    assertThat(firstFuture).isCompletedWithValue(first);
+    assertThat(secondFuture).isCompletedWithValue(second);
+    assertThat(coalescedRequests).hasValue(1L);
+  }
+
+  @Test
+  void sendsLatestRequestAfterCoalescingWindow() {
+    givenCoalescingSender(Duration.ofMillis(10L));
+    MatomoRequest request = MatomoRequests.ping().visitorId(VISITOR_ID).build();
+
+    CompletableFuture<MatomoRequest> future = coalescingSender.sendSingleAsync(request);
+
+    assertThat(future).succeedsWithin(Duration.ofSeconds(5L)).isEqualTo(request);
+    assertThat(testSender.getRequests()).containsExactly(request);
+  }
+
+  @Test
+  void keepsRequestsOfDifferentMediaAndVisitorsApart() {
+    givenCoalescingSender(Duration.ofMinutes(1L));
+    MatomoRequest firstMedia = MatomoRequest.request().mediaId("a").visitorId(VISITOR_ID).build();
+    MatomoRequest secondMedia = MatomoRequest.request().mediaId("b").visitorId(VISITOR_ID).build();
+    MatomoRequest otherVisitor = MatomoRequest.request().mediaId("a").build();
+
+    coalescingSender.sendSingleAsync(firstMedia);
+    coalescingSender.sendSingleAsync(secondMedia);
+    coalescingSender.sendSingleAsync(otherVisitor);
+    coalescingSender.flush();
+
+    assertThat(testSender.getRequests()).containsExactly(firstMedia, secondMedia, otherVisitor);
+    assertThat(coalescedRequests).hasValue(0L);
+  }
+
+  @Test
+  void identifiesVisitorByUserId() {
+    givenCoalescingSender(Duration.ofMinutes(1L));
+    MatomoRequest first = MatomoRequests.ping().userId("user").build();
+    MatomoRequest second = MatomoRequests.ping().userId("user").build();
+
+    coalescingSender.sendSingleAsync(first);
+    coalescingSender.sendSingleAsync(second);
+    coalescingSender.flush();
+
+    assertThat(testSender.getRequests()).containsExactly(second);
+    assertThat(coalescedRequests).hasValue(1L);
+  }
+
+  @Test
+  void passesOtherKindsToDelegate() {
+    givenCoalescingSender(Duration.ofMinutes(1L));
+    MatomoRequest request = MatomoRequests.pageView("Home").visitorId(VISITOR_ID).build();
+
+    CompletableFuture<MatomoRequest> future = coalescingSender.sendSingleAsync(request);
+
+    assertThat(future).isCompletedWithValue(request);
+    assertThat(testSender.getRequests()).containsExactly(request);
+  }
+}
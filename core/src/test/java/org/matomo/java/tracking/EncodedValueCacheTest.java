@@ -0,0 +1,59 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+
+class EncodedValueCacheTest {
+
+  private final TrackerConfiguration.TrackerConfigurationBuilder trackerConfigurationBuilder =
+      TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost/matomo.php"));
+
+  private final QueryBuffer query = new QueryBuffer();
+
+  @Test
+  void encodesValueOnce() {
+    EncodedValueCache cache =
+        new EncodedValueCache(trackerConfigurationBuilder.encodedValueCacheSize(10).build());
+
+    cache.appendEncoded(query, "Help / Feedback");
+    query.append('&');
+    cache.appendEncoded(query, "Help / Feedback");
+
+    assertThat(query).hasToString("Help+%2F+Feedback&Help+%2F+Feedback");
+    assertThat(cache.getMisses()).isOne();
+    assertThat(cache.getHits()).isOne();
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedValue() {
+    EncodedValueCache cache =
+        new EncodedValueCache(trackerConfigurationBuilder.encodedValueCacheSize(1).build());
+    cache.appendEncoded(query, "first");
+    cache.appendEncoded(query, "first");
+
+    cache.appendEncoded(query, "second");
+    cache.appendEncoded(query, "first");
+
+    assertThat(query).hasToString("firstfirstsecondfirst");
+    assertThat(cache.getHits()).isOne();
+    assertThat(cache.getMisses()).isEqualTo(3L);
+  }
+
+  @Test
+  void cachesOnlyConfiguredParametersAndShortValues() {
+    EncodedValueCache cache =
+        new EncodedValueCache(
+            trackerConfigurationBuilder
+                .encodedValueCacheSize(10)
+                .encodedValueCacheParameters(singleton("action_name"))
+                .encodedValueCacheMaxValueLength(5)
+                .build());
+
+    assertThat(cache.isCacheable("action_name", "short")).isTrue();
+    assertThat(cache.isCacheable("action_name", "longer")).isFalse();
+    assertThat(cache.isCacheable("url", "short")).isFalse();
+  }
+}
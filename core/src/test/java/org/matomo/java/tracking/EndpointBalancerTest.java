@@ -0,0 +1,158 @@
+package org.matomo.java.tracking;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EndpointBalancerTest {
+
+  private static final URI FIRST = URI.create("http://first.example/matomo.php");
+
+  private static final URI SECOND = URI.create("http://second.example/matomo.php");
+
+  private static final URI THIRD = URI.create("http://third.example/matomo.php");
+
+  private final List<URI> calledEndpoints = new ArrayList<>();
+
+  private EndpointBalancer endpointBalancer;
+
+  @AfterEach
+  void closeEndpointBalancer() {
+    if (endpointBalancer != null) {
+      endpointBalancer.close();
+    }
+  }
+
+  private void givenEndpointBalancer(LoadBalancingStrategy loadBalancingStrategy) {
+    endpointBalancer =
+        new EndpointBalancer(
+            TrackerConfiguration.builder()
+                .apiEndpoint(FIRST)
+                .additionalApiEndpoints(asList(SECOND, THIRD))
+                .loadBalancingStrategy(loadBalancingStrategy)
+                .endpointEjectionThreshold(2)
+                .endpointHealthCheckInterval(Duration.ofMillis(10L))
+                .build(),
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+  }
+
+  @Test
+  void distributesCallsRoundRobin() {
+    givenEndpointBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+
+    for (int i = 0; i < 6; i++) {
+      endpointBalancer.call(calledEndpoints::add);
+    }
+
+    assertThat(calledEndpoints).containsExactly(FIRST, SECOND, THIRD, FIRST, SECOND, THIRD);
+  }
+
+  @Test
+  void prefersEndpointWithLeastOutstandingRequests() {
+    givenEndpointBalancer(LoadBalancingStrategy.LEAST_OUTSTANDING_REQUESTS);
+    CompletableFuture<Void> first = new CompletableFuture<>();
+    CompletableFuture<Void> second = new CompletableFuture<>();
+    endpointBalancer.callAsync(endpoint -> first);
+    endpointBalancer.callAsync(endpoint -> second);
+
+    endpointBalancer.call(calledEndpoints::add);
+    first.complete(null);
+    endpointBalancer.call(calledEndpoints::add);
+
+    assertThat(calledEndpoints).containsExactly(THIRD, FIRST);
+  }
+
+  @Test
+  void ejectsEndpointAfterConsecutiveFailures() {
+    givenEndpointBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+
+    for (int i = 0; i < 6; i++) {
+      try {
+        endpointBalancer.call(
+            endpoint -> {
+              calledEndpoints.add(endpoint);
+              if (endpoint.equals(SECOND)) {
+                throw new HttpStatusException(503, null);
+              }
+            });
+      } catch (HttpStatusException e) {
+        // expected for the second endpoint
+      }
+    }
+    calledEndpoints.clear();
+    for (int i = 0; i < 4; i++) {
+      endpointBalancer.call(calledEndpoints::add);
+    }
+
+    assertThat(endpointBalancer.getEjectedEndpoints()).containsExactly(SECOND);
+    assertThat(calledEndpoints).doesNotContain(SECOND);
+  }
+
+  @Test
+  void doesNotEjectEndpointOnClientErrors() {
+    givenEndpointBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+
+    for (int i = 0; i < 6; i++) {
+      assertThatThrownBy(
+              () ->
+                  endpointBalancer.call(
+                      endpoint -> {
+                        throw new HttpStatusException(400, null);
+                      }))
+          .isInstanceOf(HttpStatusException.class);
+    }
+
+    assertThat(endpointBalancer.getEjectedEndpoints()).isEmpty();
+  }
+
+  @Test
+  void readmitsEndpointAfterSuccessfulProbe() {
+    givenEndpointBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+    for (int i = 0; i < 2; i++) {
+      CompletableFuture<Void> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IOException("Connection refused"));
+      endpointBalancer.callAsync(endpoint -> failed);
+      endpointBalancer.call(endpoint -> {});
+      endpointBalancer.call(endpoint -> {});
+    }
+    assertThat(endpointBalancer.getEjectedEndpoints()).containsExactly(FIRST);
+
+    endpointBalancer.probeEjectedEndpoints(endpoint -> false);
+    assertThat(endpointBalancer.getEjectedEndpoints()).containsExactly(FIRST);
+    endpointBalancer.probeEjectedEndpoints(calledEndpoints::add);
+
+    assertThat(calledEndpoints).containsExactly(FIRST);
+    assertThat(endpointBalancer.getEjectedEndpoints()).isEmpty();
+  }
+
+  @Test
+  void probesEjectedEndpointsPeriodically() {
+    givenEndpointBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+    CompletableFuture<URI> probed = new CompletableFuture<>();
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(
+              () ->
+                  endpointBalancer.call(
+                      endpoint -> {
+                        throw new MatomoException("Could not send", new IOException());
+                      }))
+          .isInstanceOf(MatomoException.class);
+      endpointBalancer.call(endpoint -> {});
+      endpointBalancer.call(endpoint -> {});
+    }
+
+    endpointBalancer.startHealthChecks(probed::complete);
+
+    assertThat(probed).succeedsWithin(Duration.ofSeconds(5L)).isEqualTo(FIRST);
+  }
+}
@@ -0,0 +1,149 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class GzipCompressorTest {
+
+  private final TrackerConfiguration.TrackerConfigurationBuilder trackerConfigurationBuilder =
+      TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost/matomo.php"));
+
+  @Test
+  void compressesBodyAsGzip() throws IOException {
+    StringBuilder json = new StringBuilder("{\"requests\":[");
+    for (int i = 0; i < 100; i++) {
+      json.append("\"?idsite=1&rec=1&apiv=1&action_name=Page+").append(i).append("\",");
+    }
+    byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+    byte[] compressed =
+        new GzipCompressor(trackerConfigurationBuilder.bulkCompressionEnabled(true).build())
+            .compressIfEnabled(body);
+
+    assertThat(GzipCompressor.isCompressed(compressed)).isTrue();
+    assertThat(compressed.length).isLessThan(body.length / 5);
+    assertThat(decompress(compressed)).isEqualTo(body);
+  }
+
+  @Test
+  void recordsStatisticsOfCompressedBodies() {
+    CompressionStatistics statistics = new CompressionStatistics();
+    GzipCompressor gzipCompressor =
+        new GzipCompressor(
+            trackerConfigurationBuilder
+                .bulkCompressionEnabled(true)
+                .bulkCompressionThreshold(100L)
+                .build(),
+            statistics);
+    byte[] body = new byte[10000];
+
+    byte[] compressed = gzipCompressor.compressIfEnabled(body);
+    gzipCompressor.compressIfEnabled(new byte[10]);
+
+    assertThat(statistics.getUncompressedBytes()).isEqualTo(10000L);
+    assertThat(statistics.getCompressedBytes()).isEqualTo(compressed.length);
+    assertThat(statistics.getCpuTimeNanos()).isNotNegative();
+  }
+
+  @Test
+  void compressesIncompressibleBodyAsGzip() throws IOException {
+    byte[] body = new byte[100000];
+    new Random(42L).nextBytes(body);
+
+    byte[] compressed = new GzipCompressor(trackerConfigurationBuilder.build()).compress(body);
+
+    assertThat(decompress(compressed)).isEqualTo(body);
+  }
+
+  @Test
+  void reusesDeflaterForSeveralBodies() throws IOException {
+    GzipCompressor gzipCompressor = new GzipCompressor(trackerConfigurationBuilder.build());
+    byte[] first = "{\"requests\":[\"?idsite=1\"]}".getBytes(StandardCharsets.UTF_8);
+    byte[] second = "{\"requests\":[\"?idsite=2\"]}".getBytes(StandardCharsets.UTF_8);
+
+    assertThat(decompress(gzipCompressor.compress(first))).isEqualTo(first);
+    assertThat(decompress(gzipCompressor.compress(second))).isEqualTo(second);
+    assertThat(gzipCompressor.countPooledDeflaters()).isOne();
+  }
+
+  @Test
+  void keepsAtMostThreadPoolSizeDeflaters() throws Exception {
+    GzipCompressor gzipCompressor =
+        new GzipCompressor(trackerConfigurationBuilder.threadPoolSize(2).build());
+    byte[] body = new byte[1000000];
+    new Random(42L).nextBytes(body);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<byte[]>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executorService.submit(() -> gzipCompressor.compress(body)));
+      }
+      for (Future<byte[]> future : futures) {
+        assertThat(decompress(future.get())).isEqualTo(body);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+
+    assertThat(gzipCompressor.countPooledDeflaters()).isBetween(1, 2);
+  }
+
+  @Test
+  void endsPooledDeflatersOnClose() throws IOException {
+    GzipCompressor gzipCompressor = new GzipCompressor(trackerConfigurationBuilder.build());
+    byte[] body = "{\"requests\":[\"?idsite=1\"]}".getBytes(StandardCharsets.UTF_8);
+    gzipCompressor.compress(body);
+
+    gzipCompressor.close();
+
+    assertThat(gzipCompressor.countPooledDeflaters()).isZero();
+    assertThat(decompress(gzipCompressor.compress(body))).isEqualTo(body);
+    assertThat(gzipCompressor.countPooledDeflaters()).isZero();
+  }
+
+  @Test
+  void doesNotCompressBodyBelowThreshold() {
+    byte[] body = "{\"requests\":[\"?idsite=1\"]}".getBytes(StandardCharsets.UTF_8);
+
+    byte[] result =
+        new GzipCompressor(trackerConfigurationBuilder.bulkCompressionEnabled(true).build())
+            .compressIfEnabled(body);
+
+    assertThat(result).isSameAs(body);
+    assertThat(GzipCompressor.isCompressed(result)).isFalse();
+  }
+
+  @Test
+  void doesNotCompressBodyIfDisabled() {
+    byte[] body = new byte[10000];
+
+    byte[] result = new GzipCompressor(trackerConfigurationBuilder.build()).compressIfEnabled(body);
+
+    assertThat(result).isSameAs(body);
+  }
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+        outputStream.write(buffer, 0, read);
+      }
+      return outputStream.toByteArray();
+    }
+  }
+}
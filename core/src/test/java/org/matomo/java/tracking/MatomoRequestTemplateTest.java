@@ -0,0 +1,132 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class MatomoRequestTemplateTest {
+
+  private final QueryCreator queryCreator =
+      new QueryCreator(
+          TrackerConfiguration.builder()
+              .apiEndpoint(URI.create("http://localhost"))
+              .defaultSiteId(42)
+              .build());
+
+  private final MatomoRequestTemplate template =
+      MatomoRequestTemplate.of(
+          MatomoRequests.event("Shop", "View", null, null)
+              .siteId(3)
+              .visitorId(VisitorId.fromHash(1234567890123456789L))
+              .randomValue(RandomValue.fromString("random-value"))
+              .dimensions(singletonMap(1L, "premium")));
+
+  @Test
+  void createsSameQueryAsRequestWithoutTemplate() {
+    MatomoRequest request = template.request().eventName("Product").build();
+
+    String query = queryCreator.createQuery(request, null);
+
+    assertThat(query)
+        .isEqualTo(
+            "rec=1&idsite=3&apiv=1&_id=112210f47de98115&e_c=Shop&e_a=View&send_image=0"
+                + "&rand=random-value&dimension1=premium&e_n=Product");
+    request.setTemplate(null);
+    assertThat(queryCreator.createQuery(request, null).split("&"))
+        .containsExactlyInAnyOrder(query.split("&"));
+  }
+
+  @Test
+  void encodesConstantsOnlyOnce() {
+    assertThat(new String(template.getEncodedParameters(), StandardCharsets.UTF_8))
+        .isEqualTo(
+            "rec=1&idsite=3&apiv=1&_id=112210f47de98115&e_c=Shop&e_a=View&send_image=0"
+                + "&rand=random-value&dimension1=premium");
+    assertThat(queryCreator.createQuery(template.request().build(), null))
+        .isEqualTo(new String(template.getEncodedParameters(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void overridesConstants() {
+    MatomoRequest request =
+        template.request().eventAction("Buy").dimensions(singletonMap(2L, "new")).build();
+
+    assertThat(queryCreator.createQuery(request, null))
+        .isEqualTo(
+            "rec=1&idsite=3&apiv=1&_id=112210f47de98115&e_c=Shop&e_a=View&send_image=0"
+                + "&rand=random-value&dimension1=premium&e_a=Buy&dimension2=new");
+  }
+
+  @Test
+  void providesConstantsToGetters() {
+    MatomoRequest request = template.request().build();
+
+    assertThat(request.getSiteId()).isEqualTo(3);
+    assertThat(request.getEventCategory()).isEqualTo("Shop");
+    assertThat(request.getTemplate()).isSameAs(template);
+  }
+
+  @Test
+  void generatesVisitorIdAndRandomValueForEachRequest() {
+    MatomoRequestTemplate pageViews =
+        MatomoRequestTemplate.of(MatomoRequests.pageView("Home").siteId(3));
+
+    MatomoRequest first = pageViews.request().build();
+    MatomoRequest second = pageViews.request().build();
+
+    assertThat(first.getVisitorId()).isNotSameAs(second.getVisitorId());
+    assertThat(first.getRandomValue()).isNotSameAs(second.getRandomValue());
+    assertThat(queryCreator.createQuery(first, null))
+        .isEqualTo(
+            "rec=1&idsite=3&action_name=Home&apiv=1&send_image=0&_id="
+                + first.getVisitorId()
+                + "&rand="
+                + first.getRandomValue());
+  }
+
+  @Test
+  void keepsExplicitVisitorIdAndRandomValue() {
+    MatomoRequest request = template.request().build();
+
+    assertThat(request.getVisitorId().toString()).isEqualTo("112210f47de98115");
+    assertThat(request.getRandomValue().toString()).isEqualTo("random-value");
+  }
+
+  @Test
+  void usesDefaultSiteIdIfTemplateHasNone() {
+    MatomoRequestTemplate impressions =
+        MatomoRequestTemplate.of(
+            MatomoRequests.contentImpression("Banner", "Image", null)
+                .visitorId(VisitorId.fromHash(1L))
+                .randomValue(RandomValue.fromString("random-value")));
+
+    assertThat(queryCreator.createQuery(impressions.request().build(), null))
+        .isEqualTo(
+            "idsite=42&rec=1&apiv=1&_id=0000000000000001&c_n=Banner&c_p=Image&send_image=0"
+                + "&rand=random-value");
+  }
+
+  @Test
+  void failsIfConstantIsInvalid() {
+    MatomoRequest.MatomoRequestBuilder builder = MatomoRequest.request().currentMinute(60);
+
+    assertThatThrownBy(() -> MatomoRequestTemplate.of(builder))
+        .isInstanceOf(MatomoException.class)
+        .hasRootCauseMessage("Invalid value for m. Must be less or equal than 59");
+  }
+
+  @Test
+  void validatesVariableParameters() {
+    MatomoRequest request = template.request().currentMinute(60).build();
+
+    assertThatThrownBy(() -> RequestValidator.validate(request, null))
+        .isInstanceOf(MatomoException.class)
+        .hasRootCauseMessage("Invalid value for m. Must be less or equal than 59");
+  }
+}
@@ -0,0 +1,177 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.AcceptLanguage;
+import org.matomo.java.tracking.parameters.Country;
+import org.matomo.java.tracking.parameters.CustomVariable;
+import org.matomo.java.tracking.parameters.CustomVariables;
+import org.matomo.java.tracking.parameters.DeviceResolution;
+import org.matomo.java.tracking.parameters.EcommerceItems;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.UniqueId;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class MatomoRequestTest {
+
+  @Test
+  void appliesDefaultsOfBuilder() {
+    MatomoRequest request = MatomoRequest.request().build();
+
+    assertThat(request.getRequired()).isTrue();
+    assertThat(request.getApiVersion()).isEqualTo("1");
+    assertThat(request.getVisitorId()).isNotNull();
+    assertThat(request.getResponseAsImage()).isFalse();
+    assertThat(request.getRandomValue()).isNotNull();
+    assertThat(request.getParameters().size()).isEqualTo(5);
+  }
+
+  @Test
+  void keepsDefaultParametersThatWereSetToNull() {
+    MatomoRequest request =
+        MatomoRequest.request().required(null).visitorId(null).randomValue(null).build();
+
+    assertThat(request.getRequired()).isNull();
+    assertThat(request.getVisitorId()).isNull();
+    assertThat(request.getRandomValue()).isNull();
+    assertThat(request.getParameters().size()).isEqualTo(2);
+  }
+
+  @Test
+  void onlyStoresParametersThatAreSet() {
+    MatomoRequest request = MatomoRequest.request().siteId(3).actionName("Help").build();
+
+    request.setActionName(null);
+    request.setCurrentHour(12);
+
+    assertThat(request.getSiteId()).isEqualTo(3);
+    assertThat(request.getActionName()).isNull();
+    assertThat(request.getCurrentHour()).isEqualTo(12);
+    assertThat(request.getParameters().size()).isEqualTo(7);
+  }
+
+  @Test
+  void copiesValuesToBuilder() {
+    MatomoRequest request =
+        MatomoRequest.request().siteId(3).visitorId(null).sessionId("session").build();
+
+    MatomoRequest copy = request.toBuilder().actionName("Help").build();
+
+    assertThat(copy.getSiteId()).isEqualTo(3);
+    assertThat(copy.getVisitorId()).isNull();
+    assertThat(copy.getRandomValue()).isSameAs(request.getRandomValue());
+    assertThat(copy.getSessionId()).isEqualTo("session");
+    assertThat(copy.getActionName()).isEqualTo("Help");
+    assertThat(request.getActionName()).isNull();
+  }
+
+  @Test
+  void listsPropertiesInToString() {
+    MatomoRequest request =
+        MatomoRequest.request()
+            .siteId(3)
+            .randomValue(RandomValue.fromString("random-value"))
+            .sessionId("session")
+            .build();
+
+    assertThat(request.toString())
+        .startsWith("MatomoRequest(required=true, siteId=3, actionName=null,")
+        .contains("randomValue=random-value", "sessionId=session")
+        .endsWith("cookies=null, priority=null)");
+  }
+
+  @Test
+  void clearsEveryPropertyExceptTemplate() throws Exception {
+    MatomoRequestTemplate template = new MatomoRequestTemplate(new MatomoRequest(), new byte[0]);
+    MatomoRequest request = new MatomoRequest();
+    for (PropertyDescriptor property : properties()) {
+      property.getWriteMethod().invoke(request, sampleValue(property));
+    }
+    request.setPriority(RequestPriority.HIGH);
+    request.setTemplate(template);
+
+    request.clear();
+
+    for (PropertyDescriptor property : properties()) {
+      assertThat(property.getReadMethod().invoke(request)).as(property.getName()).isNull();
+    }
+    assertThat(request.getPriority()).isNull();
+    assertThat(request.getParameters().size()).isZero();
+    assertThat(request.getTemplate()).isSameAs(template);
+  }
+
+  private static List<PropertyDescriptor> properties() throws IntrospectionException {
+    List<PropertyDescriptor> properties = new ArrayList<>();
+    for (PropertyDescriptor property :
+        Introspector.getBeanInfo(MatomoRequest.class, Object.class).getPropertyDescriptors()) {
+      if (property.getWriteMethod() != null) {
+        properties.add(property);
+      }
+    }
+    return properties;
+  }
+
+  private static Object sampleValue(PropertyDescriptor property) {
+    Class<?> type = property.getPropertyType();
+    if (type == String.class) {
+      return "a";
+    }
+    if (type == Boolean.class) {
+      return true;
+    }
+    if (type == Integer.class) {
+      return 1;
+    }
+    if (type == Long.class) {
+      return 1L;
+    }
+    if (type == Double.class) {
+      return 1.0;
+    }
+    if (type == Instant.class) {
+      return Instant.ofEpochSecond(1L);
+    }
+    if (type == Charset.class) {
+      return StandardCharsets.UTF_8;
+    }
+    if (type == Map.class) {
+      return singletonMap(1L, "a");
+    }
+    if (type == VisitorId.class) {
+      return VisitorId.fromHash(1L);
+    }
+    if (type == RandomValue.class) {
+      return RandomValue.fromString("random-value");
+    }
+    if (type == UniqueId.class) {
+      return UniqueId.fromValue(1L);
+    }
+    if (type == Country.class) {
+      return Country.fromCode("de");
+    }
+    if (type == AcceptLanguage.class) {
+      return AcceptLanguage.fromHeader("de");
+    }
+    if (type == DeviceResolution.class) {
+      return DeviceResolution.fromString("1024x768");
+    }
+    if (type == CustomVariables.class) {
+      return new CustomVariables().add(new CustomVariable("key", "value"), 1);
+    }
+    if (type == EcommerceItems.class) {
+      return new EcommerceItems();
+    }
+    throw new IllegalArgumentException("No sample value for " + property.getName());
+  }
+}
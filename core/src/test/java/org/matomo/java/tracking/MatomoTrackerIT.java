@@ -5,9 +5,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.matomo.java.tracking.parameters.RandomValue;
 import org.matomo.java.tracking.parameters.VisitorId;
 
@@ -257,6 +261,484 @@ class MatomoTrackerIT {
     assertThat(testSender.getTrackerConfiguration().getApiEndpoint()).hasToString(HOST_URL);
   }
 
+  @Test
+  void sendsBatchedRequestsOnFlush() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+
+    TestSender testSender = senderFactory.getTestSender();
+    assertThat(testSender.getRequests()).isEmpty();
+    assertThat(future).isNotDone();
+    assertThat(matomoTracker.flush()).isCompleted();
+    thenContainsRequest(testSender, QUERY);
+    assertThat(testSender.getBulkRequestSizes()).containsExactly(1);
+    assertThat(future).isCompletedWithValue(request);
+  }
+
+  @Test
+  void validatesRequestBeforeItIsBatched() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest invalidRequest =
+        MatomoRequest.request().siteId(1).actionName("invalid").currentMinute(60).build();
+
+    assertThatThrownBy(() -> matomoTracker.sendRequestAsync(invalidRequest))
+        .isInstanceOf(MatomoException.class)
+        .hasRootCauseMessage("Invalid value for m. Must be less or equal than 59");
+    matomoTracker.sendRequestAsync(request);
+    assertThat(matomoTracker.flush()).isCompleted();
+    thenContainsRequest(senderFactory.getTestSender(), QUERY);
+  }
+
+  @Test
+  void validatesBulkRequestsBeforeTheyAreSent() {
+
+    matomoTracker =
+        new MatomoTracker(TrackerConfiguration.builder().apiEndpoint(URI.create(HOST_URL)).build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest invalidRequest = MatomoRequest.request().siteId(1).searchResultsCount(1L).build();
+
+    assertThatThrownBy(() -> matomoTracker.sendBulkRequest(request, invalidRequest))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Search query must be set if search results count is set");
+    assertThat(senderFactory.getTestSender()).isNull();
+  }
+
+  @Test
+  void flushDoesNothingIfNoRequestWasSent() {
+
+    matomoTracker =
+        new MatomoTracker(TrackerConfiguration.builder().apiEndpoint(URI.create(HOST_URL)).build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    assertThat(matomoTracker.flush()).isCompleted();
+    assertThat(senderFactory.getTestSender()).isNull();
+  }
+
+  @Test
+  void sendsRequestAsyncViaBacklog() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .maxBacklogRequests(10)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+
+    thenContainsRequest(senderFactory.getTestSender(), QUERY);
+    assertThat(future).isCompletedWithValue(request);
+    assertThat(matomoTracker.getDroppedRequests()).isZero();
+  }
+
+  @Test
+  void sendsRequestViaCircuitBreaker() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .circuitBreakerEnabled(true)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.sendRequest(request);
+
+    thenContainsRequest(senderFactory.getTestSender(), QUERY);
+  }
+
+  @Test
+  void sendsRequestAsyncViaSpool(@TempDir Path spoolDirectory) throws Exception {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .spoolDirectory(spoolDirectory)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY);
+    assertThat(future).isCompletedWithValue(request);
+    matomoTracker.close();
+    assertThat(spoolDirectory).isEmptyDirectory();
+  }
+
+  @Test
+  void coalescesPingsOfSameVisitor() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .defaultSiteId(1)
+                .coalescingEnabled(true)
+                .coalescingWindow(Duration.ofMinutes(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    VisitorId visitorId = VisitorId.fromHex("bbccddeeff112233");
+    MatomoRequest first = MatomoRequests.ping().visitorId(visitorId).build();
+    MatomoRequest second = MatomoRequests.ping().visitorId(visitorId).build();
+
+    CompletableFuture<MatomoRequest> firstFuture = matomoTracker.sendRequestAsync(first);
+    CompletableFuture<MatomoRequest> secondFuture = matomoTracker.sendRequestAsync(second);
+    assertThat(matomoTracker.flush()).isCompleted();
+
+    assertThat(senderFactory.getTestSender().getRequests()).containsExactly(second);
+    assertThat(firstFuture).isCompletedWithValue(first);
+    assertThat(secondFuture).isCompletedWithValue(second);
+    assertThat(matomoTracker.getCoalescedRequests()).isEqualTo(1L);
+  }
+
+  @Test
+  void doesNotSendRequestsThatAreSampledOut() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .samplingRates(Collections.singletonMap(RequestKind.PAGE_VIEW, 0.0))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.sendRequest(request);
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+    matomoTracker.sendBulkRequest(request);
+
+    assertThat(future).isCompletedWithValue(request);
+    assertThat(senderFactory.getTestSender()).isNull();
+    assertThat(matomoTracker.getSampledOutRequests(RequestKind.PAGE_VIEW)).isEqualTo(3L);
+    assertThat(matomoTracker.getSampledOutRequests()).isEqualTo(3L);
+  }
+
+  @Test
+  void dropsRequestsThatExceedRateLimit() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .maxRequestsPerSecond(0.001)
+                .rateLimitBurst(1)
+                .rateLimitPolicy(RateLimitPolicy.DROP)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.sendRequest(request);
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+
+    thenContainsRequest(senderFactory.getTestSender(), QUERY);
+    assertThat(future).isCompletedExceptionally();
+    assertThat(matomoTracker.getRateLimitedRequests()).isOne();
+  }
+
+  @Test
+  void encodesRepeatedValuesOnce() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .encodedValueCacheSize(100)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.sendRequest(request);
+    matomoTracker.sendRequest(request);
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY, QUERY);
+    assertThat(matomoTracker.getEncodedValueCacheMisses()).isOne();
+    assertThat(matomoTracker.getEncodedValueCacheHits()).isOne();
+  }
+
+  @Test
+  void sendsFrozenRequestIfRequestIsChangedAfterwards() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .requestFreezingEnabled(true)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+    request.setActionName("changed");
+
+    matomoTracker.flush().join();
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY);
+    assertThat(future.join()).isNotSameAs(request);
+    assertThat(future.join().getSiteId()).isOne();
+  }
+
+  @Test
+  void freezesBulkRequests() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestFreezingEnabled(true)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.sendBulkRequestAsync(request, request).join();
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY, QUERY);
+    assertThat(senderFactory.getTestSender().getRequests()).doesNotContain(request);
+  }
+
+  @Test
+  void failsOnSubmissionIfFrozenRequestIsInvalid() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestFreezingEnabled(true)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    request.setVisitorIp("127.0.0.1");
+
+    assertThatThrownBy(() -> matomoTracker.sendRequestAsync(request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessageStartingWith("Auth token must be present");
+    assertThat(senderFactory.getTestSender()).isNull();
+  }
+
+  @Test
+  void reusesPooledRequestAfterItWasSent() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(1)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest pooledRequest = givenPooledRequest();
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(pooledRequest);
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY);
+    assertThat(future.join()).isNull();
+    assertThat(matomoTracker.obtainRequest()).isSameAs(pooledRequest);
+    assertThat(pooledRequest.getActionName()).isNull();
+    assertThat(pooledRequest.getVisitorId()).isNull();
+    assertThat(pooledRequest.getRequired()).isTrue();
+  }
+
+  @Test
+  void releasesPooledRequestWhenItWasSent() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(1)
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest pooledRequest = givenPooledRequest();
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(pooledRequest);
+
+    assertThat(future).isNotDone();
+    assertThat(pooledRequest.getActionName()).isEqualTo("test");
+    assertThat(matomoTracker.obtainRequest()).isNotSameAs(pooledRequest);
+    assertThat(matomoTracker.flush()).isCompleted();
+    assertThat(senderFactory.getTestSender().getRequests()).containsExactly(pooledRequest);
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY);
+    assertThat(future).isCompletedWithValue(null);
+    assertThat(matomoTracker.obtainRequest()).isSameAs(pooledRequest);
+    assertThat(pooledRequest.getActionName()).isNull();
+  }
+
+  @Test
+  void releasesFrozenPooledRequestImmediately() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(1)
+                .requestFreezingEnabled(true)
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest pooledRequest = givenPooledRequest();
+
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(pooledRequest);
+
+    assertThat(matomoTracker.obtainRequest()).isSameAs(pooledRequest);
+    assertThat(matomoTracker.flush()).isCompleted();
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY);
+    assertThat(future.join()).isNotSameAs(pooledRequest);
+  }
+
+  @Test
+  void releasesPooledRequestsOfSynchronousAndBulkCalls() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(2)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest first = givenPooledRequest();
+    MatomoRequest second = givenPooledRequest();
+
+    matomoTracker.sendRequest(first);
+    matomoTracker.sendBulkRequestAsync(second, request).join();
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY, QUERY, QUERY);
+    assertThat(matomoTracker.obtainRequest()).isSameAs(first);
+    assertThat(matomoTracker.obtainRequest()).isSameAs(second);
+    assertThat(request.getActionName()).isEqualTo("test");
+  }
+
+  @Test
+  void releasesPooledRequestOnceIfItIsPassedTwice() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(2)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest pooledRequest = givenPooledRequest();
+
+    matomoTracker.sendBulkRequestAsync(pooledRequest, pooledRequest).join();
+
+    assertThat(senderFactory.getTestSender().getQueries()).containsExactly(QUERY, QUERY);
+    assertThat(matomoTracker.obtainRequest()).isSameAs(pooledRequest);
+    assertThat(matomoTracker.obtainRequest()).isNotSameAs(pooledRequest);
+  }
+
+  @Test
+  void releasesPooledRequestIfItIsInvalid() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .requestPoolSize(1)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    MatomoRequest pooledRequest = givenPooledRequest();
+    pooledRequest.setVisitorIp("127.0.0.1");
+
+    assertThatThrownBy(() -> matomoTracker.sendRequestAsync(pooledRequest))
+        .isInstanceOf(MatomoException.class)
+        .hasMessageStartingWith("Auth token must be present");
+    assertThat(matomoTracker.obtainRequest()).isSameAs(pooledRequest);
+    assertThat(pooledRequest.getVisitorIp()).isNull();
+  }
+
+  @Test
+  void obtainsNewRequestsIfPoolIsDisabled() {
+
+    matomoTracker =
+        new MatomoTracker(TrackerConfiguration.builder().apiEndpoint(URI.create(HOST_URL)).build());
+
+    MatomoRequest first = matomoTracker.obtainRequest();
+
+    assertThat(first.getVisitorId()).isNotNull();
+    assertThat(matomoTracker.obtainRequest()).isNotSameAs(first);
+  }
+
+  private MatomoRequest givenPooledRequest() {
+    MatomoRequest pooledRequest = matomoTracker.obtainRequest();
+    pooledRequest.setSiteId(1);
+    pooledRequest.setActionName("test");
+    pooledRequest.setVisitorId(request.getVisitorId());
+    pooledRequest.setRandomValue(request.getRandomValue());
+    return pooledRequest;
+  }
+
+  @Test
+  void closeWithTimeoutSendsCollectedRequests() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .batchingEnabled(true)
+                .batchLinger(Duration.ofMinutes(1L))
+                .shutdownHookEnabled(true)
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    CompletableFuture<MatomoRequest> future = matomoTracker.sendRequestAsync(request);
+
+    long lostRequests = matomoTracker.close(Duration.ofSeconds(5L));
+
+    assertThat(lostRequests).isZero();
+    assertThat(future).isCompletedWithValue(request);
+    thenContainsRequest(senderFactory.getTestSender(), QUERY);
+  }
+
+  @Test
+  void closeWithTimeoutReportsRequestsThatWereNotSentInTime() {
+
+    matomoTracker =
+        new MatomoTracker(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create(HOST_URL))
+                .maxRequestsPerSecond(0.001)
+                .rateLimitBurst(1)
+                .rateLimitMaxDelay(Duration.ofHours(1L))
+                .build());
+    matomoTracker.setSenderFactory(senderFactory);
+    matomoTracker.sendRequestAsync(request);
+    CompletableFuture<MatomoRequest> delayed = matomoTracker.sendRequestAsync(request);
+
+    long lostRequests = matomoTracker.close(Duration.ofMillis(10L));
+
+    assertThat(lostRequests).isOne();
+    assertThat(delayed).isNotDone();
+  }
+
+  @Test
+  void rejectsRequestsAfterClose() throws Exception {
+
+    matomoTracker =
+        new MatomoTracker(TrackerConfiguration.builder().apiEndpoint(URI.create(HOST_URL)).build());
+    matomoTracker.setSenderFactory(senderFactory);
+
+    matomoTracker.close();
+
+    assertThatThrownBy(() -> matomoTracker.sendRequest(request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Tracker is closed");
+    assertThat(matomoTracker.close(Duration.ZERO)).isZero();
+  }
+
   private void thenContainsRequest(TestSender testSender, String query) {
     assertThat(testSender.getRequests()).containsExactly(request);
     assertThat(testSender.getQueries()).containsExactly(query);
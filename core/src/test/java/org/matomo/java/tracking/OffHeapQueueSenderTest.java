@@ -0,0 +1,263 @@
+package org.matomo.java.tracking;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class OffHeapQueueSenderTest {
+
+  private static final String AUTH_TOKEN = "fdf6e8461ea9de33176b222519627f78";
+
+  private final TrackerConfiguration trackerConfiguration =
+      TrackerConfiguration.builder()
+          .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+          .defaultSiteId(1)
+          .offHeapQueueCapacity(400)
+          .batchSize(2)
+          .threadPoolSize(1)
+          .build();
+
+  private final QueryCreator queryCreator = new QueryCreator(trackerConfiguration);
+
+  private final PendingSender pendingSender = new PendingSender();
+
+  private final AtomicLong droppedRequests = new AtomicLong();
+
+  private final OffHeapQueueSender offHeapQueueSender =
+      new OffHeapQueueSender(
+          pendingSender,
+          trackerConfiguration,
+          queryCreator,
+          droppedRequests,
+          Executors.newSingleThreadExecutor(new DaemonThreadFactory()));
+
+  @AfterEach
+  void closeSender() throws Exception {
+    pendingSender.completeAll();
+    offHeapQueueSender.close();
+  }
+
+  @Test
+  void sendsQueuedRequestsAsEncodedQueries() throws Exception {
+    CompletableFuture<MatomoRequest> future = offHeapQueueSender.sendSingleAsync(pageView("Home"));
+
+    assertThat(future.get(5L, TimeUnit.SECONDS)).isNull();
+    assertThat(pendingSender.getQueries())
+        .containsExactly(
+            "idsite=1&rec=1&action_name=Home&apiv=1&_id=0000000000000001&send_image=0"
+                + "&rand=random-value");
+    assertThat(pendingSender.authTokens).containsExactly((String) null);
+  }
+
+  @Test
+  void sendsQueuedRequestsInBatches() throws Exception {
+    pendingSender.block();
+    CompletableFuture<MatomoRequest> first = offHeapQueueSender.sendSingleAsync(pageView("A"));
+    pendingSender.awaitPending();
+    CompletableFuture<Void> bulk =
+        offHeapQueueSender.sendBulkAsync(asList(pageView("B"), pageView("C"), pageView("D")));
+
+    pendingSender.completeAll();
+
+    first.get(5L, TimeUnit.SECONDS);
+    bulk.get(5L, TimeUnit.SECONDS);
+    assertThat(pendingSender.batchSizes).containsExactly(1, 2, 1);
+    assertThat(pendingSender.getQueries()).hasSize(4);
+  }
+
+  @Test
+  void keepsThreadPoolSizeBulkRequestsOutstanding() throws Exception {
+    TrackerConfiguration concurrentConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .offHeapQueueCapacity(1000)
+            .batchSize(2)
+            .threadPoolSize(2)
+            .build();
+    pendingSender.block();
+    try (OffHeapQueueSender concurrentSender =
+        new OffHeapQueueSender(
+            pendingSender,
+            concurrentConfiguration,
+            queryCreator,
+            droppedRequests,
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory()))) {
+
+      CompletableFuture<Void> bulk =
+          concurrentSender.sendBulkAsync(
+              asList(pageView("A"), pageView("B"), pageView("C"), pageView("D"), pageView("E")));
+
+      pendingSender.awaitPending(2);
+      Thread.sleep(50L);
+      assertThat(pendingSender.pending).hasSize(2);
+      pendingSender.completeAll();
+      bulk.get(5L, TimeUnit.SECONDS);
+      assertThat(pendingSender.getQueries()).hasSize(5);
+    }
+  }
+
+  @Test
+  void dropsRequestIfQueueIsFull() throws Exception {
+    pendingSender.block();
+    offHeapQueueSender.sendSingleAsync(pageView("First"));
+    pendingSender.awaitPending();
+    List<CompletableFuture<MatomoRequest>> futures = new ArrayList<>();
+    CompletableFuture<MatomoRequest> dropped;
+    do {
+      dropped = offHeapQueueSender.sendSingleAsync(pageView("Next"));
+      futures.add(dropped);
+    } while (!dropped.isDone());
+
+    assertThat(futures).hasSizeGreaterThan(2);
+    assertThat(dropped)
+        .failsWithin(0L, TimeUnit.SECONDS)
+        .withThrowableOfType(ExecutionException.class)
+        .withMessageContaining("Off-heap queue is full. Request was dropped");
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void groupsQueriesByAuthToken() throws Exception {
+    pendingSender.block();
+    offHeapQueueSender.sendSingleAsync(pageView("A"));
+    pendingSender.awaitPending();
+    MatomoRequest withAuthToken = pageView("B");
+    withAuthToken.setAuthToken(AUTH_TOKEN);
+    offHeapQueueSender.sendSingleAsync(withAuthToken);
+
+    pendingSender.completeAll();
+    offHeapQueueSender.flush().get(5L, TimeUnit.SECONDS);
+
+    assertThat(pendingSender.authTokens).containsExactly(null, AUTH_TOKEN);
+  }
+
+  @Test
+  void passesRequestsWithHeadersToDelegate() throws Exception {
+    MatomoRequest request = pageView("Home");
+    request.setHeaders(singletonMap("X-Forwarded-For", "127.0.0.1"));
+
+    CompletableFuture<MatomoRequest> future = offHeapQueueSender.sendSingleAsync(request);
+
+    assertThat(future.get(5L, TimeUnit.SECONDS)).isSameAs(request);
+    assertThat(pendingSender.getRequests()).containsExactly(request);
+    assertThat(pendingSender.batchSizes).isEmpty();
+  }
+
+  @Test
+  void failsQueuedRequestsIfDelegateFails() {
+    pendingSender.failure = new MatomoException("Could not send request");
+
+    CompletableFuture<MatomoRequest> future = offHeapQueueSender.sendSingleAsync(pageView("Home"));
+
+    assertThat(future)
+        .failsWithin(5L, TimeUnit.SECONDS)
+        .withThrowableOfType(ExecutionException.class)
+        .withMessageContaining("Could not send request");
+  }
+
+  @Test
+  void flushesQueuedRequests() throws Exception {
+    offHeapQueueSender.sendSingleAsync(pageView("Home"));
+
+    pendingSender.completeAll();
+    offHeapQueueSender.flush().get(5L, TimeUnit.SECONDS);
+
+    assertThat(pendingSender.getQueries()).hasSize(1);
+  }
+
+  private static MatomoRequest pageView(String actionName) {
+    return MatomoRequests.pageView(actionName)
+        .visitorId(VisitorId.fromHash(1L))
+        .randomValue(RandomValue.fromString("random-value"))
+        .build();
+  }
+
+  private final class PendingSender extends TestSender {
+
+    private final List<String> authTokens = new CopyOnWriteArrayList<>();
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private final List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+
+    private volatile boolean blocking;
+
+    private volatile MatomoException failure;
+
+    private PendingSender() {
+      super(trackerConfiguration, queryCreator);
+    }
+
+    private void block() {
+      blocking = true;
+    }
+
+    private void awaitPending() throws InterruptedException, TimeoutException {
+      awaitPending(1);
+    }
+
+    private void awaitPending(int count) throws InterruptedException, TimeoutException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+      while (pending.size() < count) {
+        if (System.nanoTime() > deadline) {
+          throw new TimeoutException("No request was sent");
+        }
+        Thread.sleep(1L);
+      }
+    }
+
+    private void completeAll() {
+      blocking = false;
+      for (CompletableFuture<Void> future : pending) {
+        future.complete(null);
+      }
+    }
+
+    @NonNull
+    @Override
+    public synchronized CompletableFuture<Void> sendEncodedQueriesAsync(
+        @NonNull Collection<ByteBuffer> queries,
+        @Nullable String authToken,
+        @NonNull RequestPriority priority) {
+      authTokens.add(authToken);
+      batchSizes.add(queries.size());
+      List<String> decoded = new ArrayList<>(queries.size());
+      for (ByteBuffer query : queries) {
+        decoded.add(StandardCharsets.UTF_8.decode(query.duplicate()).toString());
+      }
+      getQueries().addAll(decoded);
+      if (failure != null) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+      }
+      if (!blocking) {
+        return CompletableFuture.completedFuture(null);
+      }
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      pending.add(future);
+      return future;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.OffHeapQueue.Batch;
+
+class OffHeapQueueTest {
+
+  private static final String AUTH_TOKEN = "fdf6e8461ea9de33176b222519627f78";
+
+  private final OffHeapQueue queue = new OffHeapQueue(100);
+
+  @Test
+  void returnsNullIfEmpty() {
+    assertThat(queue.take(10)).isNull();
+  }
+
+  @Test
+  void takesQueriesInOrder() {
+    whenOffers("idsite=1&action_name=First", null);
+    whenOffers("idsite=1&action_name=Second", null);
+
+    Batch batch = queue.take(10);
+
+    assertThat(batch.getAuthToken()).isNull();
+    assertThat(decode(batch))
+        .containsExactly("idsite=1&action_name=First", "idsite=1&action_name=Second");
+    assertThat(queue.getSize()).isEqualTo(2);
+  }
+
+  @Test
+  void takesEveryQueryOnce() {
+    whenOffers("First", null);
+    whenOffers("Second", null);
+
+    assertThat(decode(queue.take(1))).containsExactly("First");
+    assertThat(decode(queue.take(1))).containsExactly("Second");
+    assertThat(queue.take(1)).isNull();
+    assertThat(queue.getSize()).isEqualTo(2);
+  }
+
+  @Test
+  void releasesSpaceOnlyAfterEarlierBatchesAreReleased() {
+    whenOffers(repeat('a', 35), null);
+    whenOffers(repeat('b', 35), null);
+    Batch first = queue.take(1);
+    Batch second = queue.take(1);
+
+    queue.release(second);
+
+    assertThat(queue.getSize()).isEqualTo(2);
+    assertThat(whenOffers(repeat('c', 35), null)).isFalse();
+    queue.release(first);
+    assertThat(queue.getSize()).isZero();
+    assertThat(whenOffers(repeat('c', 35), null)).isTrue();
+  }
+
+  @Test
+  void storesAuthTokensLongerThan127Characters() {
+    OffHeapQueue largeQueue = new OffHeapQueue(1024);
+    String authToken = repeat('t', 200);
+    QueryBuffer buffer = QueryBuffer.threadLocal();
+    buffer.append("First");
+    largeQueue.offer(buffer, 0, authToken, RequestPriority.NORMAL);
+
+    Batch batch = largeQueue.take(10);
+
+    assertThat(batch.getAuthToken()).isEqualTo(authToken);
+    assertThat(decode(batch)).containsExactly("First");
+  }
+
+  @Test
+  void rejectsAuthTokensLongerThan65535Characters() {
+    QueryBuffer buffer = QueryBuffer.threadLocal();
+    buffer.append("First");
+    String authToken = repeat('t', 65536);
+
+    assertThatThrownBy(() -> queue.offer(buffer, 0, authToken, RequestPriority.NORMAL))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Auth token must not be longer than 65535 characters");
+  }
+
+  @Test
+  void releasesTakenQueries() {
+    whenOffers("First", null);
+    whenOffers("Second", null);
+    whenOffers("Third", null);
+
+    queue.release(queue.take(2));
+
+    assertThat(queue.getSize()).isEqualTo(1);
+    assertThat(decode(queue.take(10))).containsExactly("Third");
+  }
+
+  @Test
+  void groupsQueriesByAuthToken() {
+    whenOffers("A", AUTH_TOKEN);
+    whenOffers("B", AUTH_TOKEN);
+    whenOffers("C", null);
+
+    Batch batch = queue.take(10);
+
+    assertThat(batch.getAuthToken()).isEqualTo(AUTH_TOKEN);
+    assertThat(decode(batch)).containsExactly("A", "B");
+    queue.release(batch);
+    Batch next = queue.take(10);
+    assertThat(next.getAuthToken()).isNull();
+    assertThat(decode(next)).containsExactly("C");
+  }
+
+  @Test
+  void groupsQueriesByPriority() {
+    whenOffers("First", null, RequestPriority.HIGH);
+    whenOffers("Second", null, RequestPriority.LOW);
+
+    Batch batch = queue.take(10);
+
+    assertThat(batch.getPriority()).isEqualTo(RequestPriority.HIGH);
+    assertThat(decode(batch)).containsExactly("First");
+    queue.release(batch);
+    Batch next = queue.take(10);
+    assertThat(next.getPriority()).isEqualTo(RequestPriority.LOW);
+    assertThat(decode(next)).containsExactly("Second");
+  }
+
+  @Test
+  void rejectsQueryIfFull() {
+    assertThat(whenOffers(repeat('a', 60), null)).isTrue();
+
+    assertThat(whenOffers(repeat('b', 60), null)).isFalse();
+    assertThat(queue.getSize()).isEqualTo(1);
+  }
+
+  @Test
+  void wrapsAroundAtEndOfBuffer() {
+    whenOffers(repeat('a', 35), null);
+    whenOffers(repeat('b', 35), null);
+    queue.release(queue.take(1));
+
+    assertThat(whenOffers(repeat('c', 35), null)).isTrue();
+
+    Batch batch = queue.take(10);
+    assertThat(decode(batch)).containsExactly(repeat('b', 35), repeat('c', 35));
+    queue.release(batch);
+    assertThat(queue.getSize()).isZero();
+    assertThat(whenOffers(repeat('d', 90), null)).isTrue();
+  }
+
+  @Test
+  void doesNotOverwriteUnreleasedQueriesAfterWrapAround() {
+    whenOffers(repeat('a', 35), null);
+    whenOffers(repeat('b', 35), null);
+    queue.release(queue.take(1));
+    whenOffers(repeat('c', 35), null);
+
+    assertThat(whenOffers(repeat('d', 10), null)).isFalse();
+    assertThat(decode(queue.take(10))).containsExactly(repeat('b', 35), repeat('c', 35));
+  }
+
+  private boolean whenOffers(String query, @Nullable String authToken) {
+    return whenOffers(query, authToken, RequestPriority.NORMAL);
+  }
+
+  private boolean whenOffers(String query, @Nullable String authToken, RequestPriority priority) {
+    QueryBuffer buffer = QueryBuffer.threadLocal();
+    buffer.append("skipped");
+    int start = buffer.length();
+    buffer.append(query);
+    return queue.offer(buffer, start, authToken, priority);
+  }
+
+  private static List<String> decode(Batch batch) {
+    List<String> queries = new ArrayList<>();
+    for (ByteBuffer query : batch.getQueries()) {
+      queries.add(StandardCharsets.UTF_8.decode(query.duplicate()).toString());
+    }
+    return queries;
+  }
+
+  private static String repeat(char c, int count) {
+    StringBuilder builder = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+}
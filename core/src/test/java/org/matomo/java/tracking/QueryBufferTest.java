@@ -0,0 +1,125 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QueryBufferTest {
+
+  private final QueryBuffer queryBuffer = new QueryBuffer();
+
+  @Test
+  void encodesLikeUrlEncoder() throws UnsupportedEncodingException {
+    String value = "Help / Feedback: äöü ß € 😀 *-_.~!'()\"+&=\t\n";
+
+    queryBuffer.appendEncoded(value);
+
+    assertThat(queryBuffer).hasToString(URLEncoder.encode(value, "UTF-8"));
+  }
+
+  @Test
+  void encodesUnpairedSurrogatesLikeUrlEncoder() throws UnsupportedEncodingException {
+    String value = "a\uD83Db\uDE00c\uD83D";
+
+    queryBuffer.appendEncoded(value);
+
+    assertThat(queryBuffer).hasToString(URLEncoder.encode(value, "UTF-8"));
+  }
+
+  @Test
+  void encodesRandomCharactersLikeUrlEncoder() throws UnsupportedEncodingException {
+    Random random = new Random(42L);
+    for (int i = 0; i < 1000; i++) {
+      char[] chars = new char[random.nextInt(50)];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = (char) (random.nextBoolean() ? random.nextInt(128) : random.nextInt(0x10000));
+      }
+      String value = new String(chars);
+      queryBuffer.reset();
+
+      queryBuffer.appendEncoded(value);
+
+      assertThat(queryBuffer).hasToString(URLEncoder.encode(value, "UTF-8"));
+    }
+  }
+
+  @Test
+  void appendsNumbers() {
+    queryBuffer
+        .append(0)
+        .append(',')
+        .append(-42)
+        .append(',')
+        .append(Long.MAX_VALUE)
+        .append(',')
+        .append(Long.MIN_VALUE)
+        .append(',')
+        .append(12.34)
+        .append(',')
+        .append(1.5F);
+
+    assertThat(queryBuffer).hasToString("0,-42,9223372036854775807,-9223372036854775808,12.34,1.5");
+  }
+
+  @Test
+  void appendsNonAsciiCharactersAsUtf8() {
+    queryBuffer.append("a€").append('ö');
+
+    assertThat(queryBuffer.toByteArray(queryBuffer.length(), new byte[0]))
+        .isEqualTo("a€ö".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void growsBeyondInitialCapacity() {
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      queryBuffer.appendEncoded("value ").append(i);
+      expected.append("value+").append(i);
+    }
+
+    assertThat(queryBuffer).hasToString(expected.toString());
+  }
+
+  @Test
+  void tracksStartOfQuery() {
+    queryBuffer.append("prefix");
+    queryBuffer.beginQuery();
+
+    assertThat(queryBuffer.isQueryEmpty()).isTrue();
+    queryBuffer.append('a');
+    assertThat(queryBuffer.isQueryEmpty()).isFalse();
+  }
+
+  @Test
+  void replacesStart() {
+    queryBuffer.append("abc,def");
+
+    queryBuffer.replaceStart(4, "[".getBytes(StandardCharsets.US_ASCII));
+
+    assertThat(queryBuffer).hasToString("[def");
+  }
+
+  @Test
+  void copiesBytesWithSuffix() {
+    queryBuffer.append("abc,def");
+
+    byte[] bytes = queryBuffer.toByteArray(3, "]".getBytes(StandardCharsets.US_ASCII));
+
+    assertThat(new String(bytes, StandardCharsets.US_ASCII)).isEqualTo("abc]");
+  }
+
+  @Test
+  void reusesThreadLocalBuffer() {
+    QueryBuffer first = QueryBuffer.threadLocal();
+    first.append("abc");
+
+    QueryBuffer second = QueryBuffer.threadLocal();
+
+    assertThat(second).isSameAs(first);
+    assertThat(second.length()).isZero();
+  }
+}
@@ -5,6 +5,7 @@ import static java.util.Collections.singleton;
 import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -57,6 +58,7 @@ class QueryCreatorTest {
             .defaultAuthToken(defaultAuthToken)
             .build();
     String authToken = AuthToken.determineAuthToken(singleton(request), trackerConfiguration);
+    RequestValidator.validate(trackerConfiguration, request, authToken);
     query = new QueryCreator(trackerConfiguration).createQuery(request, authToken);
   }
 
@@ -426,7 +428,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for idsite. Must be greater or equal than 1");
   }
@@ -437,7 +439,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for idsite. Must be greater or equal than 1");
   }
@@ -448,7 +450,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for h. Must be greater or equal than 0");
   }
@@ -459,7 +461,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for h. Must be less or equal than 23");
   }
@@ -470,7 +472,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for m. Must be greater or equal than 0");
   }
@@ -481,7 +483,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for m. Must be less or equal than 59");
   }
@@ -492,7 +494,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for s. Must be greater or equal than 0");
   }
@@ -503,7 +505,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for s. Must be less or equal than 59");
   }
@@ -514,7 +516,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for lat. Must be greater or equal than -90");
   }
@@ -525,7 +527,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for lat. Must be less or equal than 90");
   }
@@ -536,7 +538,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for long. Must be greater or equal than -180");
   }
 
@@ -546,7 +548,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for long. Must be less or equal than 180");
   }
 
@@ -661,7 +663,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for _pkp. Must be greater or equal than 0");
   }
 
@@ -699,7 +701,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for bw_bytes. Must be greater or equal than 0");
   }
 
@@ -753,7 +755,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_st. Must be greater or equal than 0");
   }
 
@@ -763,7 +765,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_le. Must be greater or equal than 0");
   }
 
@@ -773,7 +775,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_ps. Must be greater or equal than 0");
   }
 
@@ -783,7 +785,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_ps. Must be less or equal than 100");
   }
 
@@ -804,7 +806,7 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_w. Must be greater or equal than 0");
   }
 
@@ -814,7 +816,97 @@ class QueryCreatorTest {
 
     assertThatThrownBy(this::whenCreatesQuery)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseMessage("Invalid value for ma_h. Must be greater or equal than 0");
   }
+
+  @Test
+  void doesNotValidateParametersIfValidationIsOff() {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost"))
+            .validationMode(ValidationMode.OFF)
+            .build();
+
+    query =
+        new QueryCreator(trackerConfiguration)
+            .createQuery(matomoRequestBuilder.siteId(1).currentMinute(60).build(), null);
+
+    assertThat(query).contains("&m=60");
+  }
+
+  @Test
+  void createsSameQueryWithEncodedValueCache() {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost"))
+            .encodedValueCacheSize(10)
+            .build();
+    QueryCreator queryCreator =
+        new QueryCreator(trackerConfiguration, new EncodedValueCache(trackerConfiguration));
+    request =
+        matomoRequestBuilder
+            .siteId(1)
+            .actionName("Help / Feedback")
+            .dimensions(singletonMap(1L, (Object) "äöü"))
+            .build();
+
+    String first = queryCreator.createQuery(request, null);
+    String second = queryCreator.createQuery(request, null);
+
+    assertThat(second)
+        .isEqualTo(first)
+        .isEqualTo(new QueryCreator(trackerConfiguration).createQuery(request, null))
+        .contains("action_name=Help+%2F+Feedback", "dimension1=%C3%A4%C3%B6%C3%BC");
+  }
+
+  @Test
+  void freezesQueryOfRequest() {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost"))
+            .defaultSiteId(42)
+            .build();
+    QueryCreator queryCreator = new QueryCreator(trackerConfiguration);
+    Map<String, String> headers = new HashMap<>();
+    headers.put("Accept-Language", "de");
+    request =
+        matomoRequestBuilder
+            .actionName("Help / Feedback")
+            .eventCategory("Shop")
+            .headers(headers)
+            .dimensions(singletonMap(1L, (Object) "premium"))
+            .build();
+    String expected = queryCreator.createQuery(request, null);
+
+    MatomoRequest frozen = queryCreator.freeze(request);
+    request.setActionName("changed");
+    headers.put("Accept-Language", "en");
+
+    assertThat(queryCreator.createQuery(frozen, null)).isEqualTo(expected);
+    assertThat(frozen.getActionName()).isNull();
+    assertThat(frozen.getDimensions()).isNull();
+    assertThat(frozen.getVisitorId()).isSameAs(request.getVisitorId());
+    assertThat(frozen.getHeaders()).containsExactly(entry("Accept-Language", "de"));
+    assertThat(RequestKind.of(frozen)).isEqualTo(RequestKind.EVENT);
+    assertThat(frozen.getTemplate().isFrozen()).isTrue();
+  }
+
+  @Test
+  void freezesRequestOfTemplate() {
+    TrackerConfiguration trackerConfiguration =
+        TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost")).build();
+    QueryCreator queryCreator = new QueryCreator(trackerConfiguration);
+    MatomoRequestTemplate template = MatomoRequestTemplate.of(matomoRequestBuilder.siteId(1));
+    request = template.request().actionName("Help").build();
+
+    MatomoRequest frozen = queryCreator.freeze(request);
+
+    assertThat(queryCreator.createQuery(frozen, "876de1876fb2cda2816c362a61bfc712"))
+        .isEqualTo(queryCreator.createQuery(request, "876de1876fb2cda2816c362a61bfc712"))
+        .isEqualTo(
+            "token_auth=876de1876fb2cda2816c362a61bfc712&rec=1&idsite=1&apiv=1"
+                + "&_id=112210f47de98115&send_image=0&rand=random-value&action_name=Help");
+    assertThat(template.isFrozen()).isFalse();
+  }
 }
@@ -0,0 +1,220 @@
+package org.matomo.java.tracking;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimitingSenderTest {
+
+  private final AtomicLong rateLimitedRequests = new AtomicLong();
+
+  private final List<MatomoRequest> handedOverRequests = new ArrayList<>();
+
+  private TestSender testSender;
+
+  private RateLimitingSender rateLimitingSender;
+
+  @AfterEach
+  void closeSender() throws Exception {
+    rateLimitingSender.close();
+  }
+
+  private void givenRateLimitingSender(TrackerConfiguration.TrackerConfigurationBuilder builder) {
+    TrackerConfiguration trackerConfiguration =
+        builder
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .rateLimitBurst(2)
+            .build();
+    testSender = new TestSender(trackerConfiguration, new QueryCreator(trackerConfiguration));
+    rateLimitingSender =
+        new RateLimitingSender(
+            testSender,
+            trackerConfiguration,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()),
+            rateLimitedRequests);
+  }
+
+  @Test
+  void dropsRequestsThatExceedGlobalLimit() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(0.001)
+            .rateLimitPolicy(RateLimitPolicy.DROP));
+
+    rateLimitingSender.sendSingle(MatomoRequests.pageView("First").build());
+    CompletableFuture<MatomoRequest> second =
+        rateLimitingSender.sendSingleAsync(MatomoRequests.pageView("Second").build());
+    CompletableFuture<MatomoRequest> third =
+        rateLimitingSender.sendSingleAsync(MatomoRequests.pageView("Third").build());
+
+    assertThat(second).isCompleted();
+    assertThat(third)
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(Exception.class)
+        .withCauseInstanceOf(MatomoException.class)
+        .withMessageContaining("Rate limit exceeded");
+    assertThat(testSender.getRequests()).hasSize(2);
+    assertThat(rateLimitedRequests).hasValue(1L);
+  }
+
+  @Test
+  void limitsEverySiteSeparately() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecondPerSite(0.001)
+            .rateLimitPolicy(RateLimitPolicy.DROP));
+
+    for (int i = 0; i < 3; i++) {
+      rateLimitingSender.sendSingleAsync(MatomoRequests.pageView("Default site").build());
+      rateLimitingSender.sendSingleAsync(MatomoRequests.pageView("Other site").siteId(2).build());
+    }
+
+    assertThat(testSender.getRequests()).hasSize(4);
+    assertThat(rateLimitedRequests).hasValue(2L);
+  }
+
+  @Test
+  void keepsQuotaOfSiteIfGlobalLimitIsExceeded() throws Exception {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(5.0)
+            .maxRequestsPerSecondPerSite(0.001)
+            .rateLimitPolicy(RateLimitPolicy.DROP));
+    rateLimitingSender.sendBulkAsync(
+        asList(
+            MatomoRequests.pageView("First").siteId(2).build(),
+            MatomoRequests.pageView("Second").siteId(2).build()));
+    for (int i = 0; i < 3; i++) {
+      rateLimitingSender.sendSingleAsync(MatomoRequests.pageView("Dropped").build());
+    }
+
+    Thread.sleep(500L);
+    rateLimitingSender.sendBulkAsync(
+        asList(
+            MatomoRequests.pageView("Third").build(), MatomoRequests.pageView("Fourth").build()));
+
+    assertThat(testSender.getRequests())
+        .extracting(MatomoRequest::getActionName)
+        .containsExactly("First", "Second", "Third", "Fourth");
+    assertThat(rateLimitedRequests).hasValue(3L);
+  }
+
+  @Test
+  void handsOverRequestsToCallback() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(0.001)
+            .rateLimitPolicy(RateLimitPolicy.CALLBACK)
+            .rateLimitExceededHandler(handedOverRequests::add));
+    MatomoRequest third = MatomoRequests.pageView("Third").build();
+
+    rateLimitingSender.sendBulk(
+        asList(
+            MatomoRequests.pageView("First").build(), MatomoRequests.pageView("Second").build()));
+    rateLimitingSender.sendSingle(third);
+
+    assertThat(testSender.getRequests()).hasSize(2);
+    assertThat(handedOverRequests).containsExactly(third);
+    assertThat(rateLimitedRequests).hasValue(1L);
+  }
+
+  @Test
+  void delaysRequestsThatExceedLimit() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(20.0)
+            .rateLimitMaxDelay(Duration.ofSeconds(5L)));
+
+    CompletableFuture<Void> future =
+        rateLimitingSender.sendBulkAsync(
+            asList(
+                MatomoRequests.pageView("First").build(),
+                MatomoRequests.pageView("Second").build(),
+                MatomoRequests.pageView("Third").build()));
+
+    assertThat(testSender.getRequests()).isEmpty();
+    assertThat(future).succeedsWithin(Duration.ofSeconds(5L));
+    assertThat(testSender.getRequests()).hasSize(3);
+    assertThat(rateLimitedRequests).hasValue(0L);
+  }
+
+  @Test
+  void dropsDelayedRequestsThatWouldWaitTooLong() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(0.001)
+            .rateLimitMaxDelay(Duration.ZERO));
+
+    assertThatThrownBy(
+            () ->
+                rateLimitingSender.sendBulk(
+                    asList(
+                        MatomoRequests.pageView("First").build(),
+                        MatomoRequests.pageView("Second").build(),
+                        MatomoRequests.pageView("Third").build())))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Rate limit exceeded. Request was dropped");
+
+    assertThat(testSender.getRequests()).hasSize(2);
+    assertThat(rateLimitedRequests).hasValue(1L);
+  }
+
+  @Test
+  void delaysPermittedRequestsOfBulkWithDroppedRequests() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(10.0)
+            .rateLimitMaxDelay(Duration.ofMillis(150L)));
+
+    CompletableFuture<Void> future =
+        rateLimitingSender.sendBulkAsync(
+            asList(
+                MatomoRequests.pageView("First").build(),
+                MatomoRequests.pageView("Second").build(),
+                MatomoRequests.pageView("Third").build(),
+                MatomoRequests.pageView("Fourth").build()));
+
+    assertThat(testSender.getRequests()).isEmpty();
+    assertThat(future)
+        .failsWithin(Duration.ofSeconds(5L))
+        .withThrowableOfType(ExecutionException.class)
+        .withMessageContaining("Rate limit exceeded");
+    assertThat(testSender.getRequests()).hasSize(3);
+    assertThat(rateLimitedRequests).hasValue(1L);
+  }
+
+  @Test
+  void sleepsBeforeSendingPermittedRequestsOfBulkWithDroppedRequests() {
+    givenRateLimitingSender(
+        TrackerConfiguration.builder()
+            .maxRequestsPerSecond(10.0)
+            .rateLimitMaxDelay(Duration.ofMillis(150L)));
+    long start = System.nanoTime();
+
+    assertThatThrownBy(
+            () ->
+                rateLimitingSender.sendBulk(
+                    asList(
+                        MatomoRequests.pageView("First").build(),
+                        MatomoRequests.pageView("Second").build(),
+                        MatomoRequests.pageView("Third").build(),
+                        MatomoRequests.pageView("Fourth").build())))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Rate limit exceeded. Request was dropped");
+
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(50L).toNanos());
+    assertThat(testSender.getRequests()).hasSize(3);
+  }
+}
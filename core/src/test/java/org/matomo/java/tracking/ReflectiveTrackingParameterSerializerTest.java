@@ -0,0 +1,109 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.Country;
+import org.matomo.java.tracking.parameters.CustomVariable;
+import org.matomo.java.tracking.parameters.CustomVariables;
+import org.matomo.java.tracking.parameters.DeviceResolution;
+import org.matomo.java.tracking.parameters.RandomValue;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class ReflectiveTrackingParameterSerializerTest {
+
+  private final TrackingParameterSerializer reflectiveSerializer =
+      new ReflectiveTrackingParameterSerializer();
+
+  private final TrackingParameterSerializer generatedSerializer = new MatomoRequestSerializer();
+
+  @Test
+  void createsSameQueryAsGeneratedSerializer() {
+    MatomoRequest request =
+        MatomoRequest.request()
+            .siteId(3)
+            .actionName("Help / Feedback")
+            .actionUrl("https://www.daniel-heid.de/portfolio")
+            .visitorId(VisitorId.fromHash(3434343434343434343L))
+            .newVisitor(false)
+            .visitCustomVariables(new CustomVariables().add(new CustomVariable("key", "value"), 5))
+            .visitorVisitCount(2)
+            .visitorPreviousVisitTimestamp(Instant.parse("2022-08-09T18:34:12Z"))
+            .deviceResolution(DeviceResolution.builder().width(1024).height(768).build())
+            .currentHour(23)
+            .pluginPDF(true)
+            .characterSet(StandardCharsets.ISO_8859_1)
+            .ecommerceRevenue(12.34)
+            .bandwidthBytes(1234567890123L)
+            .searchQuery(" ")
+            .authToken("fdf6e8461ea9de33176b222519627f78")
+            .visitorCountry(Country.fromCode("de"))
+            .visitorLatitude(-12.5)
+            .randomValue(RandomValue.fromString("random-value"))
+            .build();
+
+    assertThat(serialize(generatedSerializer, request))
+        .isEqualTo(serialize(reflectiveSerializer, request))
+        .isEqualTo(
+            "rec=1&idsite=3&action_name=Help+%2F+Feedback"
+                + "&url=https%3A%2F%2Fwww.daniel-heid.de%2Fportfolio&apiv=1&_id=2fa93d2858bc4867"
+                + "&_idn=0&_cvar=%7B%225%22%3A%5B%22key%22%2C%22value%22%5D%7D&_idvc=2"
+                + "&_viewts=1660070052&res=1024x768&h=23&pdf=1&search=&revenue=12.34&cs=ISO-8859-1"
+                + "&token_auth=fdf6e8461ea9de33176b222519627f78&country=de&lat=-12.5"
+                + "&send_image=0&bw_bytes=1234567890123&rand=random-value");
+  }
+
+  @Test
+  void failsLikeGeneratedSerializerIfValueIsOutOfRange() {
+    MatomoRequest request = MatomoRequest.request().currentMinute(60).build();
+
+    assertThatThrownBy(() -> serialize(reflectiveSerializer, request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Invalid value for m. Must be less or equal than 59");
+    assertThatThrownBy(() -> serialize(generatedSerializer, request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Invalid value for m. Must be less or equal than 59");
+  }
+
+  @Test
+  void failsLikeGeneratedSerializerIfValueDoesNotMatchPattern() {
+    MatomoRequest request = MatomoRequest.request().authToken("invalid").build();
+
+    assertThatThrownBy(() -> serialize(reflectiveSerializer, request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Invalid value for token_auth. Must match regex [a-z0-9]{32}");
+    assertThatThrownBy(() -> serialize(generatedSerializer, request))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Invalid value for token_auth. Must match regex [a-z0-9]{32}");
+  }
+
+  @Test
+  void skipsConstantsLikeGeneratedSerializer() {
+    MatomoRequest constants =
+        MatomoRequest.request()
+            .siteId(3)
+            .eventCategory("Shop")
+            .randomValue(RandomValue.fromString("random-value"))
+            .build();
+    MatomoRequest request = constants.toBuilder().eventCategory("Cart").eventAction("Add").build();
+
+    assertThat(serialize(generatedSerializer, request, constants))
+        .isEqualTo(serialize(reflectiveSerializer, request, constants))
+        .isEqualTo("e_c=Cart&e_a=Add");
+  }
+
+  private static String serialize(TrackingParameterSerializer serializer, MatomoRequest request) {
+    return serialize(serializer, request, null);
+  }
+
+  private static String serialize(
+      TrackingParameterSerializer serializer, MatomoRequest request, MatomoRequest constants) {
+    QueryBuffer query = new QueryBuffer();
+    serializer.validate(request, constants);
+    serializer.appendParameters(request, constants, query);
+    return query.toString();
+  }
+}
@@ -0,0 +1,48 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RequestKindTest {
+
+  @Test
+  void classifiesRequestsOfFactoryMethods() {
+    assertThat(RequestKind.of(MatomoRequests.ping().build())).isEqualTo(RequestKind.PING);
+    assertThat(RequestKind.of(MatomoRequest.request().mediaId("video-1").build()))
+        .isEqualTo(RequestKind.MEDIA);
+    assertThat(RequestKind.of(MatomoRequests.ecommerceCartUpdate(9.99).build()))
+        .isEqualTo(RequestKind.ECOMMERCE_CART_UPDATE);
+    assertThat(
+            RequestKind.of(
+                MatomoRequests.ecommerceOrder("order-1", 9.99, null, null, null, null).build()))
+        .isEqualTo(RequestKind.ECOMMERCE_ORDER);
+    assertThat(RequestKind.of(MatomoRequests.goal(1, 9.99).build())).isEqualTo(RequestKind.GOAL);
+    assertThat(
+            RequestKind.of(
+                MatomoRequests.crash("Boom", null, null, null, null, null, null).build()))
+        .isEqualTo(RequestKind.CRASH);
+    assertThat(RequestKind.of(MatomoRequests.event("Music", "Play", null, null).build()))
+        .isEqualTo(RequestKind.EVENT);
+    assertThat(RequestKind.of(MatomoRequests.siteSearch("Grieg", null, null).build()))
+        .isEqualTo(RequestKind.SITE_SEARCH);
+    assertThat(RequestKind.of(MatomoRequests.contentImpression("Phone", null, null).build()))
+        .isEqualTo(RequestKind.CONTENT);
+    assertThat(RequestKind.of(MatomoRequests.pageView("Home").build()))
+        .isEqualTo(RequestKind.PAGE_VIEW);
+  }
+
+  @Test
+  void treatsGoalZeroAsEcommerce() {
+    MatomoRequest request = MatomoRequest.request().goalId(0).ecommerceRevenue(9.99).build();
+
+    assertThat(RequestKind.of(request)).isEqualTo(RequestKind.ECOMMERCE_CART_UPDATE);
+  }
+
+  @Test
+  void prefersPingOverMedia() {
+    MatomoRequest request = MatomoRequests.ping().mediaId("video-1").build();
+
+    assertThat(RequestKind.of(request)).isEqualTo(RequestKind.PING);
+  }
+}
@@ -0,0 +1,73 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RequestPoolTest {
+
+  private final RequestPool requestPool = new RequestPool(1);
+
+  @Test
+  void createsResetRequestIfPoolIsEmpty() {
+    MatomoRequest request = requestPool.obtain();
+
+    assertThat(requestPool.isPooled(request)).isTrue();
+    assertThat(request.getRequired()).isTrue();
+    assertThat(request.getApiVersion()).isEqualTo("1");
+    assertThat(request.getResponseAsImage()).isFalse();
+    assertThat(request.getVisitorId()).isNull();
+    assertThat(request.getRandomValue()).isNull();
+  }
+
+  @Test
+  void resetsAndReusesReleasedRequest() {
+    MatomoRequest request = requestPool.obtain();
+    request.setActionName("Home");
+    request.setTemplate(MatomoRequestTemplate.of(MatomoRequests.pageView("Template")));
+
+    assertThat(requestPool.release(request)).isTrue();
+
+    assertThat(requestPool.obtain()).isSameAs(request);
+    assertThat(request.getActionName()).isNull();
+    assertThat(request.getTemplate()).isNull();
+    assertThat(request.getRequired()).isTrue();
+  }
+
+  @Test
+  void dropsReleasedRequestIfPoolIsFull() {
+    MatomoRequest first = requestPool.obtain();
+    MatomoRequest second = requestPool.obtain();
+
+    requestPool.release(first);
+    requestPool.release(second);
+
+    assertThat(requestPool.obtain()).isSameAs(first);
+    assertThat(requestPool.obtain()).isNotSameAs(second);
+  }
+
+  @Test
+  void ignoresRequestThatIsReleasedTwice() {
+    RequestPool largePool = new RequestPool(2);
+    MatomoRequest request = largePool.obtain();
+
+    assertThat(largePool.release(request)).isTrue();
+    assertThat(largePool.release(request)).isTrue();
+
+    assertThat(largePool.obtain()).isSameAs(request);
+    assertThat(largePool.obtain()).isNotSameAs(request);
+  }
+
+  @Test
+  void doesNotReleaseRequestsOfOtherPools() {
+    MatomoRequest request = MatomoRequest.request().actionName("Home").build();
+    MatomoRequest otherRequest = new RequestPool(1).obtain();
+    otherRequest.setActionName("Home");
+
+    assertThat(requestPool.release(request)).isFalse();
+    assertThat(requestPool.release(otherRequest)).isFalse();
+    assertThat(request.getActionName()).isEqualTo("Home");
+    assertThat(otherRequest.getActionName()).isEqualTo("Home");
+    assertThat(requestPool.isPooled(otherRequest)).isFalse();
+  }
+}
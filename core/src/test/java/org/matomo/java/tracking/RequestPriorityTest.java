@@ -0,0 +1,30 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RequestPriorityTest {
+
+  @Test
+  void derivesPriorityFromRequestKind() {
+    assertThat(
+            RequestPriority.of(
+                MatomoRequests.ecommerceOrder("order-1", 9.99, null, null, null, null).build()))
+        .isEqualTo(RequestPriority.HIGH);
+    assertThat(RequestPriority.of(MatomoRequests.goal(1, null).build()))
+        .isEqualTo(RequestPriority.HIGH);
+    assertThat(RequestPriority.of(MatomoRequests.pageView("Home").build()))
+        .isEqualTo(RequestPriority.NORMAL);
+    assertThat(RequestPriority.of(MatomoRequests.ping().build())).isEqualTo(RequestPriority.LOW);
+    assertThat(RequestPriority.of(MatomoRequests.contentImpression("Phone", null, null).build()))
+        .isEqualTo(RequestPriority.LOW);
+  }
+
+  @Test
+  void prefersPriorityOfRequest() {
+    MatomoRequest request = MatomoRequests.ping().priority(RequestPriority.HIGH).build();
+
+    assertThat(RequestPriority.of(request)).isEqualTo(RequestPriority.HIGH);
+  }
+}
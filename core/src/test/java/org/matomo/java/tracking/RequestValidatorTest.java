@@ -1,8 +1,11 @@
 package org.matomo.java.tracking;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.net.URI;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,9 @@ class RequestValidatorTest {
 
   private final MatomoRequest request = new MatomoRequest();
 
+  private final TrackerConfiguration.TrackerConfigurationBuilder trackerConfigurationBuilder =
+      TrackerConfiguration.builder().apiEndpoint(URI.create("http://localhost/matomo.php"));
+
   @Test
   void testSearchResultsCount() {
 
@@ -116,4 +122,80 @@ class RequestValidatorTest {
         .isInstanceOf(IllegalArgumentException.class)
         .hasMessage("Auth token must be exactly 32 characters long");
   }
+
+  @Test
+  void validatesTrackingParameters() {
+    request.setCurrentMinute(60);
+
+    assertThatThrownBy(() -> RequestValidator.validate(request, null))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Invalid tracking parameter")
+        .hasRootCauseMessage("Invalid value for m. Must be less or equal than 59");
+  }
+
+  @Test
+  void validatesRequestsWithTheirOwnAuthTokens() {
+    MatomoRequest requestWithAuthToken = new MatomoRequest();
+    requestWithAuthToken.setAuthToken("12345678901234567890123456789012");
+    requestWithAuthToken.setVisitorIp("127.0.0.1");
+    request.setVisitorIp("127.0.0.1");
+
+    assertThatCode(
+            () ->
+                RequestValidator.validate(
+                    trackerConfigurationBuilder.build(), singletonList(requestWithAuthToken)))
+        .doesNotThrowAnyException();
+    assertThatThrownBy(
+            () ->
+                RequestValidator.validate(
+                    trackerConfigurationBuilder.build(), asList(requestWithAuthToken, request)))
+        .isInstanceOf(MatomoException.class)
+        .hasMessageStartingWith("Auth token must be present");
+  }
+
+  @Test
+  void doesNotValidateIfValidationIsOff() {
+    request.setSearchResultsCount(100L);
+
+    assertThatCode(
+            () ->
+                RequestValidator.validate(
+                    trackerConfigurationBuilder.validationMode(ValidationMode.OFF).build(),
+                    singletonList(request)))
+        .doesNotThrowAnyException();
+  }
+
+  @Test
+  void validatesAllRequestsIfValidationIsStrict() {
+    MatomoRequest invalidRequest = new MatomoRequest();
+    invalidRequest.setRequestTimestamp(Instant.now().minus(5, ChronoUnit.HOURS));
+
+    assertThatThrownBy(
+            () ->
+                RequestValidator.validate(
+                    trackerConfigurationBuilder.build(), asList(request, invalidRequest)))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Auth token must be present if request timestamp is more than four hours ago");
+  }
+
+  @Test
+  void validatesSampledRequests() {
+    request.setSearchResultsCount(100L);
+    TrackerConfiguration sampleNone =
+        trackerConfigurationBuilder
+            .validationMode(ValidationMode.SAMPLED)
+            .validationSampleRate(0.0)
+            .build();
+    TrackerConfiguration sampleAll =
+        trackerConfigurationBuilder
+            .validationMode(ValidationMode.SAMPLED)
+            .validationSampleRate(1.0)
+            .build();
+
+    assertThatCode(() -> RequestValidator.validate(sampleNone, request, null))
+        .doesNotThrowAnyException();
+    assertThatThrownBy(() -> RequestValidator.validate(sampleAll, request, null))
+        .isInstanceOf(MatomoException.class)
+        .hasMessage("Search query must be set if search results count is set");
+  }
 }
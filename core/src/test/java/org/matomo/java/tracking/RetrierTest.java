@@ -0,0 +1,162 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RetrierTest {
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  private Retrier retrier;
+
+  @AfterEach
+  void closeRetrier() {
+    if (retrier != null) {
+      retrier.close();
+    }
+  }
+
+  private void givenRetrier(int maxRetries) {
+    retrier =
+        new Retrier(
+            TrackerConfiguration.builder()
+                .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+                .maxRetries(maxRetries)
+                .retryInitialBackoff(Duration.ofMillis(1L))
+                .retryMaxBackoff(Duration.ofMillis(100L))
+                .build(),
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+  }
+
+  @Test
+  void retriesAsyncActionUntilItSucceeds() {
+    givenRetrier(3);
+
+    CompletableFuture<String> future =
+        retrier.retryAsync(
+            () -> {
+              if (attempts.incrementAndGet() < 3) {
+                return failedFuture(new CompletionException(new IOException("Connection reset")));
+              }
+              return CompletableFuture.completedFuture("sent");
+            });
+
+    assertThat(future).succeedsWithin(Duration.ofSeconds(5L)).isEqualTo("sent");
+    assertThat(attempts).hasValue(3);
+  }
+
+  @Test
+  void failsAsyncActionAfterMaxRetries() {
+    givenRetrier(2);
+
+    CompletableFuture<String> future =
+        retrier.retryAsync(
+            () -> {
+              attempts.incrementAndGet();
+              return failedFuture(new HttpStatusException(503, null));
+            });
+
+    assertThat(future)
+        .failsWithin(Duration.ofSeconds(5L))
+        .withThrowableThat()
+        .havingCause()
+        .isInstanceOf(HttpStatusException.class);
+    assertThat(attempts).hasValue(3);
+  }
+
+  @Test
+  void doesNotRetryClientErrors() {
+    givenRetrier(2);
+
+    assertThatThrownBy(
+            () ->
+                retrier.retry(
+                    () -> {
+                      attempts.incrementAndGet();
+                      throw new HttpStatusException(400, null);
+                    }))
+        .isInstanceOf(HttpStatusException.class);
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  void retriesSynchronousActionOnIoFailure() {
+    givenRetrier(1);
+
+    retrier.retry(
+        () -> {
+          if (attempts.incrementAndGet() == 1) {
+            throw new MatomoException("Could not send request", new IOException("Timeout"));
+          }
+        });
+
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  void classifiesFailures() {
+    assertThat(Retrier.isRetryable(new HttpStatusException(500, null))).isTrue();
+    assertThat(Retrier.isRetryable(new HttpStatusException(429, null))).isTrue();
+    assertThat(Retrier.isRetryable(new HttpStatusException(404, null))).isFalse();
+    assertThat(Retrier.isRetryable(new CompletionException(new IOException()))).isTrue();
+    assertThat(Retrier.isRetryable(new MatomoException("Invalid request"))).isFalse();
+    assertThat(Retrier.isRetryable(new IllegalArgumentException())).isFalse();
+  }
+
+  @Test
+  void computesCappedBackoffWithJitter() {
+    givenRetrier(10);
+
+    for (int retries = 0; retries < 40; retries++) {
+      long expectedBackoff = Math.min(100L, 1L << Math.min(retries, 30));
+      assertThat(retrier.computeDelay(retries, new IOException()))
+          .isBetween(expectedBackoff - expectedBackoff / 2L, expectedBackoff);
+    }
+  }
+
+  @Test
+  void usesRetryAfterUpToMaxBackoff() {
+    givenRetrier(1);
+
+    assertThat(retrier.computeDelay(0, new HttpStatusException(429, Duration.ofMillis(50L))))
+        .isEqualTo(50L);
+    assertThat(retrier.computeDelay(0, new HttpStatusException(429, Duration.ofMinutes(1L))))
+        .isEqualTo(100L);
+  }
+
+  @Test
+  void parsesRetryAfterHeader() {
+    assertThat(Retrier.parseRetryAfter("120")).isEqualTo(Duration.ofSeconds(120L));
+    assertThat(Retrier.parseRetryAfter(null)).isNull();
+    assertThat(Retrier.parseRetryAfter("soon")).isNull();
+    assertThat(
+            Retrier.parseRetryAfter(
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1L))))
+        .isEqualTo(Duration.ZERO);
+    assertThat(
+            Retrier.parseRetryAfter(
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(5L))))
+        .isBetween(Duration.ofMinutes(4L), Duration.ofMinutes(5L));
+  }
+
+  private static CompletableFuture<String> failedFuture(Throwable throwable) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+}
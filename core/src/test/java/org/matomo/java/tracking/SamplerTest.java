@@ -0,0 +1,82 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+import org.matomo.java.tracking.parameters.VisitorId;
+
+class SamplerTest {
+
+  private Sampler sampler;
+
+  private void givenSampler(TrackerConfiguration.TrackerConfigurationBuilder builder) {
+    sampler =
+        new Sampler(builder.apiEndpoint(URI.create("http://localhost:8080/matomo.php")).build());
+  }
+
+  @Test
+  void sendsEverythingIfSamplingIsNotConfigured() {
+    givenSampler(TrackerConfiguration.builder());
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(sampler.isSampled(MatomoRequests.ping().build())).isTrue();
+    }
+    assertThat(sampler.getSampledOutRequests()).isZero();
+  }
+
+  @Test
+  void samplesFractionOfVisitors() {
+    givenSampler(
+        TrackerConfiguration.builder().samplingRates(singletonMap(RequestKind.PING, 0.25)));
+
+    int sampled = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (sampler.isSampled(MatomoRequests.ping().visitorId(VisitorId.fromHash(i)).build())) {
+        sampled++;
+      }
+    }
+
+    assertThat(sampled / 10000.0).isCloseTo(0.25, within(0.02));
+    assertThat(sampler.getSampledOutRequests(RequestKind.PING)).isEqualTo(10000L - sampled);
+    assertThat(sampler.getSampledOutRequests()).isEqualTo(10000L - sampled);
+  }
+
+  @Test
+  void decidesConsistentlyPerVisitor() {
+    givenSampler(
+        TrackerConfiguration.builder().samplingRates(singletonMap(RequestKind.PAGE_VIEW, 0.5)));
+
+    for (int i = 0; i < 100; i++) {
+      VisitorId visitorId = VisitorId.fromHash(i);
+      boolean first = sampler.isSampled(MatomoRequests.pageView("A").visitorId(visitorId).build());
+      boolean second = sampler.isSampled(MatomoRequests.pageView("B").visitorId(visitorId).build());
+      assertThat(second).isEqualTo(first);
+    }
+  }
+
+  @Test
+  void appliesSamplingRateOfEventCategory() {
+    givenSampler(
+        TrackerConfiguration.builder()
+            .samplingRates(singletonMap(RequestKind.EVENT, 1.0))
+            .eventCategorySamplingRates(singletonMap("Scroll", 0.0)));
+
+    assertThat(sampler.isSampled(MatomoRequests.event("Scroll", "Down", null, null).build()))
+        .isFalse();
+    assertThat(sampler.isSampled(MatomoRequests.event("Video", "Play", null, null).build()))
+        .isTrue();
+    assertThat(sampler.getSampledOutRequests(RequestKind.EVENT)).isOne();
+  }
+
+  @Test
+  void sendsRequestsWithoutVisitorId() {
+    givenSampler(
+        TrackerConfiguration.builder().samplingRates(singletonMap(RequestKind.PAGE_VIEW, 0.0)));
+
+    assertThat(sampler.isSampled(MatomoRequests.pageView("Home").visitorId(null).build())).isTrue();
+    assertThat(sampler.isSampled(MatomoRequests.pageView("Home").build())).isFalse();
+  }
+}
@@ -0,0 +1,85 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SparseParametersTest {
+
+  private final SparseParameters parameters = new SparseParameters(130);
+
+  @Test
+  void packsValuesInOrderOfTheirOrdinals() {
+    parameters.set(70, "c");
+    parameters.set(3, "a");
+    parameters.set(129, "d");
+    parameters.set(10, "b");
+
+    assertThat(parameters.size()).isEqualTo(4);
+    assertThat(parameters.nextOrdinal(0)).isEqualTo(3);
+    assertThat(parameters.nextOrdinal(4)).isEqualTo(10);
+    assertThat(parameters.nextOrdinal(11)).isEqualTo(70);
+    assertThat(parameters.nextOrdinal(71)).isEqualTo(129);
+    assertThat(parameters.nextOrdinal(130)).isEqualTo(-1);
+    assertThat(parameters.valueAt(0)).isEqualTo("a");
+    assertThat(parameters.valueAt(1)).isEqualTo("b");
+    assertThat(parameters.valueAt(2)).isEqualTo("c");
+    assertThat(parameters.valueAt(3)).isEqualTo("d");
+    assertThat(parameters.get(70)).isEqualTo("c");
+    assertThat(parameters.get(71)).isNull();
+  }
+
+  @Test
+  void replacesAndRemovesValues() {
+    parameters.set(1, "a");
+    parameters.set(2, "b");
+    parameters.set(3, "c");
+
+    parameters.set(2, "x");
+    parameters.set(1, null);
+    parameters.set(5, null);
+
+    assertThat(parameters.size()).isEqualTo(2);
+    assertThat(parameters.get(1)).isNull();
+    assertThat(parameters.get(2)).isEqualTo("x");
+    assertThat(parameters.valueAt(1)).isEqualTo("c");
+    assertThat(parameters.nextOrdinal(0)).isEqualTo(2);
+  }
+
+  @Test
+  void growsBeyondInitialCapacity() {
+    for (int ordinal = 129; ordinal >= 0; ordinal--) {
+      parameters.set(ordinal, ordinal);
+    }
+
+    assertThat(parameters.size()).isEqualTo(130);
+    for (int index = 0; index < 130; index++) {
+      assertThat(parameters.valueAt(index)).isEqualTo(index);
+    }
+  }
+
+  @Test
+  void copiesParametersIndependently() {
+    parameters.set(1, "a");
+
+    SparseParameters copy = new SparseParameters(parameters);
+    copy.set(2, "b");
+    parameters.set(1, null);
+
+    assertThat(copy.get(1)).isEqualTo("a");
+    assertThat(copy.get(2)).isEqualTo("b");
+    assertThat(parameters.size()).isZero();
+  }
+
+  @Test
+  void clearsAllValues() {
+    parameters.set(1, "a");
+    parameters.set(100, "b");
+
+    parameters.clear();
+
+    assertThat(parameters.size()).isZero();
+    assertThat(parameters.nextOrdinal(0)).isEqualTo(-1);
+    assertThat(parameters.get(100)).isNull();
+  }
+}
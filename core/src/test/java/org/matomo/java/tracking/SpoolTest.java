@@ -0,0 +1,224 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.matomo.java.tracking.Spool.SpoolRecord;
+
+class SpoolTest {
+
+  @TempDir private Path directory;
+
+  private final AtomicLong droppedRequests = new AtomicLong();
+
+  @Test
+  void readsPendingRecords() {
+    try (Spool spool = spool(1024, 0L, OverflowPolicy.DROP_NEWEST)) {
+      SpoolRecord first =
+          append(spool, "idsite=1&rec=1", "fdf6e8461ea9de33176b222519627f78", RequestPriority.HIGH);
+      SpoolRecord second = append(spool, "idsite=2&rec=1", null, RequestPriority.NORMAL);
+      spool.release(singleton(first));
+      spool.release(singleton(second));
+
+      List<SpoolRecord> records = spool.takePendingRecords(10);
+
+      assertThat(records).hasSize(2);
+      assertThat(queryOf(records.get(0))).isEqualTo("idsite=1&rec=1");
+      assertThat(records.get(0).getAuthToken()).isEqualTo("fdf6e8461ea9de33176b222519627f78");
+      assertThat(queryOf(records.get(1))).isEqualTo("idsite=2&rec=1");
+      assertThat(records.get(1).getAuthToken()).isNull();
+      assertThat(records)
+          .extracting(SpoolRecord::getPriority)
+          .containsExactly(RequestPriority.HIGH, RequestPriority.NORMAL);
+    }
+  }
+
+  @Test
+  void skipsAcknowledgedAndInFlightRecords() {
+    try (Spool spool = spool(1024, 0L, OverflowPolicy.DROP_NEWEST)) {
+      SpoolRecord first = append(spool, "idsite=1&rec=1", null, RequestPriority.NORMAL);
+      append(spool, "idsite=2&rec=1", null, RequestPriority.NORMAL);
+      SpoolRecord third = append(spool, "idsite=3&rec=1", null, RequestPriority.NORMAL);
+
+      spool.acknowledge(singleton(first));
+      spool.release(singleton(third));
+      List<SpoolRecord> records = spool.takePendingRecords(10);
+
+      assertThat(records).extracting(SpoolTest::queryOf).containsExactly("idsite=3&rec=1");
+      assertThat(spool.takePendingRecords(10)).isEmpty();
+      assertThat(spool.countPendingRecords()).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  void limitsNumberOfTakenRecords() {
+    try (Spool spool = spool(1024, 0L, OverflowPolicy.DROP_NEWEST)) {
+      for (int i = 0; i < 5; i++) {
+        spool.release(singleton(append(spool, "idsite=" + i, null, RequestPriority.NORMAL)));
+      }
+
+      assertThat(spool.takePendingRecords(3)).hasSize(3);
+      assertThat(spool.takePendingRecords(3)).hasSize(2);
+    }
+  }
+
+  @Test
+  void recoversRecordsInFlightAfterRestart() {
+    try (Spool spool = spool(1024, 0L, OverflowPolicy.DROP_NEWEST)) {
+      SpoolRecord first = append(spool, "idsite=1&rec=1", null, RequestPriority.NORMAL);
+      append(spool, "idsite=2&rec=1", null, RequestPriority.NORMAL);
+      spool.acknowledge(singleton(first));
+    }
+
+    try (Spool spool = spool(1024, 0L, OverflowPolicy.DROP_NEWEST)) {
+      assertThat(spool.countPendingRecords()).isEqualTo(1L);
+      assertThat(spool.takePendingRecords(10))
+          .extracting(SpoolTest::queryOf)
+          .containsExactly("idsite=2&rec=1");
+    }
+  }
+
+  @Test
+  void deletesFullSegmentsAfterAllRecordsAreAcknowledged() throws Exception {
+    try (Spool spool = spool(64, 0L, OverflowPolicy.DROP_NEWEST)) {
+      SpoolRecord first =
+          append(spool, "idsite=1&rec=1&action_name=First", null, RequestPriority.NORMAL);
+      SpoolRecord second =
+          append(spool, "idsite=1&rec=1&action_name=Second", null, RequestPriority.NORMAL);
+      assertThat(countSegmentFiles()).isEqualTo(2L);
+
+      spool.acknowledge(singleton(first));
+
+      assertThat(countSegmentFiles()).isEqualTo(1L);
+      spool.acknowledge(singleton(second));
+    }
+    assertThat(countSegmentFiles()).isZero();
+  }
+
+  @Test
+  void storesRecordsLargerThanSegmentSize() {
+    try (Spool spool = spool(16, 0L, OverflowPolicy.DROP_NEWEST)) {
+      SpoolRecord record =
+          append(spool, "idsite=1&rec=1&action_name=Large", null, RequestPriority.NORMAL);
+
+      assertThat(queryOf(record)).isEqualTo("idsite=1&rec=1&action_name=Large");
+    }
+  }
+
+  @Test
+  void dropsNewRecordsIfSpoolIsFull() throws Exception {
+    try (Spool spool = spool(64, 128L, OverflowPolicy.DROP_NEWEST)) {
+      append(spool, "idsite=1&rec=1&action_name=First", null, RequestPriority.NORMAL);
+      append(spool, "idsite=1&rec=1&action_name=Second", null, RequestPriority.NORMAL);
+
+      SpoolRecord third =
+          append(spool, "idsite=1&rec=1&action_name=Third", null, RequestPriority.NORMAL);
+
+      assertThat(third).isNull();
+      assertThat(droppedRequests).hasValue(1L);
+      assertThat(countSegmentFiles()).isEqualTo(2L);
+      assertThat(spool.countPendingRecords()).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  void dropsOldestSegmentIfSpoolIsFull() throws Exception {
+    try (Spool spool = spool(64, 128L, OverflowPolicy.DROP_OLDEST)) {
+      SpoolRecord first =
+          append(spool, "idsite=1&rec=1&action_name=First", null, RequestPriority.NORMAL);
+      append(spool, "idsite=1&rec=1&action_name=Second", null, RequestPriority.NORMAL);
+      spool.release(singleton(first));
+
+      SpoolRecord third =
+          append(spool, "idsite=1&rec=1&action_name=Third", null, RequestPriority.NORMAL);
+
+      assertThat(third).isNotNull();
+      assertThat(droppedRequests).hasValue(1L);
+      assertThat(countSegmentFiles()).isEqualTo(2L);
+      assertThat(spool.countPendingRecords()).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  void countsReleasedRecordsOfDroppedSegmentsAsDropped() {
+    try (Spool spool = spool(64, 128L, OverflowPolicy.DROP_OLDEST)) {
+      SpoolRecord first =
+          append(spool, "idsite=1&rec=1&action_name=First", null, RequestPriority.NORMAL);
+      append(spool, "idsite=1&rec=1&action_name=Second", null, RequestPriority.NORMAL);
+      append(spool, "idsite=1&rec=1&action_name=Third", null, RequestPriority.NORMAL);
+
+      spool.release(singleton(first));
+
+      assertThat(droppedRequests).hasValue(1L);
+    }
+  }
+
+  @Test
+  void blocksUntilSpaceIsAvailable() {
+    try (Spool spool = spool(64, 128L, OverflowPolicy.BLOCK)) {
+      SpoolRecord first =
+          append(spool, "idsite=1&rec=1&action_name=First", null, RequestPriority.NORMAL);
+      append(spool, "idsite=1&rec=1&action_name=Second", null, RequestPriority.NORMAL);
+      new Thread(
+              () -> {
+                try {
+                  Thread.sleep(100L);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                spool.acknowledge(singleton(first));
+              })
+          .start();
+
+      SpoolRecord third =
+          append(spool, "idsite=1&rec=1&action_name=Third", null, RequestPriority.NORMAL);
+
+      assertThat(third).isNotNull();
+      assertThat(droppedRequests).hasValue(0L);
+    }
+  }
+
+  private Spool spool(int segmentSize, long maxSpoolBytes, OverflowPolicy overflowPolicy) {
+    return new Spool(
+        directory,
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .spoolSegmentSize(segmentSize)
+            .maxSpoolBytes(maxSpoolBytes)
+            .overflowPolicy(overflowPolicy)
+            .backlogBlockTimeout(Duration.ofSeconds(5L))
+            .build(),
+        droppedRequests);
+  }
+
+  private static SpoolRecord append(
+      Spool spool, String query, String authToken, RequestPriority priority) {
+    QueryBuffer buffer = QueryBuffer.threadLocal();
+    buffer.append(query);
+    return spool.append(buffer, 0, authToken, priority);
+  }
+
+  private static String queryOf(SpoolRecord record) {
+    ByteBuffer query = record.getQuery().duplicate();
+    byte[] bytes = new byte[query.remaining()];
+    query.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private long countSegmentFiles() throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+}
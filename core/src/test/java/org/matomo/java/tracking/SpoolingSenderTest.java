@@ -0,0 +1,223 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpoolingSenderTest {
+
+  @TempDir private Path directory;
+
+  private final TrackerConfiguration trackerConfiguration =
+      TrackerConfiguration.builder()
+          .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+          .defaultSiteId(1)
+          .spoolReplayInterval(Duration.ofMillis(10L))
+          .spoolSegmentSize(1024)
+          .build();
+
+  private final FailingSender failingSender = new FailingSender(trackerConfiguration);
+
+  private Spool spool;
+
+  private SpoolingSender spoolingSender;
+
+  @AfterEach
+  void closeSender() throws Exception {
+    if (spoolingSender != null) {
+      spoolingSender.close();
+    }
+  }
+
+  private void givenSpoolingSender() {
+    spool = new Spool(directory, trackerConfiguration, new AtomicLong());
+    spoolingSender =
+        new SpoolingSender(
+            failingSender,
+            trackerConfiguration,
+            new QueryCreator(trackerConfiguration),
+            spool,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+  }
+
+  @Test
+  void acknowledgesSentRequests() {
+    givenSpoolingSender();
+
+    CompletableFuture<MatomoRequest> future =
+        spoolingSender.sendSingleAsync(MatomoRequests.pageView("Page").build());
+
+    assertThat(future).isCompleted();
+    assertThat(spool.countPendingRecords()).isZero();
+  }
+
+  @Test
+  void passesSpooledQueriesToDelegate() {
+    givenSpoolingSender();
+
+    CompletableFuture<Void> future =
+        spoolingSender.sendBulkAsync(
+            Arrays.asList(
+                MatomoRequests.pageView("First").build(),
+                MatomoRequests.pageView("Second").build()));
+
+    assertThat(future).isCompleted();
+    assertThat(failingSender.encodedQueries).hasValue(2);
+    assertThat(failingSender.getRequests()).isEmpty();
+    assertThat(failingSender.getQueries())
+        .satisfiesExactly(
+            query -> assertThat(query).contains("action_name=First"),
+            query -> assertThat(query).contains("action_name=Second"));
+    assertThat(spool.countPendingRecords()).isZero();
+  }
+
+  @Test
+  void passesRequestsWithHeadersToDelegate() {
+    givenSpoolingSender();
+
+    CompletableFuture<MatomoRequest> future =
+        spoolingSender.sendSingleAsync(
+            MatomoRequests.pageView("Page").headerUserAgent("Mozilla/5.0").build());
+
+    assertThat(future).isCompleted();
+    assertThat(failingSender.encodedQueries).hasValue(0);
+    assertThat(failingSender.getRequests()).hasSize(1);
+    assertThat(spool.countPendingRecords()).isZero();
+  }
+
+  @Test
+  void failsIfSpoolIsFull() {
+    failingSender.failing = true;
+    TrackerConfiguration limitedConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+            .defaultSiteId(1)
+            .spoolSegmentSize(64)
+            .maxSpoolBytes(64L)
+            .build();
+    AtomicLong droppedRequests = new AtomicLong();
+    spool = new Spool(directory, limitedConfiguration, droppedRequests);
+    spoolingSender =
+        new SpoolingSender(
+            failingSender,
+            limitedConfiguration,
+            new QueryCreator(limitedConfiguration),
+            spool,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+    spoolingSender.sendSingleAsync(MatomoRequests.pageView("Page").build());
+
+    CompletableFuture<MatomoRequest> future =
+        spoolingSender.sendSingleAsync(MatomoRequests.pageView("Page").build());
+
+    assertThat(future)
+        .failsWithin(Duration.ofSeconds(1L))
+        .withThrowableOfType(ExecutionException.class)
+        .withMessageContaining("Spool is full");
+    assertThat(droppedRequests).hasValue(1L);
+  }
+
+  @Test
+  void replaysFailedRequests() {
+    failingSender.failing = true;
+    givenSpoolingSender();
+
+    CompletableFuture<Void> future =
+        spoolingSender.sendBulkAsync(singletonList(MatomoRequests.pageView("Page").build()));
+
+    assertThat(future).isCompletedExceptionally();
+    failingSender.failing = false;
+    assertThat(failingSender.replayed).succeedsWithin(Duration.ofSeconds(5L));
+    assertThat(failingSender.getQueries()).hasSize(1);
+    assertThat(failingSender.getQueries().iterator().next()).contains("action_name=Page");
+  }
+
+  @Test
+  void replaysRequestsSpooledBeforeRestart() throws Exception {
+    try (Spool previousSpool = new Spool(directory, trackerConfiguration, new AtomicLong())) {
+      QueryBuffer query = QueryBuffer.threadLocal();
+      query.append("idsite=1&rec=1&action_name=Previous");
+      previousSpool.append(query, 0, null, RequestPriority.HIGH);
+    }
+
+    givenSpoolingSender();
+
+    assertThat(failingSender.replayed).succeedsWithin(Duration.ofSeconds(5L));
+    assertThat(failingSender.getQueries()).containsExactly("idsite=1&rec=1&action_name=Previous");
+    assertThat(failingSender.replayedPriority).isEqualTo(RequestPriority.HIGH);
+    spoolingSender.close();
+    spoolingSender = null;
+    assertThat(directory).isEmptyDirectory();
+  }
+
+  private static class FailingSender extends TestSender {
+
+    private final CompletableFuture<Void> replayed = new CompletableFuture<>();
+
+    private volatile boolean failing;
+
+    private volatile RequestPriority replayedPriority;
+
+    private final AtomicInteger encodedQueries = new AtomicInteger();
+
+    private FailingSender(TrackerConfiguration trackerConfiguration) {
+      super(trackerConfiguration, new QueryCreator(trackerConfiguration));
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Void> sendBulkAsync(
+        @NonNull Collection<? extends MatomoRequest> requests) {
+      if (failing) {
+        return failedFuture();
+      }
+      return super.sendBulkAsync(requests);
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Void> sendEncodedQueriesAsync(
+        @NonNull Collection<ByteBuffer> queries,
+        @Nullable String authToken,
+        @NonNull RequestPriority priority) {
+      encodedQueries.addAndGet(queries.size());
+      return super.sendEncodedQueriesAsync(queries, authToken, priority);
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Void> sendQueriesAsync(
+        @NonNull Collection<String> queries,
+        @Nullable String authToken,
+        @NonNull RequestPriority priority) {
+      if (failing) {
+        return failedFuture();
+      }
+      CompletableFuture<Void> future = super.sendQueriesAsync(queries, authToken, priority);
+      replayedPriority = priority;
+      replayed.complete(null);
+      return future;
+    }
+
+    private static CompletableFuture<Void> failedFuture() {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(new MatomoException("Could not send request"));
+      return future;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.matomo.java.tracking;
 import static java.util.Collections.singleton;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
@@ -24,6 +25,8 @@ class TestSender implements Sender {
 
   private final Collection<String> queries = new ArrayList<>();
 
+  private final Collection<Integer> bulkRequestSizes = new ArrayList<>();
+
   private final TrackerConfiguration trackerConfiguration;
 
   private final QueryCreator queryCreator;
@@ -51,12 +54,24 @@ class TestSender implements Sender {
   @Override
   public CompletableFuture<Void> sendBulkAsync(
       @NonNull Collection<? extends MatomoRequest> requests) {
+    bulkRequestSizes.add(requests.size());
     for (MatomoRequest request : requests) {
       createQueryAndAddRequest(request);
     }
     return CompletableFuture.completedFuture(null);
   }
 
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    bulkRequestSizes.add(queries.size());
+    this.queries.addAll(queries);
+    return CompletableFuture.completedFuture(null);
+  }
+
   private void createQueryAndAddRequest(@lombok.NonNull MatomoRequest request) {
     String authToken = AuthToken.determineAuthToken(singleton(request), trackerConfiguration);
     queries.add(queryCreator.createQuery(request, authToken));
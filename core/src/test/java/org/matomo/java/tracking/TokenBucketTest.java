@@ -0,0 +1,60 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  @Test
+  void permitsBurstAtOnce() {
+    TokenBucket tokenBucket = new TokenBucket(10.0, 3, 0L);
+
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    assertThat(tokenBucket.reserve(0L, 0L)).isEqualTo(-1L);
+  }
+
+  @Test
+  void refillsWithConfiguredRate() {
+    TokenBucket tokenBucket = new TokenBucket(10.0, 1, 0L);
+
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    assertThat(tokenBucket.reserve(SECOND / 20L, 0L)).isEqualTo(-1L);
+    assertThat(tokenBucket.reserve(SECOND / 10L, 0L)).isZero();
+  }
+
+  @Test
+  void returnsTimeToWaitForNextPermit() {
+    TokenBucket tokenBucket = new TokenBucket(10.0, 1, 0L);
+
+    assertThat(tokenBucket.reserve(0L, SECOND)).isZero();
+    assertThat(tokenBucket.reserve(0L, SECOND)).isEqualTo(SECOND / 10L);
+    assertThat(tokenBucket.reserve(0L, SECOND)).isEqualTo(2L * SECOND / 10L);
+    assertThat(tokenBucket.reserve(0L, SECOND / 10L)).isEqualTo(-1L);
+  }
+
+  @Test
+  void doesNotAccumulateMorePermitsThanBurst() {
+    TokenBucket tokenBucket = new TokenBucket(10.0, 2, 0L);
+
+    assertThat(tokenBucket.reserve(10L * SECOND, 0L)).isZero();
+    assertThat(tokenBucket.reserve(10L * SECOND, 0L)).isZero();
+    assertThat(tokenBucket.reserve(10L * SECOND, 0L)).isEqualTo(-1L);
+  }
+
+  @Test
+  void givesBackCancelledPermit() {
+    TokenBucket tokenBucket = new TokenBucket(10.0, 1, 0L);
+
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    tokenBucket.cancel();
+
+    assertThat(tokenBucket.reserve(0L, 0L)).isZero();
+    assertThat(tokenBucket.reserve(0L, 0L)).isEqualTo(-1L);
+  }
+}
@@ -3,6 +3,8 @@ package org.matomo.java.tracking;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
 import org.junit.jupiter.api.Test;
 
 class TrackerConfigurationTest {
@@ -403,6 +405,400 @@ class TrackerConfigurationTest {
     whenValidates();
   }
 
+  @Test
+  void validateFailsIfBatchSizeIsLessThanOne() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .batchingEnabled(true)
+        .batchSize(0);
+
+    thenFailsOnValidation("Batch size must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfBatchLingerIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .batchingEnabled(true)
+        .batchLinger(Duration.ofMillis(-1L));
+
+    thenFailsOnValidation("Batch linger must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfMaxBacklogRequestsIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxBacklogRequests(-1);
+
+    thenFailsOnValidation("Max backlog requests must not be negative");
+  }
+
+  @Test
+  void validateFailsIfMaxBacklogBytesIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxBacklogBytes(-1L);
+
+    thenFailsOnValidation("Max backlog bytes must not be negative");
+  }
+
+  @Test
+  void validateFailsIfOverflowPolicyIsNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .overflowPolicy(null);
+
+    thenFailsOnValidation("Overflow policy must not be null");
+  }
+
+  @Test
+  void validateFailsIfBacklogBlockTimeoutIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .backlogBlockTimeout(Duration.ofSeconds(-1L));
+
+    thenFailsOnValidation("Backlog block timeout must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfMinBatchSizeIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .minBatchSize(0);
+
+    thenFailsOnValidation("Min batch size must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfMaxBatchSizeIsLessThanMinBatchSize() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .minBatchSize(10)
+        .maxBatchSize(5);
+
+    thenFailsOnValidation("Max batch size must not be less than min batch size");
+  }
+
+  @Test
+  void validateFailsIfTargetBatchLatencyIsNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .targetBatchLatency(null);
+
+    thenFailsOnValidation("Target batch latency must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfMaxBulkBytesIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxBulkBytes(-1L);
+
+    thenFailsOnValidation("Max bulk bytes must not be negative");
+  }
+
+  @Test
+  void validateFailsIfMaxBulkQueriesIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxBulkQueries(-1);
+
+    thenFailsOnValidation("Max bulk queries must not be negative");
+  }
+
+  @Test
+  void validateFailsIfValidationModeIsNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .validationMode(null);
+
+    thenFailsOnValidation("Validation mode must not be null");
+  }
+
+  @Test
+  void validateFailsIfValidationSampleRateIsGreaterThanOne() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .validationSampleRate(1.5);
+
+    thenFailsOnValidation("Validation sample rate must be between 0 and 1");
+  }
+
+  @Test
+  void validateFailsIfEncodedValueCacheSizeIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .encodedValueCacheSize(-1);
+
+    thenFailsOnValidation("Encoded value cache size must not be negative");
+  }
+
+  @Test
+  void validateFailsIfEncodedValueCacheMaxValueLengthIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .encodedValueCacheMaxValueLength(0);
+
+    thenFailsOnValidation("Encoded value cache max value length must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfOffHeapQueueCapacityIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .offHeapQueueCapacity(-1);
+
+    thenFailsOnValidation("Off-heap queue capacity must not be negative");
+  }
+
+  @Test
+  void validateFailsIfRequestPoolSizeIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .requestPoolSize(-1);
+
+    thenFailsOnValidation("Request pool size must not be negative");
+  }
+
+  @Test
+  void validateFailsIfBulkCompressionThresholdIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .bulkCompressionThreshold(-1L);
+
+    thenFailsOnValidation("Bulk compression threshold must not be negative");
+  }
+
+  @Test
+  void validateFailsIfAdditionalApiEndpointsContainNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .additionalApiEndpoints(Collections.singletonList(null));
+
+    thenFailsOnValidation("Additional API endpoints must not contain null");
+  }
+
+  @Test
+  void validateFailsIfLoadBalancingStrategyIsNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .loadBalancingStrategy(null);
+
+    thenFailsOnValidation("Load balancing strategy must not be null");
+  }
+
+  @Test
+  void validateFailsIfEndpointEjectionThresholdIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .endpointEjectionThreshold(0);
+
+    thenFailsOnValidation("Endpoint ejection threshold must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfEndpointHealthCheckIntervalIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .endpointHealthCheckInterval(Duration.ZERO);
+
+    thenFailsOnValidation("Endpoint health check interval must be positive");
+  }
+
+  @Test
+  void validateFailsIfMaxRetriesIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxRetries(-1);
+
+    thenFailsOnValidation("Max retries must not be negative");
+  }
+
+  @Test
+  void validateFailsIfRetryInitialBackoffIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .retryInitialBackoff(Duration.ofMillis(-1L));
+
+    thenFailsOnValidation("Retry initial backoff must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfRetryMaxBackoffIsLessThanInitialBackoff() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .retryInitialBackoff(Duration.ofSeconds(2L))
+        .retryMaxBackoff(Duration.ofSeconds(1L));
+
+    thenFailsOnValidation("Retry max backoff must not be null or less than retry initial backoff");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerWindowSizeIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerWindowSize(0);
+
+    thenFailsOnValidation("Circuit breaker window size must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerFailureRateThresholdIsGreaterThanOne() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerFailureRateThreshold(1.5);
+
+    thenFailsOnValidation(
+        "Circuit breaker failure rate threshold must be greater than 0 and at most 1");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerSlowCallRateThresholdIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerSlowCallRateThreshold(0.0);
+
+    thenFailsOnValidation(
+        "Circuit breaker slow call rate threshold must be greater than 0 and at most 1");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerSlowCallDurationIsNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerSlowCallDuration(null);
+
+    thenFailsOnValidation("Circuit breaker slow call duration must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerOpenDurationIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerOpenDuration(Duration.ofSeconds(-1L));
+
+    thenFailsOnValidation("Circuit breaker open duration must not be null or negative");
+  }
+
+  @Test
+  void validateFailsIfCircuitBreakerProbeRequestsIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .circuitBreakerProbeRequests(0);
+
+    thenFailsOnValidation("Circuit breaker probe requests must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfSpoolSegmentSizeIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .spoolSegmentSize(0);
+
+    thenFailsOnValidation("Spool segment size must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfSpoolReplayIntervalIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .spoolReplayInterval(Duration.ZERO);
+
+    thenFailsOnValidation("Spool replay interval must be positive");
+  }
+
+  @Test
+  void validateFailsIfMaxSpoolBytesIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxSpoolBytes(-1L);
+
+    thenFailsOnValidation("Max spool bytes must not be negative");
+  }
+
+  @Test
+  void validateFailsIfCoalescingWindowIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .coalescingWindow(Duration.ZERO);
+
+    thenFailsOnValidation("Coalescing window must be positive");
+  }
+
+  @Test
+  void validateFailsIfCoalescedRequestKindsAreNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .coalescedRequestKinds(null);
+
+    thenFailsOnValidation("Coalesced request kinds must not be null");
+  }
+
+  @Test
+  void validateFailsIfSamplingRateIsGreaterThanOne() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .samplingRates(Collections.singletonMap(RequestKind.PING, 1.5));
+
+    thenFailsOnValidation("Sampling rate of PING must be between 0 and 1");
+  }
+
+  @Test
+  void validateFailsIfEventCategorySamplingRatesAreNull() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .eventCategorySamplingRates(null);
+
+    thenFailsOnValidation("Event category sampling rates must not be null");
+  }
+
+  @Test
+  void validateFailsIfMaxRequestsPerSecondIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .maxRequestsPerSecond(-1.0);
+
+    thenFailsOnValidation("Max requests per second must not be negative");
+  }
+
+  @Test
+  void validateFailsIfRateLimitBurstIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .rateLimitBurst(0);
+
+    thenFailsOnValidation("Rate limit burst must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfRateLimitExceededHandlerIsMissing() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .rateLimitPolicy(RateLimitPolicy.CALLBACK);
+
+    thenFailsOnValidation(
+        "Rate limit exceeded handler must be set if rate limit policy is CALLBACK");
+  }
+
+  @Test
+  void validateFailsIfPriorityLaneWeightIsZero() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .priorityLaneWeights(Collections.singletonMap(RequestPriority.LOW, 0));
+
+    thenFailsOnValidation("Priority lane weights must be greater than 0");
+  }
+
+  @Test
+  void validateFailsIfShutdownTimeoutIsNegative() {
+    trackerConfigurationBuilder
+        .apiEndpoint(URI.create("https://matomo.example/matomo.php"))
+        .shutdownTimeout(Duration.ofSeconds(-1L));
+
+    thenFailsOnValidation("Shutdown timeout must not be null or negative");
+  }
+
   void whenValidates() {
     trackerConfigurationBuilder.build().validate();
   }
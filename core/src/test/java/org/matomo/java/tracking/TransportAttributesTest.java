@@ -0,0 +1,68 @@
+package org.matomo.java.tracking;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TransportAttributesTest {
+
+  private final TrackerConfiguration trackerConfiguration =
+      TrackerConfiguration.builder()
+          .apiEndpoint(URI.create("http://localhost:8080/matomo.php"))
+          .defaultAuthToken("fdf6e8461ea9de33176b222519627f78")
+          .build();
+
+  @Test
+  void normalizesEmptyValues() {
+    MatomoRequest request =
+        MatomoRequest.request()
+            .headers(emptyMap())
+            .cookies(emptyMap())
+            .sessionId("")
+            .headerUserAgent(" ")
+            .build();
+
+    TransportAttributes attributes = TransportAttributes.of(request, trackerConfiguration);
+
+    assertThat(attributes)
+        .isEqualTo(
+            new TransportAttributes("fdf6e8461ea9de33176b222519627f78", null, null, null, null));
+  }
+
+  @Test
+  void partitionsRequestsByTransportAttributes() {
+    MatomoRequest first = MatomoRequests.pageView("First").sessionId("session-a").build();
+    MatomoRequest second =
+        MatomoRequests.pageView("Second")
+            .sessionId("session-b")
+            .headers(singletonMap("Accept-Language", "de"))
+            .build();
+    MatomoRequest third = MatomoRequests.pageView("Third").sessionId("session-a").build();
+    MatomoRequest fourth =
+        MatomoRequests.pageView("Fourth")
+            .sessionId("session-a")
+            .authToken("a9de33176b222519627f78fdf6e8461e")
+            .build();
+
+    Map<TransportAttributes, List<MatomoRequest>> groups =
+        TransportAttributes.partition(
+            Arrays.asList(first, second, third, fourth), trackerConfiguration);
+
+    assertThat(groups.values())
+        .containsExactly(Arrays.asList(first, third), singletonList(second), singletonList(fourth));
+    assertThat(groups.keySet())
+        .extracting(TransportAttributes::getSessionId, TransportAttributes::getAuthToken)
+        .containsExactly(
+            tuple("session-a", "fdf6e8461ea9de33176b222519627f78"),
+            tuple("session-b", "fdf6e8461ea9de33176b222519627f78"),
+            tuple("session-a", "a9de33176b222519627f78fdf6e8461e"));
+  }
+}
@@ -79,6 +79,13 @@ class VisitorIdTest {
     assertThat(visitorId).hasToString(visitorId.toString());
   }
 
+  @Test
+  void toLongIsInverseOfFromHash() {
+
+    assertThat(VisitorId.fromHash(-4242424242424242L).toLong()).isEqualTo(-4242424242424242L);
+    assertThat(VisitorId.fromHex("1a2b").toLong()).isEqualTo(0x1a2bL);
+  }
+
   @Test
   void createsVisitorIdFrom16CharacterHex() {
 
@@ -0,0 +1,93 @@
+package org.matomo.java.tracking;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes a byte array as slices of {@link #SLICE_SIZE} bytes.
+ *
+ * <p>In contrast to {@link HttpRequest.BodyPublishers#ofByteArray(byte[])}, the array is neither
+ * copied when the request is subscribed to nor when it is sent again by the {@link Retrier}, so a
+ * bulk body is held in memory only once. The array must not be modified after it was passed to the
+ * publisher.
+ */
+@RequiredArgsConstructor
+final class ByteArrayBodyPublisher implements HttpRequest.BodyPublisher {
+
+  static final int SLICE_SIZE = 16 * 1024;
+
+  @lombok.NonNull private final byte[] body;
+
+  @Override
+  public long contentLength() {
+    return body.length;
+  }
+
+  @Override
+  public void subscribe(@NonNull Flow.Subscriber<? super ByteBuffer> subscriber) {
+    Slices slices = new Slices(subscriber, body);
+    subscriber.onSubscribe(slices);
+    slices.drain();
+  }
+
+  @RequiredArgsConstructor
+  private static final class Slices implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+    private final byte[] body;
+
+    private final AtomicLong demand = new AtomicLong();
+
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+
+    private volatile boolean done;
+
+    private int position;
+
+    @Override
+    public void request(long n) {
+      if (n <= 0L) {
+        done = true;
+        subscriber.onError(new IllegalArgumentException("Demand must be positive, but was " + n));
+        return;
+      }
+      demand.accumulateAndGet(
+          n,
+          (current, added) -> {
+            long sum = current + added;
+            return sum < 0L ? Long.MAX_VALUE : sum;
+          });
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      done = true;
+    }
+
+    private void drain() {
+      if (pendingDrains.getAndIncrement() != 0) {
+        return;
+      }
+      do {
+        while (!done && position < body.length && demand.get() > 0L) {
+          int length = Math.min(SLICE_SIZE, body.length - position);
+          ByteBuffer slice = ByteBuffer.wrap(body, position, length).slice();
+          position += length;
+          demand.decrementAndGet();
+          subscriber.onNext(slice);
+        }
+        if (!done && position >= body.length) {
+          done = true;
+          subscriber.onComplete();
+        }
+      } while (pendingDrains.decrementAndGet() != 0);
+    }
+  }
+}
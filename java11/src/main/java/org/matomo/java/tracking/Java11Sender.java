@@ -4,23 +4,45 @@ import static java.util.Collections.singleton;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
-import java.net.CookieStore;
-import java.net.HttpCookie;
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-/** A {@link Sender} implementation that uses the Java 11 HTTP client. */
+/**
+ * A {@link Sender} implementation that uses the Java 11 HTTP client.
+ *
+ * <p>Failed requests are retried by the {@link Retrier} using the already built HTTP request. If
+ * {@link TrackerConfiguration#getAdditionalApiEndpoints()} are configured, every attempt is sent to
+ * the endpoint chosen by the {@link EndpointBalancer}. Ejected endpoints are probed with {@link
+ * #probe(URI)}.
+ *
+ * <p>Cookies are sent as a header of each HTTP request. The HTTP client has no cookie handler, so
+ * that concurrent requests of different visitors never share cookies. Bulk requests are partitioned
+ * into groups of requests with equal {@link TransportAttributes}, so that headers, cookies and auth
+ * tokens are never mixed. Each group is sent as its own POST request. Bulk requests that exceed
+ * {@link TrackerConfiguration#getMaxBulkBytes()} or {@link
+ * TrackerConfiguration#getMaxBulkQueries()} are split into several POST requests. Synchronous calls
+ * only serialize a POST request when the previous one was sent, so that only one body is held in
+ * memory at a time. Asynchronous calls serialize all bodies on the calling thread and send up to
+ * {@link TrackerConfiguration#getThreadPoolSize()} of them concurrently. Bodies are published by a
+ * {@link ByteArrayBodyPublisher} without being copied. If {@link
+ * TrackerConfiguration#isBulkCompressionEnabled()} is set, large bodies are compressed with gzip.
+ */
 @RequiredArgsConstructor
 @Slf4j
 public class Java11Sender implements Sender {
@@ -31,10 +53,14 @@ public class Java11Sender implements Sender {
 
   @lombok.NonNull private final HttpClient httpClient;
 
-  @lombok.NonNull private final CookieStore cookieStore;
-
   @lombok.NonNull private final ExecutorService executorService;
 
+  @lombok.NonNull private final Retrier retrier;
+
+  @lombok.NonNull private final EndpointBalancer endpointBalancer;
+
+  @lombok.NonNull private final GzipCompressor gzipCompressor;
+
   @NonNull
   @Override
   public CompletableFuture<MatomoRequest> sendSingleAsync(
@@ -47,89 +73,191 @@ public class Java11Sender implements Sender {
     sendAndCheckResponse(buildHttpGetRequest(request));
   }
 
-  private void sendAndCheckResponse(@NonNull HttpRequest httpRequest) {
-    checkResponse(
-        send(
-            httpRequest,
-            () -> httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding())),
-        httpRequest);
+  private void sendAndCheckResponse(@NonNull Function<URI, HttpRequest> httpRequestFactory) {
+    retrier.retry(
+        () ->
+            endpointBalancer.call(
+                apiEndpoint -> {
+                  HttpRequest httpRequest = httpRequestFactory.apply(apiEndpoint);
+                  checkResponse(
+                      send(
+                          httpRequest,
+                          () ->
+                              httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding())),
+                      httpRequest);
+                }));
   }
 
   @Override
   public void sendBulk(@NonNull @lombok.NonNull Iterable<? extends MatomoRequest> requests) {
-    sendAndCheckResponse(buildHttpPostRequest(requests));
+    for (Map.Entry<TransportAttributes, List<MatomoRequest>> group :
+        partition(requests).entrySet()) {
+      TransportAttributes attributes = group.getKey();
+      Iterator<byte[]> bodies =
+          BulkRequest.iterateChunks(
+              group.getValue(),
+              queryCreator,
+              attributes.getAuthToken(),
+              trackerConfiguration.getMaxBulkBytes(),
+              trackerConfiguration.getMaxBulkQueries());
+      while (bodies.hasNext()) {
+        sendAndCheckResponse(buildHttpPostRequest(bodies.next(), attributes));
+      }
+    }
   }
 
   @NonNull
-  private HttpRequest buildHttpPostRequest(@NonNull Iterable<? extends MatomoRequest> requests) {
-    String authToken = AuthToken.determineAuthToken(requests, trackerConfiguration);
-    Collection<String> queries = new ArrayList<>();
-    Map<String, String> headers = new LinkedHashMap<>(10);
-    String headerUserAgent = null;
-    cookieStore.removeAll();
-    for (MatomoRequest request : requests) {
-      RequestValidator.validate(request, authToken);
-      if (request.getHeaders() != null && !request.getHeaders().isEmpty()) {
-        headers.putAll(request.getHeaders());
-      }
-      if (request.getHeaderUserAgent() != null && !request.getHeaderUserAgent().isBlank()) {
-        headerUserAgent = request.getHeaderUserAgent();
-      }
-      queries.add(queryCreator.createQuery(request, null));
-      addCookies(request);
+  private Map<TransportAttributes, List<MatomoRequest>> partition(
+      @NonNull Iterable<? extends MatomoRequest> requests) {
+    Map<TransportAttributes, List<MatomoRequest>> groups =
+        TransportAttributes.partition(requests, trackerConfiguration);
+    if (groups.isEmpty()) {
+      throw new IllegalArgumentException("Queries must not be empty");
     }
+    return groups;
+  }
+
+  @NonNull
+  private Function<URI, HttpRequest> buildHttpPostRequest(
+      @NonNull byte[] body, @NonNull TransportAttributes attributes) {
+    byte[] payload = gzipCompressor.compressIfEnabled(body);
     HttpRequest.Builder builder =
         HttpRequest.newBuilder()
-            .uri(trackerConfiguration.getApiEndpoint())
             .header("Accept", "*/*")
             .header("Content-Type", "application/json")
-            .POST(
-                HttpRequest.BodyPublishers.ofByteArray(
-                    BulkRequest.builder().queries(queries).authToken(authToken).build().toBytes()));
+            .POST(new ByteArrayBodyPublisher(payload));
+    if (GzipCompressor.isCompressed(payload)) {
+      builder.header("Content-Encoding", "gzip");
+    }
     applyTrackerConfiguration(builder);
-    setUserAgentHeader(builder, headerUserAgent, headers);
-    addHeaders(builder, headers);
-    return builder.build();
+    setUserAgentHeader(builder, attributes.getHeaderUserAgent(), attributes.getHeaders());
+    addHeaders(builder, attributes.getHeaders());
+    addCookies(builder, attributes.getSessionId(), attributes.getCookies());
+    return apiEndpoint -> builder.copy().uri(apiEndpoint).build();
   }
 
   @NonNull
   @Override
   public CompletableFuture<Void> sendBulkAsync(
       @NonNull @lombok.NonNull Collection<? extends MatomoRequest> requests) {
-    return sendAsyncAndCheckResponse(buildHttpPostRequest(requests), null);
+    Map<TransportAttributes, List<MatomoRequest>> groups = partition(requests);
+    List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+    for (Map.Entry<TransportAttributes, List<MatomoRequest>> group : groups.entrySet()) {
+      TransportAttributes attributes = group.getKey();
+      futures.add(
+          sendChunksAsync(
+              BulkRequest.toChunks(
+                  group.getValue(),
+                  queryCreator,
+                  attributes.getAuthToken(),
+                  trackerConfiguration.getMaxBulkBytes(),
+                  trackerConfiguration.getMaxBulkQueries()),
+              attributes));
+    }
+    if (futures.size() == 1) {
+      return futures.get(0);
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull @lombok.NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return sendChunksAsync(
+        BulkRequest.builder()
+            .queries(queries)
+            .authToken(authToken)
+            .build()
+            .toChunks(
+                trackerConfiguration.getMaxBulkBytes(), trackerConfiguration.getMaxBulkQueries()),
+        new TransportAttributes(authToken, null, null, null, null));
+  }
+
+  @Override
+  @NonNull
+  public CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull @lombok.NonNull Collection<ByteBuffer> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return sendChunksAsync(
+        BulkRequest.toChunks(
+            queries,
+            authToken,
+            trackerConfiguration.getMaxBulkBytes(),
+            trackerConfiguration.getMaxBulkQueries()),
+        new TransportAttributes(authToken, null, null, null, null));
+  }
+
+  /**
+   * Sends the bodies with at most {@link TrackerConfiguration#getThreadPoolSize()} bulk requests in
+   * flight.
+   */
+  @NonNull
+  private CompletableFuture<Void> sendChunksAsync(
+      @NonNull List<byte[]> bodies, @NonNull TransportAttributes attributes) {
+    return BulkRequest.sendChunksAsync(
+        bodies,
+        trackerConfiguration.getThreadPoolSize(),
+        body -> sendAsyncAndCheckResponse(buildHttpPostRequest(body, attributes), null));
   }
 
   @NonNull
   private <T> CompletableFuture<T> sendAsyncAndCheckResponse(
-      @NonNull HttpRequest httpRequest, @Nullable T result) {
-    return send(
-        httpRequest,
+      @NonNull Function<URI, HttpRequest> httpRequestFactory, @Nullable T result) {
+    return retrier.retryAsync(
         () ->
-            httpClient
-                .sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
-                .thenApply(
-                    response -> {
-                      checkResponse(response, httpRequest);
-                      return result;
-                    }));
+            endpointBalancer.callAsync(
+                apiEndpoint -> {
+                  HttpRequest httpRequest = httpRequestFactory.apply(apiEndpoint);
+                  return send(
+                      httpRequest,
+                      () ->
+                          httpClient
+                              .sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                              .thenApply(
+                                  response -> {
+                                    checkResponse(response, httpRequest);
+                                    return result;
+                                  }));
+                }));
   }
 
   @NonNull
-  private HttpRequest buildHttpGetRequest(@NonNull MatomoRequest request) {
-    String authToken = AuthToken.determineAuthToken(singleton(request), trackerConfiguration);
-    RequestValidator.validate(request, authToken);
-    cookieStore.removeAll();
-    addCookies(request);
-    URI apiEndpoint = trackerConfiguration.getApiEndpoint();
-    HttpRequest.Builder builder =
-        HttpRequest.newBuilder()
-            .uri(
-                apiEndpoint.resolve(
-                    apiEndpoint.getPath() + "?" + queryCreator.createQuery(request, authToken)));
+  private Function<URI, HttpRequest> buildHttpGetRequest(@NonNull MatomoRequest request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder();
     applyTrackerConfiguration(builder);
     setUserAgentHeader(builder, request.getHeaderUserAgent(), request.getHeaders());
     addHeaders(builder, request.getHeaders());
-    return builder.build();
+    addCookies(builder, request.getSessionId(), request.getCookies());
+    String query =
+        queryCreator.createQuery(
+            request, AuthToken.determineAuthToken(singleton(request), trackerConfiguration));
+    return apiEndpoint ->
+        builder.copy().uri(apiEndpoint.resolve(apiEndpoint.getPath() + "?" + query)).build();
+  }
+
+  /**
+   * Checks whether an ejected endpoint is available again.
+   *
+   * @param apiEndpoint the endpoint to probe
+   * @return true if the endpoint responded with a status code below 400
+   */
+  boolean probe(@NonNull URI apiEndpoint) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(apiEndpoint);
+    applyTrackerConfiguration(builder);
+    try {
+      return httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode()
+          < 400;
+    } catch (IOException e) {
+      log.debug("Could not probe endpoint {}", apiEndpoint, e);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   private <T> T send(@NonNull HttpRequest httpRequest, @NonNull Callable<T> callable) {
@@ -137,7 +265,6 @@ public class Java11Sender implements Sender {
       if (log.isDebugEnabled()) {
         log.debug("Sending request to Matomo: {}", httpRequest);
         log.debug("Headers: {}", httpRequest.headers());
-        log.debug("Cookies: {}", cookieStore.getCookies());
       }
       return callable.call();
     } catch (Exception e) {
@@ -155,20 +282,28 @@ public class Java11Sender implements Sender {
         log.error(
             "Received HTTP error code {} for URL {}", response.statusCode(), httpRequest.uri());
       }
-      throw new MatomoException(
-          String.format("Tracking endpoint responded with code %d", response.statusCode()));
+      throw new HttpStatusException(
+          response.statusCode(),
+          Retrier.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
     }
   }
 
-  private void addCookies(MatomoRequest request) {
-    if (request.getSessionId() != null && !request.getSessionId().isEmpty()) {
-      cookieStore.add(null, new HttpCookie("MATOMO_SESSID", request.getSessionId()));
+  private static void addCookies(
+      @NonNull HttpRequest.Builder builder,
+      @Nullable String sessionId,
+      @Nullable Map<String, String> cookies) {
+    StringJoiner cookieHeader = new StringJoiner("; ");
+    if (sessionId != null && !sessionId.isEmpty()) {
+      cookieHeader.add("MATOMO_SESSID=" + sessionId);
     }
-    if (request.getCookies() != null) {
-      for (Map.Entry<String, String> entry : request.getCookies().entrySet()) {
-        cookieStore.add(null, new HttpCookie(entry.getKey(), entry.getValue()));
+    if (cookies != null) {
+      for (Map.Entry<String, String> entry : cookies.entrySet()) {
+        cookieHeader.add(entry.getKey() + "=" + entry.getValue());
       }
     }
+    if (cookieHeader.length() > 0) {
+      builder.header("Cookie", cookieHeader.toString());
+    }
   }
 
   private void applyTrackerConfiguration(@NonNull HttpRequest.Builder builder) {
@@ -212,6 +347,12 @@ public class Java11Sender implements Sender {
 
   @Override
   public void close() {
-    ExecutorServiceCloser.close(executorService);
+    try {
+      retrier.close();
+      endpointBalancer.close();
+    } finally {
+      ExecutorServiceCloser.close(executorService);
+      gzipCompressor.close();
+    }
   }
 }
@@ -1,7 +1,6 @@
 package org.matomo.java.tracking;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
-import java.net.CookieManager;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.http.HttpClient;
@@ -19,12 +18,10 @@ public class Java11SenderProvider implements SenderProvider {
   @Override
   public Sender provideSender(
       TrackerConfiguration trackerConfiguration, QueryCreator queryCreator) {
-    CookieManager cookieManager = new CookieManager();
     ExecutorService executorService =
         Executors.newFixedThreadPool(
             trackerConfiguration.getThreadPoolSize(), new DaemonThreadFactory());
-    HttpClient.Builder builder =
-        HttpClient.newBuilder().cookieHandler(cookieManager).executor(executorService);
+    HttpClient.Builder builder = HttpClient.newBuilder().executor(executorService);
     if (trackerConfiguration.getConnectTimeout() != null
         && trackerConfiguration.getConnectTimeout().toMillis() > 0L) {
       builder.connectTimeout(trackerConfiguration.getConnectTimeout());
@@ -56,12 +53,23 @@ public class Java11SenderProvider implements SenderProvider {
               + " -Djdk.internal.httpclient.disableHostnameVerification=true");
     }
 
-    return new Java11Sender(
-        trackerConfiguration,
-        queryCreator,
-        builder.build(),
-        cookieManager.getCookieStore(),
-        executorService);
+    EndpointBalancer endpointBalancer =
+        new EndpointBalancer(
+            trackerConfiguration,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+    Java11Sender sender =
+        new Java11Sender(
+            trackerConfiguration,
+            queryCreator,
+            builder.build(),
+            executorService,
+            new Retrier(
+                trackerConfiguration,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+            endpointBalancer,
+            new GzipCompressor(trackerConfiguration, queryCreator.getCompressionStatistics()));
+    endpointBalancer.startHealthChecks(sender::probe);
+    return sender;
   }
 
   private static boolean isEmpty(@Nullable String str) {
@@ -0,0 +1,130 @@
+package org.matomo.java.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+class ByteArrayBodyPublisherTest {
+
+  private final byte[] body = new byte[ByteArrayBodyPublisher.SLICE_SIZE * 2 + 1];
+
+  private final ByteArrayBodyPublisher publisher = new ByteArrayBodyPublisher(body);
+
+  private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+  ByteArrayBodyPublisherTest() {
+    for (int i = 0; i < body.length; i++) {
+      body[i] = (byte) i;
+    }
+  }
+
+  @Test
+  void reportsContentLength() {
+    assertThat(publisher.contentLength()).isEqualTo(body.length);
+  }
+
+  @Test
+  void publishesSlicesOnDemand() {
+    publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(1L);
+    assertThat(subscriber.slices).hasSize(1);
+    assertThat(subscriber.completed).isFalse();
+    subscriber.subscription.request(2L);
+
+    assertThat(subscriber.slices)
+        .extracting(ByteBuffer::remaining)
+        .containsExactly(ByteArrayBodyPublisher.SLICE_SIZE, ByteArrayBodyPublisher.SLICE_SIZE, 1);
+    assertThat(subscriber.bytes()).isEqualTo(body);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void publishesBodyAgainForEachSubscriber() {
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    RecordingSubscriber other = new RecordingSubscriber();
+
+    publisher.subscribe(other);
+    other.subscription.request(Long.MAX_VALUE);
+
+    assertThat(other.bytes()).isEqualTo(subscriber.bytes()).isEqualTo(body);
+    assertThat(other.completed).isTrue();
+  }
+
+  @Test
+  void stopsPublishingIfCancelled() {
+    publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(1L);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(2L);
+
+    assertThat(subscriber.slices).hasSize(1);
+    assertThat(subscriber.completed).isFalse();
+  }
+
+  @Test
+  void failsIfDemandIsNotPositive() {
+    publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(0L);
+
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    assertThat(subscriber.slices).isEmpty();
+  }
+
+  @Test
+  void completesEmptyBodyWithoutDemand() {
+    new ByteArrayBodyPublisher(new byte[0]).subscribe(subscriber);
+
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  private static final class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    private final List<ByteBuffer> slices = new ArrayList<>();
+
+    private Flow.Subscription subscription;
+
+    private Throwable error;
+
+    private boolean completed;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(ByteBuffer item) {
+      slices.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+
+    private byte[] bytes() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      for (ByteBuffer slice : slices) {
+        ByteBuffer copy = slice.duplicate();
+        byte[] array = new byte[copy.remaining()];
+        copy.get(array);
+        bytes.write(array, 0, array.length);
+      }
+      return bytes.toByteArray();
+    }
+  }
+}
@@ -1,8 +1,10 @@
 package org.matomo.java.tracking;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.notContaining;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.status;
@@ -11,11 +13,12 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
-import java.net.CookieManager;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.time.Duration;
@@ -39,7 +42,6 @@ class Java11SenderIT {
 
   @Test
   void failsIfTrackerConfigurationIsNotSet() {
-    CookieManager cookieManager = new CookieManager();
     assertThatThrownBy(
             () ->
                 new Java11Sender(
@@ -48,16 +50,28 @@ class Java11SenderIT {
                         TrackerConfiguration.builder()
                             .apiEndpoint(URI.create("http://localhost"))
                             .build()),
-                    HttpClient.newBuilder().cookieHandler(cookieManager).build(),
-                    cookieManager.getCookieStore(),
-                    Executors.newFixedThreadPool(2, new DaemonThreadFactory())))
+                    HttpClient.newBuilder().build(),
+                    Executors.newFixedThreadPool(2, new DaemonThreadFactory()),
+                    new Retrier(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new EndpointBalancer(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new GzipCompressor(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build())))
         .isInstanceOf(NullPointerException.class)
         .hasMessage("trackerConfiguration is marked non-null but is null");
   }
 
   @Test
   void failsIfQueryCreatorIsNotSet() {
-    CookieManager cookieManager = new CookieManager();
     assertThatThrownBy(
             () ->
                 new Java11Sender(
@@ -65,16 +79,28 @@ class Java11SenderIT {
                         .apiEndpoint(URI.create("http://localhost"))
                         .build(),
                     null,
-                    HttpClient.newBuilder().cookieHandler(cookieManager).build(),
-                    cookieManager.getCookieStore(),
-                    Executors.newFixedThreadPool(2, new DaemonThreadFactory())))
+                    HttpClient.newBuilder().build(),
+                    Executors.newFixedThreadPool(2, new DaemonThreadFactory()),
+                    new Retrier(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new EndpointBalancer(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new GzipCompressor(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build())))
         .isInstanceOf(NullPointerException.class)
         .hasMessage("queryCreator is marked non-null but is null");
   }
 
   @Test
   void failsIfHttpClientIsNotSet() {
-    CookieManager cookieManager = new CookieManager();
     assertThatThrownBy(
             () ->
                 new Java11Sender(
@@ -86,30 +112,23 @@ class Java11SenderIT {
                             .apiEndpoint(URI.create("http://localhost"))
                             .build()),
                     null,
-                    cookieManager.getCookieStore(),
-                    Executors.newFixedThreadPool(2, new DaemonThreadFactory())))
-        .isInstanceOf(NullPointerException.class)
-        .hasMessage("httpClient is marked non-null but is null");
-  }
-
-  @Test
-  void failsIfCookieStoreIsNotSet() {
-    CookieManager cookieManager = new CookieManager();
-    assertThatThrownBy(
-            () ->
-                new Java11Sender(
-                    TrackerConfiguration.builder()
-                        .apiEndpoint(URI.create("http://localhost"))
-                        .build(),
-                    new QueryCreator(
+                    Executors.newFixedThreadPool(2, new DaemonThreadFactory()),
+                    new Retrier(
                         TrackerConfiguration.builder()
                             .apiEndpoint(URI.create("http://localhost"))
-                            .build()),
-                    HttpClient.newBuilder().cookieHandler(cookieManager).build(),
-                    null,
-                    Executors.newFixedThreadPool(2, new DaemonThreadFactory())))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new EndpointBalancer(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build(),
+                        Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+                    new GzipCompressor(
+                        TrackerConfiguration.builder()
+                            .apiEndpoint(URI.create("http://localhost"))
+                            .build())))
         .isInstanceOf(NullPointerException.class)
-        .hasMessage("cookieStore is marked non-null but is null");
+        .hasMessage("httpClient is marked non-null but is null");
   }
 
   @Test
@@ -138,6 +157,153 @@ class Java11SenderIT {
         .hasMessage("invalid URI scheme telnet");
   }
 
+  @Test
+  void retriesSingleAsyncRequestIfServerIsUnavailable(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(
+        get(urlPathEqualTo("/matomo.php"))
+            .inScenario("retry")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(status(429).withHeader("Retry-After", "0"))
+            .willSetStateTo("available"));
+    stubFor(
+        get(urlPathEqualTo("/matomo.php"))
+            .inScenario("retry")
+            .whenScenarioStateIs("available")
+            .willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/matomo.php"))
+            .maxRetries(2)
+            .retryInitialBackoff(Duration.ofMillis(10L))
+            .build();
+
+    givenSender();
+
+    MatomoRequest request = MatomoRequests.pageView("Retry").build();
+    CompletableFuture<MatomoRequest> future = sender.sendSingleAsync(request);
+
+    assertThat(future.join()).isSameAs(request);
+    verify(2, getRequestedFor(urlPathEqualTo("/matomo.php")));
+  }
+
+  @Test
+  void failsAfterMaxRetries(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(post(urlPathEqualTo("/matomo.php")).willReturn(status(502)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/matomo.php"))
+            .maxRetries(2)
+            .retryInitialBackoff(Duration.ofMillis(10L))
+            .build();
+
+    givenSender();
+
+    assertThatThrownBy(() -> sender.sendBulk(List.of(MatomoRequests.pageView("Retry").build())))
+        .isInstanceOf(HttpStatusException.class)
+        .hasMessage("Tracking endpoint responded with code 502");
+    verify(3, postRequestedFor(urlPathEqualTo("/matomo.php")));
+  }
+
+  @Test
+  void splitsBulkRequestIntoChunksBySize(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(post(urlPathEqualTo("/matomo.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/matomo.php"))
+            .maxBulkBytes(100L)
+            .build();
+
+    givenSender();
+
+    CompletableFuture<Void> future =
+        sender.sendBulkAsync(
+            List.of(
+                MatomoRequests.pageView("First").build(),
+                MatomoRequests.pageView("Second").build(),
+                MatomoRequests.pageView("Third").build()));
+
+    future.join();
+    verify(3, postRequestedFor(urlPathEqualTo("/matomo.php")));
+  }
+
+  @Test
+  void compressesBulkRequestAboveThreshold(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(post(urlPathEqualTo("/matomo.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/matomo.php"))
+            .bulkCompressionEnabled(true)
+            .bulkCompressionThreshold(10L)
+            .build();
+
+    givenSender();
+
+    sender.sendBulk(
+        List.of(
+            MatomoRequests.pageView("First").build(), MatomoRequests.pageView("Second").build()));
+
+    verify(
+        postRequestedFor(urlPathEqualTo("/matomo.php"))
+            .withHeader("Content-Encoding", equalTo("gzip"))
+            .withRequestBody(containing("action_name=Second")));
+  }
+
+  @Test
+  void sendsBulkRequestsWithDifferentHeadersSeparately(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(post(urlPathEqualTo("/matomo.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/matomo.php"))
+            .build();
+
+    givenSender();
+
+    sender.sendBulk(
+        List.of(
+            MatomoRequests.pageView("German")
+                .headers(singletonMap("Accept-Language", "de"))
+                .sessionId("session-a")
+                .build(),
+            MatomoRequests.pageView("English")
+                .headers(singletonMap("Accept-Language", "en"))
+                .build()));
+
+    verify(2, postRequestedFor(urlPathEqualTo("/matomo.php")));
+    verify(
+        postRequestedFor(urlPathEqualTo("/matomo.php"))
+            .withHeader("Accept-Language", equalTo("de"))
+            .withHeader("Cookie", equalTo("MATOMO_SESSID=session-a"))
+            .withRequestBody(containing("action_name=German"))
+            .withRequestBody(notContaining("action_name=English")));
+    verify(
+        postRequestedFor(urlPathEqualTo("/matomo.php"))
+            .withHeader("Accept-Language", equalTo("en"))
+            .withoutHeader("Cookie")
+            .withRequestBody(containing("action_name=English")));
+  }
+
+  @Test
+  void distributesRequestsAcrossEndpoints(WireMockRuntimeInfo wireMockRuntimeInfo) {
+    stubFor(get(urlPathEqualTo("/node1.php")).willReturn(status(204)));
+    stubFor(get(urlPathEqualTo("/node2.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/node1.php"))
+            .additionalApiEndpoints(
+                List.of(URI.create(wireMockRuntimeInfo.getHttpBaseUrl() + "/node2.php")))
+            .loadBalancingStrategy(LoadBalancingStrategy.LEAST_OUTSTANDING_REQUESTS)
+            .build();
+
+    givenSender();
+
+    for (int i = 0; i < 4; i++) {
+      sender.sendSingleAsync(MatomoRequests.pageView("Balanced").build()).join();
+    }
+
+    verify(2, getRequestedFor(urlPathEqualTo("/node1.php")));
+    verify(2, getRequestedFor(urlPathEqualTo("/node2.php")));
+  }
+
   private void givenSender() {
     sender =
         new Java11SenderProvider()
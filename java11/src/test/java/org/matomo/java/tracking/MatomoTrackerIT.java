@@ -445,7 +445,7 @@ class MatomoTrackerIT {
 
     assertThatThrownBy(this::whenSendsRequestAsync)
         .isInstanceOf(MatomoException.class)
-        .hasMessage("Could not append parameter")
+        .hasMessage("Invalid tracking parameter")
         .hasRootCauseInstanceOf(MatomoException.class)
         .hasRootCauseMessage("Invalid value for idsite. Must be greater or equal than 1");
   }
@@ -22,11 +22,11 @@ import java.net.ProtocolException;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -47,6 +47,22 @@ import lombok.extern.slf4j.Slf4j;
  * configured using {@link TrackerConfiguration#getThreadPoolSize()}. The thread pool uses daemon
  * threads. This means that the JVM will exit even if the thread pool is not shut down.
  *
+ * <p>Failed requests are retried by the {@link Retrier}. The URL and the body of a request are only
+ * built once for all attempts.
+ *
+ * <p>Bulk requests are partitioned into groups of requests with equal {@link TransportAttributes},
+ * so that headers, cookies and auth tokens are never mixed. Each group is sent as its own POST
+ * request. Bulk requests that exceed {@link TrackerConfiguration#getMaxBulkBytes()} or {@link
+ * TrackerConfiguration#getMaxBulkQueries()} are split into several POST requests. Synchronous calls
+ * send them one after another, so that only one body is held in memory at a time. Asynchronous
+ * calls serialize all bodies on the calling thread and send up to {@link
+ * TrackerConfiguration#getThreadPoolSize()} of them concurrently. If {@link
+ * TrackerConfiguration#isBulkCompressionEnabled()} is set, large bodies are compressed with gzip.
+ *
+ * <p>If {@link TrackerConfiguration#getAdditionalApiEndpoints()} are configured, every attempt is
+ * sent to the endpoint chosen by the {@link EndpointBalancer}. Ejected endpoints are probed with
+ * {@link #probe(URI)}.
+ *
  * <p>If you use a newer Java version, please use the newer Java implementation from the Matomo Java
  * Tracker for Java 11.
  */
@@ -63,40 +79,65 @@ class Java8Sender implements Sender {
 
   private final ExecutorService executorService;
 
+  private final Retrier retrier;
+
+  private final EndpointBalancer endpointBalancer;
+
+  private final GzipCompressor gzipCompressor;
+
   @Override
   @NonNull
   public CompletableFuture<MatomoRequest> sendSingleAsync(@NonNull MatomoRequest request) {
-    return CompletableFuture.supplyAsync(
-        () -> {
-          sendSingle(request);
-          return request;
-        },
-        executorService);
+    String query;
+    try {
+      query = createGetQuery(request);
+    } catch (RuntimeException e) {
+      CompletableFuture<MatomoRequest> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+    return retrier.retryAsync(
+        () ->
+            CompletableFuture.supplyAsync(
+                () -> {
+                  endpointBalancer.call(
+                      apiEndpoint -> sendGet(createGetUrl(apiEndpoint, query), request));
+                  return request;
+                },
+                executorService));
   }
 
   @Override
   public void sendSingle(@NonNull MatomoRequest request) {
-    String authToken = AuthToken.determineAuthToken(singleton(request), trackerConfiguration);
-    RequestValidator.validate(request, authToken);
-    HttpURLConnection connection;
-    URI apiEndpoint = trackerConfiguration.getApiEndpoint();
+    String query = createGetQuery(request);
+    retrier.retry(
+        () ->
+            endpointBalancer.call(
+                apiEndpoint -> sendGet(createGetUrl(apiEndpoint, query), request)));
+  }
+
+  @NonNull
+  private String createGetQuery(@NonNull MatomoRequest request) {
+    return queryCreator.createQuery(
+        request, AuthToken.determineAuthToken(singleton(request), trackerConfiguration));
+  }
+
+  @NonNull
+  private static URL createGetUrl(@NonNull URI apiEndpoint, @NonNull String query) {
     try {
-      connection =
-          openConnection(
-              apiEndpoint
-                  .resolve(
-                      String.format(
-                          "%s?%s",
-                          apiEndpoint.getPath(), queryCreator.createQuery(request, authToken)))
-                  .toURL());
+      return apiEndpoint.resolve(String.format("%s?%s", apiEndpoint.getPath(), query)).toURL();
     } catch (MalformedURLException e) {
       throw new InvalidUrlException(e);
     }
+  }
+
+  private void sendGet(@NonNull URL url, @NonNull MatomoRequest request) {
+    HttpURLConnection connection = openConnection(url);
     applyTrackerConfiguration(connection);
     setUserAgentProperty(connection, request.getHeaderUserAgent(), request.getHeaders());
     addHeaders(connection, request.getHeaders());
     addCookies(connection, request.getSessionId(), request.getCookies());
-    log.debug("Sending single request using URI {} asynchronously", apiEndpoint);
+    log.debug("Sending single request using URL {}", url);
     try {
       connection.connect();
       checkResponse(connection);
@@ -193,8 +234,8 @@ class Java8Sender implements Sender {
       if (trackerConfiguration.isLogFailedTracking()) {
         log.error("Received HTTP error code {} for URL {}", responseCode, connection.getURL());
       }
-      throw new MatomoException(
-          String.format("Tracking endpoint responded with code %d", responseCode));
+      throw new HttpStatusException(
+          responseCode, Retrier.parseRetryAfter(connection.getHeaderField("Retry-After")));
     }
   }
 
@@ -242,62 +283,104 @@ class Java8Sender implements Sender {
 
   @Override
   public void sendBulk(@NonNull @lombok.NonNull Iterable<? extends MatomoRequest> requests) {
-    String authToken = AuthToken.determineAuthToken(requests, trackerConfiguration);
-    Collection<String> queries = new ArrayList<>();
-    Map<String, String> headers = new LinkedHashMap<>();
-    String headerUserAgent = null;
-    String sessionId = null;
-    Map<String, String> cookies = null;
-    for (MatomoRequest request : requests) {
-      RequestValidator.validate(request, authToken);
-      if (request.getHeaders() != null && !request.getHeaders().isEmpty()) {
-        headers.putAll(request.getHeaders());
-      }
-      if (headerUserAgent == null
-          && request.getHeaderUserAgent() != null
-          && !request.getHeaderUserAgent().trim().isEmpty()) {
-        headerUserAgent = request.getHeaderUserAgent();
-      }
-      queries.add(queryCreator.createQuery(request, null));
-      if (request.getSessionId() != null && !request.getSessionId().isEmpty()) {
-        sessionId = request.getSessionId();
-      }
-      if (request.getCookies() != null && !request.getCookies().isEmpty()) {
-        cookies = request.getCookies();
+    Map<TransportAttributes, List<MatomoRequest>> groups =
+        TransportAttributes.partition(requests, trackerConfiguration);
+    if (groups.isEmpty()) {
+      throw new IllegalArgumentException("Queries must not be empty");
+    }
+    for (Map.Entry<TransportAttributes, List<MatomoRequest>> group : groups.entrySet()) {
+      TransportAttributes attributes = group.getKey();
+      Iterator<byte[]> bodies =
+          BulkRequest.iterateChunks(
+              group.getValue(),
+              queryCreator,
+              attributes.getAuthToken(),
+              trackerConfiguration.getMaxBulkBytes(),
+              trackerConfiguration.getMaxBulkQueries());
+      while (bodies.hasNext()) {
+        sendPostWithRetries(
+            bodies.next(),
+            attributes.getHeaders(),
+            attributes.getHeaderUserAgent(),
+            attributes.getSessionId(),
+            attributes.getCookies());
       }
     }
-    sendBulk(queries, authToken, headers, headerUserAgent, sessionId, cookies);
   }
 
-  private void sendBulk(
-      @NonNull @lombok.NonNull Collection<String> queries,
-      @Nullable String authToken,
-      Map<String, String> headers,
-      String headerUserAgent,
-      String sessionId,
-      Map<String, String> cookies) {
-    if (queries.isEmpty()) {
-      throw new IllegalArgumentException("Queries must not be empty");
-    }
-    HttpURLConnection connection;
+  private void sendPostWithRetries(
+      @NonNull byte[] body,
+      @Nullable Map<String, String> headers,
+      @Nullable String headerUserAgent,
+      @Nullable String sessionId,
+      @Nullable Map<String, String> cookies) {
+    byte[] payload = gzipCompressor.compressIfEnabled(body);
+    retrier.retry(
+        () ->
+            endpointBalancer.call(
+                apiEndpoint ->
+                    sendPost(
+                        createPostUrl(apiEndpoint),
+                        payload,
+                        headers,
+                        headerUserAgent,
+                        sessionId,
+                        cookies)));
+  }
+
+  @NonNull
+  private List<byte[]> createBulkBodies(
+      @NonNull Map.Entry<TransportAttributes, List<MatomoRequest>> group) {
+    return BulkRequest.toChunks(
+        group.getValue(),
+        queryCreator,
+        group.getKey().getAuthToken(),
+        trackerConfiguration.getMaxBulkBytes(),
+        trackerConfiguration.getMaxBulkQueries());
+  }
+
+  @NonNull
+  private List<byte[]> createBulkBodies(
+      @NonNull Collection<String> queries, @Nullable String authToken) {
+    return BulkRequest.builder()
+        .queries(queries)
+        .authToken(authToken)
+        .build()
+        .toChunks(trackerConfiguration.getMaxBulkBytes(), trackerConfiguration.getMaxBulkQueries());
+  }
+
+  @NonNull
+  private static URL createPostUrl(@NonNull URI apiEndpoint) {
     try {
-      connection = openConnection(trackerConfiguration.getApiEndpoint().toURL());
+      return apiEndpoint.toURL();
     } catch (MalformedURLException e) {
       throw new InvalidUrlException(e);
     }
+  }
+
+  private void sendPost(
+      @NonNull URL url,
+      @NonNull byte[] body,
+      @Nullable Map<String, String> headers,
+      @Nullable String headerUserAgent,
+      @Nullable String sessionId,
+      @Nullable Map<String, String> cookies) {
+    HttpURLConnection connection = openConnection(url);
     preparePostConnection(connection);
+    connection.setFixedLengthStreamingMode(body.length);
+    if (GzipCompressor.isCompressed(body)) {
+      connection.setRequestProperty("Content-Encoding", "gzip");
+    }
     applyTrackerConfiguration(connection);
     setUserAgentProperty(connection, headerUserAgent, headers);
     addHeaders(connection, headers);
     addCookies(connection, sessionId, cookies);
-    log.debug(
-        "Sending bulk request using URI {} asynchronously", trackerConfiguration.getApiEndpoint());
+    log.debug("Sending bulk request using URL {}", url);
     OutputStream outputStream = null;
     try {
       connection.connect();
       outputStream = connection.getOutputStream();
-      outputStream.write(
-          BulkRequest.builder().queries(queries).authToken(authToken).build().toBytes());
+      outputStream.write(body);
       outputStream.flush();
       checkResponse(connection);
     } catch (IOException e) {
@@ -327,68 +410,126 @@ class Java8Sender implements Sender {
 
   @Override
   @NonNull
-  public CompletableFuture<Void> sendBulkAsync(
-      @NonNull Collection<? extends MatomoRequest> requests) {
-    String authToken = AuthToken.determineAuthToken(requests, trackerConfiguration);
-    Map<String, String> headers = new LinkedHashMap<>();
-    String headerUserAgent = findHeaderUserAgent(requests);
-    String sessionId = findSessionId(requests);
-    Map<String, String> cookies = findCookies(requests);
-    List<String> queries = new ArrayList<>(requests.size());
-    for (MatomoRequest request : requests) {
-      RequestValidator.validate(request, authToken);
-      if (request.getHeaders() != null && !request.getHeaders().isEmpty()) {
-        headers.putAll(request.getHeaders());
-      }
-      queries.add(queryCreator.createQuery(request, null));
-    }
-    return CompletableFuture.supplyAsync(
-        () -> sendBulkAsync(queries, authToken, headers, headerUserAgent, sessionId, cookies),
-        executorService);
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull @lombok.NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    return sendPostsAsync(createBulkBodies(queries, authToken), null, null, null, null);
   }
 
-  @Nullable
-  private Void sendBulkAsync(
-      List<String> queries,
+  @Override
+  @NonNull
+  public CompletableFuture<Void> sendEncodedQueriesAsync(
+      @NonNull @lombok.NonNull Collection<ByteBuffer> queries,
       @Nullable String authToken,
-      Map<String, String> headers,
-      String headerUserAgent,
-      String sessionId,
-      Map<String, String> cookies) {
-    sendBulk(queries, authToken, headers, headerUserAgent, sessionId, cookies);
-    return null;
+      @NonNull RequestPriority priority) {
+    return sendPostsAsync(
+        BulkRequest.toChunks(
+            queries,
+            authToken,
+            trackerConfiguration.getMaxBulkBytes(),
+            trackerConfiguration.getMaxBulkQueries()),
+        null,
+        null,
+        null,
+        null);
   }
 
-  @Nullable
-  private static String findHeaderUserAgent(@NonNull Iterable<? extends MatomoRequest> requests) {
-    for (MatomoRequest request : requests) {
-      if (request.getHeaderUserAgent() != null && !request.getHeaderUserAgent().trim().isEmpty()) {
-        return request.getHeaderUserAgent();
-      }
+  @Override
+  @NonNull
+  public CompletableFuture<Void> sendBulkAsync(
+      @NonNull Collection<? extends MatomoRequest> requests) {
+    Map<TransportAttributes, List<MatomoRequest>> groups =
+        TransportAttributes.partition(requests, trackerConfiguration);
+    if (groups.isEmpty()) {
+      throw new IllegalArgumentException("Queries must not be empty");
+    }
+    List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+    for (Map.Entry<TransportAttributes, List<MatomoRequest>> group : groups.entrySet()) {
+      TransportAttributes attributes = group.getKey();
+      futures.add(
+          sendPostsAsync(
+              createBulkBodies(group),
+              attributes.getHeaders(),
+              attributes.getHeaderUserAgent(),
+              attributes.getSessionId(),
+              attributes.getCookies()));
     }
-    return null;
+    if (futures.size() == 1) {
+      return futures.get(0);
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
   }
 
-  private String findSessionId(Iterable<? extends MatomoRequest> requests) {
-    for (MatomoRequest request : requests) {
-      if (request.getHeaderUserAgent() != null && !request.getHeaderUserAgent().trim().isEmpty()) {
-        return request.getHeaderUserAgent();
-      }
-    }
-    return null;
+  /**
+   * Sends the bodies with at most {@link TrackerConfiguration#getThreadPoolSize()} bulk requests in
+   * flight.
+   */
+  @NonNull
+  private CompletableFuture<Void> sendPostsAsync(
+      @NonNull List<byte[]> bodies,
+      @Nullable Map<String, String> headers,
+      @Nullable String headerUserAgent,
+      @Nullable String sessionId,
+      @Nullable Map<String, String> cookies) {
+    return BulkRequest.sendChunksAsync(
+        bodies,
+        trackerConfiguration.getThreadPoolSize(),
+        body -> sendPostAsync(body, headers, headerUserAgent, sessionId, cookies));
   }
 
-  private Map<String, String> findCookies(Iterable<? extends MatomoRequest> requests) {
-    for (MatomoRequest request : requests) {
-      if (request.getCookies() != null && !request.getCookies().isEmpty()) {
-        return request.getCookies();
-      }
+  @NonNull
+  private CompletableFuture<Void> sendPostAsync(
+      @NonNull byte[] body,
+      @Nullable Map<String, String> headers,
+      @Nullable String headerUserAgent,
+      @Nullable String sessionId,
+      @Nullable Map<String, String> cookies) {
+    byte[] payload = gzipCompressor.compressIfEnabled(body);
+    return retrier.retryAsync(
+        () ->
+            CompletableFuture.runAsync(
+                () ->
+                    endpointBalancer.call(
+                        apiEndpoint ->
+                            sendPost(
+                                createPostUrl(apiEndpoint),
+                                payload,
+                                headers,
+                                headerUserAgent,
+                                sessionId,
+                                cookies)),
+                executorService));
+  }
+
+  /**
+   * Checks whether an ejected endpoint is available again.
+   *
+   * @param apiEndpoint the endpoint to probe
+   * @return true if the endpoint responded with a status code below 400
+   */
+  boolean probe(@NonNull URI apiEndpoint) {
+    HttpURLConnection connection = openConnection(createPostUrl(apiEndpoint));
+    applyTrackerConfiguration(connection);
+    try {
+      connection.connect();
+      return connection.getResponseCode() < 400;
+    } catch (IOException e) {
+      log.debug("Could not probe endpoint {}", apiEndpoint, e);
+      return false;
+    } finally {
+      connection.disconnect();
     }
-    return null;
   }
 
   @Override
   public void close() {
-    ExecutorServiceCloser.close(executorService);
+    try {
+      retrier.close();
+      endpointBalancer.close();
+    } finally {
+      ExecutorServiceCloser.close(executorService);
+      gzipCompressor.close();
+    }
   }
 }
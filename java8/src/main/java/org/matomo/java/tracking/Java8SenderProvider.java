@@ -8,10 +8,22 @@ public class Java8SenderProvider implements SenderProvider {
   @Override
   public Sender provideSender(
       TrackerConfiguration trackerConfiguration, QueryCreator queryCreator) {
-    return new Java8Sender(
-        trackerConfiguration,
-        queryCreator,
-        Executors.newFixedThreadPool(
-            trackerConfiguration.getThreadPoolSize(), new DaemonThreadFactory()));
+    EndpointBalancer endpointBalancer =
+        new EndpointBalancer(
+            trackerConfiguration,
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+    Java8Sender sender =
+        new Java8Sender(
+            trackerConfiguration,
+            queryCreator,
+            Executors.newFixedThreadPool(
+                trackerConfiguration.getThreadPoolSize(), new DaemonThreadFactory()),
+            new Retrier(
+                trackerConfiguration,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory())),
+            endpointBalancer,
+            new GzipCompressor(trackerConfiguration, queryCreator.getCompressionStatistics()));
+    endpointBalancer.startHealthChecks(sender::probe);
+    return sender;
   }
 }
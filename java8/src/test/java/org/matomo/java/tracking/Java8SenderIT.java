@@ -1,22 +1,27 @@
 package org.matomo.java.tracking;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.notContaining;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.status;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -222,11 +227,173 @@ class Java8SenderIT {
             .withHeader("headerName", equalTo("headerValue")));
   }
 
+  @Test
+  void retriesBulkAsyncRequestIfServerIsUnavailable() {
+    wireMockServer.stubFor(
+        post(urlPathEqualTo("/retry.php"))
+            .inScenario("retry")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(status(503).withHeader("Retry-After", "0"))
+            .willSetStateTo("available"));
+    wireMockServer.stubFor(
+        post(urlPathEqualTo("/retry.php"))
+            .inScenario("retry")
+            .whenScenarioStateIs("available")
+            .willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(String.format("http://localhost:%d/retry.php", wireMockServer.port())))
+            .maxRetries(2)
+            .retryInitialBackoff(Duration.ofMillis(10L))
+            .build();
+
+    givenSender();
+
+    CompletableFuture<Void> future =
+        sender.sendBulkAsync(singleton(MatomoRequests.pageView("Retry").build()));
+
+    future.join();
+    wireMockServer.verify(2, postRequestedFor(urlPathEqualTo("/retry.php")));
+  }
+
+  @Test
+  void doesNotRetryClientErrors() {
+    wireMockServer.stubFor(get(urlPathEqualTo("/bad.php")).willReturn(status(400)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(String.format("http://localhost:%d/bad.php", wireMockServer.port())))
+            .maxRetries(2)
+            .retryInitialBackoff(Duration.ofMillis(10L))
+            .build();
+
+    givenSender();
+
+    assertThatThrownBy(() -> sender.sendSingle(MatomoRequests.pageView("Bad").build()))
+        .isInstanceOf(HttpStatusException.class)
+        .hasMessage("Tracking endpoint responded with code 400");
+    wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/bad.php")));
+  }
+
+  @Test
+  void splitsBulkAsyncRequestIntoChunks() {
+    wireMockServer.stubFor(post(urlPathEqualTo("/chunks.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(String.format("http://localhost:%d/chunks.php", wireMockServer.port())))
+            .maxBulkQueries(2)
+            .build();
+
+    givenSender();
+    MatomoRequest third = MatomoRequests.pageView("Third").build();
+
+    CompletableFuture<Void> future =
+        sender.sendBulkAsync(
+            Arrays.asList(
+                MatomoRequests.pageView("First").build(),
+                MatomoRequests.pageView("Second").build(),
+                third));
+    third.setActionName("Changed");
+
+    future.join();
+    wireMockServer.verify(2, postRequestedFor(urlPathEqualTo("/chunks.php")));
+    wireMockServer.verify(
+        postRequestedFor(urlPathEqualTo("/chunks.php"))
+            .withRequestBody(containing("action_name=Third")));
+  }
+
+  @Test
+  void compressesBulkRequestAboveThreshold() {
+    wireMockServer.stubFor(post(urlPathEqualTo("/gzip.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(String.format("http://localhost:%d/gzip.php", wireMockServer.port())))
+            .bulkCompressionEnabled(true)
+            .bulkCompressionThreshold(10L)
+            .build();
+
+    givenSender();
+
+    sender.sendBulk(
+        Arrays.asList(
+            MatomoRequests.pageView("First").build(), MatomoRequests.pageView("Second").build()));
+
+    wireMockServer.verify(
+        postRequestedFor(urlPathEqualTo("/gzip.php"))
+            .withHeader("Content-Encoding", equalTo("gzip"))
+            .withRequestBody(containing("action_name=Second")));
+  }
+
+  @Test
+  void sendsBulkRequestsOfDifferentSessionsSeparately() {
+    wireMockServer.stubFor(post(urlPathEqualTo("/sessions.php")).willReturn(status(204)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(
+                    String.format("http://localhost:%d/sessions.php", wireMockServer.port())))
+            .build();
+
+    givenSender();
+
+    CompletableFuture<Void> future =
+        sender.sendBulkAsync(
+            Arrays.asList(
+                MatomoRequests.pageView("First")
+                    .sessionId("session-a")
+                    .headerUserAgent("Agent A")
+                    .build(),
+                MatomoRequests.pageView("Second")
+                    .sessionId("session-b")
+                    .headerUserAgent("Agent B")
+                    .build()));
+
+    future.join();
+    wireMockServer.verify(2, postRequestedFor(urlPathEqualTo("/sessions.php")));
+    wireMockServer.verify(
+        postRequestedFor(urlPathEqualTo("/sessions.php"))
+            .withHeader("Cookie", equalTo("MATOMO_SESSID=session-a"))
+            .withRequestBody(containing("action_name=First"))
+            .withRequestBody(notContaining("action_name=Second")));
+    wireMockServer.verify(
+        postRequestedFor(urlPathEqualTo("/sessions.php"))
+            .withHeader("Cookie", equalTo("MATOMO_SESSID=session-b"))
+            .withRequestBody(containing("action_name=Second")));
+  }
+
+  @Test
+  void ejectsFailingEndpointAndRetriesOnAnotherOne() {
+    wireMockServer.stubFor(post(urlPathEqualTo("/node1.php")).willReturn(status(204)));
+    wireMockServer.stubFor(post(urlPathEqualTo("/node2.php")).willReturn(status(503)));
+    trackerConfiguration =
+        TrackerConfiguration.builder()
+            .apiEndpoint(
+                URI.create(String.format("http://localhost:%d/node1.php", wireMockServer.port())))
+            .additionalApiEndpoints(
+                singletonList(
+                    URI.create(
+                        String.format("http://localhost:%d/node2.php", wireMockServer.port()))))
+            .endpointEjectionThreshold(1)
+            .maxRetries(1)
+            .retryInitialBackoff(Duration.ofMillis(10L))
+            .build();
+
+    givenSender();
+
+    for (int i = 0; i < 4; i++) {
+      sender.sendBulk(singleton(MatomoRequests.pageView("Balanced").build()));
+    }
+
+    wireMockServer.verify(4, postRequestedFor(urlPathEqualTo("/node1.php")));
+    wireMockServer.verify(1, postRequestedFor(urlPathEqualTo("/node2.php")));
+  }
+
   private void givenSender() {
     sender =
-        new Java8Sender(
-            trackerConfiguration,
-            new QueryCreator(trackerConfiguration),
-            Executors.newFixedThreadPool(2, new DaemonThreadFactory()));
+        new Java8SenderProvider()
+            .provideSender(trackerConfiguration, new QueryCreator(trackerConfiguration));
   }
 }
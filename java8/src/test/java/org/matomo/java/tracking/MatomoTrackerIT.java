@@ -139,14 +139,9 @@ class MatomoTrackerIT {
     givenTrackerConfigurationWithDefaultSiteId();
     requestBuilder.authToken("invalid-token-auth");
 
-    whenSendsRequestAsync();
-
-    assertThat(future)
-        .failsWithin(1, MINUTES)
-        .withThrowableThat()
-        .havingRootCause()
+    assertThatThrownBy(this::whenSendsRequestAsync)
         .isInstanceOf(IllegalArgumentException.class)
-        .withMessage("Auth token must be exactly 32 characters long");
+        .hasMessage("Auth token must be exactly 32 characters long");
   }
 
   @Test
@@ -463,16 +458,11 @@ class MatomoTrackerIT {
     givenTrackerConfigurationWithDefaultSiteId();
     requestBuilder.siteId(-1);
 
-    whenSendsRequestAsync();
-
-    assertThat(future)
-        .failsWithin(1, MINUTES)
-        .withThrowableThat()
-        .havingRootCause()
+    assertThatThrownBy(this::whenSendsRequestAsync)
         .isInstanceOf(MatomoException.class)
-        .withMessage("Invalid value for idsite. Must be greater or equal than 1");
-
-    ;
+        .hasMessage("Invalid tracking parameter")
+        .hasRootCauseInstanceOf(MatomoException.class)
+        .hasRootCauseMessage("Invalid value for idsite. Must be greater or equal than 1");
   }
 
   @Test
@@ -0,0 +1,420 @@
+/*
+ * Matomo Java Tracker
+ *
+ * @link https://github.com/matomo/matomo-java-tracker
+ * @license https://github.com/matomo/matomo-java-tracker/blob/master/LICENSE BSD-3 Clause
+ */
+
+package org.matomo.java.tracking.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Generates {@code MatomoRequestSerializer} from the {@code @TrackingParameter} annotations of the
+ * ordinal constants of {@code MatomoRequest}.
+ *
+ * <p>Each annotated constant is the ordinal of a tracking parameter in the sparse storage of the
+ * request, and the getter of the parameter is found by its name, e.g. {@code SITE_ID} belongs to
+ * {@code getSiteId()}. The generated serializer only iterates over the parameters that are set,
+ * switches on their ordinals, casts each value to the return type of its getter, skips values that
+ * are the same instances as in the constants of a template and appends constant parameter names.
+ * The values are validated by a separate method, so that requests can be validated once before they
+ * are queued and serialized later without validation. It replaces the reflective serializer of the
+ * core module, which is only used if the generated class is not available.
+ */
+@SupportedAnnotationTypes(TrackingParameterProcessor.TRACKING_PARAMETER)
+public class TrackingParameterProcessor extends AbstractProcessor {
+
+  static final String TRACKING_PARAMETER = "org.matomo.java.tracking.TrackingParameter";
+
+  private static final String PACKAGE = "org.matomo.java.tracking";
+
+  private static final String MATOMO_REQUEST = PACKAGE + ".MatomoRequest";
+
+  private static final String SERIALIZER = "MatomoRequestSerializer";
+
+  private static final Map<String, String> PRIMITIVE_VALUES = new HashMap<>();
+
+  static {
+    PRIMITIVE_VALUES.put("java.lang.Byte", "byteValue");
+    PRIMITIVE_VALUES.put("java.lang.Short", "shortValue");
+    PRIMITIVE_VALUES.put("java.lang.Integer", "intValue");
+    PRIMITIVE_VALUES.put("java.lang.Long", "longValue");
+    PRIMITIVE_VALUES.put("java.lang.Float", "floatValue");
+    PRIMITIVE_VALUES.put("java.lang.Double", "doubleValue");
+  }
+
+  private boolean generated;
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement annotation = processingEnv.getElementUtils().getTypeElement(TRACKING_PARAMETER);
+    if (annotation == null || generated) {
+      return false;
+    }
+    TypeElement matomoRequest = null;
+    for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+      Element enclosingElement = element.getEnclosingElement();
+      if (element.getKind() == ElementKind.FIELD
+          && ((TypeElement) enclosingElement).getQualifiedName().contentEquals(MATOMO_REQUEST)) {
+        matomoRequest = (TypeElement) enclosingElement;
+      } else {
+        error(
+            element, "@TrackingParameter is only supported on ordinal constants of MatomoRequest");
+      }
+    }
+    if (matomoRequest != null) {
+      generated = true;
+      List<Parameter> parameters = collectParameters(matomoRequest, annotation);
+      if (!parameters.isEmpty()) {
+        writeSerializer(matomoRequest, parameters);
+      }
+    }
+    return true;
+  }
+
+  private List<Parameter> collectParameters(TypeElement matomoRequest, TypeElement annotation) {
+    Map<String, ExecutableElement> getters = getters(matomoRequest);
+    List<Parameter> parameters = new ArrayList<>();
+    for (Element element : matomoRequest.getEnclosedElements()) {
+      if (element.getKind() != ElementKind.FIELD) {
+        continue;
+      }
+      for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+        if (annotationMirror.getAnnotationType().asElement().equals(annotation)) {
+          VariableElement constant = (VariableElement) element;
+          ExecutableElement getter = getters.get(constant.getSimpleName().toString());
+          if (!constant.getModifiers().contains(Modifier.STATIC)
+              || constant.asType().getKind() != TypeKind.INT
+              || constant.getConstantValue() == null) {
+            error(element, "Tracking parameters must be declared as static final int ordinals");
+          } else if (getter == null) {
+            error(element, "No getter found for tracking parameter " + constant.getSimpleName());
+          } else if (getter.getReturnType().getKind().isPrimitive()) {
+            error(element, "Tracking parameters must not have a primitive type");
+          } else {
+            parameters.add(new Parameter(constant, getter, values(annotationMirror)));
+          }
+        }
+      }
+    }
+    return parameters;
+  }
+
+  /** Maps the names of the ordinal constants to the getters of their properties. */
+  private static Map<String, ExecutableElement> getters(TypeElement matomoRequest) {
+    Map<String, ExecutableElement> getters = new HashMap<>();
+    for (Element element : matomoRequest.getEnclosedElements()) {
+      String name = element.getSimpleName().toString();
+      if (element.getKind() == ElementKind.METHOD
+          && name.startsWith("get")
+          && name.length() > 3
+          && ((ExecutableElement) element).getParameters().isEmpty()) {
+        getters.put(constantName(name.substring(3)), (ExecutableElement) element);
+      }
+    }
+    return getters;
+  }
+
+  private static String constantName(String propertyName) {
+    return propertyName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+  }
+
+  private Map<String, Object> values(AnnotationMirror annotationMirror) {
+    Map<String, Object> values = new HashMap<>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotationMirror).entrySet()) {
+      values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+    }
+    return values;
+  }
+
+  private void writeSerializer(TypeElement matomoRequest, List<Parameter> parameters) {
+    try (Writer writer =
+            processingEnv
+                .getFiler()
+                .createSourceFile(PACKAGE + '.' + SERIALIZER, matomoRequest)
+                .openWriter();
+        PrintWriter out = new PrintWriter(writer)) {
+      out.println("// Generated by " + getClass().getName() + ". Do not edit.");
+      out.println("package " + PACKAGE + ";");
+      out.println();
+      out.println("final class " + SERIALIZER + " implements TrackingParameterSerializer {");
+      for (Parameter parameter : parameters) {
+        if (parameter.hasPattern()) {
+          out.println();
+          out.println(
+              "  private static final java.util.regex.Pattern "
+                  + parameter.patternConstant()
+                  + " =");
+          out.println(
+              "      java.util.regex.Pattern.compile(" + literal(parameter.getRegex()) + ");");
+        }
+      }
+      out.println();
+      out.println("  @Override");
+      out.println("  public void appendParameters(");
+      out.println("      MatomoRequest request, MatomoRequest constants, QueryBuffer query) {");
+      writeLoop(out);
+      for (Parameter parameter : parameters) {
+        out.println("        case MatomoRequest." + parameter.constant() + ":");
+        out.println("          QueryCreator.appendAmpersand(query);");
+        out.println("          " + appendValue(parameter));
+        out.println("          break;");
+      }
+      writeLoopEnd(out);
+      writeValidate(out, parameters);
+      out.println("}");
+    } catch (IOException e) {
+      error(matomoRequest, "Could not write " + SERIALIZER + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the loop over the values of the parameters that are set, which skips the values that are
+   * the same instances as in the constants, and opens the switch on their ordinals.
+   */
+  private static void writeLoop(PrintWriter out) {
+    out.println("    SparseParameters parameters = request.getParameters();");
+    out.println(
+        "    SparseParameters constantParameters ="
+            + " constants == null ? null : constants.getParameters();");
+    out.println("    int index = 0;");
+    out.println("    for (int ordinal = parameters.nextOrdinal(0);");
+    out.println("        ordinal >= 0;");
+    out.println("        ordinal = parameters.nextOrdinal(ordinal + 1)) {");
+    out.println("      Object value = parameters.valueAt(index++);");
+    out.println(
+        "      if (constantParameters != null && value == constantParameters.get(ordinal)) {");
+    out.println("        continue;");
+    out.println("      }");
+    out.println("      switch (ordinal) {");
+  }
+
+  private static void writeLoopEnd(PrintWriter out) {
+    out.println("        default:");
+    out.println("          break;");
+    out.println("      }");
+    out.println("    }");
+    out.println("  }");
+  }
+
+  private void writeValidate(PrintWriter out, List<Parameter> parameters) {
+    out.println();
+    out.println("  @Override");
+    out.println("  public void validate(MatomoRequest request, MatomoRequest constants) {");
+    writeLoop(out);
+    for (Parameter parameter : parameters) {
+      List<String> validations = validations(parameter);
+      if (!validations.isEmpty()) {
+        out.println("        case MatomoRequest." + parameter.constant() + ":");
+        for (String validation : validations) {
+          out.println("          " + validation);
+        }
+        out.println("          break;");
+      }
+    }
+    writeLoopEnd(out);
+  }
+
+  private List<String> validations(Parameter parameter) {
+    String name = literal(parameter.getName());
+    List<String> validations = new ArrayList<>(3);
+    if (parameter.hasPattern() && isAssignable(parameter.type(), "java.lang.CharSequence")) {
+      validations.add(
+          "TrackingParameterMethod.validatePattern("
+              + name
+              + ", "
+              + parameter.patternConstant()
+              + ", (CharSequence) value);");
+    }
+    int maxLength = parameter.getMaxLength();
+    if (maxLength != 0 && maxLength != Integer.MAX_VALUE) {
+      validations.add(
+          "TrackingParameterMethod.validateMaxLength("
+              + name
+              + ", value.toString(), "
+              + maxLength
+              + ");");
+    }
+    if (isAssignable(parameter.type(), "java.lang.Number")) {
+      validations.add(
+          "TrackingParameterMethod.validateRange("
+              + name
+              + ", ((Number) value).doubleValue(), "
+              + literal(parameter.getMin())
+              + ", "
+              + literal(parameter.getMax())
+              + ");");
+    }
+    return validations;
+  }
+
+  private String appendValue(Parameter parameter) {
+    String name = literal(parameter.getName());
+    String prefix = literal(parameter.getName() + '=');
+    String typeName = parameter.typeName();
+    String value = "((" + typeName.replaceFirst("^java\\.lang\\.(\\w+)$", "$1") + ") value)";
+    if (typeName.equals("java.lang.Boolean")) {
+      return "query.append(" + prefix + ").append(" + value + " ? '1' : '0');";
+    }
+    if (PRIMITIVE_VALUES.containsKey(typeName)) {
+      return "query.append("
+          + prefix
+          + ").append("
+          + value
+          + '.'
+          + PRIMITIVE_VALUES.get(typeName)
+          + "());";
+    }
+    if (typeName.equals("java.time.Instant")) {
+      return "query.append(" + prefix + ").append(" + value + ".getEpochSecond());";
+    }
+    if (isAssignable(parameter.type(), "java.nio.charset.Charset")) {
+      return "query.append(" + prefix + ").append(" + value + ".name());";
+    }
+    if (typeName.equals("java.lang.String")) {
+      return "QueryCreator.appendEncoded(query.append("
+          + prefix
+          + "), "
+          + name
+          + ", (String) value);";
+    }
+    return "QueryCreator.appendEncoded(query.append("
+        + prefix
+        + "), "
+        + name
+        + ", value.toString());";
+  }
+
+  private boolean isAssignable(TypeMirror type, String className) {
+    TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(className);
+    Types types = processingEnv.getTypeUtils();
+    return typeElement != null
+        && types.isAssignable(types.erasure(type), types.erasure(typeElement.asType()));
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+  }
+
+  private static String literal(double value) {
+    if (value == Double.MIN_VALUE) {
+      return "Double.MIN_VALUE";
+    }
+    if (value == Double.MAX_VALUE) {
+      return "Double.MAX_VALUE";
+    }
+    if (value == Double.POSITIVE_INFINITY) {
+      return "Double.POSITIVE_INFINITY";
+    }
+    if (value == Double.NEGATIVE_INFINITY) {
+      return "Double.NEGATIVE_INFINITY";
+    }
+    return Double.toString(value);
+  }
+
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7e) {
+        literal.append(String.format("\\u%04x", (int) c));
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+  private final class Parameter {
+
+    private final VariableElement constant;
+
+    private final ExecutableElement getter;
+
+    private final Map<String, Object> values;
+
+    private Parameter(
+        VariableElement constant, ExecutableElement getter, Map<String, Object> values) {
+      this.constant = constant;
+      this.getter = getter;
+      this.values = values;
+    }
+
+    private String getName() {
+      return (String) values.get("name");
+    }
+
+    private String getRegex() {
+      return (String) values.get("regex");
+    }
+
+    private double getMin() {
+      return (Double) values.get("min");
+    }
+
+    private double getMax() {
+      return (Double) values.get("max");
+    }
+
+    private int getMaxLength() {
+      return (Integer) values.get("maxLength");
+    }
+
+    private boolean hasPattern() {
+      return getRegex() != null && !getRegex().trim().isEmpty();
+    }
+
+    private TypeMirror type() {
+      return getter.getReturnType();
+    }
+
+    private String typeName() {
+      Types types = processingEnv.getTypeUtils();
+      TypeMirror erasure = types.erasure(type());
+      return erasure.getKind() == TypeKind.DECLARED
+          ? ((TypeElement) types.asElement(erasure)).getQualifiedName().toString()
+          : erasure.toString();
+    }
+
+    private String constant() {
+      return constant.getSimpleName().toString();
+    }
+
+    private String patternConstant() {
+      return constant() + "_PATTERN";
+    }
+  }
+}
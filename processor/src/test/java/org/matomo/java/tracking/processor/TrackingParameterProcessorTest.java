@@ -0,0 +1,258 @@
+package org.matomo.java.tracking.processor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrackingParameterProcessorTest {
+
+  private static final String TRACKING_PARAMETER =
+      "package org.matomo.java.tracking;\n"
+          + "public @interface TrackingParameter {\n"
+          + "  String name();\n"
+          + "  String regex() default \"\";\n"
+          + "  double min() default Double.MIN_VALUE;\n"
+          + "  double max() default Double.MAX_VALUE;\n"
+          + "  int maxLength() default Integer.MAX_VALUE;\n"
+          + "}\n";
+
+  private static final String TRACKING_PARAMETER_SERIALIZER =
+      "package org.matomo.java.tracking;\n"
+          + "interface TrackingParameterSerializer {\n"
+          + "  void appendParameters(\n"
+          + "      MatomoRequest request, MatomoRequest constants, QueryBuffer query);\n"
+          + "  void validate(MatomoRequest request, MatomoRequest constants);\n"
+          + "}\n"
+          + "class QueryBuffer {}\n";
+
+  @TempDir private Path directory;
+
+  private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+  @Test
+  void generatesSerializerForTrackingParameters() throws IOException {
+    boolean success =
+        whenProcesses(
+            "package org.matomo.java.tracking;\n"
+                + "public class MatomoRequest {\n"
+                + "  @TrackingParameter(name = \"rec\") static final int REQUIRED = 0;\n"
+                + "  @TrackingParameter(name = \"h\", min = 0, max = 23) static final int HOUR ="
+                + " 1;\n"
+                + "  @TrackingParameter(name = \"cs\") static final int CHARSET = 2;\n"
+                + "  @TrackingParameter(name = \"_viewts\") static final int TIMESTAMP = 3;\n"
+                + "  @TrackingParameter(name = \"lat\", min = -90, max = 90) static final int LAT ="
+                + " 4;\n"
+                + "  @TrackingParameter(name = \"country\", maxLength = 2) static final int COUNTRY"
+                + " = 5;\n"
+                + "  @TrackingParameter(name = \"token_auth\", regex = \"[a-z0-9]{32}\")\n"
+                + "  static final int AUTH_TOKEN = 6;\n"
+                + "  public Boolean getRequired() { return null; }\n"
+                + "  public Integer getHour() { return null; }\n"
+                + "  public java.nio.charset.Charset getCharset() { return null; }\n"
+                + "  public java.time.Instant getTimestamp() { return null; }\n"
+                + "  public Double getLat() { return null; }\n"
+                + "  public Object getCountry() { return null; }\n"
+                + "  public String getAuthToken() { return null; }\n"
+                + "  public String getSessionId() { return null; }\n"
+                + "}\n");
+
+    assertThat(errors()).isEmpty();
+    assertThat(success).isTrue();
+    assertThat(generatedSource())
+        .contains(
+            "final class MatomoRequestSerializer implements TrackingParameterSerializer {",
+            "  private static final java.util.regex.Pattern AUTH_TOKEN_PATTERN =\n"
+                + "      java.util.regex.Pattern.compile(\"[a-z0-9]{32}\");",
+            "    SparseParameters parameters = request.getParameters();\n"
+                + "    SparseParameters constantParameters ="
+                + " constants == null ? null : constants.getParameters();\n"
+                + "    int index = 0;\n"
+                + "    for (int ordinal = parameters.nextOrdinal(0);\n"
+                + "        ordinal >= 0;\n"
+                + "        ordinal = parameters.nextOrdinal(ordinal + 1)) {\n"
+                + "      Object value = parameters.valueAt(index++);\n"
+                + "      if (constantParameters != null"
+                + " && value == constantParameters.get(ordinal)) {\n"
+                + "        continue;\n"
+                + "      }\n"
+                + "      switch (ordinal) {\n"
+                + "        case MatomoRequest.REQUIRED:\n"
+                + "          QueryCreator.appendAmpersand(query);\n"
+                + "          query.append(\"rec=\").append(((Boolean) value) ? '1' : '0');\n"
+                + "          break;\n"
+                + "        case MatomoRequest.HOUR:\n"
+                + "          QueryCreator.appendAmpersand(query);\n"
+                + "          query.append(\"h=\").append(((Integer) value).intValue());\n"
+                + "          break;",
+            "      switch (ordinal) {\n"
+                + "        case MatomoRequest.HOUR:\n"
+                + "          TrackingParameterMethod.validateRange("
+                + "\"h\", ((Number) value).doubleValue(), 0.0, 23.0);\n"
+                + "          break;",
+            "query.append(\"cs=\").append(((java.nio.charset.Charset) value).name());",
+            "query.append(\"_viewts=\").append(((java.time.Instant) value).getEpochSecond());",
+            "TrackingParameterMethod.validateRange("
+                + "\"lat\", ((Number) value).doubleValue(), -90.0, 90.0);",
+            "TrackingParameterMethod.validateMaxLength(\"country\", value.toString(), 2);",
+            "QueryCreator.appendEncoded(query.append(\"country=\"), \"country\","
+                + " value.toString());",
+            "TrackingParameterMethod.validatePattern("
+                + "\"token_auth\", AUTH_TOKEN_PATTERN, (CharSequence) value);",
+            "QueryCreator.appendEncoded(query.append(\"token_auth=\"), \"token_auth\","
+                + " (String) value);")
+        .doesNotContain("SESSION_ID", "clear");
+  }
+
+  @Test
+  void usesDefaultMinimumForNumbersWithoutRange() throws IOException {
+    whenProcesses(
+        "package org.matomo.java.tracking;\n"
+            + "public class MatomoRequest {\n"
+            + "  @TrackingParameter(name = \"bw_bytes\") static final int BANDWIDTH_BYTES = 0;\n"
+            + "  public Long getBandwidthBytes() { return null; }\n"
+            + "}\n");
+
+    assertThat(generatedSource())
+        .contains(
+            "TrackingParameterMethod.validateRange(\"bw_bytes\", ((Number) value).doubleValue(), "
+                + "Double.MIN_VALUE, Double.MAX_VALUE);",
+            "query.append(\"bw_bytes=\").append(((Long) value).longValue());");
+  }
+
+  @Test
+  void skipsValidationOfParametersWithoutConstraints() throws IOException {
+    whenProcesses(
+        "package org.matomo.java.tracking;\n"
+            + "public class MatomoRequest {\n"
+            + "  @TrackingParameter(name = \"action_name\") static final int ACTION_NAME = 0;\n"
+            + "  public String getActionName() { return null; }\n"
+            + "}\n");
+
+    assertThat(generatedSource())
+        .contains(
+            "        case MatomoRequest.ACTION_NAME:\n"
+                + "          QueryCreator.appendAmpersand(query);\n")
+        .contains(
+            "      switch (ordinal) {\n" + "        default:\n" + "          break;\n" + "      }")
+        .doesNotContain("TrackingParameterMethod.validate");
+  }
+
+  @Test
+  void failsIfAnnotationIsUsedOutsideOfMatomoRequest() throws IOException {
+    boolean success =
+        whenProcesses(
+            "package org.matomo.java.tracking;\n"
+                + "public class OtherRequest {\n"
+                + "  @TrackingParameter(name = \"rec\") static final int REQUIRED = 0;\n"
+                + "}\n");
+
+    assertThat(success).isFalse();
+    assertThat(errors())
+        .contains("@TrackingParameter is only supported on ordinal constants of MatomoRequest");
+  }
+
+  @Test
+  void failsIfTrackingParameterIsNoOrdinalConstant() throws IOException {
+    boolean success =
+        whenProcesses(
+            "package org.matomo.java.tracking;\n"
+                + "public class MatomoRequest {\n"
+                + "  @TrackingParameter(name = \"h\") private Integer hour;\n"
+                + "  public Integer getHour() { return null; }\n"
+                + "}\n");
+
+    assertThat(success).isFalse();
+    assertThat(errors())
+        .containsExactly("Tracking parameters must be declared as static final int ordinals");
+  }
+
+  @Test
+  void failsIfTrackingParameterHasNoGetter() throws IOException {
+    boolean success =
+        whenProcesses(
+            "package org.matomo.java.tracking;\n"
+                + "public class MatomoRequest {\n"
+                + "  @TrackingParameter(name = \"h\") static final int HOUR = 0;\n"
+                + "}\n");
+
+    assertThat(success).isFalse();
+    assertThat(errors()).containsExactly("No getter found for tracking parameter HOUR");
+  }
+
+  @Test
+  void failsIfTrackingParameterIsPrimitive() throws IOException {
+    boolean success =
+        whenProcesses(
+            "package org.matomo.java.tracking;\n"
+                + "public class MatomoRequest {\n"
+                + "  @TrackingParameter(name = \"h\") static final int HOUR = 0;\n"
+                + "  public int getHour() { return 0; }\n"
+                + "}\n");
+
+    assertThat(success).isFalse();
+    assertThat(errors()).containsExactly("Tracking parameters must not have a primitive type");
+  }
+
+  private boolean whenProcesses(String source) throws IOException {
+    Path sources = Files.createDirectories(directory.resolve("src/org/matomo/java/tracking"));
+    Files.write(
+        sources.resolve("TrackingParameter.java"),
+        TRACKING_PARAMETER.getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        sources.resolve("TrackingParameterSerializer.java"),
+        TRACKING_PARAMETER_SERIALIZER.getBytes(StandardCharsets.UTF_8));
+    String className = source.replaceFirst("(?s).*public class (\\w+).*", "$1");
+    Path file = sources.resolve(className + ".java");
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    Files.createDirectories(directory.resolve("generated"));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              diagnostics,
+              asList("-proc:only", "-s", directory.resolve("generated").toString()),
+              null,
+              fileManager.getJavaFileObjects(
+                  sources.resolve("TrackingParameter.java").toFile(),
+                  sources.resolve("TrackingParameterSerializer.java").toFile(),
+                  file.toFile()));
+      task.setProcessors(singletonList(new TrackingParameterProcessor()));
+      return task.call();
+    }
+  }
+
+  private String generatedSource() throws IOException {
+    return new String(
+        Files.readAllBytes(
+            directory.resolve("generated/org/matomo/java/tracking/MatomoRequestSerializer.java")),
+        StandardCharsets.UTF_8);
+  }
+
+  private List<String> errors() {
+    List<String> errors = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        errors.add(diagnostic.getMessage(null));
+      }
+    }
+    return errors;
+  }
+}
@@ -1,6 +1,7 @@
 package org.matomo.java.tracking;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
@@ -48,6 +49,15 @@ class TestSender implements Sender {
     throw new UnsupportedOperationException();
   }
 
+  @NonNull
+  @Override
+  public CompletableFuture<Void> sendQueriesAsync(
+      @NonNull Collection<String> queries,
+      @Nullable String authToken,
+      @NonNull RequestPriority priority) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void close() {
     // Do nothing
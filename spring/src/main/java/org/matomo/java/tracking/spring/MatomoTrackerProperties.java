@@ -7,10 +7,20 @@
 
 package org.matomo.java.tracking.spring;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
+import org.matomo.java.tracking.LoadBalancingStrategy;
+import org.matomo.java.tracking.OverflowPolicy;
+import org.matomo.java.tracking.RateLimitPolicy;
+import org.matomo.java.tracking.RequestKind;
+import org.matomo.java.tracking.RequestPriority;
 import org.matomo.java.tracking.TrackerConfiguration;
+import org.matomo.java.tracking.ValidationMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -20,6 +30,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *
  * <pre>
  *   matomo.tracker.api-endpoint=https://your-matomo-domain.example/matomo.php
+ *   matomo.tracker.additional-api-endpoints=https://node2.example/matomo.php
+ *   matomo.tracker.load-balancing-strategy=ROUND_ROBIN
+ *   matomo.tracker.endpoint-ejection-threshold=3
+ *   matomo.tracker.endpoint-health-check-interval=10s
  *   matomo.tracker.default-site-id=1
  *   matomo.tracker.default-auth-token=1234567890abcdef1234567890abcdef
  *   matomo.tracker.enabled=true
@@ -34,6 +48,57 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *   matomo.tracker.disable-ssl-cert-validation=true
  *   matomo.tracker.disable-ssl-host-validation=true
  *   matomo.tracker.thread-pool-size=2
+ *   matomo.tracker.batching-enabled=true
+ *   matomo.tracker.batch-size=100
+ *   matomo.tracker.batch-linger=1s
+ *   matomo.tracker.adaptive-batch-size-enabled=true
+ *   matomo.tracker.min-batch-size=10
+ *   matomo.tracker.max-batch-size=1000
+ *   matomo.tracker.target-batch-latency=1s
+ *   matomo.tracker.max-bulk-bytes=1048576
+ *   matomo.tracker.max-bulk-queries=500
+ *   matomo.tracker.bulk-compression-enabled=true
+ *   matomo.tracker.bulk-compression-threshold=1024
+ *   matomo.tracker.max-backlog-requests=10000
+ *   matomo.tracker.max-backlog-bytes=10000000
+ *   matomo.tracker.overflow-policy=drop_oldest
+ *   matomo.tracker.backlog-block-timeout=1s
+ *   matomo.tracker.priority-lanes-enabled=true
+ *   matomo.tracker.priority-lane-weights.high=8
+ *   matomo.tracker.max-retries=3
+ *   matomo.tracker.retry-initial-backoff=500ms
+ *   matomo.tracker.retry-max-backoff=30s
+ *   matomo.tracker.circuit-breaker-enabled=true
+ *   matomo.tracker.circuit-breaker-window-size=20
+ *   matomo.tracker.circuit-breaker-failure-rate-threshold=0.5
+ *   matomo.tracker.circuit-breaker-slow-call-duration=3s
+ *   matomo.tracker.circuit-breaker-slow-call-rate-threshold=0.8
+ *   matomo.tracker.circuit-breaker-open-duration=30s
+ *   matomo.tracker.circuit-breaker-probe-requests=1
+ *   matomo.tracker.spool-directory=/var/spool/matomo
+ *   matomo.tracker.spool-segment-size=8388608
+ *   matomo.tracker.spool-replay-interval=30s
+ *   matomo.tracker.max-spool-bytes=1073741824
+ *   matomo.tracker.shutdown-hook-enabled=true
+ *   matomo.tracker.shutdown-timeout=10s
+ *   matomo.tracker.coalescing-enabled=true
+ *   matomo.tracker.coalescing-window=5s
+ *   matomo.tracker.coalesced-request-kinds=ping,media,ecommerce_cart_update
+ *   matomo.tracker.sampling-rates.ping=0.1
+ *   matomo.tracker.event-category-sampling-rates.scroll=0.01
+ *   matomo.tracker.max-requests-per-second=100
+ *   matomo.tracker.max-requests-per-second-per-site=20
+ *   matomo.tracker.rate-limit-burst=10
+ *   matomo.tracker.rate-limit-policy=delay
+ *   matomo.tracker.rate-limit-max-delay=1s
+ *   matomo.tracker.validation-mode=sampled
+ *   matomo.tracker.validation-sample-rate=0.01
+ *   matomo.tracker.encoded-value-cache-size=10000
+ *   matomo.tracker.encoded-value-cache-parameters=action_name,url,e_c,e_a
+ *   matomo.tracker.encoded-value-cache-max-value-length=256
+ *   matomo.tracker.request-freezing-enabled=true
+ *   matomo.tracker.off-heap-queue-capacity=16777216
+ *   matomo.tracker.request-pool-size=64
  * </pre>
  *
  * @see MatomoTrackerAutoConfiguration
@@ -49,6 +114,27 @@ public class MatomoTrackerProperties {
    */
   private String apiEndpoint;
 
+  /**
+   * Further Matomo Tracking HTTP API endpoints. If set, requests are distributed across all
+   * endpoints.
+   */
+  private List<String> additionalApiEndpoints;
+
+  /**
+   * Defines how requests are distributed across several endpoints. Defaults to {@link
+   * LoadBalancingStrategy#ROUND_ROBIN}.
+   */
+  private LoadBalancingStrategy loadBalancingStrategy = LoadBalancingStrategy.ROUND_ROBIN;
+
+  /**
+   * The number of consecutive failed requests after which an endpoint is ejected until a health
+   * probe succeeds. Defaults to 3.
+   */
+  private Integer endpointEjectionThreshold = 3;
+
+  /** The interval between two health probes of an ejected endpoint. Defaults to 10s. */
+  private Duration endpointHealthCheckInterval = Duration.ofSeconds(10L);
+
   /** The default ID of the website that will be used if not specified explicitly. */
   private Integer defaultSiteId;
 
@@ -136,4 +222,222 @@ public class MatomoTrackerProperties {
    * does not exceed the thread pool of the web application. Otherwise, you might run into problems.
    */
   private Integer threadPoolSize = 2;
+
+  /**
+   * Collects asynchronously sent single requests and sends them as bulk requests. Defaults to
+   * false.
+   */
+  private Boolean batchingEnabled;
+
+  /** The maximum number of requests to send in a single batch. Defaults to 100. */
+  private Integer batchSize = 100;
+
+  /** The maximum time to wait for further requests before a batch is sent. Defaults to 1s. */
+  private Duration batchLinger = Duration.ofSeconds(1L);
+
+  /**
+   * Adjusts the batch size to the observed latency and error rate of the Matomo server. Defaults to
+   * false.
+   */
+  private Boolean adaptiveBatchSizeEnabled;
+
+  /** The minimum batch size if adaptive batch sizing is enabled. Defaults to 10. */
+  private Integer minBatchSize = 10;
+
+  /** The maximum batch size if adaptive batch sizing is enabled. Defaults to 1000. */
+  private Integer maxBatchSize = 1000;
+
+  /** The maximum time to send a batch before the batch size is decreased. Defaults to 1s. */
+  private Duration targetBatchLatency = Duration.ofSeconds(1L);
+
+  /**
+   * The maximum size in bytes of the body of a single bulk request. Larger bulk requests are split.
+   * Zero means no limit. Defaults to 0.
+   */
+  private Long maxBulkBytes;
+
+  /**
+   * The maximum number of queries of a single bulk request. Larger bulk requests are split. Zero
+   * means no limit. Defaults to 0.
+   */
+  private Integer maxBulkQueries;
+
+  /**
+   * Compresses the bodies of bulk requests with gzip. The Matomo server must accept {@code
+   * Content-Encoding: gzip}. Defaults to false.
+   */
+  private Boolean bulkCompressionEnabled;
+
+  /** The minimum size in bytes of a bulk request body to be compressed. Defaults to 1024. */
+  private Long bulkCompressionThreshold;
+
+  /**
+   * The maximum number of asynchronous requests that are queued or in flight. Zero means no limit.
+   * Defaults to 0.
+   */
+  private Integer maxBacklogRequests;
+
+  /**
+   * The maximum estimated size in bytes of all asynchronous requests that are queued or in flight.
+   * Zero means no limit. Defaults to 0.
+   */
+  private Long maxBacklogBytes;
+
+  /** Defines what happens if the backlog is full. Defaults to drop_newest. */
+  private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+  /** The maximum time to wait for space in the backlog if the policy is block. Defaults to 1s. */
+  private Duration backlogBlockTimeout = Duration.ofSeconds(1L);
+
+  /**
+   * Queues asynchronous requests in separate lanes per priority, so that ecommerce orders and goals
+   * do not wait behind pings. Defaults to false.
+   */
+  private Boolean priorityLanesEnabled;
+
+  /** The number of tasks taken from every priority lane per turn. Defaults to 8, 4 and 1. */
+  private Map<RequestPriority, Integer> priorityLaneWeights;
+
+  /**
+   * The maximum number of times a failed request is retried. Connection failures, timeouts, server
+   * errors and 429 responses are retried. Defaults to 0.
+   */
+  private Integer maxRetries;
+
+  /** The backoff before the first retry. Doubles with every retry. Defaults to 500ms. */
+  private Duration retryInitialBackoff = Duration.ofMillis(500L);
+
+  /** The maximum backoff between two retries. Defaults to 30s. */
+  private Duration retryMaxBackoff = Duration.ofSeconds(30L);
+
+  /** Fails requests immediately if the Matomo server seems to be unavailable. Defaults to false. */
+  private Boolean circuitBreakerEnabled;
+
+  /** The number of most recent calls the circuit breaker considers. Defaults to 20. */
+  private Integer circuitBreakerWindowSize = 20;
+
+  /** The rate of failed calls that opens the circuit breaker. Defaults to 0.5. */
+  private Double circuitBreakerFailureRateThreshold = 0.5;
+
+  /** Calls that take longer than this duration are slow. Defaults to 3s. */
+  private Duration circuitBreakerSlowCallDuration = Duration.ofSeconds(3L);
+
+  /** The rate of slow calls that opens the circuit breaker. Defaults to 0.8. */
+  private Double circuitBreakerSlowCallRateThreshold = 0.8;
+
+  /** The time the circuit breaker stays open before probe calls are sent. Defaults to 30s. */
+  private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30L);
+
+  /** The number of probe calls that must succeed to close the circuit breaker. Defaults to 1. */
+  private Integer circuitBreakerProbeRequests = 1;
+
+  /**
+   * A directory to spool asynchronous requests to before they are sent. Requests that could not be
+   * sent are replayed, also after a restart. Spooling is disabled if not set.
+   */
+  private Path spoolDirectory;
+
+  /** The size in bytes of a single spool file. Defaults to 8 MiB. */
+  private Integer spoolSegmentSize = 8 * 1024 * 1024;
+
+  /** The interval to replay spooled requests that could not be sent. Defaults to 30s. */
+  private Duration spoolReplayInterval = Duration.ofSeconds(30L);
+
+  /**
+   * The maximum size in bytes of all spool files. If it is exceeded, the overflow policy applies.
+   * Zero means no limit.
+   */
+  private Long maxSpoolBytes;
+
+  /**
+   * Registers a JVM shutdown hook that sends pending requests before the JVM exits. Defaults to
+   * false.
+   */
+  private Boolean shutdownHookEnabled;
+
+  /** The maximum time the shutdown hook waits for pending requests. Defaults to 10s. */
+  private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+  /**
+   * Sends only the latest of several asynchronous requests of the same visitor and kind within the
+   * coalescing window. Defaults to false.
+   */
+  private Boolean coalescingEnabled;
+
+  /** The time to hold a request for newer requests of the same kind. Defaults to 5s. */
+  private Duration coalescingWindow = Duration.ofSeconds(5L);
+
+  /**
+   * The kinds of requests to coalesce. Defaults to {@link RequestKind#PING}, {@link
+   * RequestKind#MEDIA} and {@link RequestKind#ECOMMERCE_CART_UPDATE}.
+   */
+  private Set<RequestKind> coalescedRequestKinds;
+
+  /**
+   * The fractions of requests to send per request kind, between 0 and 1. Whole visitors are kept in
+   * or out of the sample. Sampling is disabled if not set.
+   */
+  private Map<RequestKind, Double> samplingRates;
+
+  /** The fractions of events to send per event category, between 0 and 1. */
+  private Map<String, Double> eventCategorySamplingRates;
+
+  /** The maximum number of requests per second. Not limited if not set. */
+  private Double maxRequestsPerSecond;
+
+  /** The maximum number of requests per second for a single site ID. Not limited if not set. */
+  private Double maxRequestsPerSecondPerSite;
+
+  /** The number of requests that may be sent at once before the rate limit applies. */
+  private Integer rateLimitBurst = 10;
+
+  /**
+   * Defines what happens if the rate limit is exceeded. Defaults to {@link RateLimitPolicy#DELAY}.
+   */
+  private RateLimitPolicy rateLimitPolicy = RateLimitPolicy.DELAY;
+
+  /** The maximum time to delay a request if the rate limit is exceeded. Defaults to 1s. */
+  private Duration rateLimitMaxDelay = Duration.ofSeconds(1L);
+
+  /**
+   * Defines which requests are validated when they are passed to the tracker. Defaults to {@link
+   * ValidationMode#STRICT}.
+   */
+  private ValidationMode validationMode = ValidationMode.STRICT;
+
+  /** The fraction of requests to validate if the validation mode is sampled. Defaults to 0.01. */
+  private Double validationSampleRate = 0.01;
+
+  /**
+   * The maximum number of percent-encoded parameter values to cache. Zero disables the cache.
+   * Defaults to 0.
+   */
+  private Integer encodedValueCacheSize;
+
+  /**
+   * The names of the parameters whose values are cached. Defaults to action_name, url, urlref, e_c,
+   * e_a, e_n, c_n, c_p, c_t and dimension.
+   */
+  private Set<String> encodedValueCacheParameters;
+
+  /** The maximum length of a value to be cached. Defaults to 256. */
+  private Integer encodedValueCacheMaxValueLength;
+
+  /**
+   * Encodes asynchronous requests as soon as they are passed to the tracker, so that queued
+   * requests occupy less memory. Defaults to false.
+   */
+  private Boolean requestFreezingEnabled;
+
+  /**
+   * The capacity in bytes of an off-heap queue for asynchronous requests. Zero disables the queue.
+   * Defaults to 0.
+   */
+  private Integer offHeapQueueCapacity;
+
+  /**
+   * The maximum number of reusable requests to keep for obtaining requests from the tracker. Zero
+   * disables the pool. Defaults to 0.
+   */
+  private Integer requestPoolSize;
 }
@@ -8,6 +8,8 @@
 package org.matomo.java.tracking.spring;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import org.jspecify.annotations.NonNull;
 import org.matomo.java.tracking.TrackerConfiguration;
 import org.springframework.boot.context.properties.PropertyMapper;
@@ -31,6 +33,12 @@ class StandardTrackerConfigurationBuilderCustomizer
   public void customize(TrackerConfiguration.@NonNull TrackerConfigurationBuilder builder) {
     PropertyMapper map = PropertyMapper.get();
     map.from(properties::getApiEndpoint).as(URI::create).to(builder::apiEndpoint);
+    map.from(properties::getAdditionalApiEndpoints)
+        .as(StandardTrackerConfigurationBuilderCustomizer::toUris)
+        .to(builder::additionalApiEndpoints);
+    map.from(properties::getLoadBalancingStrategy).to(builder::loadBalancingStrategy);
+    map.from(properties::getEndpointEjectionThreshold).to(builder::endpointEjectionThreshold);
+    map.from(properties::getEndpointHealthCheckInterval).to(builder::endpointHealthCheckInterval);
     map.from(properties::getDefaultSiteId).to(builder::defaultSiteId);
     map.from(properties::getDefaultAuthToken).to(builder::defaultAuthToken);
     map.from(properties::getEnabled).to(builder::enabled);
@@ -45,5 +53,69 @@ class StandardTrackerConfigurationBuilderCustomizer
     map.from(properties::getDisableSslCertValidation).to(builder::disableSslCertValidation);
     map.from(properties::getDisableSslHostVerification).to(builder::disableSslHostVerification);
     map.from(properties::getThreadPoolSize).to(builder::threadPoolSize);
+    map.from(properties::getBatchingEnabled).to(builder::batchingEnabled);
+    map.from(properties::getBatchSize).to(builder::batchSize);
+    map.from(properties::getBatchLinger).to(builder::batchLinger);
+    map.from(properties::getAdaptiveBatchSizeEnabled).to(builder::adaptiveBatchSizeEnabled);
+    map.from(properties::getMinBatchSize).to(builder::minBatchSize);
+    map.from(properties::getMaxBatchSize).to(builder::maxBatchSize);
+    map.from(properties::getTargetBatchLatency).to(builder::targetBatchLatency);
+    map.from(properties::getMaxBulkBytes).to(builder::maxBulkBytes);
+    map.from(properties::getMaxBulkQueries).to(builder::maxBulkQueries);
+    map.from(properties::getBulkCompressionEnabled).to(builder::bulkCompressionEnabled);
+    map.from(properties::getBulkCompressionThreshold).to(builder::bulkCompressionThreshold);
+    map.from(properties::getMaxBacklogRequests).to(builder::maxBacklogRequests);
+    map.from(properties::getMaxBacklogBytes).to(builder::maxBacklogBytes);
+    map.from(properties::getOverflowPolicy).to(builder::overflowPolicy);
+    map.from(properties::getBacklogBlockTimeout).to(builder::backlogBlockTimeout);
+    map.from(properties::getPriorityLanesEnabled).to(builder::priorityLanesEnabled);
+    map.from(properties::getPriorityLaneWeights).to(builder::priorityLaneWeights);
+    map.from(properties::getMaxRetries).to(builder::maxRetries);
+    map.from(properties::getRetryInitialBackoff).to(builder::retryInitialBackoff);
+    map.from(properties::getRetryMaxBackoff).to(builder::retryMaxBackoff);
+    map.from(properties::getCircuitBreakerEnabled).to(builder::circuitBreakerEnabled);
+    map.from(properties::getCircuitBreakerWindowSize).to(builder::circuitBreakerWindowSize);
+    map.from(properties::getCircuitBreakerFailureRateThreshold)
+        .to(builder::circuitBreakerFailureRateThreshold);
+    map.from(properties::getCircuitBreakerSlowCallDuration)
+        .to(builder::circuitBreakerSlowCallDuration);
+    map.from(properties::getCircuitBreakerSlowCallRateThreshold)
+        .to(builder::circuitBreakerSlowCallRateThreshold);
+    map.from(properties::getCircuitBreakerOpenDuration).to(builder::circuitBreakerOpenDuration);
+    map.from(properties::getCircuitBreakerProbeRequests).to(builder::circuitBreakerProbeRequests);
+    map.from(properties::getSpoolDirectory).to(builder::spoolDirectory);
+    map.from(properties::getSpoolSegmentSize).to(builder::spoolSegmentSize);
+    map.from(properties::getSpoolReplayInterval).to(builder::spoolReplayInterval);
+    map.from(properties::getMaxSpoolBytes).to(builder::maxSpoolBytes);
+    map.from(properties::getShutdownHookEnabled).to(builder::shutdownHookEnabled);
+    map.from(properties::getShutdownTimeout).to(builder::shutdownTimeout);
+    map.from(properties::getCoalescingEnabled).to(builder::coalescingEnabled);
+    map.from(properties::getCoalescingWindow).to(builder::coalescingWindow);
+    map.from(properties::getCoalescedRequestKinds).to(builder::coalescedRequestKinds);
+    map.from(properties::getSamplingRates).to(builder::samplingRates);
+    map.from(properties::getEventCategorySamplingRates).to(builder::eventCategorySamplingRates);
+    map.from(properties::getMaxRequestsPerSecond).to(builder::maxRequestsPerSecond);
+    map.from(properties::getMaxRequestsPerSecondPerSite).to(builder::maxRequestsPerSecondPerSite);
+    map.from(properties::getRateLimitBurst).to(builder::rateLimitBurst);
+    map.from(properties::getRateLimitPolicy).to(builder::rateLimitPolicy);
+    map.from(properties::getRateLimitMaxDelay).to(builder::rateLimitMaxDelay);
+    map.from(properties::getValidationMode).to(builder::validationMode);
+    map.from(properties::getValidationSampleRate).to(builder::validationSampleRate);
+    map.from(properties::getEncodedValueCacheSize).to(builder::encodedValueCacheSize);
+    map.from(properties::getEncodedValueCacheParameters).to(builder::encodedValueCacheParameters);
+    map.from(properties::getEncodedValueCacheMaxValueLength)
+        .to(builder::encodedValueCacheMaxValueLength);
+    map.from(properties::getRequestFreezingEnabled).to(builder::requestFreezingEnabled);
+    map.from(properties::getOffHeapQueueCapacity).to(builder::offHeapQueueCapacity);
+    map.from(properties::getRequestPoolSize).to(builder::requestPoolSize);
+  }
+
+  @NonNull
+  private static List<URI> toUris(@NonNull List<String> uris) {
+    List<URI> result = new ArrayList<>(uris.size());
+    for (String uri : uris) {
+      result.add(URI.create(uri));
+    }
+    return result;
   }
 }
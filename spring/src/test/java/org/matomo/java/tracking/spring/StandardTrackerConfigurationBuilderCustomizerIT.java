@@ -1,7 +1,9 @@
 package org.matomo.java.tracking.spring;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.net.URI;
 import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.matomo.java.tracking.TrackerConfiguration;
@@ -12,6 +14,7 @@ class StandardTrackerConfigurationBuilderCustomizerIT {
   void createsStandardTrackerConfigurationBuilderCustomizer() {
     MatomoTrackerProperties properties = new MatomoTrackerProperties();
     properties.setApiEndpoint("https://test.com/matomo.php");
+    properties.setAdditionalApiEndpoints(singletonList("https://node2.test.com/matomo.php"));
     properties.setDefaultSiteId(1);
     properties.setDefaultAuthToken("abc123def4563123abc123def4563123");
     properties.setEnabled(true);
@@ -35,6 +38,8 @@ class StandardTrackerConfigurationBuilderCustomizerIT {
     assertThat(customizer.getOrder()).isZero();
     TrackerConfiguration configuration = builder.build();
     assertThat(configuration.getApiEndpoint()).hasToString("https://test.com/matomo.php");
+    assertThat(configuration.getAdditionalApiEndpoints())
+        .containsExactly(URI.create("https://node2.test.com/matomo.php"));
     assertThat(configuration.getDefaultSiteId()).isEqualTo(1);
     assertThat(configuration.getDefaultAuthToken()).isEqualTo("abc123def4563123abc123def4563123");
     assertThat(configuration.isEnabled()).isTrue();